@@ -0,0 +1,32 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A named counter row.
+ * <p>
+ * {@value #CHANGE_VERSION} hands out change versions, one per writing transaction, each taken in a
+ * short transaction of its own and tracked as a {@link PendingChangeVersion} until the writer
+ * commits. {@value #TOMBSTONES_PURGED_THROUGH} is the highest change version whose tombstones have
+ * been purged.
+ */
+@Entity
+@Table(name = "change_counter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeCounter {
+
+    public static final String CHANGE_VERSION = "change_version";
+    public static final String TOMBSTONES_PURGED_THROUGH = "tombstones_purged_through";
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+}
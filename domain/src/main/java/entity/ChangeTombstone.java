@@ -0,0 +1,43 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Record of a deleted supplier or stock row, so mirrors following the change feed drop it too.
+ * Every row deleted in one transaction shares that transaction's change version.
+ */
+@Entity
+@Table(name = "change_tombstone", indexes = {
+        @Index(name = "idx_change_tombstone_version", columnList = "change_version"),
+        @Index(name = "idx_change_tombstone_deleted_at", columnList = "deleted_at")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "change_tombstone_id")
+    @TableGenerator(name = "change_tombstone_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "change_tombstone",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private SyncedEntity entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,37 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A canonical filament color. Stock rows refer to it by its small integer id, so matching,
+ * indexes and in-memory keys compare integers instead of free text. Spellings that differ only
+ * in case, spacing or accents, and known aliases such as "Grey", share one row; see
+ * FilamentColorRegistry.
+ */
+@Entity
+@Table(name = "filament_color", uniqueConstraints =
+        @UniqueConstraint(name = "uk_filament_color_normalized_name", columnNames = "normalized_name"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FilamentColor {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "filament_color_id")
+    @TableGenerator(name = "filament_color_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "filament_color",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Integer id;
+
+    // Display spelling, as first written or as the alias's canonical name
+    @Column(nullable = false)
+    private String name;
+
+    // Lookup key: trimmed, single-spaced, accents stripped, lower case
+    @Column(name = "normalized_name", nullable = false)
+    private String normalizedName;
+}
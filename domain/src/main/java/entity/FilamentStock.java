@@ -1,50 +1,93 @@
 package entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.util.Date;
 
 @Entity
+@Table(name = "filament_stock", indexes = {
+        // Matching query: equality on the first three columns, range on available_grams, and the
+        // remaining selected columns, so MySQL answers the filament_stock side from the index alone
+        @Index(name = "idx_filament_stock_match", columnList =
+                "material_type, color_id, available, available_grams, supplier_id, quantity_grams, reserved_grams"),
+        // Listing by color
+        @Index(name = "idx_filament_stock_color", columnList = "color_id"),
+        // Sufficient-quantity and low-stock listings
+        @Index(name = "idx_filament_stock_available", columnList = "available, available_grams"),
+        // Expiry alerts read stock expiring in a time window
+        @Index(name = "idx_filament_stock_expiry", columnList = "expiry_date"),
+        // Change feed reads rows changed after a version
+        @Index(name = "idx_filament_stock_change_version", columnList = "change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class FilamentStock {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "filament_stock_id")
+    @TableGenerator(name = "filament_stock_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "filament_stock",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_id")
     private Supplier supplier;
 
     // Detailed material specifications
     @Enumerated(EnumType.STRING)
+    @Column(name = "material_type")
     private FilamentType materialType; // PLA, ABS, PETG, TPU, etc.
 
+    // Canonical display name of the color; matching goes by colorId
     private String color;
 
-    // Quantity and availability
-    private Double quantityKg; // Available quantity in kilograms
-    @Builder.Default
-    private Double reservedKg = 0.0; // Currently reserved/allocated quantity
+    // FilamentColor id, set from color by FilamentColorRegistry on every write
+    @Column(name = "color_id")
+    private Integer colorId;
+
+    // Quantity and availability, in whole grams (see Grams)
+    @Column(name = "quantity_grams", nullable = false)
+    private long quantityGrams; // Quantity on hand
+    @Column(name = "reserved_grams", nullable = false)
+    private long reservedGrams; // Currently reserved/allocated quantity
+    // quantityGrams - reservedGrams, stored so quantity filters can use an index. Kept in step by
+    // syncAvailableGrams() and by every bulk UPDATE in FilamentStockRepository.
+    @Column(name = "available_grams", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private long availableGrams;
 
     @Builder.Default
     private boolean available = true;
 
     // Inventory tracking
     private Date lastRestocked;
+    @Column(name = "expiry_date")
     private Date expiryDate;
 
-    public Double getAvailableQuantityKg() {
-        return quantityKg - (reservedKg != null ? reservedKg : 0.0);
+    // Version of the last committed change, for the change feed. Written only by
+    // ChangeLogService as the change commits, never from a possibly stale entity.
+    @Column(name = "change_version", nullable = false, updatable = false)
+    private long changeVersion;
+
+    public long getAvailableGrams() {
+        return quantityGrams - reservedGrams;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncAvailableGrams() {
+        availableGrams = quantityGrams - reservedGrams;
     }
 
-    public boolean hasEnoughStock(Double requiredKg) {
-        return getAvailableQuantityKg() >= requiredKg;
+    public boolean hasEnoughStock(long requiredGrams) {
+        return getAvailableGrams() >= requiredGrams;
     }
 }
\ No newline at end of file
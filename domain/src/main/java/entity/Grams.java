@@ -0,0 +1,24 @@
+package entity;
+
+/**
+ * Filament quantities are stored and compared as whole grams, so repeated reserve and release
+ * cycles cannot drift; the API keeps speaking kilograms and converts at its edges.
+ */
+public final class Grams {
+
+    public static final long PER_KG = 1000;
+
+    private Grams() {
+    }
+
+    /**
+     * Kilograms to grams, rounded to the nearest gram.
+     */
+    public static long fromKg(double kg) {
+        return Math.round(kg * PER_KG);
+    }
+
+    public static double toKg(long grams) {
+        return grams / (double) PER_KG;
+    }
+}
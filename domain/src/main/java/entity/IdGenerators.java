@@ -0,0 +1,21 @@
+package entity;
+
+/**
+ * Shared settings for the table-backed id generators used by every entity.
+ * <p>
+ * {@code IDENTITY} columns force Hibernate to run each INSERT on its own to read the generated
+ * key, which rules out JDBC batching. Ids come instead from one row per entity in
+ * {@value #TABLE}; Hibernate's pooled optimizer reserves {@value #ALLOCATION_SIZE} ids per round
+ * trip, so inserts can be batched. A table rather than a sequence keeps this working on MySQL,
+ * which has no sequences, as well as on H2.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String PK_COLUMN = "entity_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
@@ -2,9 +2,13 @@ package entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(
         name = "integration_account",
         uniqueConstraints = @UniqueConstraint(
@@ -16,7 +20,10 @@ import java.time.Instant;
 public class IntegrationAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "integration_account_id")
+    @TableGenerator(name = "integration_account_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "integration_account",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     // FK to your clean Shop
@@ -0,0 +1,29 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A change version handed to a writing transaction that has not committed yet. The change feed
+ * reads no further than just below the oldest one, so a version it has gone past cannot still
+ * turn up. The writer deletes its row in the same commit that stamps the version; one left behind
+ * by a writer that died stops holding the feed back after {@code changes.pending.timeout.ms}.
+ */
+@Entity
+@Table(name = "pending_change_version", indexes =
+        @Index(name = "idx_pending_change_version_allocated_at", columnList = "allocated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingChangeVersion {
+    @Id
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Column(name = "allocated_at", nullable = false)
+    private Instant allocatedAt;
+}
@@ -2,15 +2,23 @@ package entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "product_sync",
         uniqueConstraints = @UniqueConstraint(name = "uk_product_account",
                 columnNames = {"product_id","integration_account_id"}))
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class ProductSync {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_sync_id")
+    @TableGenerator(name = "product_sync_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "product_sync",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "product_id", nullable = false)
@@ -0,0 +1,8 @@
+package entity;
+
+public enum ReservationStatus {
+    HELD,       // counts towards FilamentStock.reservedGrams until it expires
+    CONFIRMED,  // order placed; quantity taken out of stock
+    RELEASED,   // given back by its owner
+    EXPIRED     // given back by the sweeper after expiresAt
+}
@@ -0,0 +1,59 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One hold on filament stock, owned by a checkout or order.
+ * <p>
+ * {@link FilamentStock#getReservedGrams()} is the sum of the {@link ReservationStatus#HELD} rows for
+ * that stock. It is adjusted in the same transaction as every status change here, so matching
+ * can keep reading a single column.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_reservation_status_expiry", columnList = "status, expires_at"),
+        @Index(name = "idx_reservation_owner", columnList = "owner_key, status"),
+        @Index(name = "uk_reservation_intent", columnList = "intent_id", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "stock_reservation_id")
+    @TableGenerator(name = "stock_reservation_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "stock_reservation",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId; // FilamentStock.id
+
+    @Column(name = "owner_key", nullable = false, length = 128)
+    private String ownerKey; // checkout or order reference
+
+    @Column(name = "quantity_grams", nullable = false)
+    private long quantityGrams;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private Instant closedAt; // when the hold stopped being HELD
+
+    @Column(name = "intent_id", length = 36)
+    private String intentId; // journal record of a hot-stock hold, so replaying the journal stays idempotent
+}
@@ -5,17 +5,30 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        // Active, verified suppliers with coordinates: the candidate set of every matching query
+        @Index(name = "idx_supplier_active_verified", columnList = "active, verified, latitude, longitude"),
+        // Change feed reads rows changed after a version
+        @Index(name = "idx_supplier_change_version", columnList = "change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Supplier {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "supplier_id")
+    @TableGenerator(name = "supplier_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "supplier",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     private Long userId; // Reference to User in auth-service
@@ -40,6 +53,11 @@ public class Supplier {
     private boolean verified;
     private boolean active;
 
+    // Version of the last committed change, for the change feed. Written only by
+    // ChangeLogService as the change commits, never from a possibly stale entity.
+    @Column(name = "change_version", nullable = false, updatable = false)
+    private long changeVersion;
+
     @OneToMany(mappedBy = "supplier", cascade = CascadeType.ALL)
     @Builder.Default
     private List<FilamentStock> stock = new java.util.ArrayList<>();
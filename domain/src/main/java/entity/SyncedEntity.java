@@ -0,0 +1,9 @@
+package entity;
+
+/**
+ * Tables that downstream mirrors follow through the change feed.
+ */
+public enum SyncedEntity {
+    SUPPLIER,
+    FILAMENT_STOCK
+}
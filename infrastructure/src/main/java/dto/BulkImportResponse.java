@@ -0,0 +1,33 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows listed in {@code errors} were skipped; every other row was saved.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResponse {
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private long durationMs;
+    private boolean errorsTruncated; // true when more rows failed than are listed in errors
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedResponse {
+    private long nextSince;     // pass as since on the next call
+    private boolean hasMore;    // more changes are waiting past nextSince
+    private List<SupplierResponse> suppliers;
+    private List<FilamentStockResponse> filamentStock;
+    private List<DeletedEntityResponse> deleted;
+}
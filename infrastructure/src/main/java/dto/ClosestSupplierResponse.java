@@ -1,10 +1,13 @@
 package dto;
 
+import entity.FilamentType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,6 +18,9 @@ public class ClosestSupplierResponse {
     private FilamentStockResponse availableStock;
     private Double distanceKm;
     private String message;
+    // Set instead of supplier when the color was unavailable and the order accepts substitutes,
+    // closest shade first
+    private List<ColorSubstituteResponse> colorSubstitutes;
     
     public static ClosestSupplierResponse success(SupplierResponse supplier, FilamentStockResponse stock, Double distance) {
         return ClosestSupplierResponse.builder()
@@ -25,6 +31,24 @@ public class ClosestSupplierResponse {
                 .build();
     }
     
+    public static ClosestSupplierResponse materialSubstitute(SupplierResponse supplier, FilamentStockResponse stock,
+                                                             Double distance, FilamentType requestedMaterial) {
+        return ClosestSupplierResponse.builder()
+                .supplier(supplier)
+                .availableStock(stock)
+                .distanceKm(distance)
+                .message("No supplier has enough " + requestedMaterial + "; closest supplier found with compatible "
+                        + stock.getMaterialType())
+                .build();
+    }
+    
+    public static ClosestSupplierResponse colorSubstitutes(String color, List<ColorSubstituteResponse> substitutes) {
+        return ClosestSupplierResponse.builder()
+                .colorSubstitutes(substitutes)
+                .message("No supplier has enough " + color + "; closest available shades found")
+                .build();
+    }
+    
     public static ClosestSupplierResponse noSupplierFound(String reason) {
         return ClosestSupplierResponse.builder()
                 .message("No suitable supplier found: " + reason)
@@ -0,0 +1,18 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ColorSubstituteResponse {
+    private String color;
+    private Double colorDifference;   // CIE76 delta E from the requested color; about 2.3 is just noticeable
+    private SupplierResponse supplier; // closest supplier with enough stock of this color
+    private FilamentStockResponse availableStock;
+    private Double distanceKm;
+}
@@ -0,0 +1,20 @@
+package dto;
+
+import entity.SyncedEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeletedEntityResponse {
+    private SyncedEntity entityType;
+    private Long id;
+    private Long changeVersion;
+    private Instant deletedAt;
+}
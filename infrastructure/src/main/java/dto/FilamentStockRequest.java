@@ -29,9 +29,6 @@ public class FilamentStockRequest {
     @PositiveOrZero(message = "Quantity must be zero or positive")
     private Double quantityKg;
     
-    @PositiveOrZero(message = "Reserved quantity must be zero or positive")
-    private Double reservedKg;
-    
     @Builder.Default
     private boolean available = true;
     
@@ -24,4 +24,5 @@ public class FilamentStockResponse {
     private Date lastRestocked;
     private Date expiryDate;
     private Double availableQuantityKg;
+    private Long changeVersion;
 }
\ No newline at end of file
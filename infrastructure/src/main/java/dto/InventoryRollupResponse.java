@@ -0,0 +1,23 @@
+package dto;
+
+import entity.FilamentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryRollupResponse {
+    private FilamentType materialType;
+    private String color;
+    private String country;            // supplier location
+    private String state;
+    private long stockCount;
+    private int supplierCount;
+    private Double totalQuantityKg;
+    private Double reservedQuantityKg;
+    private Double availableQuantityKg; // unreserved stock on items marked available
+}
@@ -35,4 +35,14 @@ public class OrderRequest {
     @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
     @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
     private Double buyerLongitude;
+    
+    // When no supplier has the material, accept one that prints at compatible temperatures
+    private boolean allowMaterialSubstitutes;
+    
+    // When no supplier has the color, answer with the closest stocked shades instead of failing
+    private boolean allowColorSubstitutes;
+    
+    // Largest CIE76 delta E a substitute may differ by; defaults to orders.color.substitutes.max.difference
+    @Positive(message = "Maximum color difference must be positive")
+    private Double maxColorDifference;
 }
\ No newline at end of file
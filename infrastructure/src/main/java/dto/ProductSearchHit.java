@@ -0,0 +1,20 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ProductSearchHit {
+    private Long id;
+    private String name;
+    private String description;
+    private Double price;
+    private Long sellerId;
+    private Long shopId;
+    private double score;
+}
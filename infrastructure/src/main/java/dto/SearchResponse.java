@@ -0,0 +1,21 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponse<T> {
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<T> results;
+}
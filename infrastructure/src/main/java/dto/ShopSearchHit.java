@@ -0,0 +1,19 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ShopSearchHit {
+    private Long id;
+    private Long sellerId;
+    private String name;
+    private String description;
+    private String address;
+    private double score;
+}
@@ -0,0 +1,31 @@
+package dto;
+
+import entity.FilamentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAlertResponse {
+
+    public enum Type {
+        LOW_STOCK,  // available stock below product.stock.warning.threshold
+        EXPIRED     // expiryDate has passed
+    }
+
+    private Type type;
+    private Long stockId;
+    private Long supplierId;
+    private FilamentType materialType;
+    private String color;
+    private Double availableQuantityKg;
+    private Date expiryDate;
+    private Instant raisedAt;
+}
@@ -0,0 +1,20 @@
+package dto;
+
+import entity.FilamentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAvailabilityResponse {
+    private Long stockId;
+    private Long supplierId;
+    private FilamentType materialType;
+    private String color;
+    private Boolean available;          // false once deleted, and to subscribers of a material or color the item left
+    private Double availableQuantityKg; // unreserved stock, 0 once deleted
+}
@@ -0,0 +1,43 @@
+package dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Reserves several stock lines for one owner, all or nothing. Lines naming the same stock
+ * item are added together.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+
+    @NotEmpty(message = "At least one reservation line is required")
+    private List<@Valid Line> lines;
+
+    private String ownerKey;
+
+    @Positive(message = "TTL must be positive")
+    private Long ttlSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        @NotNull(message = "Stock id is required")
+        private Long stockId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Double quantityKg;
+    }
+}
@@ -0,0 +1,24 @@
+package dto;
+
+import entity.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationResponse {
+    private Long id;
+    private Long stockId;
+    private String ownerKey;
+    private Double quantityKg;
+    private ReservationStatus status;
+    private Instant createdAt;
+    private Instant expiresAt;
+    private Instant closedAt;
+}
@@ -0,0 +1,23 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects the suppliers a bulk status change applies to: either explicit ids, or every supplier
+ * matching all of the given location filters. At least one selector is required.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SupplierBulkStatusRequest {
+    private List<Long> ids;
+    private String country;
+    private String state;
+    private String city;
+}
@@ -27,4 +27,5 @@ public class SupplierResponse {
     private boolean verified;
     private boolean active;
     private Integer stockCount;
+    private Long changeVersion;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SupplierSearchHit {
+    private Long id;
+    private String name;
+    private String city;
+    private String country;
+    private boolean verified;
+    private boolean active;
+    private double score;
+}
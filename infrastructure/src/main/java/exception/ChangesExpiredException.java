@@ -0,0 +1,28 @@
+package exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Custom exception for change feed reads from a version whose deletes are no longer kept.
+ */
+@Slf4j
+public class ChangesExpiredException extends BaseException {
+    private ChangesExpiredException(String message) {
+        super(message, HttpStatus.GONE);
+    }
+
+    /**
+     * Creates a ChangesExpiredException for a mirror that last synced at {@code since}.
+     */
+    public static ChangesExpiredException since(long since, long purgedThrough) {
+        String message = String.format("Deletes up to version %d have been purged, so changes since %d are incomplete. "
+                + "Reload in full from version 0", purgedThrough, since);
+        return new ChangesExpiredException(message);
+    }
+
+    @Override
+    protected void logException() {
+        log.info("Change feed read too old: {}", getMessage());
+    }
+}
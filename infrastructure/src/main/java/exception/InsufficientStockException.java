@@ -0,0 +1,47 @@
+package exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Custom exception for reservations that ask for more filament than is left unreserved, and for
+ * stock edits that would leave less on hand than is reserved.
+ */
+@Slf4j
+public class InsufficientStockException extends BaseException {
+    private InsufficientStockException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Creates an InsufficientStockException for a single stock item.
+     */
+    public static InsufficientStockException forStock(Long stockId, Double requiredKg, Double availableKg) {
+        String message = String.format("Insufficient stock available for stock %d. Required: %s, Available: %s",
+                stockId, requiredKg, availableKg);
+        return new InsufficientStockException(message);
+    }
+
+    /**
+     * Creates an InsufficientStockException listing every short line of a multi-line reservation.
+     */
+    public static InsufficientStockException forLines(List<String> shortLines) {
+        String message = "Insufficient stock available: " + String.join("; ", shortLines);
+        return new InsufficientStockException(message);
+    }
+
+    /**
+     * Creates an InsufficientStockException for a stock edit that would drop below the reserved quantity.
+     */
+    public static InsufficientStockException belowReserved(Long stockId, Double quantityKg, Double reservedKg) {
+        String message = String.format("Stock %d cannot be set to %s kg: %s kg is reserved", stockId, quantityKg, reservedKg);
+        return new InsufficientStockException(message);
+    }
+
+    @Override
+    protected void logException() {
+        log.warn("Insufficient stock: {}", getMessage());
+    }
+}
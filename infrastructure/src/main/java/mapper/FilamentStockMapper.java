@@ -3,28 +3,32 @@ package mapper;
 import dto.FilamentStockRequest;
 import dto.FilamentStockResponse;
 import entity.FilamentStock;
+import entity.Grams;
 import entity.Supplier;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import repository.projection.ClosetSupplierProjection;
+import repository.projection.FilamentStockListProjection;
 
 @Component
 public class FilamentStockMapper {
 
-    private final ModelMapper modelMapper;
-
-    @Autowired
-    public FilamentStockMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     public FilamentStockResponse toResponse(FilamentStock filamentStock) {
         if (filamentStock == null) {
             return null;
         }
 
-        FilamentStockResponse response = modelMapper.map(filamentStock, FilamentStockResponse.class);
+        FilamentStockResponse response = FilamentStockResponse.builder()
+                .id(filamentStock.getId())
+                .materialType(filamentStock.getMaterialType())
+                .color(filamentStock.getColor())
+                .quantityKg(Grams.toKg(filamentStock.getQuantityGrams()))
+                .reservedKg(Grams.toKg(filamentStock.getReservedGrams()))
+                .available(filamentStock.isAvailable())
+                .lastRestocked(filamentStock.getLastRestocked())
+                .expiryDate(filamentStock.getExpiryDate())
+                .availableQuantityKg(Grams.toKg(filamentStock.getAvailableGrams()))
+                .changeVersion(filamentStock.getChangeVersion())
+                .build();
         // Custom logic for supplier-related fields
         if (filamentStock.getSupplier() != null) {
             response.setSupplierId(filamentStock.getSupplier().getId());
@@ -34,6 +38,42 @@ public class FilamentStockMapper {
         return response;
     }
 
+    public FilamentStockResponse toListResponse(FilamentStockListProjection projection) {
+        if (projection == null) {
+            return null;
+        }
+
+        long quantityGrams = projection.getQuantityGrams();
+        long reservedGrams = projection.getReservedGrams();
+        return FilamentStockResponse.builder()
+                .id(projection.getId())
+                .supplierId(projection.getSupplierId())
+                .supplierName(projection.getSupplierName())
+                .materialType(projection.getMaterialType())
+                .color(projection.getColor())
+                .quantityKg(Grams.toKg(quantityGrams))
+                .reservedKg(Grams.toKg(reservedGrams))
+                .available(Boolean.TRUE.equals(projection.getAvailable()))
+                .lastRestocked(projection.getLastRestocked())
+                .expiryDate(projection.getExpiryDate())
+                .availableQuantityKg(Grams.toKg(quantityGrams - reservedGrams))
+                .changeVersion(projection.getChangeVersion())
+                .build();
+    }
+
+    /**
+     * A list item for the change feed. Holds and releases do not give a row a new change version,
+     * so the reservation figures would go stale in a mirror and are left out.
+     */
+    public FilamentStockResponse toChangeResponse(FilamentStockListProjection projection) {
+        FilamentStockResponse response = toListResponse(projection);
+        if (response != null) {
+            response.setReservedKg(null);
+            response.setAvailableQuantityKg(null);
+        }
+        return response;
+    }
+
     public FilamentStock toEntity(FilamentStockRequest request) {
         if (request == null) {
             return null;
@@ -42,8 +82,9 @@ public class FilamentStockMapper {
         FilamentStock filamentStock = FilamentStock.builder()
                 .materialType(request.getMaterialType())
                 .color(request.getColor())
-                .quantityKg(request.getQuantityKg())
-                .reservedKg(request.getReservedKg())
+                .quantityGrams(Grams.fromKg(request.getQuantityKg()))
+                // Holds are added by the reservation ledger, never taken from a request
+                .reservedGrams(0)
                 .available(request.isAvailable())
                 .lastRestocked(request.getLastRestocked())
                 .expiryDate(request.getExpiryDate())
@@ -58,7 +99,13 @@ public class FilamentStockMapper {
             return;
         }
 
-        modelMapper.map(request, filamentStock);
+        filamentStock.setMaterialType(request.getMaterialType());
+        filamentStock.setColor(request.getColor());
+        filamentStock.setQuantityGrams(Grams.fromKg(request.getQuantityKg()));
+        // reservedGrams is left alone: it is the sum of the row's held reservations
+        filamentStock.setAvailable(request.isAvailable());
+        filamentStock.setLastRestocked(request.getLastRestocked());
+        filamentStock.setExpiryDate(request.getExpiryDate());
         // Supplier will be set by the service layer
     }
 
@@ -76,9 +123,10 @@ public class FilamentStockMapper {
                 .supplier(supplier)
                 .materialType(projection.getMaterialType())
                 .color(projection.getColor())
-                .quantityKg(projection.getQuantityKg())
-                .reservedKg(projection.getReservedKg())
+                .colorId(projection.getColorId())
+                .quantityGrams(projection.getQuantityGrams())
+                .reservedGrams(projection.getReservedGrams())
                 .available(projection.getAvailable())
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -3,30 +3,29 @@ package mapper;
 import dto.ProductRequest;
 import dto.ProductResponse;
 import entity.Product;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ProductMapper {
 
-    private final ModelMapper modelMapper;
-    
     @Value("${server.port:8081}")
     private String serverPort;
 
-    @Autowired
-    public ProductMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     public ProductResponse toResponse(Product product) {
         if (product == null) {
             return null;
         }
 
-        ProductResponse response = modelMapper.map(product, ProductResponse.class);
+        ProductResponse response = new ProductResponse();
+        response.setId(product.getId());
+        response.setName(product.getName());
+        response.setDescription(product.getDescription());
+        response.setPrice(product.getPrice());
+        response.setCreatedAt(product.getCreatedAt());
+        response.setUpdatedAt(product.getUpdatedAt());
+        response.setSellerId(product.getSellerId());
+        response.setShopId(product.getShopId());
         
         // Map file metadata and generate URLs
         mapFileData(product, response);
@@ -79,7 +78,9 @@ public class ProductMapper {
             return null;
         }
 
-        return modelMapper.map(request, Product.class);
+        Product product = new Product();
+        updateEntityFromRequest(product, request);
+        return product;
     }
 
     public void updateEntityFromRequest(Product product, ProductRequest request) {
@@ -87,6 +88,12 @@ public class ProductMapper {
             return;
         }
 
-        modelMapper.map(request, product);
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        if (request.getPrice() != null) {
+            product.setPrice(request.getPrice());
+        }
+        product.setSellerId(request.getSellerId());
+        product.setShopId(request.getShopId());
     }
 }
\ No newline at end of file
@@ -3,38 +3,53 @@ package mapper;
 import dto.ShopRequest;
 import dto.ShopResponse;
 import entity.Shop;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import repository.projection.ShopSummaryProjection;
 
 @Component
 public class ShopMapper {
 
-    private final ModelMapper modelMapper;
-
-    @Autowired
-    public ShopMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     public ShopResponse toResponse(Shop shop) {
         if (shop == null) {
             return null;
         }
 
-        ShopResponse response = modelMapper.map(shop, ShopResponse.class);
-        // Custom logic for product count since it's not a direct field mapping
-        response.setProductCount(shop.getProducts() != null ? (long) shop.getProducts().size() : 0L);
-        
+        // Product count is filled in by ShopService from an aggregate query; reading
+        // shop.getProducts() here would load the lazy collection for every shop
+        ShopResponse response = new ShopResponse();
+        response.setId(shop.getId());
+        response.setSellerId(shop.getSellerId());
+        response.setName(shop.getName());
+        response.setDescription(shop.getDescription());
+        response.setAddress(shop.getAddress());
+        response.setContactInfo(shop.getContactInfo());
         return response;
     }
 
+    public ShopResponse toSummaryResponse(ShopSummaryProjection summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        return new ShopResponse(
+                summary.getId(),
+                summary.getSellerId(),
+                summary.getName(),
+                summary.getDescription(),
+                summary.getAddress(),
+                summary.getContactInfo(),
+                summary.getProductCount() != null ? summary.getProductCount() : 0L
+        );
+    }
+
     public Shop toEntity(ShopRequest request) {
         if (request == null) {
             return null;
         }
 
-        return modelMapper.map(request, Shop.class);
+        Shop shop = new Shop();
+        updateEntityFromRequest(shop, request);
+        return shop;
     }
 
     public void updateEntityFromRequest(Shop shop, ShopRequest request) {
@@ -42,6 +57,10 @@ public class ShopMapper {
             return;
         }
 
-        modelMapper.map(request, shop);
+        shop.setSellerId(request.getSellerId());
+        shop.setName(request.getName());
+        shop.setDescription(request.getDescription());
+        shop.setAddress(request.getAddress());
+        shop.setContactInfo(request.getContactInfo());
     }
-}
\ No newline at end of file
+}
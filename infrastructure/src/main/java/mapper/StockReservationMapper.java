@@ -0,0 +1,27 @@
+package mapper;
+
+import dto.StockReservationResponse;
+import entity.Grams;
+import entity.StockReservation;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StockReservationMapper {
+
+    public StockReservationResponse toResponse(StockReservation reservation) {
+        if (reservation == null) {
+            return null;
+        }
+
+        return StockReservationResponse.builder()
+                .id(reservation.getId())
+                .stockId(reservation.getStockId())
+                .ownerKey(reservation.getOwnerKey())
+                .quantityKg(Grams.toKg(reservation.getQuantityGrams()))
+                .status(reservation.getStatus())
+                .createdAt(reservation.getCreatedAt())
+                .expiresAt(reservation.getExpiresAt())
+                .closedAt(reservation.getClosedAt())
+                .build();
+    }
+}
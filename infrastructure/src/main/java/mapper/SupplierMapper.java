@@ -3,8 +3,7 @@ package mapper;
 import dto.SupplierRequest;
 import dto.SupplierResponse;
 import entity.Supplier;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 import repository.projection.ClosetSupplierProjection;
 import repository.projection.SupplierWithDistanceProjection;
@@ -12,21 +11,35 @@ import repository.projection.SupplierWithDistanceProjection;
 @Component
 public class SupplierMapper {
 
-    private final ModelMapper modelMapper;
-
-    @Autowired
-    public SupplierMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     public SupplierResponse toResponse(Supplier supplier) {
         if (supplier == null) {
             return null;
         }
 
-        SupplierResponse response = modelMapper.map(supplier, SupplierResponse.class);
-        // Custom logic for stock count since it's not a direct field mapping
-        response.setStockCount(supplier.getStock() != null ? supplier.getStock().size() : 0);
+        SupplierResponse response = SupplierResponse.builder()
+                .id(supplier.getId())
+                .userId(supplier.getUserId())
+                .name(supplier.getName())
+                .email(supplier.getEmail())
+                .phone(supplier.getPhone())
+                .address(supplier.getAddress())
+                .city(supplier.getCity())
+                .state(supplier.getState())
+                .country(supplier.getCountry())
+                .postalCode(supplier.getPostalCode())
+                .latitude(supplier.getLatitude())
+                .longitude(supplier.getLongitude())
+                .businessLicense(supplier.getBusinessLicense())
+                .description(supplier.getDescription())
+                .verified(supplier.isVerified())
+                .active(supplier.isActive())
+                .changeVersion(supplier.getChangeVersion())
+                .build();
+        // Only count stock that is already in memory. For managed suppliers SupplierService fills
+        // stockCount from a grouped count query instead of initializing the lazy collection.
+        if (supplier.getStock() != null && Hibernate.isInitialized(supplier.getStock())) {
+            response.setStockCount(supplier.getStock().size());
+        }
         
         return response;
     }
@@ -36,7 +49,9 @@ public class SupplierMapper {
             return null;
         }
 
-        return modelMapper.map(request, Supplier.class);
+        Supplier supplier = new Supplier();
+        updateEntityFromRequest(supplier, request);
+        return supplier;
     }
 
     public void updateEntityFromRequest(Supplier supplier, SupplierRequest request) {
@@ -44,7 +59,21 @@ public class SupplierMapper {
             return;
         }
 
-        modelMapper.map(request, supplier);
+        supplier.setUserId(request.getUserId());
+        supplier.setName(request.getName());
+        supplier.setEmail(request.getEmail());
+        supplier.setPhone(request.getPhone());
+        supplier.setAddress(request.getAddress());
+        supplier.setCity(request.getCity());
+        supplier.setState(request.getState());
+        supplier.setCountry(request.getCountry());
+        supplier.setPostalCode(request.getPostalCode());
+        supplier.setLatitude(request.getLatitude());
+        supplier.setLongitude(request.getLongitude());
+        supplier.setBusinessLicense(request.getBusinessLicense());
+        supplier.setDescription(request.getDescription());
+        supplier.setVerified(request.isVerified());
+        supplier.setActive(request.isActive());
     }
 
     /**
@@ -57,7 +86,24 @@ public class SupplierMapper {
             return null;
         }
 
-        return modelMapper.map(projection, Supplier.class);
+        return Supplier.builder()
+                .id(projection.getId())
+                .userId(projection.getUserId())
+                .name(projection.getName())
+                .email(projection.getEmail())
+                .phone(projection.getPhone())
+                .address(projection.getAddress())
+                .city(projection.getCity())
+                .state(projection.getState())
+                .country(projection.getCountry())
+                .postalCode(projection.getPostalCode())
+                .latitude(projection.getLatitude())
+                .longitude(projection.getLongitude())
+                .businessLicense(projection.getBusinessLicense())
+                .description(projection.getDescription())
+                .verified(Boolean.TRUE.equals(projection.getVerified()))
+                .active(Boolean.TRUE.equals(projection.getActive()))
+                .build();
     }
 
     /**
@@ -69,6 +115,23 @@ public class SupplierMapper {
             return null;
         }
 
-        return modelMapper.map(projection, Supplier.class);
+        return Supplier.builder()
+                .id(projection.getId())
+                .userId(projection.getUserId())
+                .name(projection.getName())
+                .email(projection.getEmail())
+                .phone(projection.getPhone())
+                .address(projection.getAddress())
+                .city(projection.getCity())
+                .state(projection.getState())
+                .country(projection.getCountry())
+                .postalCode(projection.getPostalCode())
+                .latitude(projection.getLatitude())
+                .longitude(projection.getLongitude())
+                .businessLicense(projection.getBusinessLicense())
+                .description(projection.getDescription())
+                .verified(Boolean.TRUE.equals(projection.getVerified()))
+                .active(Boolean.TRUE.equals(projection.getActive()))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package repository;
+
+import entity.ChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounter, String> {
+
+    // Take the next count values; the row stays locked until the transaction ends
+    @Modifying
+    @Query("UPDATE ChangeCounter c SET c.value = c.value + :count WHERE c.name = :name")
+    int advance(@Param("name") String name, @Param("count") long count);
+
+    // Move a high-water mark forward, never back
+    @Modifying
+    @Query("UPDATE ChangeCounter c SET c.value = :value WHERE c.name = :name AND c.value < :value")
+    int raise(@Param("name") String name, @Param("value") long value);
+
+    // Read straight from the table, past any entity in the persistence context
+    @Query("SELECT c.value FROM ChangeCounter c WHERE c.name = :name")
+    Long findValue(@Param("name") String name);
+}
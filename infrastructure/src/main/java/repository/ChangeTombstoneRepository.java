@@ -0,0 +1,29 @@
+package repository;
+
+import entity.ChangeTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ChangeTombstoneRepository extends JpaRepository<ChangeTombstone, Long> {
+
+    // Change feed: deletes in (since, upTo], oldest first
+    @Query("SELECT t FROM ChangeTombstone t WHERE t.changeVersion > :since AND t.changeVersion <= :upTo " +
+           "ORDER BY t.changeVersion, t.id")
+    List<ChangeTombstone> findChanged(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    // Retention: the newest version among tombstones older than the cutoff
+    @Query("SELECT MAX(t.changeVersion) FROM ChangeTombstone t WHERE t.deletedAt < :before")
+    Long findMaxVersionDeletedBefore(@Param("before") Instant before);
+
+    @Modifying
+    @Query("DELETE FROM ChangeTombstone t WHERE t.changeVersion <= :version")
+    int deleteThrough(@Param("version") long version);
+}
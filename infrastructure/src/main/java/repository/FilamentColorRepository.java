@@ -0,0 +1,14 @@
+package repository;
+
+import entity.FilamentColor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FilamentColorRepository extends JpaRepository<FilamentColor, Integer> {
+
+    // Color registry: the canonical row for a normalized spelling, by its unique key
+    Optional<FilamentColor> findByNormalizedName(String normalizedName);
+}
@@ -2,44 +2,191 @@ package repository;
 
 import entity.FilamentStock;
 import entity.FilamentType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import repository.projection.FilamentStockListProjection;
+import repository.projection.InventoryRollupRowProjection;
+import repository.projection.InventoryRollupTotalsProjection;
+import repository.projection.StockMaxAvailableProjection;
+import repository.projection.StockPlacementProjection;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FilamentStockRepository extends JpaRepository<FilamentStock, Long> {
     
-    // Find by supplier
-    List<FilamentStock> findBySupplierId(Long supplierId);
+    // Listing columns with the supplier joined in; callers append a WHERE clause and LIST_ORDER
+    String LIST_SELECT = "SELECT f.id AS id, s.id AS supplierId, s.name AS supplierName, " +
+            "f.materialType AS materialType, f.color AS color, f.quantityGrams AS quantityGrams, " +
+            "f.reservedGrams AS reservedGrams, f.available AS available, f.lastRestocked AS lastRestocked, " +
+            "f.expiryDate AS expiryDate, f.changeVersion AS changeVersion " +
+            "FROM FilamentStock f LEFT JOIN f.supplier s ";
     
-    // Find by material type
-    List<FilamentStock> findByMaterialType(FilamentType materialType);
+    // Keyset pagination: results continue after the last id of the previous page
+    String LIST_ORDER = " ORDER BY f.id";
     
-    // Find by color
-    List<FilamentStock> findByColor(String color);
+    // Inventory rollup columns per stock row, with the supplier's location
+    String ROLLUP_ROW_SELECT = "SELECT f.id AS id, s.id AS supplierId, f.materialType AS materialType, " +
+            "f.colorId AS colorId, s.country AS country, s.state AS state, f.quantityGrams AS quantityGrams, " +
+            "f.reservedGrams AS reservedGrams, f.available AS available FROM FilamentStock f LEFT JOIN f.supplier s ";
     
-    // Find available stock
-    List<FilamentStock> findByAvailableTrue();
+    // Find by id with its supplier
+    @Override
+    @EntityGraph(attributePaths = "supplier")
+    Optional<FilamentStock> findById(Long id);
     
-    // Find by material type and color
-    List<FilamentStock> findByMaterialTypeAndColor(FilamentType materialType, String color);
+    // Find by supplier
+    @EntityGraph(attributePaths = "supplier")
+    List<FilamentStock> findBySupplierId(Long supplierId);
+    
+    // Bulk import: existing stock rows for a chunk of suppliers (supplier left unloaded), locked in id
+    // order like lockByIdIn, so a hold committed while the chunk is written is not saved over
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM FilamentStock f WHERE f.supplier.id IN :supplierIds ORDER BY f.id")
+    List<FilamentStock> lockBySupplierIdIn(@Param("supplierIds") Collection<Long> supplierIds);
+    
+    // Find by material type and color id
+    @EntityGraph(attributePaths = "supplier")
+    List<FilamentStock> findByMaterialTypeAndColorId(FilamentType materialType, Integer colorId);
 
     // Find stock with sufficient quantity
-    @Query("SELECT f FROM FilamentStock f WHERE (f.quantityKg - COALESCE(f.reservedKg, 0.0)) >= :requiredKg AND f.available = true")
-    List<FilamentStock> findStockWithSufficientQuantity(@Param("requiredKg") Double requiredKg);
+    @EntityGraph(attributePaths = "supplier")
+    @Query("SELECT f FROM FilamentStock f WHERE f.available = true AND f.availableGrams >= :requiredGrams")
+    List<FilamentStock> findStockWithSufficientQuantity(@Param("requiredGrams") long requiredGrams);
+    
+    // List all stock
+    @Query(LIST_SELECT + "WHERE f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findListItems(@Param("afterId") Long afterId, Pageable pageable);
     
-    // Find low stock items (less than threshold)
-    @Query("SELECT f FROM FilamentStock f WHERE (f.quantityKg - COALESCE(f.reservedKg, 0.0)) < :threshold AND f.available = true")
-    List<FilamentStock> findLowStockItems(@Param("threshold") Double threshold);
+    // List by material type
+    @Query(LIST_SELECT + "WHERE f.materialType = :materialType AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findListItemsByMaterialType(@Param("materialType") FilamentType materialType,
+                                                                  @Param("afterId") Long afterId,
+                                                                  Pageable pageable);
     
-    // Find expired stock
-    @Query("SELECT f FROM FilamentStock f WHERE f.expiryDate < CURRENT_DATE")
-    List<FilamentStock> findExpiredStock();
+    // List by color id
+    @Query(LIST_SELECT + "WHERE f.colorId = :colorId AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findListItemsByColorId(@Param("colorId") Integer colorId,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+    
+    // List available stock
+    @Query(LIST_SELECT + "WHERE f.available = true AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findAvailableListItems(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // List low stock items (less than threshold)
+    @Query(LIST_SELECT + "WHERE f.available = true AND f.availableGrams < :thresholdGrams " +
+           "AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findLowStockListItems(@Param("thresholdGrams") long thresholdGrams,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+    
+    // List expired stock
+    @Query(LIST_SELECT + "WHERE f.expiryDate < CURRENT_DATE AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findExpiredListItems(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Stock expiring in [from, to), served by the expiry_date index
+    @Query(LIST_SELECT + "WHERE f.expiryDate >= :from AND f.expiryDate < :to AND f.id > :afterId" + LIST_ORDER)
+    List<FilamentStockListProjection> findExpiringListItems(@Param("from") Date from,
+                                                            @Param("to") Date to,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
     
     // Count available stock by material type
     @Query("SELECT COUNT(f) FROM FilamentStock f WHERE f.materialType = :materialType AND f.available = true")
     Long countAvailableByMaterialType(@Param("materialType") FilamentType materialType);
-}
\ No newline at end of file
+    
+    // Bulk updates keep availableGrams in step and assign it first: MySQL evaluates SET
+    // assignments left to right, so a later one would already see the new reservedGrams
+    
+    // Reservation ledger: add a hold only if enough unreserved stock is left; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE FilamentStock f SET f.availableGrams = f.availableGrams - :grams, " +
+           "f.reservedGrams = f.reservedGrams + :grams " +
+           "WHERE f.id = :id AND f.available = true AND f.availableGrams >= :grams")
+    int tryReserve(@Param("id") Long id, @Param("grams") long grams);
+    
+    // Stock edits: lock the row before reading it, so the save cannot write back reservedGrams a hold has since changed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM FilamentStock f WHERE f.id = :id")
+    Optional<FilamentStock> lockById(@Param("id") Long id);
+    
+    // Reservation ledger: lock several stock rows in id order, so concurrent multi-line reservations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM FilamentStock f WHERE f.id IN :ids ORDER BY f.id")
+    List<FilamentStock> lockByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Hot-stock write-behind: add holds already admitted against the in-memory budget
+    @Modifying
+    @Query("UPDATE FilamentStock f SET f.availableGrams = f.availableGrams - :grams, " +
+           "f.reservedGrams = f.reservedGrams + :grams WHERE f.id = :id")
+    int addReserved(@Param("id") Long id, @Param("grams") long grams);
+    
+    // Reservation ledger: give a hold back
+    @Modifying
+    @Query("UPDATE FilamentStock f SET " +
+           "f.availableGrams = CASE WHEN f.reservedGrams > :grams THEN f.availableGrams + :grams ELSE f.quantityGrams END, " +
+           "f.reservedGrams = CASE WHEN f.reservedGrams > :grams THEN f.reservedGrams - :grams ELSE 0 END " +
+           "WHERE f.id = :id")
+    int releaseReserved(@Param("id") Long id, @Param("grams") long grams);
+    
+    // Reservation ledger: a confirmed hold leaves stock altogether
+    @Modifying
+    @Query("UPDATE FilamentStock f SET " +
+           "f.availableGrams = CASE WHEN f.quantityGrams > :grams THEN f.quantityGrams - :grams ELSE 0 END " +
+           "- CASE WHEN f.reservedGrams > :grams THEN f.reservedGrams - :grams ELSE 0 END, " +
+           "f.quantityGrams = CASE WHEN f.quantityGrams > :grams THEN f.quantityGrams - :grams ELSE 0 END, " +
+           "f.reservedGrams = CASE WHEN f.reservedGrams > :grams THEN f.reservedGrams - :grams ELSE 0 END " +
+           "WHERE f.id = :id")
+    int consumeReserved(@Param("id") Long id, @Param("grams") long grams);
+    
+    // Inventory rollups: every row, in keyset pages
+    @Query(ROLLUP_ROW_SELECT + "WHERE f.id > :afterId" + LIST_ORDER)
+    List<InventoryRollupRowProjection> findRollupRows(@Param("afterId") long afterId, Pageable pageable);
+    
+    // Inventory rollups: the rows of one material and color, from the leading columns of idx_filament_stock_match
+    @Query(ROLLUP_ROW_SELECT + "WHERE f.materialType = :materialType AND f.colorId = :colorId AND f.id > :afterId" + LIST_ORDER)
+    List<InventoryRollupRowProjection> findRollupRows(@Param("materialType") FilamentType materialType,
+                                                      @Param("colorId") Integer colorId,
+                                                      @Param("afterId") long afterId,
+                                                      Pageable pageable);
+    
+    // Inventory rollups: totals per material, color, location and supplier in one grouped scan, for reconciliation
+    @Query("SELECT f.materialType AS materialType, f.colorId AS colorId, s.country AS country, s.state AS state, " +
+           "s.id AS supplierId, COUNT(f) AS stockCount, SUM(f.quantityGrams) AS quantityGrams, " +
+           "SUM(f.reservedGrams) AS reservedGrams, " +
+           "SUM(CASE WHEN f.available = true THEN f.availableGrams ELSE 0L END) AS availableGrams " +
+           "FROM FilamentStock f LEFT JOIN f.supplier s " +
+           "GROUP BY f.materialType, f.colorId, s.country, s.state, s.id")
+    List<InventoryRollupTotalsProjection> sumRollups();
+    
+    // Order pre-check: the largest unreserved quantity per material and color, read along idx_filament_stock_match
+    @Query("SELECT f.materialType AS materialType, f.colorId AS colorId, MAX(f.availableGrams) AS availableGrams " +
+           "FROM FilamentStock f WHERE f.available = true GROUP BY f.materialType, f.colorId")
+    List<StockMaxAvailableProjection> findMaxAvailableByMaterialAndColor();
+    
+    // Availability stream: the material and color of every row, one page after another
+    @Query("SELECT f.id AS id, f.materialType AS materialType, f.colorId AS colorId, f.color AS color " +
+           "FROM FilamentStock f WHERE f.id > :afterId ORDER BY f.id")
+    List<StockPlacementProjection> findPlacements(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Change feed: stamp rows with the version of the transaction that changed them (see ChangeLogService)
+    @Modifying
+    @Query("UPDATE FilamentStock f SET f.changeVersion = :version WHERE f.id IN :ids")
+    int stampChangeVersion(@Param("ids") Collection<Long> ids, @Param("version") long version);
+    
+    // Change feed: rows changed in (since, upTo], oldest change first
+    @Query(LIST_SELECT + "WHERE f.changeVersion > :since AND f.changeVersion <= :upTo ORDER BY f.changeVersion")
+    List<FilamentStockListProjection> findChangedListItems(@Param("since") long since, @Param("upTo") long upTo,
+                                                           Pageable pageable);
+}
@@ -2,11 +2,18 @@ package repository;
 
 import entity.IntegrationAccount;
 import entity.ShopType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface IntegrationAccountRepository extends JpaRepository<IntegrationAccount, Long> {
+    // Query-cached: looked up on every publish/delete of a product
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<IntegrationAccount> findFirstByShopIdAndProvider(Long shopId, ShopType provider);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<IntegrationAccount> findByShopIdAndProviderAndExternalShopId(Long shopId, ShopType provider, String externalShopId);
 }
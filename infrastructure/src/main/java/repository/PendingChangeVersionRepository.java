@@ -0,0 +1,26 @@
+package repository;
+
+import entity.PendingChangeVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface PendingChangeVersionRepository extends JpaRepository<PendingChangeVersion, Long> {
+
+    // Change feed: the oldest version still being written, ignoring writers that have timed out
+    @Query("SELECT MIN(p.changeVersion) FROM PendingChangeVersion p WHERE p.allocatedAt >= :after")
+    Long findOldestAllocatedSince(@Param("after") Instant after);
+
+    @Modifying
+    @Query("DELETE FROM PendingChangeVersion p WHERE p.changeVersion = :version")
+    int release(@Param("version") long version);
+
+    @Modifying
+    @Query("DELETE FROM PendingChangeVersion p WHERE p.allocatedAt < :before")
+    int deleteAllocatedBefore(@Param("before") Instant before);
+}
@@ -2,9 +2,17 @@ package repository;
 
 import entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import repository.projection.ProductSearchProjection;
+
+import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    
-} 
\ No newline at end of file
+
+    // Searchable fields of every product, used to build the search index
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, " +
+           "p.sellerId AS sellerId, p.shopId AS shopId FROM Product p")
+    List<ProductSearchProjection> findAllSearchDocuments();
+}
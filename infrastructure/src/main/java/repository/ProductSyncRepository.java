@@ -1,11 +1,18 @@
 package repository;
 
 import entity.ProductSync;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface ProductSyncRepository extends JpaRepository<ProductSync, Long> {
+    // Query-cached: looked up on every publish/delete of a product
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ProductSync> findByProductIdAndIntegrationAccountId(Long productId, Long integrationAccountId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ProductSync> findByProductId(Long productId);
 }
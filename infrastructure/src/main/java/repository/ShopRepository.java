@@ -1,23 +1,39 @@
 package repository;
 
 import entity.Shop;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import repository.projection.ShopProductCountProjection;
+import repository.projection.ShopSearchProjection;
+import repository.projection.ShopSummaryProjection;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShopRepository extends JpaRepository<Shop, Long> {
     
-    // Find by sellerId
+    // Find by sellerId (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Shop> findBySellerId(Long sellerId);
     
-    // Find single shop by sellerId (assuming one shop per seller)
+    // Find single shop by sellerId (assuming one shop per seller; query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Shop> findFirstBySellerId(Long sellerId);
     
+    // Searchable fields of every shop, used to build the search index
+    @Query("SELECT s.id AS id, s.sellerId AS sellerId, s.name AS name, s.description AS description, " +
+           "s.address AS address FROM Shop s")
+    List<ShopSearchProjection> findAllSearchDocuments();
+    
     // Search by name (case insensitive)
     @Query("SELECT s FROM Shop s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Shop> findByNameContainingIgnoreCase(@Param("name") String name);
@@ -30,13 +46,34 @@ public interface ShopRepository extends JpaRepository<Shop, Long> {
     @Query("SELECT s FROM Shop s WHERE LOWER(s.address) LIKE LOWER(CONCAT('%', :address, '%'))")
     List<Shop> findByAddressContainingIgnoreCase(@Param("address") String address);
     
+    // Every shop with its product count, in one grouped query
+    @Query("SELECT s.id AS id, s.sellerId AS sellerId, s.name AS name, s.description AS description, " +
+           "s.address AS address, s.contactInfo AS contactInfo, COUNT(p.id) AS productCount " +
+           "FROM Shop s LEFT JOIN s.products p " +
+           "GROUP BY s.id, s.sellerId, s.name, s.description, s.address, s.contactInfo " +
+           "ORDER BY s.id")
+    List<ShopSummaryProjection> findAllWithProductCounts();
+    
+    // Single shop with its product count; empty if the shop does not exist
+    @Query("SELECT s.id AS id, s.sellerId AS sellerId, s.name AS name, s.description AS description, " +
+           "s.address AS address, s.contactInfo AS contactInfo, COUNT(p.id) AS productCount " +
+           "FROM Shop s LEFT JOIN s.products p WHERE s.id = :shopId " +
+           "GROUP BY s.id, s.sellerId, s.name, s.description, s.address, s.contactInfo")
+    Optional<ShopSummaryProjection> findSummaryById(@Param("shopId") Long shopId);
+    
+    // Product counts for a batch of shops; shops without products are absent from the result
+    @Query("SELECT p.shopId AS shopId, COUNT(p.id) AS productCount FROM Product p " +
+           "WHERE p.shopId IN :shopIds GROUP BY p.shopId")
+    List<ShopProductCountProjection> countProductsByShopIds(@Param("shopIds") Collection<Long> shopIds);
+    
     // Search shops with products
-    @Query("SELECT DISTINCT s FROM Shop s WHERE SIZE(s.products) > 0")
+    @Query("SELECT s FROM Shop s WHERE EXISTS (SELECT 1 FROM Product p WHERE p.shopId = s.id)")
     List<Shop> findShopsWithProducts();
     
-    // Count products in shop
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.shopId = :shopId")
-    Long countProductsByShopId(@Param("shopId") Long shopId);
+    // Paginated shops with products
+    @Query(value = "SELECT s FROM Shop s WHERE EXISTS (SELECT 1 FROM Product p WHERE p.shopId = s.id)",
+           countQuery = "SELECT COUNT(s) FROM Shop s WHERE EXISTS (SELECT 1 FROM Product p WHERE p.shopId = s.id)")
+    Page<Shop> findShopsWithProducts(Pageable pageable);
     
     // Check if sellerId exists
     boolean existsBySellerId(Long sellerId);
@@ -0,0 +1,38 @@
+package repository;
+
+import entity.ReservationStatus;
+import entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // All reservations of an owner, oldest first
+    List<StockReservation> findByOwnerKeyOrderById(String ownerKey);
+
+    // Lock an owner's reservations in one status before changing them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.ownerKey = :ownerKey AND r.status = :status ORDER BY r.id")
+    List<StockReservation> lockByOwnerKeyAndStatus(@Param("ownerKey") String ownerKey,
+                                                   @Param("status") ReservationStatus status);
+
+    // Lock the next batch of holds past their expiry
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.status = :status AND r.expiresAt <= :now ORDER BY r.id")
+    List<StockReservation> lockExpired(@Param("status") ReservationStatus status, @Param("now") Instant now,
+                                       Pageable pageable);
+
+    // Hot-stock journal replay: which of these intents are already stored
+    @Query("SELECT r.intentId FROM StockReservation r WHERE r.intentId IN :intentIds")
+    List<String> findExistingIntentIds(@Param("intentIds") Collection<String> intentIds);
+}
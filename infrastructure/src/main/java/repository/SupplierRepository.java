@@ -1,12 +1,23 @@
 package repository;
 
 import entity.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import repository.projection.ClosetSupplierProjection;
+import repository.projection.SupplierLocationProjection;
+import repository.projection.SupplierSearchProjection;
+import repository.projection.SupplierStockCountProjection;
+import repository.projection.SupplierUserProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,7 +36,8 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     // Find active suppliers
     List<Supplier> findByActiveTrue();
     
-    // Find verified and active suppliers
+    // Find verified and active suppliers (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Supplier> findByVerifiedTrueAndActiveTrue();
     
     // Find by city
@@ -37,9 +49,64 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     // Find by country
     List<Supplier> findByCountry(String country);
     
-    // Search by name (case insensitive)
-    @Query("SELECT s FROM Supplier s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Supplier> findByNameContainingIgnoreCase(@Param("name") String name);
+    // Fields held by the supplier name search index
+    @Query("SELECT s.id AS id, s.name AS name, s.city AS city, s.country AS country, " +
+           "s.verified AS verified, s.active AS active FROM Supplier s")
+    List<SupplierSearchProjection> findAllSearchDocuments();
+    
+    // Stock entry counts for a batch of suppliers; suppliers without stock are absent from the result
+    @Query("SELECT fs.supplier.id AS supplierId, COUNT(fs.id) AS stockCount FROM FilamentStock fs " +
+           "WHERE fs.supplier.id IN :supplierIds GROUP BY fs.supplier.id")
+    List<SupplierStockCountProjection> countStockBySupplierIds(@Param("supplierIds") Collection<Long> supplierIds);
+    
+    // Bulk import: existing suppliers for a chunk of emails
+    List<Supplier> findByEmailIn(Collection<String> emails);
+    
+    // Bulk import: which of these user ids are already taken, and by which email
+    @Query("SELECT s.userId AS userId, s.email AS email FROM Supplier s WHERE s.userId IN :userIds")
+    List<SupplierUserProjection> findUserEmailsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    // Bulk import: which of these supplier ids exist
+    @Query("SELECT s.id FROM Supplier s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Inventory rollups: every supplier's location, one page after another
+    @Query("SELECT s.id AS id, s.country AS country, s.state AS state FROM Supplier s " +
+           "WHERE s.id > :afterId ORDER BY s.id")
+    List<SupplierLocationProjection> findLocations(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT s.id AS id, s.country AS country, s.state AS state FROM Supplier s WHERE s.id = :id")
+    Optional<SupplierLocationProjection> findLocationById(@Param("id") Long id);
+    
+    // Bulk status changes: ids matching every non-null location filter
+    @Query("SELECT s.id FROM Supplier s WHERE (:country IS NULL OR s.country = :country) " +
+           "AND (:state IS NULL OR s.state = :state) AND (:city IS NULL OR s.city = :city) ORDER BY s.id")
+    List<Long> findIdsByLocation(@Param("country") String country, @Param("state") String state,
+                                 @Param("city") String city);
+    
+    // Bulk status changes: one statement per chunk of ids; returns the number of rows changed.
+    // Only those rows get the change version, so the feed skips suppliers already in that state
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Supplier s SET s.verified = true, s.changeVersion = :version " +
+           "WHERE s.id IN :ids AND s.verified = false")
+    int verifyByIdIn(@Param("ids") Collection<Long> ids, @Param("version") long version);
+    
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Supplier s SET s.active = :active, s.changeVersion = :version " +
+           "WHERE s.id IN :ids AND s.active <> :active")
+    int updateActiveByIdIn(@Param("ids") Collection<Long> ids, @Param("active") boolean active,
+                           @Param("version") long version);
+    
+    // Change feed: stamp rows with the version of the transaction that changed them (see ChangeLogService)
+    @Modifying
+    @Query("UPDATE Supplier s SET s.changeVersion = :version WHERE s.id IN :ids")
+    int stampChangeVersion(@Param("ids") Collection<Long> ids, @Param("version") long version);
+    
+    // Change feed: rows changed in (since, upTo], oldest change first
+    @Query("SELECT s FROM Supplier s WHERE s.changeVersion > :since AND s.changeVersion <= :upTo ORDER BY s.changeVersion")
+    List<Supplier> findChanged(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
     
     // Find suppliers within distance from coordinates
     @Query("SELECT s FROM Supplier s WHERE " +
@@ -56,7 +123,8 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     // Check if userId exists
     boolean existsByUserId(Long userId);
     
-    // Find active and verified suppliers with valid coordinates for order matching
+    // Find active and verified suppliers with valid coordinates for order matching (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM Supplier s WHERE s.active = true AND s.verified = true " +
            "AND s.latitude IS NOT NULL AND s.longitude IS NOT NULL " +
            "ORDER BY s.name")
@@ -83,9 +151,9 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
                fs.id as stockId,
                fs.material_type as materialType,
                fs.color as color,
-               fs.quantity_kg as quantityKg,
-               fs.reserved_kg as reservedKg,
-               (fs.quantity_kg - COALESCE(fs.reserved_kg, 0.0)) as availableQuantityKg,
+               fs.color_id as colorId,
+               fs.quantity_grams as quantityGrams,
+               fs.reserved_grams as reservedGrams,
                fs.available as available,
                6371 * acos(cos(radians(:buyerLat)) * cos(radians(s.latitude)) *
                            cos(radians(s.longitude) - radians(:buyerLon)) +
@@ -97,15 +165,120 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
           AND s.latitude IS NOT NULL
           AND s.longitude IS NOT NULL
           AND fs.material_type = :materialType
-          AND fs.color = :color
+          AND fs.color_id = :colorId
           AND fs.available = true
-          AND (fs.quantity_kg - COALESCE(fs.reserved_kg, 0.0)) >= :requiredQuantity
-        ORDER BY distanceKm ASC, (fs.quantity_kg - COALESCE(fs.reserved_kg, 0.0)) DESC
+          AND fs.available_grams >= :requiredGrams
+        ORDER BY distanceKm ASC, fs.available_grams DESC
         LIMIT 1
         """, nativeQuery = true)
     Optional<ClosetSupplierProjection> findClosestSupplierWithStock(@Param("buyerLat") Double buyerLatitude,
                                                                     @Param("buyerLon") Double buyerLongitude,
                                                                     @Param("materialType") String materialType,
-                                                                    @Param("color") String color,
-                                                                    @Param("requiredQuantity") Double requiredQuantity);
+                                                                    @Param("colorId") Integer colorId,
+                                                                    @Param("requiredGrams") long requiredGrams);
+
+    // Material substitutes: the closest supplier with enough stock in any of several materials, in one pass.
+    // The requested material wins wherever someone has it; otherwise the closest compatible one does
+    @Query(value = """
+        SELECT s.id as id,
+               s.user_id as userId,
+               s.name as name,
+               s.email as email,
+               s.phone as phone,
+               s.address as address,
+               s.city as city,
+               s.state as state,
+               s.country as country,
+               s.postal_code as postalCode,
+               s.latitude as latitude,
+               s.longitude as longitude,
+               s.business_license as businessLicense,
+               s.description as description,
+               s.verified as verified,
+               s.active as active,
+               fs.id as stockId,
+               fs.material_type as materialType,
+               fs.color as color,
+               fs.color_id as colorId,
+               fs.quantity_grams as quantityGrams,
+               fs.reserved_grams as reservedGrams,
+               fs.available as available,
+               6371 * acos(cos(radians(:buyerLat)) * cos(radians(s.latitude)) *
+                           cos(radians(s.longitude) - radians(:buyerLon)) +
+                           sin(radians(:buyerLat)) * sin(radians(s.latitude))) as distanceKm
+        FROM supplier s
+        INNER JOIN filament_stock fs ON s.id = fs.supplier_id
+        WHERE s.active = true
+          AND s.verified = true
+          AND s.latitude IS NOT NULL
+          AND s.longitude IS NOT NULL
+          AND fs.material_type IN (:materialTypes)
+          AND fs.color_id = :colorId
+          AND fs.available = true
+          AND fs.available_grams >= :requiredGrams
+        ORDER BY CASE WHEN fs.material_type = :preferredMaterialType THEN 0 ELSE 1 END,
+                 distanceKm ASC, fs.available_grams DESC
+        LIMIT 1
+        """, nativeQuery = true)
+    Optional<ClosetSupplierProjection> findClosestSupplierWithStockInMaterials(@Param("buyerLat") Double buyerLatitude,
+                                                                               @Param("buyerLon") Double buyerLongitude,
+                                                                               @Param("materialTypes") Collection<String> materialTypes,
+                                                                               @Param("preferredMaterialType") String preferredMaterialType,
+                                                                               @Param("colorId") Integer colorId,
+                                                                               @Param("requiredGrams") long requiredGrams);
+
+    // Color substitutes: the closest supplier with enough stock of each of several colors, in one pass.
+    // The inner query is the matching query above with color_id IN; ROW_NUMBER keeps the nearest row per color
+    @Query(value = """
+        SELECT ranked.* FROM (
+            SELECT matched.*,
+                   ROW_NUMBER() OVER (PARTITION BY matched.colorId
+                                      ORDER BY matched.distanceKm ASC, matched.availableGrams DESC) as colorRank
+            FROM (
+                SELECT s.id as id,
+                       s.user_id as userId,
+                       s.name as name,
+                       s.email as email,
+                       s.phone as phone,
+                       s.address as address,
+                       s.city as city,
+                       s.state as state,
+                       s.country as country,
+                       s.postal_code as postalCode,
+                       s.latitude as latitude,
+                       s.longitude as longitude,
+                       s.business_license as businessLicense,
+                       s.description as description,
+                       s.verified as verified,
+                       s.active as active,
+                       fs.id as stockId,
+                       fs.material_type as materialType,
+                       fs.color as color,
+                       fs.color_id as colorId,
+                       fs.quantity_grams as quantityGrams,
+                       fs.reserved_grams as reservedGrams,
+                       fs.available_grams as availableGrams,
+                       fs.available as available,
+                       6371 * acos(cos(radians(:buyerLat)) * cos(radians(s.latitude)) *
+                                   cos(radians(s.longitude) - radians(:buyerLon)) +
+                                   sin(radians(:buyerLat)) * sin(radians(s.latitude))) as distanceKm
+                FROM supplier s
+                INNER JOIN filament_stock fs ON s.id = fs.supplier_id
+                WHERE s.active = true
+                  AND s.verified = true
+                  AND s.latitude IS NOT NULL
+                  AND s.longitude IS NOT NULL
+                  AND fs.material_type = :materialType
+                  AND fs.color_id IN (:colorIds)
+                  AND fs.available = true
+                  AND fs.available_grams >= :requiredGrams
+            ) matched
+        ) ranked
+        WHERE ranked.colorRank = 1
+        """, nativeQuery = true)
+    List<ClosetSupplierProjection> findClosestSupplierWithStockPerColor(@Param("buyerLat") Double buyerLatitude,
+                                                                        @Param("buyerLon") Double buyerLongitude,
+                                                                        @Param("materialType") String materialType,
+                                                                        @Param("colorIds") Collection<Integer> colorIds,
+                                                                        @Param("requiredGrams") long requiredGrams);
 }
\ No newline at end of file
@@ -29,8 +29,9 @@ public interface ClosetSupplierProjection {
     Long getStockId();
     FilamentType getMaterialType();
     String getColor();
-    Double getQuantityKg();
-    Double getReservedKg();
+    Integer getColorId();
+    Long getQuantityGrams();
+    Long getReservedGrams();
     Boolean getAvailable();
     
     // Distance field
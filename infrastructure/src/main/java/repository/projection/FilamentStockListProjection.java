@@ -0,0 +1,24 @@
+package repository.projection;
+
+import entity.FilamentType;
+
+import java.util.Date;
+
+/**
+ * Projection interface for filament stock listings.
+ * Supplier id and name come from an explicit join in the same statement, so listing stock
+ * never loads Supplier entities.
+ */
+public interface FilamentStockListProjection {
+    Long getId();
+    Long getSupplierId();
+    String getSupplierName();
+    FilamentType getMaterialType();
+    String getColor();
+    Long getQuantityGrams();
+    Long getReservedGrams();
+    Boolean getAvailable();
+    Date getLastRestocked();
+    Date getExpiryDate();
+    Long getChangeVersion();
+}
@@ -0,0 +1,18 @@
+package repository.projection;
+
+import entity.FilamentType;
+
+/**
+ * Projection interface for one stock row's share of the inventory rollups, with its supplier's location.
+ */
+public interface InventoryRollupRowProjection {
+    Long getId();
+    Long getSupplierId();
+    FilamentType getMaterialType();
+    Integer getColorId();
+    String getCountry();
+    String getState();
+    Long getQuantityGrams();
+    Long getReservedGrams();
+    Boolean getAvailable();
+}
@@ -0,0 +1,18 @@
+package repository.projection;
+
+import entity.FilamentType;
+
+/**
+ * Projection interface for stock totals per material, color, supplier location and supplier.
+ */
+public interface InventoryRollupTotalsProjection {
+    FilamentType getMaterialType();
+    Integer getColorId();
+    String getCountry();
+    String getState();
+    Long getSupplierId();
+    Long getStockCount();
+    Long getQuantityGrams();
+    Long getReservedGrams();
+    Long getAvailableGrams();
+}
@@ -0,0 +1,14 @@
+package repository.projection;
+
+/**
+ * Projection interface for the product fields held by the in-memory search index.
+ * Keeps image and STL blobs out of the index rebuild query.
+ */
+public interface ProductSearchProjection {
+    Long getId();
+    String getName();
+    String getDescription();
+    Double getPrice();
+    Long getSellerId();
+    Long getShopId();
+}
@@ -0,0 +1,9 @@
+package repository.projection;
+
+/**
+ * Projection interface for per-shop product counts.
+ */
+public interface ShopProductCountProjection {
+    Long getShopId();
+    Long getProductCount();
+}
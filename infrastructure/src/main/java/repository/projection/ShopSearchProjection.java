@@ -0,0 +1,12 @@
+package repository.projection;
+
+/**
+ * Projection interface for the shop fields held by the in-memory search index.
+ */
+public interface ShopSearchProjection {
+    Long getId();
+    Long getSellerId();
+    String getName();
+    String getDescription();
+    String getAddress();
+}
@@ -0,0 +1,15 @@
+package repository.projection;
+
+/**
+ * Projection interface for shop listings: the shop columns plus its product count,
+ * computed in the same grouped query so the lazy products collection is never loaded.
+ */
+public interface ShopSummaryProjection {
+    Long getId();
+    Long getSellerId();
+    String getName();
+    String getDescription();
+    String getAddress();
+    String getContactInfo();
+    Long getProductCount();
+}
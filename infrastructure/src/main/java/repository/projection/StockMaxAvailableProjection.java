@@ -0,0 +1,12 @@
+package repository.projection;
+
+import entity.FilamentType;
+
+/**
+ * Projection interface for the most unreserved stock on any available item of a material and color.
+ */
+public interface StockMaxAvailableProjection {
+    FilamentType getMaterialType();
+    Integer getColorId();
+    Long getAvailableGrams();
+}
@@ -0,0 +1,13 @@
+package repository.projection;
+
+import entity.FilamentType;
+
+/**
+ * Projection interface for the material and color a stock item is listed under.
+ */
+public interface StockPlacementProjection {
+    Long getId();
+    FilamentType getMaterialType();
+    Integer getColorId();
+    String getColor();
+}
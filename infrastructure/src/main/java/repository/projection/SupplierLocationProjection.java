@@ -0,0 +1,10 @@
+package repository.projection;
+
+/**
+ * Projection interface for the country and state a supplier's stock is rolled up under.
+ */
+public interface SupplierLocationProjection {
+    Long getId();
+    String getCountry();
+    String getState();
+}
@@ -0,0 +1,13 @@
+package repository.projection;
+
+/**
+ * Projection interface for the supplier fields held by the in-memory name search index.
+ */
+public interface SupplierSearchProjection {
+    Long getId();
+    String getName();
+    String getCity();
+    String getCountry();
+    Boolean getVerified();
+    Boolean getActive();
+}
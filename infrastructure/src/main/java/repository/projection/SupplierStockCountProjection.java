@@ -0,0 +1,9 @@
+package repository.projection;
+
+/**
+ * Projection interface for per-supplier filament stock counts.
+ */
+public interface SupplierStockCountProjection {
+    Long getSupplierId();
+    Long getStockCount();
+}
@@ -0,0 +1,9 @@
+package repository.projection;
+
+/**
+ * Projection interface pairing a supplier's user id with its email.
+ */
+public interface SupplierUserProjection {
+    Long getUserId();
+    String getEmail();
+}
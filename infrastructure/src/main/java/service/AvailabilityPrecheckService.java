@@ -0,0 +1,125 @@
+package service;
+
+import entity.FilamentStock;
+import entity.FilamentType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import repository.FilamentStockRepository;
+import repository.projection.StockMaxAvailableProjection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers "could any stock satisfy this?" from memory, so closest-supplier requests for material
+ * and color combinations nobody stocks, or in quantities nobody has, fail without a query.
+ * <p>
+ * Keeps the largest unreserved quantity of any available item per material and color id.
+ * Writes that raise availability raise it straight away; decreases wait for the periodic refresh,
+ * which replaces the figures with one grouped query. Writes through this instance can therefore
+ * only leave the figures too high, which costs a query. Restocks and releases made through another
+ * instance count here only from the next refresh, so a "no" is trusted only while the figures are
+ * younger than {@code filament.stock.precheck.max.age.ms}; past that, and before the first load,
+ * every request passes to the query. Such a restock can be refused for at most that long.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityPrecheckService {
+
+    private final FilamentStockRepository filamentStockRepository;
+
+    @Value("${filament.stock.precheck.max.age.ms:15000}")
+    private long maxAgeMs;
+
+    private final Map<Pair, Long> maxAvailableGrams = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // When the query behind the current figures started
+    private volatile long refreshedAt;
+
+    // Guarded by this: raises reported while a refresh reads the table, re-applied over what it read
+    private Map<Pair, Long> raisesDuringRefresh;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${filament.stock.precheck.refresh.interval.ms:5000}",
+            initialDelayString = "${filament.stock.precheck.refresh.interval.ms:5000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            raisesDuringRefresh = new HashMap<>();
+        }
+        Map<Pair, Long> fresh = new HashMap<>();
+        try {
+            for (StockMaxAvailableProjection max : filamentStockRepository.findMaxAvailableByMaterialAndColor()) {
+                if (max.getMaterialType() != null && max.getColorId() != null) {
+                    fresh.put(new Pair(max.getMaterialType(), max.getColorId()), max.getAvailableGrams());
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                raisesDuringRefresh = null;
+            }
+            // Keep the last figures; before the first load every request still passes
+            log.warn("Failed to refresh the stock availability pre-check", e);
+            return;
+        }
+
+        synchronized (this) {
+            raisesDuringRefresh.forEach((pair, grams) -> fresh.merge(pair, grams, Math::max));
+            raisesDuringRefresh = null;
+            maxAvailableGrams.keySet().retainAll(fresh.keySet());
+            maxAvailableGrams.putAll(fresh);
+            refreshedAt = start;
+            loaded = true;
+        }
+        log.debug("Stock availability pre-check refreshed with {} material and color pairs", fresh.size());
+    }
+
+    /**
+     * False only if no available stock item of this material and color had {@code requiredGrams}
+     * unreserved as of a refresh within {@code filament.stock.precheck.max.age.ms}; true means a
+     * query is worth running.
+     *
+     * @param colorId FilamentColorRegistry id of the color
+     */
+    public boolean mightHave(FilamentType materialType, Integer colorId, long requiredGrams) {
+        if (!loaded || materialType == null || colorId == null
+                || System.currentTimeMillis() - refreshedAt > maxAgeMs) {
+            return true;
+        }
+        Long max = maxAvailableGrams.get(new Pair(materialType, colorId));
+        return max != null && max >= requiredGrams;
+    }
+
+    // Deletes only lower the figures, so they wait for the refresh
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        event.saved().forEach(this::apply);
+    }
+
+    /**
+     * Count a stock item that was just saved or re-read after a write.
+     */
+    public void apply(FilamentStock stock) {
+        if (stock == null || !stock.isAvailable() || stock.getMaterialType() == null || stock.getColorId() == null) {
+            return;
+        }
+        Pair pair = new Pair(stock.getMaterialType(), stock.getColorId());
+        long grams = stock.getAvailableGrams();
+        synchronized (this) {
+            maxAvailableGrams.merge(pair, grams, Math::max);
+            if (raisesDuringRefresh != null) {
+                raisesDuringRefresh.merge(pair, grams, Math::max);
+            }
+        }
+    }
+
+    private record Pair(FilamentType materialType, int colorId) {
+    }
+}
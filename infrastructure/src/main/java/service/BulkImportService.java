@@ -0,0 +1,539 @@
+package service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dto.BulkImportResponse;
+import dto.FilamentStockRequest;
+import dto.SupplierRequest;
+import entity.FilamentColor;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Grams;
+import entity.Supplier;
+import entity.SyncedEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mapper.FilamentStockMapper;
+import mapper.SupplierMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import repository.projection.SupplierUserProjection;
+import util.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of suppliers and filament stock from CSV or NDJSON uploads.
+ * <p>
+ * The upload is parsed one row at a time. Valid rows are collected into chunks of
+ * {@code bulk.import.chunk.size}; duplicate and reference checks for a chunk are one
+ * {@code IN} query each instead of one query per row, and every chunk is upserted in its own
+ * transaction through JDBC batches. Rows that fail parsing, validation or those checks are
+ * reported with their line number and skipped without stopping the rest of the import.
+ * <p>
+ * Suppliers are matched on email; filament stock on supplier, material type and color.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkImportService {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final SupplierRepository supplierRepository;
+    private final FilamentStockRepository filamentStockRepository;
+    private final SupplierMapper supplierMapper;
+    private final FilamentStockMapper filamentStockMapper;
+    private final SupplierSearchService supplierSearchService;
+    private final InventoryRollupService inventoryRollups;
+    private final StockChangePublisher stockChanges;
+    private final FilamentColorRegistry colorRegistry;
+    private final ChangeLogService changeLog;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    @Value("${bulk.import.chunk.size:1000}")
+    private int chunkSize;
+
+    @Value("${bulk.import.max.errors:1000}")
+    private int maxErrors;
+
+    /**
+     * Create or update suppliers, matched by email.
+     *
+     * @param input       Upload body
+     * @param contentType {@code text/csv} (with a header row) or {@code application/x-ndjson}
+     */
+    public BulkImportResponse importSuppliers(InputStream input, String contentType) {
+        log.info("Importing suppliers from {} upload", contentType);
+        SupplierChunkWriter writer = new SupplierChunkWriter();
+        return importRows(input, contentType, SupplierRequest.class, writer::write);
+    }
+
+    /**
+     * Create or update filament stock, matched by supplier, material type and color.
+     *
+     * @param input       Upload body
+     * @param contentType {@code text/csv} (with a header row) or {@code application/x-ndjson}
+     */
+    public BulkImportResponse importFilamentStock(InputStream input, String contentType) {
+        log.info("Importing filament stock from {} upload", contentType);
+        StockChunkWriter writer = new StockChunkWriter();
+        return importRows(input, contentType, FilamentStockRequest.class, writer::write);
+    }
+
+    private <T> BulkImportResponse importRows(InputStream input, String contentType, Class<T> type,
+                                              ChunkWriter<T> writer) {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport(maxErrors);
+        List<ImportRow<T>> chunk = new ArrayList<>(chunkSize);
+
+        try (RowSource source = openSource(input, contentType)) {
+            RawRow raw;
+            while ((raw = source.next()) != null) {
+                report.totalRows++;
+                T request = parse(raw, type, report);
+                if (request == null || !isValid(raw.line(), request, report)) {
+                    continue;
+                }
+
+                chunk.add(new ImportRow<>(raw.line(), request));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, writer, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read import file: " + e.getMessage(), e);
+        }
+        writeChunk(chunk, writer, report);
+
+        BulkImportResponse response = report.toResponse(System.currentTimeMillis() - start);
+        log.info("Import finished: {} rows, {} created, {} updated, {} failed in {} ms",
+                response.getTotalRows(), response.getCreated(), response.getUpdated(), response.getFailed(),
+                response.getDurationMs());
+        return response;
+    }
+
+    private <T> void writeChunk(List<ImportRow<T>> chunk, ChunkWriter<T> writer, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        ImportReport chunkReport = new ImportReport(maxErrors);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            Runnable afterCommit = transaction.execute(status -> {
+                Runnable callback = writer.write(chunk, chunkReport);
+                entityManager.flush();
+                entityManager.clear();
+                return callback;
+            });
+            report.merge(chunkReport);
+            if (afterCommit != null) {
+                afterCommit.run();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            report.merge(chunkReport.rejectedOnly());
+            String message = "Chunk could not be saved: " + rootMessage(e);
+            chunk.stream()
+                    .filter(row -> !chunkReport.isRejected(row.line()))
+                    .forEach(row -> report.reject(row.line(), message));
+        }
+    }
+
+    private <T> T parse(RawRow raw, Class<T> type, ImportReport report) {
+        try {
+            T request = raw.json() != null
+                    ? objectMapper.readValue(raw.json(), type)
+                    : objectMapper.convertValue(raw.fields(), type);
+            if (request == null) {
+                report.reject(raw.line(), "Row is empty");
+            }
+            return request;
+        } catch (IOException | IllegalArgumentException e) {
+            report.reject(raw.line(), "Could not parse row: " + rootMessage(e));
+            return null;
+        }
+    }
+
+    private <T> boolean isValid(long line, T request, ImportReport report) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        String message = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        report.reject(line, message);
+        return false;
+    }
+
+    private RowSource openSource(InputStream input, String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+        }
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+
+        if (mediaType.isCompatibleWith(TEXT_CSV)) {
+            return new CsvRowSource(new CsvReader(reader));
+        }
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return new NdjsonRowSource(reader);
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType
+                + " (expected text/csv or application/x-ndjson)");
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * Upserts suppliers by email. Emails and user ids saved earlier in the same upload are
+     * remembered so duplicates across chunks are caught as well; those of a chunk that failed are
+     * not, so a later row may retry them.
+     */
+    private class SupplierChunkWriter {
+
+        // Only keys of committed chunks
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Set<Long> seenUserIds = new HashSet<>();
+
+        Runnable write(List<ImportRow<SupplierRequest>> chunk, ImportReport report) {
+            Set<String> chunkEmails = new HashSet<>();
+            Set<Long> chunkUserIds = new HashSet<>();
+            Set<String> emails = chunk.stream().map(row -> row.request().getEmail()).collect(Collectors.toSet());
+            Set<Long> userIds = chunk.stream()
+                    .map(row -> row.request().getUserId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            Map<String, Supplier> existingByEmail = supplierRepository.findByEmailIn(emails).stream()
+                    .collect(Collectors.toMap(Supplier::getEmail, Function.identity(), (first, second) -> first));
+            Map<Long, String> emailByUserId = userIds.isEmpty() ? Map.of()
+                    : supplierRepository.findUserEmailsByUserIdIn(userIds).stream()
+                            .collect(Collectors.toMap(SupplierUserProjection::getUserId,
+                                    SupplierUserProjection::getEmail, (first, second) -> first));
+
+            List<Supplier> toSave = new ArrayList<>(chunk.size());
+            for (ImportRow<SupplierRequest> row : chunk) {
+                SupplierRequest request = row.request();
+                if (seenEmails.contains(request.getEmail()) || !chunkEmails.add(request.getEmail())) {
+                    report.reject(row.line(), "Duplicate email " + request.getEmail() + " earlier in the file");
+                    continue;
+                }
+                Long userId = request.getUserId();
+                if (userId != null) {
+                    String owner = emailByUserId.get(userId);
+                    if (owner != null && !owner.equals(request.getEmail())) {
+                        report.reject(row.line(), "Supplier with userId " + userId + " already exists");
+                        continue;
+                    }
+                    if (seenUserIds.contains(userId) || !chunkUserIds.add(userId)) {
+                        report.reject(row.line(), "Duplicate userId " + userId + " earlier in the file");
+                        continue;
+                    }
+                }
+
+                Supplier existing = existingByEmail.get(request.getEmail());
+                if (existing != null) {
+                    supplierMapper.updateEntityFromRequest(existing, request);
+                    toSave.add(existing);
+                    report.updated++;
+                } else {
+                    toSave.add(supplierMapper.toEntity(request));
+                    report.created++;
+                }
+            }
+
+            List<Supplier> saved = supplierRepository.saveAll(toSave);
+            changeLog.changed(SyncedEntity.SUPPLIER, saved.stream().map(Supplier::getId).collect(Collectors.toList()));
+            return () -> {
+                seenEmails.addAll(chunkEmails);
+                seenUserIds.addAll(chunkUserIds);
+                saved.forEach(supplier -> {
+                    supplierSearchService.index(supplier);
+                    inventoryRollups.supplierSaved(supplier);
+                });
+            };
+        }
+    }
+
+    /**
+     * Upserts filament stock by supplier, material type and canonical color. Supplier references are
+     * checked with one id query per chunk and attached as proxies, so no supplier is loaded.
+     */
+    private class StockChunkWriter {
+
+        // Only keys of committed chunks, so rows of a failed chunk may be retried later in the file
+        private final Set<StockKey> seenKeys = new HashSet<>();
+
+        Runnable write(List<ImportRow<FilamentStockRequest>> chunk, ImportReport report) {
+            Set<StockKey> chunkKeys = new HashSet<>();
+            Set<Long> supplierIds = chunk.stream()
+                    .map(row -> row.request().getSupplierId())
+                    .collect(Collectors.toSet());
+            Set<Long> knownSupplierIds = new HashSet<>(supplierRepository.findExistingIds(supplierIds));
+
+            Map<StockKey, FilamentStock> existingByKey = new HashMap<>();
+            if (!knownSupplierIds.isEmpty()) {
+                for (FilamentStock stock : filamentStockRepository.lockBySupplierIdIn(knownSupplierIds)) {
+                    existingByKey.putIfAbsent(new StockKey(stock.getSupplier().getId(), stock.getMaterialType(),
+                            colorId(stock.getColorId(), stock.getColor())), stock);
+                }
+            }
+
+            List<FilamentStock> toSave = new ArrayList<>(chunk.size());
+            for (ImportRow<FilamentStockRequest> row : chunk) {
+                FilamentStockRequest request = row.request();
+                if (!knownSupplierIds.contains(request.getSupplierId())) {
+                    report.reject(row.line(), "Supplier not found with ID: " + request.getSupplierId());
+                    continue;
+                }
+                StockKey key = new StockKey(request.getSupplierId(), request.getMaterialType(),
+                        colorId(null, request.getColor()));
+                if (seenKeys.contains(key) || !chunkKeys.add(key)) {
+                    report.reject(row.line(), "Duplicate " + request.getMaterialType() + " " + request.getColor()
+                            + " stock for supplier " + request.getSupplierId() + " earlier in the file");
+                    continue;
+                }
+
+                FilamentStock existing = existingByKey.get(key);
+                if (existing != null && Grams.fromKg(request.getQuantityKg()) < existing.getReservedGrams()) {
+                    report.reject(row.line(), "Quantity " + request.getQuantityKg() + " kg is below the "
+                            + Grams.toKg(existing.getReservedGrams()) + " kg reserved on stock " + existing.getId());
+                    continue;
+                }
+                if (existing != null) {
+                    filamentStockMapper.updateEntityFromRequest(existing, request);
+                    colorRegistry.applyTo(existing);
+                    toSave.add(existing);
+                    report.updated++;
+                } else {
+                    FilamentStock stock = filamentStockMapper.toEntity(request);
+                    colorRegistry.applyTo(stock);
+                    stock.setSupplier(supplierRepository.getReferenceById(request.getSupplierId()));
+                    if (stock.getLastRestocked() == null) {
+                        stock.setLastRestocked(new Date());
+                    }
+                    toSave.add(stock);
+                    report.created++;
+                }
+            }
+
+            filamentStockRepository.saveAll(toSave);
+            changeLog.changed(SyncedEntity.FILAMENT_STOCK,
+                    toSave.stream().map(FilamentStock::getId).collect(Collectors.toList()));
+            return () -> {
+                seenKeys.addAll(chunkKeys);
+                stockChanges.saved(toSave);
+            };
+        }
+
+        // Requests, and rows written before colors were interned, carry only the color's name
+        private Integer colorId(Integer colorId, String color) {
+            if (colorId != null) {
+                return colorId;
+            }
+            FilamentColor interned = colorRegistry.intern(color);
+            return interned != null ? interned.getId() : null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        /**
+         * Save one chunk inside the current transaction.
+         *
+         * @return Work to run once the chunk has committed, or null
+         */
+        Runnable write(List<ImportRow<T>> chunk, ImportReport report);
+    }
+
+    private interface RowSource extends Closeable {
+        /**
+         * @return The next non-blank row, or null at end of input
+         */
+        RawRow next() throws IOException;
+    }
+
+    /**
+     * CSV with a header row naming the request fields. Empty cells are left unset.
+     */
+    private static class CsvRowSource implements RowSource {
+
+        private final CsvReader reader;
+        private List<String> header;
+
+        CsvRowSource(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            if (header == null) {
+                header = reader.next();
+                if (header == null) {
+                    return null;
+                }
+            }
+
+            List<String> record;
+            do {
+                record = reader.next();
+            } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+            if (record == null) {
+                return null;
+            }
+
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                String value = record.get(i);
+                if (!value.isEmpty()) {
+                    fields.put(header.get(i), value);
+                }
+            }
+            return new RawRow(reader.getRecordLine(), fields, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * One JSON object per line. Blank lines are skipped.
+     */
+    private static class NdjsonRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            return text == null ? null : new RawRow(line, null, text);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private record RawRow(long line, Map<String, String> fields, String json) {
+    }
+
+    private record ImportRow<T>(long line, T request) {
+    }
+
+    private record StockKey(Long supplierId, FilamentType materialType, Integer colorId) {
+    }
+
+    private static class ImportReport {
+
+        private final int maxErrors;
+        private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+        private final Set<Long> rejectedLines = new HashSet<>();
+        private long totalRows;
+        private long created;
+        private long updated;
+        private long failed;
+
+        ImportReport(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            rejectedLines.add(line);
+            if (errors.size() < maxErrors) {
+                errors.add(new BulkImportResponse.RowError(line, message));
+            }
+        }
+
+        boolean isRejected(long line) {
+            return rejectedLines.contains(line);
+        }
+
+        /**
+         * The row rejections of this report without its created and updated counts.
+         */
+        ImportReport rejectedOnly() {
+            ImportReport copy = new ImportReport(maxErrors);
+            copy.errors.addAll(errors);
+            copy.failed = failed;
+            return copy;
+        }
+
+        void merge(ImportReport other) {
+            totalRows += other.totalRows;
+            created += other.created;
+            updated += other.updated;
+            failed += other.failed;
+            for (BulkImportResponse.RowError error : other.errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        BulkImportResponse toResponse(long durationMs) {
+            return BulkImportResponse.builder()
+                    .totalRows(totalRows)
+                    .created(created)
+                    .updated(updated)
+                    .failed(failed)
+                    .durationMs(durationMs)
+                    .errorsTruncated(failed > errors.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package service;
+
+import dto.ChangeFeedResponse;
+import dto.DeletedEntityResponse;
+import dto.FilamentStockResponse;
+import dto.SupplierResponse;
+import entity.ChangeCounter;
+import entity.ChangeTombstone;
+import exception.ChangesExpiredException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import repository.ChangeCounterRepository;
+import repository.ChangeTombstoneRepository;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the change feed: suppliers, stock rows and deletes with a change version above the
+ * mirror's last one, so mirrors copy only what changed. See {@link ChangeLogService} for how
+ * versions are assigned. Rows written in one transaction share its version and always arrive on
+ * the same page. Stock rows carry no reservation figures: holds and releases are not versioned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedService {
+
+    private final ChangeCounterRepository changeCounterRepository;
+    private final ChangeTombstoneRepository tombstoneRepository;
+    private final ChangeLogService changeLog;
+    private final SupplierService supplierService;
+    private final FilamentStockService filamentStockService;
+
+    @Value("${changes.default.limit:500}")
+    private int defaultLimit;
+
+    @Value("${changes.max.limit:5000}")
+    private int maxLimit;
+
+    /**
+     * @param since Version the mirror has applied everything up to; 0 for a full load
+     * @param limit Most rows to return across all three lists, or null for {@code changes.default.limit};
+     *              exceeded only by a single transaction that changed more rows than that
+     * @throws ChangesExpiredException if deletes after {@code since} have been purged
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedResponse findChanges(long since, Integer limit) {
+        log.info("Finding changes since version {}", since);
+
+        // A full load (since 0) needs no deletes, so only a resumed sync can have missed some
+        long purgedThrough = counter(ChangeCounter.TOMBSTONES_PURGED_THROUGH);
+        if (since > 0 && since < purgedThrough) {
+            throw ChangesExpiredException.since(since, purgedThrough);
+        }
+
+        // Every version up to here has committed or rolled back, so reading no further than it
+        // means no version skipped here can still turn up later
+        long upTo = changeLog.committedThrough();
+        int size = limit != null && limit > 0 ? Math.min(limit, maxLimit) : defaultLimit;
+
+        List<SupplierResponse> suppliers = supplierService.findChanged(since, upTo, size + 1);
+        List<FilamentStockResponse> stock = filamentStockService.findChanged(since, upTo, size + 1);
+        List<ChangeTombstone> tombstones = tombstoneRepository.findChanged(since, upTo, PageRequest.of(0, size + 1));
+
+        // Each list is in version order; keep the oldest size changes across the three
+        List<Long> versions = Stream.of(
+                        suppliers.stream().map(SupplierResponse::getChangeVersion),
+                        stock.stream().map(FilamentStockResponse::getChangeVersion),
+                        tombstones.stream().map(ChangeTombstone::getChangeVersion))
+                .flatMap(s -> s)
+                .sorted()
+                .collect(Collectors.toList());
+        boolean hasMore = versions.size() > size;
+        long through = hasMore ? versions.get(size - 1) : Math.max(since, upTo);
+        if (hasMore && versions.get(size).equals(versions.get(size - 1))) {
+            // The page would cut through one transaction's rows: end it before that version, or
+            // if the page holds nothing else, return that whole transaction however large
+            int last = size - 1;
+            while (last >= 0 && versions.get(last) == through) {
+                last--;
+            }
+            if (last >= 0) {
+                through = versions.get(last);
+            } else {
+                suppliers = supplierService.findChanged(since, through, Integer.MAX_VALUE);
+                stock = filamentStockService.findChanged(since, through, Integer.MAX_VALUE);
+                tombstones = tombstoneRepository.findChanged(since, through, PageRequest.of(0, Integer.MAX_VALUE));
+            }
+        }
+
+        return ChangeFeedResponse.builder()
+                .nextSince(through)
+                .hasMore(hasMore)
+                .suppliers(keepThrough(suppliers, SupplierResponse::getChangeVersion, through))
+                .filamentStock(keepThrough(stock, FilamentStockResponse::getChangeVersion, through))
+                .deleted(keepThrough(tombstones, ChangeTombstone::getChangeVersion, through).stream()
+                        .map(tombstone -> DeletedEntityResponse.builder()
+                                .entityType(tombstone.getEntityType())
+                                .id(tombstone.getEntityId())
+                                .changeVersion(tombstone.getChangeVersion())
+                                .deletedAt(tombstone.getDeletedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private long counter(String name) {
+        Long value = changeCounterRepository.findValue(name);
+        return value != null ? value : 0L;
+    }
+
+    private static <T> List<T> keepThrough(List<T> items, ToLongFunction<T> version, long through) {
+        return items.stream()
+                .filter(item -> version.applyAsLong(item) <= through)
+                .collect(Collectors.toList());
+    }
+}
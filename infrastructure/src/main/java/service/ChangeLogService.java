@@ -0,0 +1,283 @@
+package service;
+
+import entity.ChangeCounter;
+import entity.ChangeTombstone;
+import entity.PendingChangeVersion;
+import entity.SyncedEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.ChangeCounterRepository;
+import repository.ChangeTombstoneRepository;
+import repository.FilamentStockRepository;
+import repository.PendingChangeVersionRepository;
+import repository.SupplierRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Stamps supplier and stock writes with change versions for the change feed, and keeps a
+ * tombstone per delete.
+ * <p>
+ * Each writing transaction gets one version, taken from the {@value ChangeCounter#CHANGE_VERSION}
+ * counter in a short transaction of its own and recorded as a {@link PendingChangeVersion}, so
+ * the counter row is never held while a writer works. Writers report the rows they changed or
+ * deleted, or stamp the version themselves in a guarded bulk UPDATE so only rows it actually
+ * changed get it. Just before the commit the reported rows are stamped with one UPDATE per table
+ * and the pending version is dropped in the same commit. The feed reads no further than below the
+ * oldest pending version, so a mirror that has read up to version N never later finds a commit
+ * at or below N. Only writes that change what mirrors copy are reported; holds and releases only
+ * move {@code reservedGrams}, which the feed leaves out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogService {
+
+    private final ChangeCounterRepository changeCounterRepository;
+    private final ChangeTombstoneRepository tombstoneRepository;
+    private final PendingChangeVersionRepository pendingVersionRepository;
+    private final SupplierRepository supplierRepository;
+    private final FilamentStockRepository filamentStockRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    // Ids per stamping UPDATE, to keep IN lists a size every database accepts
+    private static final int STAMP_BATCH_SIZE = 1000;
+
+    @Value("${changes.tombstone.retention.days:30}")
+    private long tombstoneRetentionDays;
+
+    @Value("${changes.pending.timeout.ms:300000}")
+    private long pendingTimeoutMs;
+
+    @PostConstruct
+    void createCounters() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (String name : List.of(ChangeCounter.CHANGE_VERSION, ChangeCounter.TOMBSTONES_PURGED_THROUGH)) {
+                if (!changeCounterRepository.existsById(name)) {
+                    changeCounterRepository.save(new ChangeCounter(name, 0));
+                }
+            }
+        });
+    }
+
+    public void changed(SyncedEntity type, Long id) {
+        changed(type, List.of(id));
+    }
+
+    /**
+     * Give these rows a new change version when the current transaction commits.
+     */
+    public void changed(SyncedEntity type, Collection<Long> ids) {
+        record(type, ids, false);
+    }
+
+    /**
+     * Record tombstones for these rows when the current transaction commits.
+     */
+    public void deleted(SyncedEntity type, Collection<Long> ids) {
+        record(type, ids, true);
+    }
+
+    /**
+     * The current transaction's change version, for a bulk UPDATE that stamps the rows it changes
+     * itself. It becomes visible to the feed when the transaction commits.
+     */
+    public long version() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A change version needs an active transaction");
+        }
+        return pending().version();
+    }
+
+    /**
+     * Highest version the feed may read through: every change at or below it has committed or
+     * rolled back. A writer pending for longer than {@code changes.pending.timeout.ms} is taken
+     * to have died and no longer holds the feed back.
+     */
+    public long committedThrough() {
+        // Counter first: a version handed out after this read is above it, one handed out
+        // before is still pending or has committed by the time the pending versions are read
+        Long counter = changeCounterRepository.findValue(ChangeCounter.CHANGE_VERSION);
+        Long oldestPending = pendingVersionRepository.findOldestAllocatedSince(pendingCutoff());
+        long upTo = counter != null ? counter : 0L;
+        return oldestPending != null ? Math.min(upTo, oldestPending - 1) : upTo;
+    }
+
+    /**
+     * Drop tombstones older than {@code changes.tombstone.retention.days}, and pending versions
+     * left behind by writers that died. Mirrors that last synced before the tombstones have to
+     * reload in full.
+     */
+    @Scheduled(fixedDelayString = "${changes.tombstone.purge.interval.ms:3600000}")
+    public void purgeTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetentionDays, ChronoUnit.DAYS);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int abandoned = pendingVersionRepository.deleteAllocatedBefore(pendingCutoff());
+            if (abandoned > 0) {
+                log.warn("Dropped {} change versions whose writers never finished", abandoned);
+            }
+            Long through = tombstoneRepository.findMaxVersionDeletedBefore(cutoff);
+            if (through == null) {
+                return;
+            }
+            int purged = tombstoneRepository.deleteThrough(through);
+            changeCounterRepository.raise(ChangeCounter.TOMBSTONES_PURGED_THROUGH, through);
+            log.info("Purged {} change tombstones through version {}", purged, through);
+        });
+    }
+
+    private void record(SyncedEntity type, Collection<Long> ids, boolean deleted) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> record(type, ids, deleted));
+            return;
+        }
+        PendingChanges pending = pending();
+        for (Long id : ids) {
+            pending.add(type, id, deleted);
+        }
+    }
+
+    // Kept on the transaction's own synchronization, so a nested REQUIRES_NEW transaction gets its own
+    private PendingChanges pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending) {
+                return pending;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private Instant pendingCutoff() {
+        return Instant.now().minusMillis(pendingTimeoutMs);
+    }
+
+    private long allocate() {
+        TransactionTemplate transaction = inNewTransaction();
+        return transaction.execute(status -> {
+            if (changeCounterRepository.advance(ChangeCounter.CHANGE_VERSION, 1) == 0) {
+                throw new IllegalStateException("Change counter row " + ChangeCounter.CHANGE_VERSION + " is missing");
+            }
+            long version = changeCounterRepository.findValue(ChangeCounter.CHANGE_VERSION);
+            entityManager.persist(new PendingChangeVersion(version, Instant.now()));
+            return version;
+        });
+    }
+
+    private void stamp(PendingChanges pending) {
+        // Pending inserts first, so the stamping UPDATEs find them
+        entityManager.flush();
+
+        long version = pending.version();
+        for (Map.Entry<SyncedEntity, SortedSet<Long>> changed : pending.changed.entrySet()) {
+            List<Long> ids = new ArrayList<>(changed.getValue());
+            for (int from = 0; from < ids.size(); from += STAMP_BATCH_SIZE) {
+                stamp(changed.getKey(), ids.subList(from, Math.min(from + STAMP_BATCH_SIZE, ids.size())), version);
+            }
+        }
+        Instant now = Instant.now();
+        for (Map.Entry<SyncedEntity, SortedSet<Long>> deleted : pending.deleted.entrySet()) {
+            for (Long id : deleted.getValue()) {
+                entityManager.persist(ChangeTombstone.builder()
+                        .changeVersion(version)
+                        .entityType(deleted.getKey())
+                        .entityId(id)
+                        .deletedAt(now)
+                        .build());
+            }
+        }
+        pendingVersionRepository.release(version);
+    }
+
+    private void stamp(SyncedEntity type, List<Long> ids, long version) {
+        switch (type) {
+            case SUPPLIER -> supplierRepository.stampChangeVersion(ids, version);
+            case FILAMENT_STOCK -> filamentStockRepository.stampChangeVersion(ids, version);
+        }
+    }
+
+    private void release(long version) {
+        try {
+            inNewTransaction().executeWithoutResult(status -> pendingVersionRepository.release(version));
+        } catch (RuntimeException e) {
+            // Only holds the feed back until the pending timeout
+            log.warn("Failed to release change version {} of a rolled-back transaction", version, e);
+        }
+    }
+
+    private TransactionTemplate inNewTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        // Rows in id order per table, like every other multi-row stock write
+        private final Map<SyncedEntity, SortedSet<Long>> changed = new EnumMap<>(SyncedEntity.class);
+        private final Map<SyncedEntity, SortedSet<Long>> deleted = new EnumMap<>(SyncedEntity.class);
+        private Long version;
+
+        long version() {
+            if (version == null) {
+                version = allocate();
+            }
+            return version;
+        }
+
+        void add(SyncedEntity type, Long id, boolean isDelete) {
+            if (isDelete) {
+                ids(changed, type).remove(id);
+                ids(deleted, type).add(id);
+            } else if (!ids(deleted, type).contains(id)) {
+                ids(changed, type).add(id);
+            }
+        }
+
+        boolean isEmpty() {
+            return version == null && changed.values().stream().allMatch(SortedSet::isEmpty)
+                    && deleted.values().stream().allMatch(SortedSet::isEmpty);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!isEmpty()) {
+                stamp(this);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // A committed version was dropped by the commit itself
+            if (version != null && status != STATUS_COMMITTED) {
+                release(version);
+            }
+        }
+
+        private SortedSet<Long> ids(Map<SyncedEntity, SortedSet<Long>> byType, SyncedEntity type) {
+            return byType.computeIfAbsent(type, key -> new TreeSet<>());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import entity.FilamentColor;
+import entity.FilamentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import util.CieLab;
+import util.KdTree;
+import util.NamedColors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds stocked colors that look closest to a requested one, for orders that accept a substitute
+ * shade.
+ * <p>
+ * Every registered color whose name places it in sRGB (see {@link NamedColors}) is converted to
+ * CIE Lab once and kept in a {@link KdTree}, rebuilt when the registry gains colors. A lookup takes
+ * the nearest shades within the tolerance and drops those the order pre-check rules out for the
+ * material and quantity, all in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class ColorSubstitutionService {
+
+    private final FilamentColorRegistry colorRegistry;
+    private final AvailabilityPrecheckService availabilityPrecheck;
+
+    private volatile Palette palette = new Palette(new KdTree<>(List.of()), 0);
+
+    /**
+     * Up to {@code limit} colors other than the requested one, nearest first, within
+     * {@code maxDifference} (CIE76 delta E) and possibly stocked in this material and quantity.
+     * Empty if the requested color cannot be placed in a color space.
+     */
+    public List<Substitute> findSubstitutes(FilamentType materialType, String color, long requiredGrams,
+                                            double maxDifference, int limit) {
+        Integer rgb = NamedColors.rgbOf(color);
+        if (rgb == null || limit <= 0) {
+            return List.of();
+        }
+        Integer requestedId = colorRegistry.findId(color);
+        KdTree<FilamentColor> tree = palette().tree();
+
+        List<Substitute> substitutes = new ArrayList<>(limit);
+        for (KdTree.Neighbor<FilamentColor> shade : tree.nearest(CieLab.fromRgb(rgb).coordinates(), maxDifference, tree.size())) {
+            Integer colorId = shade.value().getId();
+            if (colorId.equals(requestedId) || !availabilityPrecheck.mightHave(materialType, colorId, requiredGrams)) {
+                continue;
+            }
+            substitutes.add(new Substitute(colorId, shade.value().getName(), shade.distance()));
+            if (substitutes.size() == limit) {
+                break;
+            }
+        }
+        return substitutes;
+    }
+
+    private Palette palette() {
+        Collection<FilamentColor> colors = colorRegistry.colors();
+        Palette current = palette;
+        if (current.colorCount() == colors.size()) {
+            return current;
+        }
+        List<KdTree.Point<FilamentColor>> points = new ArrayList<>();
+        int colorCount = 0;
+        for (FilamentColor color : colors) {
+            colorCount++;
+            Integer rgb = NamedColors.rgbOf(color.getName());
+            if (rgb != null) {
+                points.add(new KdTree.Point<>(CieLab.fromRgb(rgb).coordinates(), color));
+            }
+        }
+        // Rebuilt by whichever caller sees the change first; a concurrent rebuild only repeats the work
+        Palette rebuilt = new Palette(new KdTree<>(points), colorCount);
+        palette = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * A stocked color and its CIE76 difference from the requested one.
+     */
+    public record Substitute(int colorId, String name, double difference) {
+    }
+
+    private record Palette(KdTree<FilamentColor> tree, int colorCount) {
+    }
+}
@@ -0,0 +1,211 @@
+package service;
+
+import entity.FilamentColor;
+import entity.FilamentStock;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentColorRepository;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Interns free-text colors to the small integer ids of {@link FilamentColor} rows, so stock
+ * matching, listings and the in-memory indexes key on an int instead of a string.
+ * <p>
+ * Colors are compared after {@link #normalize}: "Red", "red" and "RED " are one color, and known
+ * aliases such as "Grey" fold into their canonical name. Every row is held in memory from startup;
+ * a miss reads the table once, so colors interned by another instance are found too, and a color
+ * nobody has is remembered as missing for {@code filament.color.miss.ttl.ms} so repeated lookups
+ * of it stay in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FilamentColorRegistry {
+
+    // Normalized alias -> canonical display name
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("grey", "Gray"),
+            Map.entry("dark grey", "Dark Gray"),
+            Map.entry("light grey", "Light Gray"),
+            Map.entry("transparent", "Clear"),
+            Map.entry("translucent", "Clear"),
+            Map.entry("unpigmented", "Natural"),
+            Map.entry("uncolored", "Natural"),
+            Map.entry("uncoloured", "Natural"));
+
+    // Unknown spellings come from request input, so the miss cache is bounded
+    private static final int MAX_CACHED_MISSES = 10_000;
+
+    private final FilamentColorRepository colorRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${filament.color.miss.ttl.ms:60000}")
+    private long missTtlMs;
+
+    private final Map<String, FilamentColor> byName = new ConcurrentHashMap<>();
+    private final Map<Integer, FilamentColor> byId = new ConcurrentHashMap<>();
+    // Normalized name -> time the miss expires
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        inNewTransaction(colorRepository::findAll).forEach(this::register);
+        log.info("Loaded {} filament colors", byId.size());
+    }
+
+    /**
+     * Trimmed, single-spaced, accents stripped and lower case; null stays null.
+     */
+    public static String normalize(String color) {
+        if (color == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(color.trim().replaceAll("\\s+", " "), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Id of the canonical color for this spelling, or null if no stock has ever had it.
+     */
+    public Integer findId(String color) {
+        String key = key(color);
+        if (key == null) {
+            return null;
+        }
+        FilamentColor known = byName.get(key);
+        if (known != null) {
+            return known.getId();
+        }
+        Long missExpiresAt = misses.get(key);
+        if (missExpiresAt != null && missExpiresAt > System.currentTimeMillis()) {
+            return null;
+        }
+
+        Optional<FilamentColor> stored = inNewTransaction(() -> colorRepository.findByNormalizedName(key));
+        if (stored.isPresent()) {
+            register(stored.get());
+            return stored.get().getId();
+        }
+        if (misses.size() >= MAX_CACHED_MISSES) {
+            misses.clear();
+        }
+        misses.put(key, System.currentTimeMillis() + missTtlMs);
+        return null;
+    }
+
+    /**
+     * The canonical color for this spelling, created on first use; null for a blank color.
+     */
+    public FilamentColor intern(String color) {
+        String key = key(color);
+        if (key == null) {
+            return null;
+        }
+        FilamentColor known = byName.get(key);
+        if (known != null) {
+            return known;
+        }
+        synchronized (this) {
+            known = byName.get(key);
+            if (known != null) {
+                return known;
+            }
+            FilamentColor interned = create(key, displayName(color));
+            register(interned);
+            misses.remove(key);
+            log.info("Interned filament color '{}' as id {}", interned.getName(), interned.getId());
+            return interned;
+        }
+    }
+
+    /**
+     * Canonical display name of a color id, or null if there is no such color.
+     */
+    public String nameOf(Integer colorId) {
+        if (colorId == null) {
+            return null;
+        }
+        FilamentColor known = byId.get(colorId);
+        if (known != null) {
+            return known.getName();
+        }
+        Optional<FilamentColor> stored = inNewTransaction(() -> colorRepository.findById(colorId));
+        stored.ifPresent(this::register);
+        return stored.map(FilamentColor::getName).orElse(null);
+    }
+
+    /**
+     * Every color known to this instance; colors only ever get added.
+     */
+    public Collection<FilamentColor> colors() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * Point a stock row at the canonical color of the color it was given, and store that color's
+     * display name, so every spelling of it reads back the same.
+     */
+    public void applyTo(FilamentStock stock) {
+        FilamentColor color = intern(stock.getColor());
+        stock.setColorId(color != null ? color.getId() : null);
+        if (color != null) {
+            stock.setColor(color.getName());
+        }
+    }
+
+    private FilamentColor create(String key, String name) {
+        try {
+            return inNewTransaction(() -> colorRepository.findByNormalizedName(key)
+                    .orElseGet(() -> colorRepository.saveAndFlush(FilamentColor.builder()
+                            .name(name)
+                            .normalizedName(key)
+                            .build())));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance interned it first
+            return inNewTransaction(() -> colorRepository.findByNormalizedName(key)).orElseThrow(() -> e);
+        }
+    }
+
+    private void register(FilamentColor color) {
+        byName.put(color.getNormalizedName(), color);
+        byId.put(color.getId(), color);
+    }
+
+    // Normalized with aliases folded in: the key a color is stored and looked up under
+    static String key(String color) {
+        String normalized = normalize(color);
+        if (normalized == null || normalized.isEmpty()) {
+            return null;
+        }
+        String canonical = ALIASES.get(normalized);
+        return canonical != null ? normalize(canonical) : normalized;
+    }
+
+    // An alias takes its canonical name; anything else keeps the spelling it was first written in
+    private static String displayName(String color) {
+        String trimmed = color.trim().replaceAll("\\s+", " ");
+        return ALIASES.getOrDefault(normalize(trimmed), trimmed);
+    }
+
+    // Own transaction: an insert cannot run in a caller's read-only one, and a failed one must not roll the caller's back
+    private <T> T inNewTransaction(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction.execute(status -> work.get());
+    }
+}
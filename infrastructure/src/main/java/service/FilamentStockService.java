@@ -4,13 +4,21 @@ import dto.FilamentStockRequest;
 import dto.FilamentStockResponse;
 import entity.FilamentStock;
 import entity.FilamentType;
+import entity.Grams;
 import entity.Supplier;
+import entity.SyncedEntity;
+import exception.InsufficientStockException;
 import mapper.FilamentStockMapper;
 import repository.FilamentStockRepository;
 import repository.SupplierRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import repository.projection.FilamentStockListProjection;
 
 import java.util.Date;
 import java.util.List;
@@ -24,15 +32,29 @@ public class FilamentStockService {
     private final FilamentStockRepository filamentStockRepository;
     private final SupplierRepository supplierRepository;
     private final FilamentStockMapper filamentStockMapper;
+    private final StockChangePublisher stockChanges;
+    private final FilamentColorRegistry colorRegistry;
+    private final ChangeLogService changeLog;
     
-    public List<FilamentStockResponse> findAll() {
-        log.info("Finding all filament stock");
-        return filamentStockRepository.findAll()
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Value("${filament.stock.list.default.limit:100}")
+    private int defaultListLimit;
+    
+    @Value("${filament.stock.list.max.limit:500}")
+    private int maxListLimit;
+    
+    /**
+     * List filament stock ordered by id, one keyset page at a time.
+     *
+     * @param afterId Last id of the previous page, or null for the first page
+     * @param limit   Page size, or null for {@code filament.stock.list.default.limit}
+     */
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findAll(Long afterId, Integer limit) {
+        log.info("Finding all filament stock after id {}", afterId);
+        return toListResponses(filamentStockRepository.findListItems(cursor(afterId), page(limit)));
     }
     
+    @Transactional(readOnly = true)
     public FilamentStockResponse findById(Long id) {
         log.info("Finding filament stock by id: {}", id);
         
@@ -42,36 +64,41 @@ public class FilamentStockService {
         return filamentStockMapper.toResponse(filamentStock);
     }
     
+    @Transactional
     public FilamentStockResponse save(FilamentStockRequest request) {
         log.info("Saving filament stock: {}", request);
         
         FilamentStock filamentStock = filamentStockMapper.toEntity(request);
+        colorRegistry.applyTo(filamentStock);
         
         // Set supplier
         Supplier supplier = supplierRepository.findById(request.getSupplierId())
                 .orElseThrow(() -> new RuntimeException("Supplier not found with ID: " + request.getSupplierId()));
         filamentStock.setSupplier(supplier);
         
-        // Set default values
-        if (filamentStock.getReservedKg() == null) {
-            filamentStock.setReservedKg(0.0);
-        }
-        
         // Set last restocked date for new stock
         filamentStock.setLastRestocked(new Date());
         
         FilamentStock savedStock = filamentStockRepository.save(filamentStock);
+        changeLog.changed(SyncedEntity.FILAMENT_STOCK, savedStock.getId());
+        stockChanges.saved(savedStock);
         return filamentStockMapper.toResponse(savedStock);
     }
     
+    @Transactional
     public FilamentStockResponse update(Long id, FilamentStockRequest request) {
         log.info("Updating filament stock with id: {}", id);
         
-        FilamentStock existingStock = filamentStockRepository.findById(id)
+        FilamentStock existingStock = filamentStockRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("FilamentStock not found with ID: " + id));
+        if (Grams.fromKg(request.getQuantityKg()) < existingStock.getReservedGrams()) {
+            throw InsufficientStockException.belowReserved(id, request.getQuantityKg(),
+                    Grams.toKg(existingStock.getReservedGrams()));
+        }
         
         // Update fields from request
         filamentStockMapper.updateEntityFromRequest(existingStock, request);
+        colorRegistry.applyTo(existingStock);
         
         // Set supplier
         Supplier supplier = supplierRepository.findById(request.getSupplierId())
@@ -79,9 +106,12 @@ public class FilamentStockService {
         existingStock.setSupplier(supplier);
         
         FilamentStock savedStock = filamentStockRepository.save(existingStock);
+        changeLog.changed(SyncedEntity.FILAMENT_STOCK, savedStock.getId());
+        stockChanges.saved(savedStock);
         return filamentStockMapper.toResponse(savedStock);
     }
     
+    @Transactional
     public void deleteById(Long id) {
         log.info("Deleting filament stock by id: {}", id);
         
@@ -89,8 +119,11 @@ public class FilamentStockService {
                 .orElseThrow(() -> new RuntimeException("FilamentStock not found with ID: " + id));
         
         filamentStockRepository.delete(filamentStock);
+        changeLog.deleted(SyncedEntity.FILAMENT_STOCK, List.of(id));
+        stockChanges.removed(filamentStock);
     }
     
+    @Transactional(readOnly = true)
     public List<FilamentStockResponse> findBySupplierId(Long supplierId) {
         log.info("Finding filament stock by supplier id: {}", supplierId);
         return filamentStockRepository.findBySupplierId(supplierId)
@@ -99,98 +132,92 @@ public class FilamentStockService {
                 .collect(Collectors.toList());
     }
     
-    public List<FilamentStockResponse> findByMaterialType(FilamentType materialType) {
-        log.info("Finding filament stock by material type: {}", materialType);
-        return filamentStockRepository.findByMaterialType(materialType)
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findByMaterialType(FilamentType materialType, Long afterId, Integer limit) {
+        log.info("Finding filament stock by material type: {} after id {}", materialType, afterId);
+        return toListResponses(filamentStockRepository.findListItemsByMaterialType(materialType, cursor(afterId), page(limit)));
     }
     
-    public List<FilamentStockResponse> findByColor(String color) {
-        log.info("Finding filament stock by color: {}", color);
-        return filamentStockRepository.findByColor(color)
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findByColor(String color, Long afterId, Integer limit) {
+        log.info("Finding filament stock by color: {} after id {}", color, afterId);
+        Integer colorId = colorRegistry.findId(color);
+        if (colorId == null) {
+            return List.of();
+        }
+        return toListResponses(filamentStockRepository.findListItemsByColorId(colorId, cursor(afterId), page(limit)));
     }
     
-    public List<FilamentStockResponse> findAvailable() {
-        log.info("Finding available filament stock");
-        return filamentStockRepository.findByAvailableTrue()
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findAvailable(Long afterId, Integer limit) {
+        log.info("Finding available filament stock after id {}", afterId);
+        return toListResponses(filamentStockRepository.findAvailableListItems(cursor(afterId), page(limit)));
     }
     
+    @Transactional(readOnly = true)
     public List<FilamentStockResponse> findByMaterialTypeAndColor(FilamentType materialType, String color) {
         log.info("Finding filament stock by material type: {} and color: {}", materialType, color);
-        return filamentStockRepository.findByMaterialTypeAndColor(materialType, color)
+        Integer colorId = colorRegistry.findId(color);
+        if (colorId == null) {
+            return List.of();
+        }
+        return filamentStockRepository.findByMaterialTypeAndColorId(materialType, colorId)
                 .stream()
                 .map(filamentStockMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<FilamentStockResponse> findStockWithSufficientQuantity(Double requiredKg) {
         log.info("Finding filament stock with sufficient quantity: {} kg", requiredKg);
-        return filamentStockRepository.findStockWithSufficientQuantity(requiredKg)
+        return filamentStockRepository.findStockWithSufficientQuantity(Grams.fromKg(requiredKg))
                 .stream()
                 .map(filamentStockMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
-    public List<FilamentStockResponse> findLowStockItems(Double threshold) {
-        log.info("Finding low stock items below threshold: {} kg", threshold);
-        return filamentStockRepository.findLowStockItems(threshold)
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findLowStockItems(Double threshold, Long afterId, Integer limit) {
+        log.info("Finding low stock items below threshold: {} kg after id {}", threshold, afterId);
+        return toListResponses(filamentStockRepository.findLowStockListItems(Grams.fromKg(threshold), cursor(afterId),
+                page(limit)));
     }
     
-    public List<FilamentStockResponse> findExpiredStock() {
-        log.info("Finding expired filament stock");
-        return filamentStockRepository.findExpiredStock()
-                .stream()
-                .map(filamentStockMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findExpiredStock(Long afterId, Integer limit) {
+        log.info("Finding expired filament stock after id {}", afterId);
+        return toListResponses(filamentStockRepository.findExpiredListItems(cursor(afterId), page(limit)));
     }
     
+    @Transactional(readOnly = true)
     public Long countAvailableByMaterialType(FilamentType materialType) {
         log.info("Counting available stock by material type: {}", materialType);
         return filamentStockRepository.countAvailableByMaterialType(materialType);
     }
     
-    public FilamentStockResponse reserveStock(Long id, Double quantityKg) {
-        log.info("Reserving {} kg from filament stock id: {}", quantityKg, id);
-        
-        FilamentStock stock = filamentStockRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("FilamentStock not found with ID: " + id));
-        
-        if (!stock.hasEnoughStock(quantityKg)) {
-            throw new RuntimeException("Insufficient stock available. Required: " + quantityKg + 
-                                     ", Available: " + stock.getAvailableQuantityKg());
-        }
-        
-        stock.setReservedKg(stock.getReservedKg() + quantityKg);
-        FilamentStock savedStock = filamentStockRepository.save(stock);
-        return filamentStockMapper.toResponse(savedStock);
+    /**
+     * Stock rows changed in (since, upTo], oldest change first, without reservation figures; see
+     * ChangeFeedService.
+     */
+    @Transactional(readOnly = true)
+    public List<FilamentStockResponse> findChanged(long since, long upTo, int limit) {
+        return filamentStockRepository.findChangedListItems(since, upTo, PageRequest.of(0, limit)).stream()
+                .map(filamentStockMapper::toChangeResponse)
+                .collect(Collectors.toList());
     }
     
-    public FilamentStockResponse releaseReservedStock(Long id, Double quantityKg) {
-        log.info("Releasing {} kg from reserved stock id: {}", quantityKg, id);
-        
-        FilamentStock stock = filamentStockRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("FilamentStock not found with ID: " + id));
-        
-        double currentReserved = stock.getReservedKg() != null ? stock.getReservedKg() : 0.0;
-        if (currentReserved < quantityKg) {
-            throw new RuntimeException("Cannot release more than reserved. Reserved: " + currentReserved + 
-                                     ", Requested: " + quantityKg);
-        }
-        
-        stock.setReservedKg(currentReserved - quantityKg);
-        FilamentStock savedStock = filamentStockRepository.save(stock);
-        return filamentStockMapper.toResponse(savedStock);
+    private List<FilamentStockResponse> toListResponses(List<FilamentStockListProjection> items) {
+        return items.stream()
+                .map(filamentStockMapper::toListResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private Long cursor(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+    
+    private Pageable page(Integer limit) {
+        int size = limit != null && limit > 0 ? Math.min(limit, maxListLimit) : defaultListLimit;
+        return PageRequest.of(0, size);
     }
-
 }
\ No newline at end of file
@@ -0,0 +1,372 @@
+package service;
+
+import dto.StockReservationResponse;
+import entity.FilamentStock;
+import entity.Grams;
+import entity.ReservationStatus;
+import entity.StockReservation;
+import exception.InsufficientStockException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mapper.StockReservationMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentStockRepository;
+import repository.StockReservationRepository;
+import util.IntentLog;
+import util.StripedCounter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Optional fast path for the few stock items that take most reservations during a drop
+ * ({@code filament.stock.reservation.hot.*}).
+ * <p>
+ * The unreserved grams of each hot stock item live in a {@link StripedCounter}, so holds are
+ * admitted without touching the database. Every admitted hold is appended to an fsync'd
+ * {@link IntentLog} before the caller gets its answer, and the queued holds are written to
+ * {@code stock_reservation} and {@code filament_stock.reserved_grams} in one transaction per flush
+ * interval. Journal segments are only deleted after that transaction commits; on startup any
+ * segments left behind are replayed, skipping holds whose {@code intentId} is already stored.
+ * <p>
+ * Releases, expiries and stock edits go to the database as usual. They reach the counters when
+ * each counter is rebuilt from the database every resync interval. During a rebuild, new holds on
+ * that item wait until every hold in progress has been queued and flushed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockReservationService {
+
+    private final FilamentStockRepository filamentStockRepository;
+    private final StockReservationRepository reservationRepository;
+    private final StockReservationMapper reservationMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final StockChangePublisher stockChanges;
+
+    @Value("${filament.stock.reservation.hot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filament.stock.reservation.hot.stock.ids:}")
+    private Set<Long> hotStockIds;
+
+    @Value("${filament.stock.reservation.hot.stripes:16}")
+    private int stripes;
+
+    @Value("${filament.stock.reservation.hot.journal.dir:data/reservation-journal}")
+    private String journalDir;
+
+    private final Map<Long, HotStock> hotStocks = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Intent> queued = new ConcurrentLinkedQueue<>();
+    private final List<Intent> unflushed = new ArrayList<>(); // guarded by this
+    private IntentLog journal;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new IntentLog(Path.of(journalDir));
+        recover();
+        log.info("Hot stock reservations enabled for stock ids {}", hotStockIds);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (journal != null) {
+            flush();
+            journal.close();
+        }
+    }
+
+    public boolean isHot(Long stockId) {
+        return enabled && hotStockIds.contains(stockId);
+    }
+
+    /**
+     * Hold hot stock against its in-memory budget. The hold is durable when this returns but has
+     * no id until the next flush writes it to the ledger.
+     */
+    public StockReservationResponse reserve(Long stockId, long grams, String ownerKey, Instant now, Instant expiresAt) {
+        Intent intent = new Intent(UUID.randomUUID().toString(), stockId, grams, ownerKey, now, expiresAt);
+        long position;
+
+        HotStock stock = admit(stockId);
+        try {
+            if (!stock.budget.tryAcquire(grams)) {
+                throw InsufficientStockException.forStock(stockId, Grams.toKg(grams), Grams.toKg(stock.budget.sum()));
+            }
+            try {
+                position = journal.append(intent.toRecord(), () -> queued.add(intent));
+            } catch (IOException e) {
+                stock.budget.release(grams);
+                throw new RuntimeException("Failed to record reservation for stock " + stockId, e);
+            }
+        } finally {
+            stock.inflight.decrementAndGet();
+        }
+
+        try {
+            journal.sync(position);
+        } catch (IOException e) {
+            // Already queued: the hold is stored by the next flush and expires if the caller gives up
+            throw new RuntimeException("Failed to sync reservation journal for stock " + stockId, e);
+        }
+        return reservationMapper.toResponse(intent.toReservation());
+    }
+
+    /**
+     * Take hot stock from the in-memory budgets for holds the current transaction writes to the
+     * database itself. The budgets stay pinned until the transaction completes and are given back
+     * if it rolls back.
+     *
+     * @param lines Grams per hot stock id, in id order
+     * @throws InsufficientStockException listing every line the budgets cannot cover; nothing is taken then
+     */
+    public void acquireForTransaction(SortedMap<Long, Long> lines) {
+        Map<HotStock, Long> acquired = new LinkedHashMap<>();
+        List<String> shortLines = new ArrayList<>();
+        for (Map.Entry<Long, Long> line : lines.entrySet()) {
+            HotStock stock = admit(line.getKey());
+            long grams = line.getValue();
+            if (stock.budget.tryAcquire(grams)) {
+                acquired.put(stock, grams);
+            } else {
+                stock.inflight.decrementAndGet();
+                shortLines.add(String.format("stock %d (required: %s, available: %s)", line.getKey(),
+                        Grams.toKg(grams), Grams.toKg(stock.budget.sum())));
+            }
+        }
+
+        if (!shortLines.isEmpty()) {
+            settle(acquired, true);
+            throw InsufficientStockException.forLines(shortLines);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(acquired, status != STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Write queued holds to the database and drop the journal segments they came from.
+     */
+    @Scheduled(fixedDelayString = "${filament.stock.reservation.hot.flush.interval.ms:100}")
+    public void flush() {
+        flushQueued();
+    }
+
+    /**
+     * Write the owner's holds that are still only queued, so confirming or releasing them finds
+     * them in the ledger. Everything queued is flushed with them.
+     */
+    public synchronized void flushOwner(String ownerKey) {
+        if (journal == null) {
+            return;
+        }
+        // Queue first: a flush moves intents from the queue to unflushed while holding this lock
+        boolean pending = queued.stream().anyMatch(intent -> intent.ownerKey().equals(ownerKey))
+                || unflushed.stream().anyMatch(intent -> intent.ownerKey().equals(ownerKey));
+        if (pending && !flushQueued()) {
+            throw new RuntimeException("Failed to store hot stock reservations of owner " + ownerKey);
+        }
+    }
+
+    /**
+     * @return false if the write failed; the holds are kept and retried on the next flush
+     */
+    private synchronized boolean flushQueued() {
+        if (journal == null || (queued.isEmpty() && unflushed.isEmpty())) {
+            return true;
+        }
+
+        long sealed;
+        try {
+            sealed = journal.rotate();
+        } catch (IOException e) {
+            log.error("Failed to rotate reservation journal", e);
+            return false;
+        }
+        for (Intent intent; (intent = queued.poll()) != null; ) {
+            unflushed.add(intent);
+        }
+
+        try {
+            store(unflushed);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} hot stock reservations, will retry", unflushed.size(), e);
+            return false;
+        }
+        unflushed.clear();
+
+        try {
+            journal.deleteThrough(sealed);
+        } catch (IOException e) {
+            log.warn("Failed to delete flushed reservation journal segments", e);
+        }
+        return true;
+    }
+
+    /**
+     * Rebuild each hot budget from the database so releases, expiries and stock edits count.
+     */
+    @Scheduled(fixedDelayString = "${filament.stock.reservation.hot.resync.interval.ms:5000}")
+    public void resync() {
+        if (journal == null) {
+            return;
+        }
+        hotStocks.forEach((stockId, stock) -> {
+            stock.frozen = true;
+            try {
+                while (stock.inflight.get() > 0) {
+                    LockSupport.parkNanos(100_000);
+                }
+                // A budget read while holds are still unflushed would count them as free
+                if (flushQueued()) {
+                    stock.budget = new StripedCounter(availableGrams(stockId), stripes);
+                }
+            } finally {
+                stock.frozen = false;
+            }
+        });
+    }
+
+    private HotStock admit(Long stockId) {
+        while (true) {
+            HotStock stock = hotStocks.computeIfAbsent(stockId,
+                    id -> new HotStock(new StripedCounter(availableGrams(id), stripes)));
+            stock.inflight.incrementAndGet();
+            if (!stock.frozen) {
+                return stock;
+            }
+            stock.inflight.decrementAndGet();
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private void settle(Map<HotStock, Long> acquired, boolean giveBack) {
+        acquired.forEach((stock, grams) -> {
+            if (giveBack) {
+                stock.budget.release(grams);
+            }
+            stock.inflight.decrementAndGet();
+        });
+    }
+
+    private long availableGrams(Long stockId) {
+        // Read-write template: a read-only one may be routed to a lagging replica
+        FilamentStock stock = new TransactionTemplate(transactionManager)
+                .execute(status -> filamentStockRepository.findById(stockId).orElse(null));
+        if (stock == null || !stock.isAvailable()) {
+            return 0;
+        }
+        return Math.max(0, stock.getAvailableGrams());
+    }
+
+    private void store(List<Intent> intents) {
+        // Own transaction even when an owner's confirm or release flushes: the journal is dropped once this commits
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> {
+            Set<String> stored = new HashSet<>(reservationRepository.findExistingIntentIds(
+                    intents.stream().map(Intent::intentId).collect(Collectors.toList())));
+            List<Intent> fresh = intents.stream()
+                    .filter(intent -> !stored.contains(intent.intentId()))
+                    .collect(Collectors.toList());
+
+            reservationRepository.saveAll(fresh.stream().map(Intent::toReservation).collect(Collectors.toList()));
+            Map<Long, Long> gramsByStock = fresh.stream()
+                    .collect(Collectors.groupingBy(Intent::stockId, TreeMap::new,
+                            Collectors.summingLong(Intent::grams)));
+            gramsByStock.forEach(filamentStockRepository::addReserved);
+            stockChanges.changed(gramsByStock.keySet());
+        });
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = journal.sealedSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        List<Intent> intents = new ArrayList<>();
+        for (Path segment : segments) {
+            for (String record : IntentLog.readRecords(segment)) {
+                if (!record.isBlank()) {
+                    intents.add(Intent.parse(record));
+                }
+            }
+        }
+        store(intents);
+        journal.deleteThrough(Long.MAX_VALUE);
+        log.info("Replayed {} hot stock reservations from {} journal segments", intents.size(), segments.size());
+    }
+
+    private static final class HotStock {
+        private volatile StripedCounter budget;
+        private volatile boolean frozen;
+        private final AtomicInteger inflight = new AtomicInteger();
+
+        private HotStock(StripedCounter budget) {
+            this.budget = budget;
+        }
+    }
+
+    private record Intent(String intentId, Long stockId, long grams, String ownerKey,
+                          Instant createdAt, Instant expiresAt) {
+
+        String toRecord() {
+            return String.join("|", intentId, stockId.toString(), Long.toString(grams),
+                    Long.toString(createdAt.toEpochMilli()), Long.toString(expiresAt.toEpochMilli()),
+                    URLEncoder.encode(ownerKey, StandardCharsets.UTF_8));
+        }
+
+        static Intent parse(String record) {
+            String[] fields = record.split("\\|", 6);
+            return new Intent(fields[0], Long.valueOf(fields[1]), Long.parseLong(fields[2]),
+                    URLDecoder.decode(fields[5], StandardCharsets.UTF_8),
+                    Instant.ofEpochMilli(Long.parseLong(fields[3])), Instant.ofEpochMilli(Long.parseLong(fields[4])));
+        }
+
+        StockReservation toReservation() {
+            return StockReservation.builder()
+                    .stockId(stockId)
+                    .ownerKey(ownerKey)
+                    .quantityGrams(grams)
+                    .status(ReservationStatus.HELD)
+                    .createdAt(createdAt)
+                    .expiresAt(expiresAt)
+                    .intentId(intentId)
+                    .build();
+        }
+    }
+}
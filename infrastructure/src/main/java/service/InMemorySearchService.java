@@ -0,0 +1,79 @@
+package service;
+
+import dto.SearchResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import util.InvertedIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * What the in-memory search services share: the hit documents by id, rebuilding once the
+ * application is ready, removal, and turning a ranked index result into a page of hits.
+ * <p>
+ * Subclasses own the index itself: how it is loaded, what is indexed per document and how a
+ * query is matched. Writes keep it current through their {@code index} and {@link #remove}.
+ *
+ * @param <H> Search hit returned to callers, stored per document without a score
+ */
+@Slf4j
+public abstract class InMemorySearchService<H> {
+
+    protected final Map<Long, H> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        int indexed = reload();
+        log.info("{} index built with {} documents in {} ms", indexName(), indexed, System.currentTimeMillis() - start);
+    }
+
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        removeFromIndex(id);
+        documents.remove(id);
+    }
+
+    /**
+     * Replace the index and documents with what the table holds now.
+     *
+     * @return Number of documents indexed
+     */
+    protected abstract int reload();
+
+    protected abstract void removeFromIndex(long id);
+
+    protected abstract InvertedIndex.SearchResult searchIndex(String query, int offset, int limit);
+
+    protected abstract H withScore(H document, double score);
+
+    protected abstract String indexName();
+
+    /**
+     * One page of ranked hits. Hits whose document was removed since the index answered are dropped.
+     */
+    protected SearchResponse<H> page(String query, int page, int pageSize) {
+        InvertedIndex.SearchResult result = searchIndex(query, offset(page, pageSize), pageSize);
+        List<H> hits = result.hits().stream()
+                .map(hit -> {
+                    H document = documents.get(hit.docId());
+                    return document == null ? null : withScore(document, hit.score());
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new SearchResponse<>(query, page, pageSize, result.totalHits(), hits);
+    }
+
+    // Computed in long: a page far past the last hit must give an empty page, not overflow into a negative offset
+    static int offset(int page, int pageSize) {
+        return (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,378 @@
+package service;
+
+import dto.InventoryRollupResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Grams;
+import entity.Supplier;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import repository.projection.InventoryRollupRowProjection;
+import repository.projection.InventoryRollupTotalsProjection;
+import repository.projection.SupplierLocationProjection;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inventory totals per material, color and supplier location, kept in memory so dashboards read
+ * one precomputed cell instead of counting and summing stock themselves. Cells are keyed by color
+ * id; see FilamentColorRegistry.
+ * <p>
+ * The rollups are built once the application is ready. After that, each {@link StockChangedEvent}
+ * reports a row's new state and only the cells it leaves and enters change. A scheduled reconcile sums
+ * the table with one grouped query and reloads just the material and color pairs whose cells no
+ * longer match, which covers writes made by other instances and deletes that cascade from a
+ * supplier. Supplier locations are loaded with the rollups and kept current by
+ * {@link #supplierSaved}; a supplier first seen in a stock change, e.g. one created by another
+ * instance, is looked up by id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryRollupService {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    private final FilamentStockRepository filamentStockRepository;
+    private final FilamentColorRegistry colorRegistry;
+    private final SupplierRepository supplierRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Published figures per cell, replaced whenever the cell changes
+    private final Map<RollupKey, InventoryRollupResponse> rollups = new ConcurrentHashMap<>();
+    private final Map<Long, Location> supplierLocations = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<RollupKey, Cell> cells = new HashMap<>();
+    private final Map<Long, Row> rows = new HashMap<>();
+    // Writes reported while a reload reads the table, replayed over what it read; null means removed
+    private Map<Long, Row> writesDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            writesDuringReload = new HashMap<>();
+        }
+        // Every supplier, so stock later added to one without stock finds its location
+        forEachPage(afterId -> supplierRepository.findLocations(afterId, page()), SupplierLocationProjection::getId,
+                item -> supplierLocations.put(item.getId(), new Location(item.getCountry(), item.getState())));
+        Map<Long, Row> loaded = new HashMap<>();
+        forEachPage(afterId -> filamentStockRepository.findRollupRows(afterId, page()), InventoryRollupRowProjection::getId,
+                item -> loaded.put(item.getId(), row(item)));
+
+        synchronized (this) {
+            rows.clear();
+            cells.clear();
+            rollups.clear();
+            loaded.forEach(this::put);
+            replayWritesDuringReload();
+        }
+
+        log.info("Inventory rollups built with {} cells from {} stock items in {} ms",
+                rollups.size(), loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rollups matching the given filters; each null filter matches every value. With all four
+     * given this is a single lookup.
+     */
+    public List<InventoryRollupResponse> findRollups(FilamentType materialType, String color, String country,
+                                                     String state) {
+        Integer colorId = color != null ? colorRegistry.findId(color) : null;
+        if (color != null && colorId == null) {
+            return List.of();
+        }
+        if (materialType != null && colorId != null && country != null && state != null) {
+            InventoryRollupResponse rollup = rollups.get(new RollupKey(materialType, colorId, country, state));
+            return rollup != null ? List.of(rollup) : List.of();
+        }
+        return rollups.entrySet().stream()
+                .filter(entry -> materialType == null || materialType == entry.getKey().materialType())
+                .filter(entry -> colorId == null || colorId.equals(entry.getKey().colorId()))
+                .filter(entry -> country == null || country.equals(entry.getKey().country()))
+                .filter(entry -> state == null || state.equals(entry.getKey().state()))
+                .map(Map.Entry::getValue)
+                .sorted(Comparator.comparing(InventoryRollupResponse::getMaterialType, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(InventoryRollupResponse::getColor, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(InventoryRollupResponse::getCountry, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(InventoryRollupResponse::getState, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        event.saved().forEach(this::apply);
+        event.removed().forEach(stock -> remove(stock.getId()));
+    }
+
+    /**
+     * Count a stock item that was just saved, in place of what it counted for before.
+     */
+    public void apply(FilamentStock stock) {
+        if (stock == null || stock.getId() == null) {
+            return;
+        }
+        // Only the supplier's id: reading its location would load it outside the writer's session
+        Long supplierId = stock.getSupplier() != null ? stock.getSupplier().getId() : null;
+        Location location = location(supplierId);
+        Row row = new Row(new RollupKey(stock.getMaterialType(), stock.getColorId(), location.country(), location.state()),
+                supplierId, stock.getQuantityGrams(), stock.getReservedGrams(),
+                stock.isAvailable() ? stock.getAvailableGrams() : 0);
+        synchronized (this) {
+            write(stock.getId(), row);
+        }
+    }
+
+    public synchronized void remove(Long stockId) {
+        write(stockId, null);
+    }
+
+    /**
+     * Note a supplier's location, moving its stock to the cells of the new location if it changed.
+     */
+    public void supplierSaved(Supplier supplier) {
+        if (supplier == null || supplier.getId() == null) {
+            return;
+        }
+        Location location = new Location(supplier.getCountry(), supplier.getState());
+        if (location.equals(supplierLocations.put(supplier.getId(), location))) {
+            return;
+        }
+        synchronized (this) {
+            // Relocations are rare enough to scan for the supplier's rows
+            List<Map.Entry<Long, Row>> moved = rows.entrySet().stream()
+                    .filter(entry -> supplier.getId().equals(entry.getValue().supplierId()))
+                    .collect(Collectors.toList());
+            for (Map.Entry<Long, Row> entry : moved) {
+                Row row = entry.getValue();
+                RollupKey key = new RollupKey(row.key().materialType(), row.key().colorId(), location.country(), location.state());
+                write(entry.getKey(), new Row(key, row.supplierId(), row.quantityGrams(), row.reservedGrams(), row.availableGrams()));
+            }
+        }
+    }
+
+    /**
+     * Compare the rollups with one grouped query over the table, and reload the material and color
+     * pairs that have drifted.
+     */
+    @Scheduled(fixedDelayString = "${inventory.rollup.reconcile.interval.ms:300000}",
+            initialDelayString = "${inventory.rollup.reconcile.interval.ms:300000}")
+    public void reconcile() {
+        Map<RollupKey, Cell> actual = new HashMap<>();
+        for (InventoryRollupTotalsProjection totals : filamentStockRepository.sumRollups()) {
+            RollupKey key = new RollupKey(totals.getMaterialType(), totals.getColorId(), totals.getCountry(), totals.getState());
+            actual.computeIfAbsent(key, k -> new Cell()).add(totals);
+        }
+
+        Set<RollupKey> drifted = new HashSet<>();
+        synchronized (this) {
+            Stream.concat(actual.keySet().stream(), cells.keySet().stream())
+                    .filter(key -> !Objects.equals(actual.get(key), cells.get(key)))
+                    .forEach(drifted::add);
+        }
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        Set<RollupKey> pairs = drifted.stream()
+                .map(key -> new RollupKey(key.materialType(), key.colorId(), null, null))
+                .collect(Collectors.toSet());
+        log.warn("Inventory rollups drifted in {} cells, reloading {} material and color pairs", drifted.size(), pairs.size());
+        if (pairs.stream().anyMatch(pair -> pair.materialType() == null || pair.colorId() == null)) {
+            // Rows without a material or color cannot be selected by pair
+            rebuild();
+            return;
+        }
+        pairs.forEach(pair -> reload(pair.materialType(), pair.colorId()));
+    }
+
+    private void reload(FilamentType materialType, Integer colorId) {
+        synchronized (this) {
+            writesDuringReload = new HashMap<>();
+        }
+        Map<Long, Row> loaded = new HashMap<>();
+        forEachPage(afterId -> filamentStockRepository.findRollupRows(materialType, colorId, afterId, page()),
+                InventoryRollupRowProjection::getId, item -> loaded.put(item.getId(), row(item)));
+
+        synchronized (this) {
+            // Rows still counted under this pair that the table no longer has there
+            List<Long> gone = rows.entrySet().stream()
+                    .filter(entry -> entry.getValue().key().materialType() == materialType
+                            && colorId.equals(entry.getValue().key().colorId())
+                            && !loaded.containsKey(entry.getKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            gone.forEach(stockId -> put(stockId, null));
+            loaded.forEach(this::put);
+            replayWritesDuringReload();
+        }
+    }
+
+    // Guarded by this
+    private void write(Long stockId, Row row) {
+        if (writesDuringReload != null) {
+            writesDuringReload.put(stockId, row);
+        }
+        put(stockId, row);
+    }
+
+    // Guarded by this
+    private void replayWritesDuringReload() {
+        Map<Long, Row> writes = writesDuringReload;
+        writesDuringReload = null;
+        writes.forEach(this::put);
+    }
+
+    // Guarded by this
+    private void put(Long stockId, Row row) {
+        Row previous = row != null ? rows.put(stockId, row) : rows.remove(stockId);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (row != null) {
+            count(row, 1);
+        }
+    }
+
+    // Guarded by this
+    private void count(Row row, int sign) {
+        Cell cell = cells.computeIfAbsent(row.key(), key -> new Cell());
+        cell.add(row, sign);
+        if (cell.stockCount == 0) {
+            cells.remove(row.key());
+            rollups.remove(row.key());
+        } else {
+            rollups.put(row.key(), cell.toResponse(row.key(), colorRegistry.nameOf(row.key().colorId())));
+        }
+    }
+
+    private Location location(Long supplierId) {
+        if (supplierId == null) {
+            return Location.UNKNOWN;
+        }
+        Location location = supplierLocations.get(supplierId);
+        return location != null ? location : loadLocation(supplierId);
+    }
+
+    // Stock changes are applied once the write has committed, so the supplier row is there to read
+    private Location loadLocation(Long supplierId) {
+        try {
+            // Read-write, so the row is not read from a lagging replica
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            Location location = transaction.execute(status -> supplierRepository.findLocationById(supplierId)
+                    .map(item -> new Location(item.getCountry(), item.getState()))
+                    .orElse(null));
+            if (location == null) {
+                return Location.UNKNOWN;
+            }
+            Location known = supplierLocations.putIfAbsent(supplierId, location);
+            return known != null ? known : location;
+        } catch (RuntimeException e) {
+            // The next reconcile moves the row to its cell
+            log.warn("Failed to load the location of supplier {}", supplierId, e);
+            return Location.UNKNOWN;
+        }
+    }
+
+    private Row row(InventoryRollupRowProjection item) {
+        if (item.getSupplierId() != null) {
+            supplierLocations.put(item.getSupplierId(), new Location(item.getCountry(), item.getState()));
+        }
+        long quantityGrams = item.getQuantityGrams();
+        long reservedGrams = item.getReservedGrams();
+        return new Row(new RollupKey(item.getMaterialType(), item.getColorId(), item.getCountry(), item.getState()),
+                item.getSupplierId(), quantityGrams, reservedGrams,
+                Boolean.TRUE.equals(item.getAvailable()) ? quantityGrams - reservedGrams : 0);
+    }
+
+    private static <T> void forEachPage(LongFunction<List<T>> page, Function<T, Long> id, Consumer<T> action) {
+        long afterId = 0;
+        List<T> items;
+        do {
+            items = page.apply(afterId);
+            items.forEach(action);
+            if (!items.isEmpty()) {
+                afterId = id.apply(items.get(items.size() - 1));
+            }
+        } while (items.size() == LOAD_PAGE_SIZE);
+    }
+
+    private PageRequest page() {
+        return PageRequest.of(0, LOAD_PAGE_SIZE);
+    }
+
+    private record RollupKey(FilamentType materialType, Integer colorId, String country, String state) {
+    }
+
+    private record Location(String country, String state) {
+        static final Location UNKNOWN = new Location(null, null);
+    }
+
+    private record Row(RollupKey key, Long supplierId, long quantityGrams, long reservedGrams, long availableGrams) {
+    }
+
+    @EqualsAndHashCode
+    private static final class Cell {
+        private long stockCount;
+        private long quantityGrams;
+        private long reservedGrams;
+        private long availableGrams;
+        // Stock items per supplier, so the supplier count follows rows coming and going
+        private final Map<Long, Long> stockBySupplier = new HashMap<>();
+
+        void add(Row row, int sign) {
+            stockCount += sign;
+            quantityGrams += sign * row.quantityGrams();
+            reservedGrams += sign * row.reservedGrams();
+            availableGrams += sign * row.availableGrams();
+            stockBySupplier.merge(row.supplierId(), (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        void add(InventoryRollupTotalsProjection totals) {
+            stockCount += totals.getStockCount();
+            quantityGrams += totals.getQuantityGrams();
+            reservedGrams += totals.getReservedGrams();
+            availableGrams += totals.getAvailableGrams();
+            stockBySupplier.merge(totals.getSupplierId(), totals.getStockCount(), Long::sum);
+        }
+
+        InventoryRollupResponse toResponse(RollupKey key, String color) {
+            return InventoryRollupResponse.builder()
+                    .materialType(key.materialType())
+                    .color(color)
+                    .country(key.country())
+                    .state(key.state())
+                    .stockCount(stockCount)
+                    .supplierCount((int) stockBySupplier.keySet().stream().filter(Objects::nonNull).count())
+                    .totalQuantityKg(Grams.toKg(quantityGrams))
+                    .reservedQuantityKg(Grams.toKg(reservedGrams))
+                    .availableQuantityKg(Grams.toKg(availableGrams))
+                    .build();
+        }
+    }
+}
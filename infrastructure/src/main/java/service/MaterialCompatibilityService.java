@@ -0,0 +1,95 @@
+package service;
+
+import entity.FilamentType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which other materials an order that accepts substitute materials may be filled with.
+ * <p>
+ * Two materials are compatible when their nozzle and bed temperature windows overlap by at least
+ * {@code materials.substitutes.min.overlap.c}, so a printer set up for one prints the other.
+ * Overrides then add or remove pairs: a flexible or water-soluble filament prints at PLA
+ * temperatures but is no stand-in for it. Pairs are symmetric. The matrix is built once at
+ * startup as an EnumSet per material.
+ */
+@Service
+@Slf4j
+public class MaterialCompatibilityService {
+
+    @Value("${materials.substitutes.min.overlap.c:10}")
+    private int minOverlapC;
+
+    // Pairs written MATERIAL:MATERIAL
+    @Value("${materials.substitutes.allow:}")
+    private Set<String> allowedPairs;
+
+    @Value("${materials.substitutes.deny:}")
+    private Set<String> deniedPairs;
+
+    private final Map<FilamentType, Set<FilamentType>> substitutes = new EnumMap<>(FilamentType.class);
+
+    @PostConstruct
+    void build() {
+        for (FilamentType material : FilamentType.values()) {
+            EnumSet<FilamentType> compatible = EnumSet.noneOf(FilamentType.class);
+            for (FilamentType other : FilamentType.values()) {
+                if (other != material && printsAlike(material, other, minOverlapC)) {
+                    compatible.add(other);
+                }
+            }
+            substitutes.put(material, compatible);
+        }
+        allowedPairs.forEach(pair -> override(pair, true));
+        deniedPairs.forEach(pair -> override(pair, false));
+        substitutes.replaceAll((material, compatible) -> Collections.unmodifiableSet(compatible));
+        log.info("Material substitutes: {}", substitutes);
+    }
+
+    /**
+     * Materials that may stand in for this one; empty for none, never the material itself.
+     */
+    public Set<FilamentType> substitutesFor(FilamentType materialType) {
+        return materialType == null ? Set.of() : substitutes.getOrDefault(materialType, Set.of());
+    }
+
+    public boolean isSubstitute(FilamentType requested, FilamentType candidate) {
+        return substitutesFor(requested).contains(candidate);
+    }
+
+    /**
+     * True if both the nozzle and the bed temperature windows share at least {@code minOverlapC} degrees.
+     */
+    static boolean printsAlike(FilamentType a, FilamentType b, int minOverlapC) {
+        int nozzle = Math.min(a.getMaxTempC(), b.getMaxTempC()) - Math.max(a.getMinTempC(), b.getMinTempC());
+        int bed = Math.min(a.getMaxBedTempC(), b.getMaxBedTempC()) - Math.max(a.getMinBedTempC(), b.getMinBedTempC());
+        return nozzle >= minOverlapC && bed >= minOverlapC;
+    }
+
+    private void override(String pair, boolean compatible) {
+        String[] materials = pair.trim().split(":");
+        if (materials.length != 2) {
+            throw new IllegalArgumentException("Material substitute pair must be MATERIAL:MATERIAL, got '" + pair + "'");
+        }
+        FilamentType a = FilamentType.valueOf(materials[0].trim());
+        FilamentType b = FilamentType.valueOf(materials[1].trim());
+        if (a == b) {
+            return;
+        }
+        if (compatible) {
+            substitutes.get(a).add(b);
+            substitutes.get(b).add(a);
+        } else {
+            substitutes.get(a).remove(b);
+            substitutes.get(b).remove(a);
+        }
+    }
+}
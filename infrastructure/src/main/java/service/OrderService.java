@@ -1,6 +1,10 @@
 package service;
 
 import dto.*;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Grams;
+import entity.Supplier;
 import exception.SupplierNotFoundException;
 import mapper.FilamentStockMapper;
 import mapper.SupplierMapper;
@@ -8,10 +12,17 @@ import repository.SupplierRepository;
 import repository.projection.ClosetSupplierProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import util.DistanceCalculator;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,38 +31,69 @@ public class OrderService {
 
     private final SupplierRepository supplierRepository;
     private final GeocodingService geocodingService;
+    private final AvailabilityPrecheckService availabilityPrecheck;
+    private final FilamentColorRegistry colorRegistry;
+    private final ColorSubstitutionService colorSubstitution;
+    private final MaterialCompatibilityService materialCompatibility;
 
     private final SupplierMapper supplierMapper;
     private final FilamentStockMapper filamentStockMapper;
 
+    @Value("${orders.color.substitutes.max.difference:40}")
+    private double defaultMaxColorDifference;
+
+    @Value("${orders.color.substitutes.max.count:5}")
+    private int maxColorSubstitutes;
+
     /**
      * Find the closest supplier that has the required filament stock available.
      * <p>
      * OPTIMIZED Algorithm for Large Datasets:
+     * 0. In-memory pre-check: unknown colors, and material/color/quantity combinations no stock can
+     *    satisfy, fail at once; orders that accept substitute materials add the compatible ones that
+     *    pass it
      * 1. Address enrichment: If coordinates are missing, geocode the address
      * 2. Single database query with spatial calculations and JOIN on stock
      * 3. Distance calculated directly in SQL using Haversine formula
      * 4. Filters by active, verified, coordinates, and stock availability
      * 5. Orders by distance and limits results for performance
-     * 6. Returns the closest supplier efficiently
+     * 6. Returns the closest supplier efficiently, in the requested material wherever anyone has it
+     * 7. If none has the color and the order allows it, ranks the closest stocked shades instead
      * <p>
      * Performance: O(log n) with proper indexing vs O(n) with the naive approach
      *
      * @param orderRequest The order details including buyer location and requirements
-     * @return ClosestSupplierResponse with the best supplier (always successful)
-     * @throws SupplierNotFoundException       if no supplier is found with sufficient stock
+     * @return ClosestSupplierResponse with the best supplier, or with color substitutes if the order allows them
+     * @throws SupplierNotFoundException       if no supplier is found with sufficient stock (or substitute)
      * @throws StockDataInconsistencyException if stock data integrity issues occur
      * @throws IllegalArgumentException        if address geocoding fails and coordinates are missing
      */
     public ClosestSupplierResponse findClosestSupplier(OrderRequest orderRequest) {
+        // Impossible requests fail before geocoding or querying anything
+        Integer colorId = colorRegistry.findId(orderRequest.getColor());
+        List<FilamentType> materials = candidateMaterials(orderRequest, colorId);
+        if (materials.isEmpty()) {
+            log.info("No stock can satisfy material: {}, color: {}, quantity: {} kg; skipping supplier search",
+                    orderRequest.getMaterialType(), orderRequest.getColor(), orderRequest.getRequiredQuantityKg());
+            return findColorSubstitutes(orderRequest);
+        }
+
         // Enrich coordinates from address if they are missing
         enrichCoordinatesIfNeeded(orderRequest);
         
         log.info("Finding closest supplier for material: {}, color: {}, quantity: {} kg, buyer location: ({}, {})",
-                orderRequest.getMaterialType(), orderRequest.getColor(), orderRequest.getRequiredQuantityKg(),
+                materials, orderRequest.getColor(), orderRequest.getRequiredQuantityKg(),
                 orderRequest.getBuyerLatitude(), orderRequest.getBuyerLongitude());
 
-        var closetSupplierProjection = getClosetSupplierWithStockProjection(orderRequest);
+        Optional<ClosetSupplierProjection> supplierStockProjection =
+                getClosetSupplierWithStockProjection(orderRequest, materials, colorId);
+        if (supplierStockProjection.isEmpty()) {
+            log.warn("No supplier found - Material: {}, Color: {}, Quantity: {} kg",
+                    orderRequest.getMaterialType(), orderRequest.getColor(), orderRequest.getRequiredQuantityKg());
+            return findColorSubstitutes(orderRequest);
+        }
+
+        var closetSupplierProjection = supplierStockProjection.get();
         var closestSupplier = supplierMapper.fromStockProjection(closetSupplierProjection);
         var availableStock = filamentStockMapper.fromStockProjection(closetSupplierProjection, closestSupplier);
 
@@ -59,35 +101,129 @@ public class OrderService {
         FilamentStockResponse stockResponse = filamentStockMapper.toResponse(availableStock);
         double roundedDistance = DistanceCalculator.roundDistance(closetSupplierProjection.getDistanceKm(), 2);
 
-        log.info("Closest supplier found: {} ({} km away) with {} kg available stock",
-                closestSupplier.getName(), roundedDistance, availableStock.getAvailableQuantityKg());
+        log.info("Closest supplier found: {} ({} km away) with {} kg available {} stock",
+                closestSupplier.getName(), roundedDistance, Grams.toKg(availableStock.getAvailableGrams()),
+                availableStock.getMaterialType());
 
+        if (orderRequest.isAllowMaterialSubstitutes() && availableStock.getMaterialType() != orderRequest.getMaterialType()) {
+            return ClosestSupplierResponse.materialSubstitute(supplierResponse, stockResponse, roundedDistance,
+                    orderRequest.getMaterialType());
+        }
         return ClosestSupplierResponse.success(supplierResponse, stockResponse, roundedDistance);
     }
 
-    private ClosetSupplierProjection getClosetSupplierWithStockProjection(OrderRequest orderRequest) {
-        // Single optimized database query that finds the closest supplier and stock in one go
-        Optional<ClosetSupplierProjection> supplierStockProjection =
-                supplierRepository.findClosestSupplierWithStock(
-                        orderRequest.getBuyerLatitude(),
-                        orderRequest.getBuyerLongitude(),
-                        orderRequest.getMaterialType().name(), // Convert enum to string
-                        orderRequest.getColor(),
-                        orderRequest.getRequiredQuantityKg()
-                );
+    /**
+     * The requested material, then the compatible ones if the order accepts them, keeping only
+     * those the pre-check says might have the color and quantity. Empty for an unknown color.
+     */
+    private List<FilamentType> candidateMaterials(OrderRequest orderRequest, Integer colorId) {
+        if (colorId == null) {
+            return List.of();
+        }
+        long requiredGrams = Grams.fromKg(orderRequest.getRequiredQuantityKg());
+        List<FilamentType> materials = new ArrayList<>();
+        if (availabilityPrecheck.mightHave(orderRequest.getMaterialType(), colorId, requiredGrams)) {
+            materials.add(orderRequest.getMaterialType());
+        }
+        if (orderRequest.isAllowMaterialSubstitutes()) {
+            for (FilamentType substitute : materialCompatibility.substitutesFor(orderRequest.getMaterialType())) {
+                if (availabilityPrecheck.mightHave(substitute, colorId, requiredGrams)) {
+                    materials.add(substitute);
+                }
+            }
+        }
+        return materials;
+    }
 
-        if (supplierStockProjection.isEmpty()) {
-            log.warn("No supplier found - Material: {}, Color: {}, Quantity: {} kg",
-                    orderRequest.getMaterialType(), orderRequest.getColor(), orderRequest.getRequiredQuantityKg());
-            throw SupplierNotFoundException.forMaterialRequirement(
+    private Optional<ClosetSupplierProjection> getClosetSupplierWithStockProjection(OrderRequest orderRequest,
+                                                                                    List<FilamentType> materials,
+                                                                                    Integer colorId) {
+        if (materials.size() > 1) {
+            // Every acceptable material in one query, the requested one preferred
+            return supplierRepository.findClosestSupplierWithStockInMaterials(
+                    orderRequest.getBuyerLatitude(),
+                    orderRequest.getBuyerLongitude(),
+                    materials.stream().map(FilamentType::name).toList(),
                     orderRequest.getMaterialType().name(),
-                    orderRequest.getColor(),
-                    orderRequest.getRequiredQuantityKg()
+                    colorId,
+                    Grams.fromKg(orderRequest.getRequiredQuantityKg())
             );
         }
+        // Single optimized database query that finds the closest supplier and stock in one go
+        return supplierRepository.findClosestSupplierWithStock(
+                orderRequest.getBuyerLatitude(),
+                orderRequest.getBuyerLongitude(),
+                materials.get(0).name(), // Convert enum to string
+                colorId,
+                Grams.fromKg(orderRequest.getRequiredQuantityKg())
+        );
+    }
+
+    /**
+     * For orders that allow substitutes: the stocked shades nearest the requested color, each with
+     * its closest supplier, closest shade first. The shades come from memory and their suppliers
+     * from one query.
+     *
+     * @throws SupplierNotFoundException if the order does not allow substitutes or none has stock
+     */
+    private ClosestSupplierResponse findColorSubstitutes(OrderRequest orderRequest) {
+        if (!orderRequest.isAllowColorSubstitutes()) {
+            throw notFound(orderRequest);
+        }
+        long requiredGrams = Grams.fromKg(orderRequest.getRequiredQuantityKg());
+        double maxDifference = orderRequest.getMaxColorDifference() != null
+                ? orderRequest.getMaxColorDifference() : defaultMaxColorDifference;
+        Map<Integer, ColorSubstitutionService.Substitute> substitutes = colorSubstitution
+                .findSubstitutes(orderRequest.getMaterialType(), orderRequest.getColor(), requiredGrams, maxDifference,
+                        maxColorSubstitutes)
+                .stream()
+                .collect(Collectors.toMap(ColorSubstitutionService.Substitute::colorId, Function.identity()));
+        if (substitutes.isEmpty()) {
+            throw notFound(orderRequest);
+        }
+
+        enrichCoordinatesIfNeeded(orderRequest);
+        List<ColorSubstituteResponse> ranked = supplierRepository.findClosestSupplierWithStockPerColor(
+                        orderRequest.getBuyerLatitude(),
+                        orderRequest.getBuyerLongitude(),
+                        orderRequest.getMaterialType().name(),
+                        substitutes.keySet(),
+                        requiredGrams)
+                .stream()
+                .filter(projection -> substitutes.containsKey(projection.getColorId()))
+                .sorted(Comparator.comparingDouble((ClosetSupplierProjection projection) ->
+                                substitutes.get(projection.getColorId()).difference())
+                        .thenComparingDouble(ClosetSupplierProjection::getDistanceKm))
+                .map(projection -> toSubstituteResponse(projection, substitutes.get(projection.getColorId())))
+                .collect(Collectors.toList());
+        if (ranked.isEmpty()) {
+            throw notFound(orderRequest);
+        }
+
+        log.info("No supplier has {} {}; offering {} substitute colors, closest {}",
+                orderRequest.getMaterialType(), orderRequest.getColor(), ranked.size(), ranked.get(0).getColor());
+        return ClosestSupplierResponse.colorSubstitutes(orderRequest.getColor(), ranked);
+    }
+
+    private ColorSubstituteResponse toSubstituteResponse(ClosetSupplierProjection projection,
+                                                         ColorSubstitutionService.Substitute substitute) {
+        Supplier supplier = supplierMapper.fromStockProjection(projection);
+        FilamentStock stock = filamentStockMapper.fromStockProjection(projection, supplier);
+        return ColorSubstituteResponse.builder()
+                .color(substitute.name())
+                .colorDifference(Math.round(substitute.difference() * 10) / 10.0)
+                .supplier(supplierMapper.toResponse(supplier))
+                .availableStock(filamentStockMapper.toResponse(stock))
+                .distanceKm(DistanceCalculator.roundDistance(projection.getDistanceKm(), 2))
+                .build();
+    }
 
-        // Convert projection to entities using clean mapper methods
-        return supplierStockProjection.get();
+    private SupplierNotFoundException notFound(OrderRequest orderRequest) {
+        return SupplierNotFoundException.forMaterialRequirement(
+                orderRequest.getMaterialType().name(),
+                orderRequest.getColor(),
+                orderRequest.getRequiredQuantityKg()
+        );
     }
 
     /**
@@ -0,0 +1,118 @@
+package service;
+
+import dto.ProductSearchHit;
+import dto.SearchResponse;
+import entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import repository.ProductRepository;
+import repository.projection.ProductSearchProjection;
+import util.InvertedIndex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over product name and description.
+ * <p>
+ * The index lives in memory: it is built from the products table once the application is ready
+ * and kept current by {@link ProductService} on save, update and delete. Queries are answered
+ * entirely from memory, ranked with BM25 and support prefix matching.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService extends InMemorySearchService<ProductSearchHit> {
+
+    // Name matches weigh twice as much as description matches
+    private static final Map<String, Double> FIELD_BOOSTS = Map.of("name", 2.0, "description", 1.0);
+
+    private final ProductRepository productRepository;
+
+    private final InvertedIndex index = new InvertedIndex(FIELD_BOOSTS);
+
+    @Value("${product.search.max.results:100}")
+    private int maxResults;
+
+    @Value("${product.search.min.keyword.length:2}")
+    private int minKeywordLength;
+
+    /**
+     * Add or refresh a product in the index.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        index(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getSellerId(), product.getShopId());
+    }
+
+    /**
+     * Search products by name and description.
+     *
+     * @param query Free-text query; the last word may be incomplete
+     * @param page  Zero-based page number
+     * @param size  Page size, capped at {@code product.search.max.results}
+     * @return Ranked page of matching products
+     */
+    public SearchResponse<ProductSearchHit> search(String query, int page, int size) {
+        int pageSize = Math.min(size, maxResults);
+        log.info("Searching products for '{}' (page {}, size {})", query, page, pageSize);
+
+        if (query == null || query.trim().length() < minKeywordLength) {
+            return new SearchResponse<>(query, page, pageSize, 0, Collections.emptyList());
+        }
+        return page(query, page, pageSize);
+    }
+
+    @Override
+    protected int reload() {
+        List<ProductSearchProjection> products = productRepository.findAllSearchDocuments();
+
+        index.clear();
+        documents.clear();
+        products.forEach(p -> index(p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getSellerId(), p.getShopId()));
+        return products.size();
+    }
+
+    @Override
+    protected void removeFromIndex(long id) {
+        index.remove(id);
+    }
+
+    @Override
+    protected InvertedIndex.SearchResult searchIndex(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    @Override
+    protected ProductSearchHit withScore(ProductSearchHit document, double score) {
+        return document.toBuilder().score(score).build();
+    }
+
+    @Override
+    protected String indexName() {
+        return "Product search";
+    }
+
+    private void index(Long id, String name, String description, Double price, Long sellerId, Long shopId) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", name);
+        fields.put("description", description);
+        index.index(id, fields);
+
+        documents.put(id, ProductSearchHit.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(price)
+                .sellerId(sellerId)
+                .shopId(shopId)
+                .build());
+    }
+}
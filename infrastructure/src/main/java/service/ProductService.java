@@ -33,6 +33,7 @@ public class ProductService {
     private final ApplicationContext applicationContext;
     private final IntegrationAccountRepository integrationAccountRepository;
     private final ProductSyncRepository productSyncRepository;
+    private final ProductSearchService productSearchService;
 
     public ResponseEntity<?> publishProduct(Long id, PublishToStoreRequest req) throws Exception {
         // Get the product with stored files
@@ -50,6 +51,7 @@ public class ProductService {
         return storeProvider.publishProduct(req, product, integrationAccount);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> findAll() {
         log.info("Finding all products");
         return productRepository.findAll()
@@ -58,6 +60,7 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public ProductResponse findById(Long id) {
         log.info("Finding product by id: {}", id);
         
@@ -67,15 +70,18 @@ public class ProductService {
         return productMapper.toResponse(product);
     }
     
+    @Transactional
     public ProductResponse save(ProductRequest request) {
         log.info("Saving product: {}", request);
         
         Product product = productMapper.toEntity(request);
         Product savedProduct = productRepository.save(product);
+        productSearchService.index(savedProduct);
         
         return productMapper.toResponse(savedProduct);
     }
     
+    @Transactional
     public ProductResponse update(Long id, ProductRequest request) {
         log.info("Updating product with id: {}", id);
         
@@ -84,10 +90,12 @@ public class ProductService {
         
         productMapper.updateEntityFromRequest(existingProduct, request);
         Product savedProduct = productRepository.save(existingProduct);
+        productSearchService.index(savedProduct);
         
         return productMapper.toResponse(savedProduct);
     }
     
+    @Transactional
     public void delete(Long id) {
         log.info("Deleting product by id: {}", id);
         
@@ -95,6 +103,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
         
         productRepository.delete(product);
+        productSearchService.remove(id);
     }
 
     @Transactional
@@ -0,0 +1,117 @@
+package service;
+
+import dto.SearchResponse;
+import dto.ShopSearchHit;
+import entity.Shop;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import repository.ShopRepository;
+import repository.projection.ShopSearchProjection;
+import util.InvertedIndex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over shop name, description and address.
+ * <p>
+ * All three fields share one in-memory inverted index, so a search box query is a single lookup
+ * instead of three table scans. The index is built once the application is ready and kept
+ * current by {@link ShopService} writes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShopSearchService extends InMemorySearchService<ShopSearchHit> {
+
+    // Name matches count most, then address, then description
+    private static final Map<String, Double> FIELD_BOOSTS = Map.of("name", 3.0, "address", 1.5, "description", 1.0);
+
+    private final ShopRepository shopRepository;
+
+    private final InvertedIndex index = new InvertedIndex(FIELD_BOOSTS);
+
+    @Value("${shop.search.max.results:50}")
+    private int maxResults;
+
+    @Value("${shop.search.min.keyword.length:2}")
+    private int minKeywordLength;
+
+    /**
+     * Add or refresh a shop in the index.
+     */
+    public void index(Shop shop) {
+        if (shop == null || shop.getId() == null) {
+            return;
+        }
+        index(shop.getId(), shop.getSellerId(), shop.getName(), shop.getDescription(), shop.getAddress());
+    }
+
+    /**
+     * Search shops by name, description and address in one lookup.
+     *
+     * @param query Free-text query; the last word may be incomplete
+     * @param page  Zero-based page number
+     * @param size  Page size, capped at {@code shop.search.max.results}
+     * @return Ranked page of matching shops
+     */
+    public SearchResponse<ShopSearchHit> search(String query, int page, int size) {
+        int pageSize = Math.min(size, maxResults);
+        log.info("Searching shops for '{}' (page {}, size {})", query, page, pageSize);
+
+        if (query == null || query.trim().length() < minKeywordLength) {
+            return new SearchResponse<>(query, page, pageSize, 0, Collections.emptyList());
+        }
+        return page(query, page, pageSize);
+    }
+
+    @Override
+    protected int reload() {
+        List<ShopSearchProjection> shops = shopRepository.findAllSearchDocuments();
+
+        index.clear();
+        documents.clear();
+        shops.forEach(s -> index(s.getId(), s.getSellerId(), s.getName(), s.getDescription(), s.getAddress()));
+        return shops.size();
+    }
+
+    @Override
+    protected void removeFromIndex(long id) {
+        index.remove(id);
+    }
+
+    @Override
+    protected InvertedIndex.SearchResult searchIndex(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    @Override
+    protected ShopSearchHit withScore(ShopSearchHit document, double score) {
+        return document.toBuilder().score(score).build();
+    }
+
+    @Override
+    protected String indexName() {
+        return "Shop search";
+    }
+
+    private void index(Long id, Long sellerId, String name, String description, String address) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", name);
+        fields.put("description", description);
+        fields.put("address", address);
+        index.index(id, fields);
+
+        documents.put(id, ShopSearchHit.builder()
+                .id(id)
+                .sellerId(sellerId)
+                .name(name)
+                .description(description)
+                .address(address)
+                .build());
+    }
+}
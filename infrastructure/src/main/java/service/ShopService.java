@@ -5,11 +5,18 @@ import dto.ShopResponse;
 import entity.Shop;
 import mapper.ShopMapper;
 import repository.ShopRepository;
+import repository.projection.ShopProductCountProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,32 +26,38 @@ public class ShopService {
     
     private final ShopRepository shopRepository;
     private final ShopMapper shopMapper;
+    private final ShopSearchService shopSearchService;
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> findAll() {
         log.info("Finding all shops");
-        return shopRepository.findAll()
+        return shopRepository.findAllWithProductCounts()
                 .stream()
-                .map(shopMapper::toResponse)
+                .map(shopMapper::toSummaryResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public ShopResponse findById(Long id) {
         log.info("Finding shop by id: {}", id);
         
         Shop shop = shopRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Shop not found with ID: " + id));
         
-        return shopMapper.toResponse(shop);
+        return toResponse(shop);
     }
     
+    @Transactional
     public ShopResponse save(ShopRequest request) {
         log.info("Saving shop: {}", request);
         
         Shop shop = shopMapper.toEntity(request);
         Shop savedShop = shopRepository.save(shop);
-        return shopMapper.toResponse(savedShop);
+        shopSearchService.index(savedShop);
+        return toResponse(savedShop);
     }
     
+    @Transactional
     public void deleteById(Long id) {
         log.info("Deleting shop by id: {}", id);
         
@@ -52,73 +65,72 @@ public class ShopService {
                 .orElseThrow(() -> new RuntimeException("Shop not found with ID: " + id));
         
         shopRepository.delete(shop);
+        shopSearchService.remove(id);
     }
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> findBySellerId(Long sellerId) {
         log.info("Finding shops by seller id: {}", sellerId);
-        return shopRepository.findBySellerId(sellerId)
-                .stream()
-                .map(shopMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(shopRepository.findBySellerId(sellerId));
     }
     
+    @Transactional(readOnly = true)
     public ShopResponse findFirstBySellerId(Long sellerId) {
         log.info("Finding first shop by seller id: {}", sellerId);
         
         Shop shop = shopRepository.findFirstBySellerId(sellerId)
                 .orElseThrow(() -> new RuntimeException("Shop not found for seller ID: " + sellerId));
         
-        return shopMapper.toResponse(shop);
+        return toResponse(shop);
     }
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> searchByName(String name) {
         log.info("Searching shops by name: {}", name);
-        return shopRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(shopMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(shopRepository.findByNameContainingIgnoreCase(name));
     }
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> searchByDescription(String keyword) {
         log.info("Searching shops by description keyword: {}", keyword);
-        return shopRepository.findByDescriptionContainingIgnoreCase(keyword)
-                .stream()
-                .map(shopMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(shopRepository.findByDescriptionContainingIgnoreCase(keyword));
     }
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> searchByAddress(String address) {
         log.info("Searching shops by address: {}", address);
-        return shopRepository.findByAddressContainingIgnoreCase(address)
-                .stream()
-                .map(shopMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(shopRepository.findByAddressContainingIgnoreCase(address));
     }
     
+    @Transactional(readOnly = true)
     public List<ShopResponse> findShopsWithProducts() {
         log.info("Finding shops with products");
-        return shopRepository.findShopsWithProducts()
-                .stream()
-                .map(shopMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(shopRepository.findShopsWithProducts());
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<ShopResponse> findShopsWithProducts(int page, int size) {
+        log.info("Finding shops with products (page {}, size {})", page, size);
+        Page<Shop> shops = shopRepository.findShopsWithProducts(PageRequest.of(page, size, Sort.by("id")));
+        return new PageImpl<>(toResponses(shops.getContent()), shops.getPageable(), shops.getTotalElements());
     }
     
+    @Transactional(readOnly = true)
     public Long countProductsByShopId(Long shopId) {
         log.info("Counting products for shop id: {}", shopId);
         
-        // Verify shop exists
-        if (!shopRepository.existsById(shopId)) {
-            throw new RuntimeException("Shop not found with ID: " + shopId);
-        }
-        
-        return shopRepository.countProductsByShopId(shopId);
+        return shopRepository.findSummaryById(shopId)
+                .map(summary -> summary.getProductCount() != null ? summary.getProductCount() : 0L)
+                .orElseThrow(() -> new RuntimeException("Shop not found with ID: " + shopId));
     }
     
+    @Transactional(readOnly = true)
     public boolean existsBySellerId(Long sellerId) {
         log.info("Checking if shop exists for seller id: {}", sellerId);
         return shopRepository.existsBySellerId(sellerId);
     }
     
+    @Transactional
     public ShopResponse update(Long id, ShopRequest request) {
         log.info("Updating shop with id: {}", id);
         
@@ -127,9 +139,11 @@ public class ShopService {
         
         shopMapper.updateEntityFromRequest(existingShop, request);
         Shop savedShop = shopRepository.save(existingShop);
-        return shopMapper.toResponse(savedShop);
+        shopSearchService.index(savedShop);
+        return toResponse(savedShop);
     }
     
+    @Transactional
     public ShopResponse updateShopInfo(Long id, String name, String description, String address, String contactInfo) {
         log.info("Updating shop info for id: {}", id);
         
@@ -153,6 +167,35 @@ public class ShopService {
         }
         
         Shop savedShop = shopRepository.save(shop);
-        return shopMapper.toResponse(savedShop);
+        shopSearchService.index(savedShop);
+        return toResponse(savedShop);
+    }
+    
+    private ShopResponse toResponse(Shop shop) {
+        return toResponses(List.of(shop)).get(0);
+    }
+    
+    /**
+     * Map shops to responses, filling in product counts with one grouped query for the whole batch.
+     */
+    private List<ShopResponse> toResponses(List<Shop> shops) {
+        if (shops.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> shopIds = shops.stream().map(Shop::getId).collect(Collectors.toList());
+        Map<Long, Long> productCounts = shopRepository.countProductsByShopIds(shopIds)
+                .stream()
+                .collect(Collectors.toMap(ShopProductCountProjection::getShopId, ShopProductCountProjection::getProductCount));
+        
+        return shops.stream()
+                .map(shop -> {
+                    ShopResponse response = shopMapper.toResponse(shop);
+                    if (response != null) {
+                        response.setProductCount(productCounts.getOrDefault(shop.getId(), 0L));
+                    }
+                    return response;
+                })
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,414 @@
+package service;
+
+import dto.StockAlertResponse;
+import entity.FilamentStock;
+import entity.Grams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import repository.FilamentStockRepository;
+import repository.projection.FilamentStockListProjection;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Low-stock and expiry alerts kept current as stock is written, so dashboards neither poll nor
+ * scan the stock table.
+ * <p>
+ * The alerts are built once the application is ready from indexed range queries. After that,
+ * only the rows named by a {@link StockChangedEvent} are re-evaluated. Expiry dates within {@code filament.stock.alerts.expiry.horizon.hours}
+ * wait in a priority queue that a scheduled check drains in time order, refilling the window from
+ * the {@code expiry_date} index as it moves on. Both reads run outside the lock, and writes
+ * reported meanwhile are applied over what they read. Raised and cleared alerts are pushed to SSE
+ * subscribers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockAlertService {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    private final FilamentStockRepository filamentStockRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${product.stock.warning.threshold:10}")
+    private double thresholdKg;
+
+    @Value("${filament.stock.alerts.expiry.horizon.hours:24}")
+    private long horizonHours;
+
+    @Value("${filament.stock.alerts.sse.timeout.ms:1800000}")
+    private long sseTimeoutMs;
+
+    private final Map<Long, StockAlertResponse> lowStock = new ConcurrentHashMap<>();
+    private final Map<Long, StockAlertResponse> expired = new ConcurrentHashMap<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final PriorityQueue<Expiry> upcoming = new PriorityQueue<>();
+    private final Map<Long, Instant> scheduled = new HashMap<>();
+    private Instant horizonEnd;
+    // Rows written while a rebuild reads the table, re-evaluated over what it read; null means removed
+    private Map<Long, FilamentStock> writesDuringRebuild;
+    // Expiry dates written while the window is being extended, applied over what it read; null means none
+    private Map<Long, Instant> expiriesDuringExtend;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Instant now = Instant.now();
+        Instant to = now.plus(horizonHours, ChronoUnit.HOURS);
+        long thresholdGrams = Grams.fromKg(thresholdKg);
+
+        synchronized (this) {
+            writesDuringRebuild = new HashMap<>();
+        }
+        Map<Long, StockAlertResponse> low = new HashMap<>();
+        Map<Long, StockAlertResponse> past = new HashMap<>();
+        Map<Long, Instant> expiries;
+        try {
+            forEachPage(afterId -> filamentStockRepository.findLowStockListItems(thresholdGrams, afterId, page()),
+                    item -> low.put(item.getId(), alert(StockAlertResponse.Type.LOW_STOCK, item, now)));
+            forEachPage(afterId -> filamentStockRepository.findExpiringListItems(new Date(0), Date.from(now), afterId, page()),
+                    item -> past.put(item.getId(), alert(StockAlertResponse.Type.EXPIRED, item, now)));
+            expiries = loadExpiries(now, to);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                writesDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        int queued;
+        synchronized (this) {
+            lowStock.clear();
+            lowStock.putAll(low);
+            expired.clear();
+            expired.putAll(past);
+            upcoming.clear();
+            scheduled.clear();
+            expiries.forEach(this::schedule);
+            horizonEnd = to;
+
+            Map<Long, FilamentStock> writes = writesDuringRebuild;
+            writesDuringRebuild = null;
+            Instant replayedAt = Instant.now();
+            writes.forEach((stockId, stock) -> {
+                if (stock != null) {
+                    evaluate(stock, replayedAt, notifications);
+                } else {
+                    clear(stockId, notifications);
+                }
+            });
+            queued = scheduled.size();
+        }
+        notifications.forEach(this::push);
+
+        log.info("Stock alerts built with {} low-stock and {} expired items, {} expiries queued, in {} ms",
+                low.size(), past.size(), queued, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Current alerts, by stock id.
+     */
+    public List<StockAlertResponse> currentAlerts() {
+        return Stream.concat(lowStock.values().stream(), expired.values().stream())
+                .sorted(Comparator.comparing(StockAlertResponse::getStockId)
+                        .thenComparing(StockAlertResponse::getType))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stream of alerts as they are raised ({@code raised} events) and resolved ({@code cleared}
+     * events). Subscribe before reading {@link #currentAlerts()} so no change falls in between.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        event.saved().forEach(this::track);
+        event.removed().forEach(stock -> remove(stock.getId()));
+    }
+
+    /**
+     * Re-evaluate a stock item that was just saved.
+     */
+    public void track(FilamentStock stock) {
+        if (stock == null || stock.getId() == null) {
+            return;
+        }
+        List<Notification> notifications = new ArrayList<>();
+        synchronized (this) {
+            evaluate(stock, Instant.now(), notifications);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(stock.getId(), stock);
+            }
+        }
+        notifications.forEach(this::push);
+    }
+
+    public void remove(Long stockId) {
+        List<Notification> notifications = new ArrayList<>();
+        synchronized (this) {
+            clear(stockId, notifications);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(stockId, null);
+            }
+        }
+        notifications.forEach(this::push);
+    }
+
+    /**
+     * Raise expiry alerts that have come due and move the expiry window forward.
+     */
+    @Scheduled(fixedDelayString = "${filament.stock.alerts.expiry.check.interval.ms:60000}",
+            initialDelayString = "${filament.stock.alerts.expiry.check.interval.ms:60000}")
+    public void checkExpiries() {
+        Instant now = Instant.now();
+        extendHorizon(now);
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            if (horizonEnd == null) {
+                return;
+            }
+            while (!upcoming.isEmpty() && !upcoming.peek().at().isAfter(now)) {
+                Expiry expiry = upcoming.poll();
+                // Entries left behind when a stock item's expiryDate changed are skipped
+                if (expiry.at().equals(scheduled.get(expiry.stockId()))) {
+                    scheduled.remove(expiry.stockId());
+                    due.add(expiry.stockId());
+                }
+            }
+        }
+        if (!due.isEmpty()) {
+            refresh(due);
+        }
+    }
+
+    private void refresh(List<Long> stockIds) {
+        try {
+            // Read-write, so the rows are not read from a lagging replica
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            List<FilamentStock> stocks = transaction.execute(status -> filamentStockRepository.findAllById(stockIds));
+
+            Set<Long> missing = new HashSet<>(stockIds);
+            for (FilamentStock stock : stocks) {
+                missing.remove(stock.getId());
+                track(stock);
+            }
+            missing.forEach(this::remove);
+        } catch (RuntimeException e) {
+            // The next check, change or restart corrects the alerts
+            log.warn("Failed to refresh stock alerts for {}", stockIds, e);
+        }
+    }
+
+    // Reads the next stretch of the window outside the lock, so writes are not held up behind it
+    private void extendHorizon(Instant now) {
+        Instant to = now.plus(horizonHours, ChronoUnit.HOURS);
+        Instant from;
+        synchronized (this) {
+            if (horizonEnd == null || !to.isAfter(horizonEnd) || expiriesDuringExtend != null) {
+                return;
+            }
+            from = horizonEnd;
+            expiriesDuringExtend = new HashMap<>();
+        }
+        Map<Long, Instant> expiries;
+        try {
+            expiries = loadExpiries(from, to);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                expiriesDuringExtend = null;
+            }
+            // The next check tries again; until then the window stays where it was
+            log.warn("Failed to extend the stock expiry window", e);
+            return;
+        }
+
+        synchronized (this) {
+            Map<Long, Instant> written = expiriesDuringExtend;
+            expiriesDuringExtend = null;
+            if (!from.equals(horizonEnd)) {
+                // A rebuild replaced the window meanwhile
+                return;
+            }
+            expiries.forEach((stockId, expiry) -> {
+                if (!written.containsKey(stockId)) {
+                    schedule(stockId, expiry);
+                }
+            });
+            // Written rows were only queued if they fell inside the old window
+            written.forEach((stockId, expiry) -> {
+                if (expiry != null && !expiry.isBefore(from) && expiry.isBefore(to)) {
+                    schedule(stockId, expiry);
+                }
+            });
+            horizonEnd = to;
+        }
+    }
+
+    private Map<Long, Instant> loadExpiries(Instant from, Instant to) {
+        Map<Long, Instant> expiries = new HashMap<>();
+        Date since = Date.from(from);
+        Date until = Date.from(to);
+        forEachPage(afterId -> filamentStockRepository.findExpiringListItems(since, until, afterId, page()),
+                item -> expiries.put(item.getId(), Instant.ofEpochMilli(item.getExpiryDate().getTime())));
+        return expiries;
+    }
+
+    // Guarded by this
+    private void evaluate(FilamentStock stock, Instant now, List<Notification> notifications) {
+        boolean low = stock.isAvailable() && stock.getAvailableGrams() < Grams.fromKg(thresholdKg);
+        update(lowStock, low, alert(StockAlertResponse.Type.LOW_STOCK, stock, now), notifications);
+
+        Date expiryDate = stock.getExpiryDate();
+        Instant expiry = expiryDate != null ? Instant.ofEpochMilli(expiryDate.getTime()) : null;
+        boolean isExpired = expiry != null && !expiry.isAfter(now);
+        update(expired, isExpired, alert(StockAlertResponse.Type.EXPIRED, stock, now), notifications);
+
+        if (expiry != null && !isExpired && horizonEnd != null && expiry.isBefore(horizonEnd)) {
+            schedule(stock.getId(), expiry);
+        } else {
+            scheduled.remove(stock.getId());
+        }
+        if (expiriesDuringExtend != null) {
+            expiriesDuringExtend.put(stock.getId(), isExpired ? null : expiry);
+        }
+    }
+
+    // Guarded by this
+    private void clear(Long stockId, List<Notification> notifications) {
+        Stream.of(lowStock.remove(stockId), expired.remove(stockId))
+                .filter(Objects::nonNull)
+                .forEach(alert -> notifications.add(new Notification("cleared", alert)));
+        scheduled.remove(stockId);
+        if (expiriesDuringExtend != null) {
+            expiriesDuringExtend.put(stockId, null);
+        }
+    }
+
+    // Guarded by this
+    private void schedule(Long stockId, Instant expiry) {
+        if (!expiry.equals(scheduled.put(stockId, expiry))) {
+            upcoming.add(new Expiry(expiry, stockId));
+        }
+    }
+
+    // Guarded by this
+    private void update(Map<Long, StockAlertResponse> alerts, boolean active, StockAlertResponse alert,
+                        List<Notification> notifications) {
+        StockAlertResponse previous = alerts.get(alert.getStockId());
+        if (active && previous == null) {
+            alerts.put(alert.getStockId(), alert);
+            notifications.add(new Notification("raised", alert));
+        } else if (active) {
+            // Still alerting: keep the figures current without raising it again
+            alert.setRaisedAt(previous.getRaisedAt());
+            alerts.put(alert.getStockId(), alert);
+        } else if (previous != null) {
+            alerts.remove(alert.getStockId());
+            notifications.add(new Notification("cleared", alert));
+        }
+    }
+
+    private void push(Notification notification) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name(notification.event()).data(notification.alert()));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+            }
+        }
+    }
+
+    private void forEachPage(LongFunction<List<FilamentStockListProjection>> page,
+                             Consumer<FilamentStockListProjection> action) {
+        long afterId = 0;
+        List<FilamentStockListProjection> items;
+        do {
+            items = page.apply(afterId);
+            items.forEach(action);
+            if (!items.isEmpty()) {
+                afterId = items.get(items.size() - 1).getId();
+            }
+        } while (items.size() == LOAD_PAGE_SIZE);
+    }
+
+    private PageRequest page() {
+        return PageRequest.of(0, LOAD_PAGE_SIZE);
+    }
+
+    private StockAlertResponse alert(StockAlertResponse.Type type, FilamentStock stock, Instant now) {
+        return StockAlertResponse.builder()
+                .type(type)
+                .stockId(stock.getId())
+                .supplierId(stock.getSupplier() != null ? stock.getSupplier().getId() : null)
+                .materialType(stock.getMaterialType())
+                .color(stock.getColor())
+                .availableQuantityKg(Grams.toKg(stock.getAvailableGrams()))
+                .expiryDate(stock.getExpiryDate())
+                .raisedAt(now)
+                .build();
+    }
+
+    private StockAlertResponse alert(StockAlertResponse.Type type, FilamentStockListProjection item, Instant now) {
+        return StockAlertResponse.builder()
+                .type(type)
+                .stockId(item.getId())
+                .supplierId(item.getSupplierId())
+                .materialType(item.getMaterialType())
+                .color(item.getColor())
+                .availableQuantityKg(Grams.toKg(item.getQuantityGrams() - item.getReservedGrams()))
+                .expiryDate(item.getExpiryDate())
+                .raisedAt(now)
+                .build();
+    }
+
+    private record Expiry(Instant at, Long stockId) implements Comparable<Expiry> {
+        @Override
+        public int compareTo(Expiry other) {
+            return at.compareTo(other.at);
+        }
+    }
+
+    private record Notification(String event, StockAlertResponse alert) {
+    }
+}
@@ -0,0 +1,284 @@
+package service;
+
+import dto.StockAvailabilityResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Grams;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import repository.FilamentStockRepository;
+import repository.projection.StockPlacementProjection;
+import util.CoalescingBuffer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pushes stock availability changes to storefront subscribers over SSE, so "in stock" badges
+ * follow the stock table without polling it.
+ * <p>
+ * Stock writes are heard as {@link StockChangedEvent}s. Each change is offered to the subscribers of its
+ * material and color, plus those subscribed to only one of them or to everything. Every
+ * subscriber keeps a {@link CoalescingBuffer} of the latest state per stock item, and a scheduled
+ * flush sends each non-empty buffer as one {@code availability} event. An idle subscriber is only
+ * an entry in a map. A subscriber that falls more than {@code filament.stock.stream.buffer.size}
+ * items behind gets a {@code reset} event and should reload the listing. Topics are keyed by
+ * color id, so every spelling of a color reaches the same subscribers. Subscribing never creates
+ * a color: a subscriber to a color nobody stocks yet waits under its normalized name until the
+ * first stock of that color is published.
+ * <p>
+ * The material and color each stock item was last published under are kept by id, loaded once
+ * the application is ready. An item that moves to another material or color is sent as
+ * unavailable to the subscribers it leaves, and a delete known only by its id still reaches
+ * the subscribers of what the item was.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockAvailabilityStreamService {
+
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    private final FilamentColorRegistry colorRegistry;
+    private final FilamentStockRepository filamentStockRepository;
+
+    @Value("${filament.stock.stream.buffer.size:256}")
+    private int bufferSize;
+
+    @Value("${filament.stock.stream.sse.timeout.ms:1800000}")
+    private long sseTimeoutMs;
+
+    private final Map<Topic, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    // Color key -> subscribers to a color that has no id yet
+    private final Map<String, Set<Subscriber>> awaitingColor = new ConcurrentHashMap<>();
+    private final Queue<Subscriber> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPlacements() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        List<StockPlacementProjection> page;
+        long afterId = 0L;
+        do {
+            page = filamentStockRepository.findPlacements(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (StockPlacementProjection item : page) {
+                // A change published while loading is newer than the row read here
+                placements.putIfAbsent(item.getId(),
+                        new Placement(item.getMaterialType(), item.getColorId(), item.getColor()));
+                afterId = item.getId();
+            }
+            loaded += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Stock availability stream loaded {} stock items in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param materialType Only changes to this material, or null for every material
+     * @param color        Only changes to this color, or null for every color
+     */
+    public SseEmitter subscribe(FilamentType materialType, String color) {
+        // Looked up, never interned: a GET must not add colors to the table
+        String colorKey = FilamentColorRegistry.key(color);
+        Integer colorId = colorKey != null ? colorRegistry.findId(colorKey) : null;
+        Subscriber subscriber = new Subscriber(materialType, colorKey, new SseEmitter(sseTimeoutMs),
+                new CoalescingBuffer<>(bufferSize));
+        subscriber.getEmitter().onCompletion(() -> unsubscribe(subscriber));
+        subscriber.getEmitter().onTimeout(subscriber.getEmitter()::complete);
+        subscriber.getEmitter().onError(error -> unsubscribe(subscriber));
+
+        if (colorKey == null || colorId != null) {
+            join(subscriber, colorId);
+            return subscriber.getEmitter();
+        }
+        addTo(awaitingColor, colorKey, subscriber);
+        // The color may have been interned between the lookup and the line above
+        colorId = colorRegistry.findId(colorKey);
+        if (colorId != null) {
+            promoteAwaiting(colorKey, colorId);
+        }
+        return subscriber.getEmitter();
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        event.saved().forEach(this::publish);
+        event.removed().forEach(this::publishRemoved);
+    }
+
+    /**
+     * Publish the state of a stock item that was just saved.
+     */
+    public void publish(FilamentStock stock) {
+        if (stock == null || stock.getId() == null) {
+            return;
+        }
+        Placement placement = new Placement(stock.getMaterialType(), stock.getColorId(), stock.getColor());
+        Placement previous = placements.put(stock.getId(), placement);
+        Set<Topic> current = placement.topics();
+        if (previous != null && !previous.topics().equals(current)) {
+            offer(previous, removal(stock, previous), current);
+        }
+        offer(placement, StockAvailabilityResponse.builder()
+                .stockId(stock.getId())
+                .supplierId(supplierId(stock))
+                .materialType(stock.getMaterialType())
+                .color(stock.getColor())
+                .available(stock.isAvailable())
+                .availableQuantityKg(Grams.toKg(stock.getAvailableGrams()))
+                .build(), Set.of());
+    }
+
+    /**
+     * Publish that a stock item was deleted.
+     */
+    public void publishRemoved(FilamentStock stock) {
+        if (stock == null || stock.getId() == null) {
+            return;
+        }
+        Placement previous = placements.remove(stock.getId());
+        Placement placement = previous != null
+                ? previous
+                : new Placement(stock.getMaterialType(), stock.getColorId(), stock.getColor());
+        offer(placement, removal(stock, placement), Set.of());
+    }
+
+    /**
+     * Send what each subscriber has buffered since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${filament.stock.stream.flush.interval.ms:250}")
+    public void flush() {
+        for (Subscriber subscriber; (subscriber = pending.poll()) != null; ) {
+            CoalescingBuffer.Batch<StockAvailabilityResponse> batch = subscriber.getBuffer().drain();
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                if (batch.overflowed()) {
+                    subscriber.getEmitter().send(SseEmitter.event().name("reset").data(""));
+                } else {
+                    subscriber.getEmitter().send(SseEmitter.event().name("availability").data(batch.values()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private static StockAvailabilityResponse removal(FilamentStock stock, Placement placement) {
+        return StockAvailabilityResponse.builder()
+                .stockId(stock.getId())
+                .supplierId(supplierId(stock))
+                .materialType(placement.materialType())
+                .color(placement.color())
+                .available(false)
+                .availableQuantityKg(0.0)
+                .build();
+    }
+
+    private static Long supplierId(FilamentStock stock) {
+        return stock.getSupplier() != null ? stock.getSupplier().getId() : null;
+    }
+
+    // Offer the change to the subscribers of every topic the placement falls under, except skipped ones
+    private void offer(Placement placement, StockAvailabilityResponse change, Set<Topic> skip) {
+        if (!awaitingColor.isEmpty() && placement.colorId() != null) {
+            String colorKey = FilamentColorRegistry.key(placement.color());
+            if (colorKey != null) {
+                promoteAwaiting(colorKey, placement.colorId());
+            }
+        }
+        placement.topics().stream()
+                .filter(topic -> !skip.contains(topic))
+                .map(topics::get)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .forEach(subscriber -> {
+                    if (subscriber.getBuffer().offer(change.getStockId(), change)) {
+                        pending.add(subscriber);
+                    }
+                });
+    }
+
+    // Move the subscribers waiting for this color onto the topic of its id
+    private void promoteAwaiting(String colorKey, Integer colorId) {
+        Set<Subscriber> waiting = awaitingColor.remove(colorKey);
+        if (waiting != null) {
+            waiting.forEach(subscriber -> join(subscriber, colorId));
+        }
+    }
+
+    private void join(Subscriber subscriber, Integer colorId) {
+        Topic topic = new Topic(subscriber.getMaterialType(), colorId);
+        subscriber.topic = topic;
+        addTo(topics, topic, subscriber);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Topic topic = subscriber.topic;
+        if (topic != null) {
+            removeFrom(topics, topic, subscriber);
+        } else {
+            removeFrom(awaitingColor, subscriber.getColorKey(), subscriber);
+        }
+    }
+
+    // compute, not computeIfAbsent: an unsubscribe may drop the key's set concurrently
+    private static <K> void addTo(Map<K, Set<Subscriber>> subscribersByKey, K key, Subscriber subscriber) {
+        subscribersByKey.compute(key, (k, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Subscriber>> subscribersByKey, K key, Subscriber subscriber) {
+        subscribersByKey.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private record Topic(FilamentType materialType, Integer colorId) {
+    }
+
+    // Where a stock item is listed; the color name is only kept to promote awaiting subscribers
+    private record Placement(FilamentType materialType, Integer colorId, String color) {
+
+        Set<Topic> topics() {
+            return Stream.of(new Topic(materialType, colorId),
+                            new Topic(materialType, null),
+                            new Topic(null, colorId),
+                            new Topic(null, null))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Subscriber {
+        private final FilamentType materialType;
+        // Null when subscribed to every color
+        private final String colorKey;
+        private final SseEmitter emitter;
+        private final CoalescingBuffer<Long, StockAvailabilityResponse> buffer;
+        // Null while waiting for its color to be first stocked
+        private volatile Topic topic;
+    }
+}
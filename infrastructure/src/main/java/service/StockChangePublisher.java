@@ -0,0 +1,114 @@
+package service;
+
+import entity.FilamentStock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentStockRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The one place stock write paths report what they changed. Each report becomes a single
+ * {@link StockChangedEvent}, so a write path does not need to know who keeps a view of stock.
+ * <p>
+ * Inside a transaction the event waits for the commit: a rolled-back write publishes nothing,
+ * and listeners never hold up or fail the write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final FilamentStockRepository filamentStockRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Report stock rows that were just saved.
+     */
+    public void saved(Collection<FilamentStock> stocks) {
+        publish(new StockChangedEvent(List.copyOf(stocks), List.of()));
+    }
+
+    public void saved(FilamentStock stock) {
+        saved(List.of(stock));
+    }
+
+    /**
+     * Report a stock row that was just deleted.
+     */
+    public void removed(FilamentStock stock) {
+        publish(new StockChangedEvent(List.of(), List.of(stock)));
+    }
+
+    /**
+     * Report stock rows changed by a write that did not leave the entities at hand, e.g. a bulk
+     * UPDATE. The rows are re-read once the write has committed and published as they are then.
+     */
+    public void changed(Collection<Long> stockIds) {
+        if (stockIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(stockIds);
+        afterCommit(() -> reread(ids));
+    }
+
+    private void reread(List<Long> stockIds) {
+        try {
+            // Own read-write transaction: the writer's persistence context may hold stale rows after
+            // a bulk UPDATE, and a read-only one may be routed to a lagging replica
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            List<FilamentStock> stocks = transaction.execute(status -> filamentStockRepository.findAllById(stockIds));
+
+            Set<Long> missing = new HashSet<>(stockIds);
+            stocks.forEach(stock -> missing.remove(stock.getId()));
+            List<FilamentStock> removed = new ArrayList<>();
+            missing.forEach(stockId -> removed.add(FilamentStock.builder().id(stockId).build()));
+            dispatch(new StockChangedEvent(stocks, removed));
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next change, reconcile or restart corrects the views
+            log.warn("Failed to publish stock changes for {}", stockIds, e);
+        }
+    }
+
+    private void publish(StockChangedEvent event) {
+        if (!event.isEmpty()) {
+            afterCommit(() -> dispatch(event));
+        }
+    }
+
+    private void dispatch(StockChangedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // Same as a failed re-read: the write stands and the views catch up later
+            log.warn("Failed to publish stock changes for {} saved and {} removed rows",
+                    event.saved().size(), event.removed().size(), e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
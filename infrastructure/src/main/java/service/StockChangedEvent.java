@@ -0,0 +1,25 @@
+package service;
+
+import entity.FilamentStock;
+
+import java.util.List;
+
+/**
+ * Stock rows a write changed, published by {@link StockChangePublisher}. Alerts, the availability
+ * stream, the inventory rollups and the order pre-check keep their in-memory view of stock
+ * current by listening for it.
+ *
+ * @param saved   Rows as they are now
+ * @param removed Rows that were deleted; one found missing on a re-read carries only its id
+ */
+public record StockChangedEvent(List<FilamentStock> saved, List<FilamentStock> removed) {
+
+    public StockChangedEvent {
+        saved = List.copyOf(saved);
+        removed = List.copyOf(removed);
+    }
+
+    public boolean isEmpty() {
+        return saved.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,272 @@
+package service;
+
+import dto.StockReservationRequest;
+import dto.StockReservationResponse;
+import entity.FilamentStock;
+import entity.Grams;
+import entity.ReservationStatus;
+import entity.StockReservation;
+import entity.SyncedEntity;
+import exception.InsufficientStockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mapper.StockReservationMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FilamentStockRepository;
+import repository.StockReservationRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Filament stock holds kept as a ledger of {@link StockReservation} rows.
+ * <p>
+ * Every hold has an owner key (checkout or order reference) and an expiry. Holds that are
+ * neither confirmed nor released in time are given back by {@link StockReservationSweeper}.
+ * {@code FilamentStock.reservedGrams} stays the sum of the held rows: it is changed with a
+ * conditional UPDATE in the same transaction as each ledger change, so concurrent reservations
+ * cannot oversell and readers never have to aggregate the ledger.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final FilamentStockRepository filamentStockRepository;
+    private final StockReservationMapper reservationMapper;
+    private final HotStockReservationService hotStockReservations;
+    private final PlatformTransactionManager transactionManager;
+    private final StockChangePublisher stockChanges;
+    private final ChangeLogService changeLog;
+
+    @Value("${filament.stock.reservation.ttl.seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${filament.stock.reservation.max.ttl.seconds:86400}")
+    private long maxTtlSeconds;
+
+    /**
+     * Hold stock for an owner until the hold is confirmed, released or expires.
+     *
+     * @param ownerKey   Checkout or order reference; a random key is generated when null
+     * @param ttlSeconds Hold lifetime, or null for {@code filament.stock.reservation.ttl.seconds}
+     */
+    public StockReservationResponse reserve(Long stockId, Double quantityKg, String ownerKey, Long ttlSeconds) {
+        log.info("Reserving {} kg from filament stock id {} for owner {}", quantityKg, stockId, ownerKey);
+
+        long grams = heldGrams(quantityKg);
+        String owner = ownerKey(ownerKey);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(ttl(ttlSeconds));
+        if (hotStockReservations.isHot(stockId)) {
+            // No transaction at all: the hold is admitted in memory and written behind
+            return hotStockReservations.reserve(stockId, grams, owner, now, expiresAt);
+        }
+
+        StockReservationResponse response = new TransactionTemplate(transactionManager).execute(status -> {
+            if (filamentStockRepository.tryReserve(stockId, grams) == 0) {
+                FilamentStock stock = filamentStockRepository.findById(stockId)
+                        .orElseThrow(() -> new RuntimeException("FilamentStock not found with ID: " + stockId));
+                throw InsufficientStockException.forStock(stockId, quantityKg,
+                        stock.isAvailable() ? Grams.toKg(stock.getAvailableGrams()) : 0.0);
+            }
+
+            StockReservation reservation = reservationRepository.save(
+                    held(stockId, grams, owner, now, expiresAt));
+            return reservationMapper.toResponse(reservation);
+        });
+        stockChanges.changed(List.of(stockId));
+        return response;
+    }
+
+    /**
+     * Hold several stock items for one owner, all or nothing. The stock rows are locked in id
+     * order, so two orders sharing spools queue up instead of deadlocking; once every line is
+     * known to fit, the new reserved quantities are flushed as one JDBC batch.
+     *
+     * @throws InsufficientStockException listing every line that does not fit; nothing is held then
+     */
+    @Transactional
+    public List<StockReservationResponse> reserveAll(StockReservationRequest request) {
+        log.info("Reserving {} lines for owner {}", request.getLines().size(), request.getOwnerKey());
+
+        // Merge repeated stock ids; the sorted keys also give the lock order
+        SortedMap<Long, Long> requested = request.getLines().stream()
+                .collect(Collectors.toMap(StockReservationRequest.Line::getStockId,
+                        line -> heldGrams(line.getQuantityKg()), Long::sum, TreeMap::new));
+
+        // Hot items are taken from their in-memory budgets first, before any row is locked
+        SortedMap<Long, Long> hotLines = new TreeMap<>(requested);
+        hotLines.keySet().removeIf(stockId -> !hotStockReservations.isHot(stockId));
+        if (!hotLines.isEmpty()) {
+            hotStockReservations.acquireForTransaction(hotLines);
+        }
+
+        List<FilamentStock> stocks = filamentStockRepository.lockByIdIn(requested.keySet());
+        if (stocks.size() != requested.size()) {
+            List<Long> missing = new ArrayList<>(requested.keySet());
+            stocks.forEach(stock -> missing.remove(stock.getId()));
+            throw new RuntimeException("FilamentStock not found with ID: " + missing);
+        }
+
+        List<String> shortLines = new ArrayList<>();
+        for (FilamentStock stock : stocks) {
+            long grams = requested.get(stock.getId());
+            if (!stock.isAvailable() || !stock.hasEnoughStock(grams)) {
+                shortLines.add(String.format("stock %d (required: %s, available: %s)", stock.getId(),
+                        Grams.toKg(grams), stock.isAvailable() ? Grams.toKg(stock.getAvailableGrams()) : 0.0));
+            }
+        }
+        if (!shortLines.isEmpty()) {
+            throw InsufficientStockException.forLines(shortLines);
+        }
+
+        String owner = ownerKey(request.getOwnerKey());
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(ttl(request.getTtlSeconds()));
+        List<StockReservation> reservations = new ArrayList<>(stocks.size());
+        for (FilamentStock stock : stocks) {
+            long grams = requested.get(stock.getId());
+            stock.setReservedGrams(stock.getReservedGrams() + grams);
+            reservations.add(held(stock.getId(), grams, owner, now, expiresAt));
+        }
+        stockChanges.changed(requested.keySet());
+
+        return reservationRepository.saveAll(reservations).stream()
+                .map(reservationMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Turn an owner's holds into stock withdrawals, e.g. once the order is placed.
+     */
+    @Transactional
+    public List<StockReservationResponse> confirm(String ownerKey) {
+        log.info("Confirming reservations of owner {}", ownerKey);
+        return close(ownerKey, ReservationStatus.CONFIRMED);
+    }
+
+    /**
+     * Give an owner's holds back, e.g. when the checkout is abandoned.
+     */
+    @Transactional
+    public List<StockReservationResponse> release(String ownerKey) {
+        log.info("Releasing reservations of owner {}", ownerKey);
+        return close(ownerKey, ReservationStatus.RELEASED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockReservationResponse> findByOwner(String ownerKey) {
+        log.info("Finding reservations of owner {}", ownerKey);
+        return reservationRepository.findByOwnerKeyOrderById(ownerKey).stream()
+                .map(reservationMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Expire one batch of holds past their deadline. The batch is locked first, so an owner
+     * releasing or confirming at the same moment either wins or finds nothing left to close.
+     *
+     * @return Number of holds expired; less than {@code batchSize} once the backlog is cleared
+     */
+    @Transactional
+    public int expireBatch(Instant now, int batchSize) {
+        List<StockReservation> expired = reservationRepository.lockExpired(
+                ReservationStatus.HELD, now, PageRequest.of(0, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        expired.forEach(reservation -> {
+            reservation.setStatus(ReservationStatus.EXPIRED);
+            reservation.setClosedAt(now);
+        });
+
+        // One aggregate update per stock row rather than per hold, in id order like every other stock write
+        Map<Long, Long> releasedByStock = sumByStock(expired);
+        releasedByStock.forEach(filamentStockRepository::releaseReserved);
+        stockChanges.changed(releasedByStock.keySet());
+
+        log.info("Expired {} reservations across {} stock items", expired.size(), releasedByStock.size());
+        return expired.size();
+    }
+
+    private List<StockReservationResponse> close(String ownerKey, ReservationStatus status) {
+        // A hot hold is only in the journal queue until the next flush
+        hotStockReservations.flushOwner(ownerKey);
+        List<StockReservation> held = reservationRepository.lockByOwnerKeyAndStatus(ownerKey, ReservationStatus.HELD);
+        if (held.isEmpty()) {
+            throw new RuntimeException("No active reservations found for owner: " + ownerKey);
+        }
+
+        // Stock rows are updated in id order, matching the lock order of reserveAll
+        Map<Long, Long> heldByStock = sumByStock(held);
+        heldByStock.forEach(status == ReservationStatus.CONFIRMED
+                ? filamentStockRepository::consumeReserved
+                : filamentStockRepository::releaseReserved);
+        stockChanges.changed(heldByStock.keySet());
+        if (status == ReservationStatus.CONFIRMED) {
+            // Consuming a hold lowers quantityGrams, which mirrors copy; holds and releases do not
+            changeLog.changed(SyncedEntity.FILAMENT_STOCK, heldByStock.keySet());
+        }
+
+        Instant now = Instant.now();
+        held.forEach(reservation -> {
+            reservation.setStatus(status);
+            reservation.setClosedAt(now);
+        });
+
+        return held.stream()
+                .map(reservationMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> sumByStock(List<StockReservation> reservations) {
+        return reservations.stream()
+                .collect(Collectors.groupingBy(StockReservation::getStockId, TreeMap::new,
+                        Collectors.summingLong(StockReservation::getQuantityGrams)));
+    }
+
+    private StockReservation held(Long stockId, long grams, String ownerKey, Instant now, Instant expiresAt) {
+        return StockReservation.builder()
+                .stockId(stockId)
+                .ownerKey(ownerKey)
+                .quantityGrams(grams)
+                .status(ReservationStatus.HELD)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    // @Positive lets through quantities that round to 0 g, which would hold nothing
+    private static long heldGrams(Double quantityKg) {
+        long grams = Grams.fromKg(quantityKg);
+        if (grams <= 0) {
+            throw new IllegalArgumentException("Quantity " + quantityKg + " kg is less than one gram");
+        }
+        return grams;
+    }
+
+    private String ownerKey(String ownerKey) {
+        return ownerKey != null && !ownerKey.isBlank() ? ownerKey : UUID.randomUUID().toString();
+    }
+
+    private long ttl(Long ttlSeconds) {
+        if (ttlSeconds == null || ttlSeconds <= 0) {
+            return defaultTtlSeconds;
+        }
+        return Math.min(ttlSeconds, maxTtlSeconds);
+    }
+}
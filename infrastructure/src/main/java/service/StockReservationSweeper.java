@@ -0,0 +1,41 @@
+package service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Gives back filament stock held by reservations whose owners never confirmed or released them.
+ * Expired holds are processed in batches, each in its own transaction, so a large backlog never
+ * keeps many rows locked at once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationSweeper {
+
+    private final StockReservationService stockReservationService;
+
+    @Value("${filament.stock.reservation.sweep.batch.size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${filament.stock.reservation.sweep.interval.ms:30000}",
+            initialDelayString = "${filament.stock.reservation.sweep.interval.ms:30000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        int total = 0;
+        int expired;
+        do {
+            expired = stockReservationService.expireBatch(now, batchSize);
+            total += expired;
+        } while (expired == batchSize);
+
+        if (total > 0) {
+            log.info("Reservation sweep released {} expired holds", total);
+        }
+    }
+}
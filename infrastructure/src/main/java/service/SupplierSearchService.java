@@ -0,0 +1,149 @@
+package service;
+
+import dto.SearchResponse;
+import dto.SupplierSearchHit;
+import entity.Supplier;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import repository.SupplierRepository;
+import repository.projection.SupplierSearchProjection;
+import util.InvertedIndex;
+import util.TrigramIndex;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Typo-tolerant supplier name search for autocomplete.
+ * <p>
+ * Supplier names are held in an in-memory trigram index that is built once the application is
+ * ready and kept current by {@link SupplierService} writes, so lookups never scan the supplier
+ * table and their cost does not grow with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SupplierSearchService extends InMemorySearchService<SupplierSearchHit> {
+
+    private final SupplierRepository supplierRepository;
+
+    private volatile TrigramIndex index;
+
+    @Value("${supplier.search.max.results:50}")
+    private int maxResults;
+
+    @Value("${supplier.search.min.similarity:0.35}")
+    private double minSimilarity;
+
+    @PostConstruct
+    void init() {
+        index = new TrigramIndex(minSimilarity);
+    }
+
+    /**
+     * Add or refresh a supplier in the index.
+     */
+    public void index(Supplier supplier) {
+        if (supplier == null || supplier.getId() == null) {
+            return;
+        }
+        index.index(supplier.getId(), supplier.getName());
+        documents.put(supplier.getId(), SupplierSearchHit.builder()
+                .id(supplier.getId())
+                .name(supplier.getName())
+                .city(supplier.getCity())
+                .country(supplier.getCountry())
+                .verified(supplier.isVerified())
+                .active(supplier.isActive())
+                .build());
+    }
+
+    /**
+     * Apply a bulk status change to indexed suppliers. Names are unchanged, so only the stored
+     * documents are touched, not the trigram index.
+     *
+     * @param verified New verified flag, or null to leave it unchanged
+     * @param active   New active flag, or null to leave it unchanged
+     */
+    public void updateStatus(Collection<Long> supplierIds, Boolean verified, Boolean active) {
+        for (Long supplierId : supplierIds) {
+            documents.computeIfPresent(supplierId, (id, document) -> document.toBuilder()
+                    .verified(verified != null ? verified : document.isVerified())
+                    .active(active != null ? active : document.isActive())
+                    .build());
+        }
+    }
+
+    /**
+     * Search suppliers by name. Matches substrings and tolerates small typos.
+     *
+     * @param query Name fragment
+     * @param page  Zero-based page number
+     * @param size  Page size, capped at {@code supplier.search.max.results}
+     * @return Ranked page of matching suppliers
+     */
+    public SearchResponse<SupplierSearchHit> search(String query, int page, int size) {
+        int pageSize = Math.min(size, maxResults);
+        log.info("Searching supplier names for '{}' (page {}, size {})", query, page, pageSize);
+        return page(query, page, pageSize);
+    }
+
+    /**
+     * Ids of every matching supplier, most relevant first. Not capped by
+     * {@code supplier.search.max.results}: GET /suppliers/search has always returned every match.
+     */
+    public List<Long> findMatchingIds(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        return index.search(query, 0, Integer.MAX_VALUE).hits().stream()
+                .map(InvertedIndex.Hit::docId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected int reload() {
+        List<SupplierSearchProjection> suppliers = supplierRepository.findAllSearchDocuments();
+
+        TrigramIndex rebuilt = new TrigramIndex(minSimilarity);
+        documents.clear();
+        for (SupplierSearchProjection supplier : suppliers) {
+            rebuilt.index(supplier.getId(), supplier.getName());
+            documents.put(supplier.getId(), SupplierSearchHit.builder()
+                    .id(supplier.getId())
+                    .name(supplier.getName())
+                    .city(supplier.getCity())
+                    .country(supplier.getCountry())
+                    .verified(Boolean.TRUE.equals(supplier.getVerified()))
+                    .active(Boolean.TRUE.equals(supplier.getActive()))
+                    .build());
+        }
+        index = rebuilt;
+        return suppliers.size();
+    }
+
+    @Override
+    protected void removeFromIndex(long id) {
+        index.remove(id);
+    }
+
+    @Override
+    protected InvertedIndex.SearchResult searchIndex(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    @Override
+    protected SupplierSearchHit withScore(SupplierSearchHit document, double score) {
+        return document.toBuilder().score(score).build();
+    }
+
+    @Override
+    protected String indexName() {
+        return "Supplier name";
+    }
+}
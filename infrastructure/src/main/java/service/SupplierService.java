@@ -1,15 +1,29 @@
 package service;
 
+import dto.BulkUpdateResponse;
+import dto.SupplierBulkStatusRequest;
 import dto.SupplierRequest;
 import dto.SupplierResponse;
+import entity.FilamentStock;
 import entity.Supplier;
+import entity.SyncedEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mapper.SupplierMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import repository.SupplierRepository;
+import repository.projection.SupplierStockCountProjection;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,24 +33,31 @@ public class SupplierService {
     
     private final SupplierRepository supplierRepository;
     private final SupplierMapper supplierMapper;
+    private final SupplierSearchService supplierSearchService;
+    private final InventoryRollupService inventoryRollups;
+    private final ChangeLogService changeLog;
+    private final PlatformTransactionManager transactionManager;
     
+    @Value("${supplier.bulk.update.chunk.size:1000}")
+    private int bulkUpdateChunkSize;
+    
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findAll() {
         log.info("Finding all suppliers");
-        return supplierRepository.findAll()
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findAll());
     }
     
+    @Transactional(readOnly = true)
     public SupplierResponse findById(Long id) {
         log.info("Finding supplier by id: {}", id);
         
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Supplier not found with ID: " + id));
         
-        return supplierMapper.toResponse(supplier);
+        return toResponse(supplier);
     }
     
+    @Transactional
     public SupplierResponse save(SupplierRequest request) {
         log.info("Saving supplier: {}", request);
         
@@ -52,101 +73,112 @@ public class SupplierService {
         
         Supplier supplier = supplierMapper.toEntity(request);
         Supplier savedSupplier = supplierRepository.save(supplier);
-        return supplierMapper.toResponse(savedSupplier);
+        changeLog.changed(SyncedEntity.SUPPLIER, savedSupplier.getId());
+        supplierSearchService.index(savedSupplier);
+        inventoryRollups.supplierSaved(savedSupplier);
+        return toResponse(savedSupplier);
     }
     
+    @Transactional
     public void deleteById(Long id) {
         log.info("Deleting supplier by id: {}", id);
         
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Supplier not found with ID: " + id));
         
+        // Deleting a supplier deletes its stock too, so mirrors get a tombstone for each
+        List<Long> stockIds = supplier.getStock().stream().map(FilamentStock::getId).collect(Collectors.toList());
+        changeLog.deleted(SyncedEntity.FILAMENT_STOCK, stockIds);
+        changeLog.deleted(SyncedEntity.SUPPLIER, List.of(id));
         supplierRepository.delete(supplier);
+        supplierSearchService.remove(id);
+        stockIds.forEach(inventoryRollups::remove);
     }
     
+    @Transactional(readOnly = true)
     public SupplierResponse findByUserId(Long userId) {
         log.info("Finding supplier by user id: {}", userId);
         
         Supplier supplier = supplierRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Supplier not found with user ID: " + userId));
         
-        return supplierMapper.toResponse(supplier);
+        return toResponse(supplier);
     }
     
+    @Transactional(readOnly = true)
     public SupplierResponse findByEmail(String email) {
         log.info("Finding supplier by email: {}", email);
         
         Supplier supplier = supplierRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Supplier not found with email: " + email));
         
-        return supplierMapper.toResponse(supplier);
+        return toResponse(supplier);
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findVerified() {
         log.info("Finding verified suppliers");
-        return supplierRepository.findByVerifiedTrue()
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByVerifiedTrue());
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findActive() {
         log.info("Finding active suppliers");
-        return supplierRepository.findByActiveTrue()
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByActiveTrue());
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findVerifiedAndActive() {
         log.info("Finding verified and active suppliers");
-        return supplierRepository.findByVerifiedTrueAndActiveTrue()
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByVerifiedTrueAndActiveTrue());
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findByCity(String city) {
         log.info("Finding suppliers by city: {}", city);
-        return supplierRepository.findByCity(city)
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByCity(city));
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findByState(String state) {
         log.info("Finding suppliers by state: {}", state);
-        return supplierRepository.findByState(state)
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByState(state));
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findByCountry(String country) {
         log.info("Finding suppliers by country: {}", country);
-        return supplierRepository.findByCountry(country)
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findByCountry(country));
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> searchByName(String name) {
         log.info("Searching suppliers by name: {}", name);
-        return supplierRepository.findByNameContainingIgnoreCase(name)
+        
+        // Rank by the name index, then load only the matching rows by primary key
+        List<Long> rankedIds = supplierSearchService.findMatchingIds(name);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Supplier> suppliersById = supplierRepository.findAllById(rankedIds)
                 .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+        
+        return toResponses(rankedIds.stream()
+                .map(suppliersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
     }
     
+    @Transactional(readOnly = true)
     public List<SupplierResponse> findSuppliersWithinRadius(Double latitude, Double longitude, Double radiusKm) {
         log.info("Finding suppliers within {} km of coordinates: {}, {}", radiusKm, latitude, longitude);
         
-        return supplierRepository.findSuppliersWithinRadius(latitude, longitude, radiusKm)
-                .stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(supplierRepository.findSuppliersWithinRadius(latitude, longitude, radiusKm));
     }
     
+    @Transactional
     public SupplierResponse verifySupplier(Long id) {
         log.info("Verifying supplier with id: {}", id);
         
@@ -155,9 +187,12 @@ public class SupplierService {
         
         supplier.setVerified(true);
         Supplier savedSupplier = supplierRepository.save(supplier);
-        return supplierMapper.toResponse(savedSupplier);
+        changeLog.changed(SyncedEntity.SUPPLIER, savedSupplier.getId());
+        supplierSearchService.index(savedSupplier);
+        return toResponse(savedSupplier);
     }
     
+    @Transactional
     public SupplierResponse activateSupplier(Long id) {
         log.info("Activating supplier with id: {}", id);
         
@@ -166,9 +201,12 @@ public class SupplierService {
         
         supplier.setActive(true);
         Supplier savedSupplier = supplierRepository.save(supplier);
-        return supplierMapper.toResponse(savedSupplier);
+        changeLog.changed(SyncedEntity.SUPPLIER, savedSupplier.getId());
+        supplierSearchService.index(savedSupplier);
+        return toResponse(savedSupplier);
     }
     
+    @Transactional
     public SupplierResponse deactivateSupplier(Long id) {
         log.info("Deactivating supplier with id: {}", id);
         
@@ -177,9 +215,34 @@ public class SupplierService {
         
         supplier.setActive(false);
         Supplier savedSupplier = supplierRepository.save(supplier);
-        return supplierMapper.toResponse(savedSupplier);
+        changeLog.changed(SyncedEntity.SUPPLIER, savedSupplier.getId());
+        supplierSearchService.index(savedSupplier);
+        return toResponse(savedSupplier);
+    }
+    
+    /**
+     * Verify every selected supplier with one UPDATE statement per chunk of ids.
+     */
+    public BulkUpdateResponse verifySuppliers(SupplierBulkStatusRequest request) {
+        log.info("Bulk verifying suppliers: {}", request);
+        
+        List<Long> ids = resolveBulkIds(request);
+        int updated = updateInChunks(ids, (chunk, version) -> supplierRepository.verifyByIdIn(chunk, version));
+        supplierSearchService.updateStatus(ids, true, null);
+        return new BulkUpdateResponse(ids.size(), updated);
+    }
+    
+    public BulkUpdateResponse activateSuppliers(SupplierBulkStatusRequest request) {
+        log.info("Bulk activating suppliers: {}", request);
+        return updateActive(request, true);
     }
     
+    public BulkUpdateResponse deactivateSuppliers(SupplierBulkStatusRequest request) {
+        log.info("Bulk deactivating suppliers: {}", request);
+        return updateActive(request, false);
+    }
+    
+    @Transactional
     public SupplierResponse update(Long id, SupplierRequest request) {
         log.info("Updating supplier with id: {}", id);
         
@@ -201,8 +264,93 @@ public class SupplierService {
         
         supplierMapper.updateEntityFromRequest(existingSupplier, request);
         Supplier savedSupplier = supplierRepository.save(existingSupplier);
-        return supplierMapper.toResponse(savedSupplier);
+        changeLog.changed(SyncedEntity.SUPPLIER, savedSupplier.getId());
+        supplierSearchService.index(savedSupplier);
+        inventoryRollups.supplierSaved(savedSupplier);
+        return toResponse(savedSupplier);
     }
     
-
+    private BulkUpdateResponse updateActive(SupplierBulkStatusRequest request, boolean active) {
+        List<Long> ids = resolveBulkIds(request);
+        int updated = updateInChunks(ids, (chunk, version) -> supplierRepository.updateActiveByIdIn(chunk, active, version));
+        supplierSearchService.updateStatus(ids, null, active);
+        return new BulkUpdateResponse(ids.size(), updated);
+    }
+    
+    /**
+     * Explicit ids (deduplicated and sorted, so concurrent batches lock rows in the same order),
+     * or the ids of every supplier matching the location filters.
+     */
+    private List<Long> resolveBulkIds(SupplierBulkStatusRequest request) {
+        String country = blankToNull(request.getCountry());
+        String state = blankToNull(request.getState());
+        String city = blankToNull(request.getCity());
+        boolean hasFilters = country != null || state != null || city != null;
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        
+        if (hasIds && hasFilters) {
+            throw new IllegalArgumentException("Select suppliers either by ids or by country, state and city, not both");
+        }
+        if (hasIds) {
+            return request.getIds().stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+        }
+        if (!hasFilters) {
+            throw new IllegalArgumentException("Select suppliers by ids or by at least one of country, state and city");
+        }
+        return supplierRepository.findIdsByLocation(country, state, city);
+    }
+    
+    /**
+     * Run a bulk UPDATE per chunk in a transaction of its own; the statement stamps the rows it
+     * changes with that transaction's change version.
+     */
+    private int updateInChunks(List<Long> ids, ToIntBiFunction<List<Long>, Long> update) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += bulkUpdateChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkUpdateChunkSize, ids.size()));
+            updated += transaction.execute(status -> update.applyAsInt(chunk, changeLog.version()));
+        }
+        return updated;
+    }
+    
+    /**
+     * Suppliers changed in (since, upTo], oldest change first; see ChangeFeedService.
+     */
+    @Transactional(readOnly = true)
+    public List<SupplierResponse> findChanged(long since, long upTo, int limit) {
+        return toResponses(supplierRepository.findChanged(since, upTo, PageRequest.of(0, limit)));
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    private SupplierResponse toResponse(Supplier supplier) {
+        return toResponses(List.of(supplier)).get(0);
+    }
+    
+    /**
+     * Map suppliers to responses, filling in stock counts with one grouped query for the whole batch.
+     */
+    private List<SupplierResponse> toResponses(List<Supplier> suppliers) {
+        if (suppliers.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> supplierIds = suppliers.stream().map(Supplier::getId).collect(Collectors.toList());
+        Map<Long, Long> stockCounts = supplierRepository.countStockBySupplierIds(supplierIds)
+                .stream()
+                .collect(Collectors.toMap(SupplierStockCountProjection::getSupplierId, SupplierStockCountProjection::getStockCount));
+        
+        return suppliers.stream()
+                .map(supplier -> {
+                    SupplierResponse response = supplierMapper.toResponse(supplier);
+                    if (response != null) {
+                        response.setStockCount(stockCounts.getOrDefault(supplier.getId(), 0L).intValue());
+                    }
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package util;
+
+/**
+ * A color in CIE L*a*b* under the D65 white point. Lab is built so that straight-line distance
+ * follows how different two colors look: the CIE76 difference delta E is that distance, and a delta E of
+ * about 2.3 is just noticeable.
+ */
+public record CieLab(double l, double a, double b) {
+
+    // D65 reference white
+    private static final double XN = 0.95047;
+    private static final double YN = 1.0;
+    private static final double ZN = 1.08883;
+
+    /**
+     * @param rgb sRGB color as 0xRRGGBB
+     */
+    public static CieLab fromRgb(int rgb) {
+        double r = linear((rgb >> 16) & 0xFF);
+        double g = linear((rgb >> 8) & 0xFF);
+        double bl = linear(rgb & 0xFF);
+
+        double x = 0.4124564 * r + 0.3575761 * g + 0.1804375 * bl;
+        double y = 0.2126729 * r + 0.7151522 * g + 0.0721750 * bl;
+        double z = 0.0193339 * r + 0.1191920 * g + 0.9503041 * bl;
+
+        double fx = f(x / XN);
+        double fy = f(y / YN);
+        double fz = f(z / ZN);
+        return new CieLab(116 * fy - 16, 500 * (fx - fy), 200 * (fy - fz));
+    }
+
+    /**
+     * CIE76 color difference (delta E*ab).
+     */
+    public double distance(CieLab other) {
+        double dl = l - other.l;
+        double da = a - other.a;
+        double db = b - other.b;
+        return Math.sqrt(dl * dl + da * da + db * db);
+    }
+
+    public double[] coordinates() {
+        return new double[]{l, a, b};
+    }
+
+    // Undo the sRGB transfer curve
+    private static double linear(int channel) {
+        double c = channel / 255.0;
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static double f(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+}
@@ -0,0 +1,69 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded buffer of the latest value per key, for pushing changes to a consumer that drains
+ * it periodically. A burst of changes to one key costs one entry, delivered once, in the order
+ * the keys first changed.
+ * <p>
+ * When more keys change between drains than the buffer holds, the buffer gives up on the
+ * individual changes: it is emptied and marked overflowed, and ignores offers until the next
+ * drain. The consumer then has to reload the whole state rather than apply deltas.
+ */
+public final class CoalescingBuffer<K, V> {
+
+    private final int capacity;
+    private final Map<K, V> latest = new LinkedHashMap<>();
+    private boolean overflowed;
+
+    public CoalescingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Record the latest value for {@code key}.
+     *
+     * @return true if the buffer was empty, i.e. the caller should schedule a drain
+     */
+    public synchronized boolean offer(K key, V value) {
+        if (overflowed) {
+            return false;
+        }
+        boolean wasIdle = latest.isEmpty();
+        if (latest.size() == capacity && !latest.containsKey(key)) {
+            latest.clear();
+            overflowed = true;
+            return wasIdle;
+        }
+        latest.put(key, value);
+        return wasIdle;
+    }
+
+    /**
+     * Take everything offered since the last drain.
+     */
+    public synchronized Batch<V> drain() {
+        Batch<V> batch = new Batch<>(new ArrayList<>(latest.values()), overflowed);
+        latest.clear();
+        overflowed = false;
+        return batch;
+    }
+
+    /**
+     * @param values     Latest value per key, empty if overflowed
+     * @param overflowed Changes were dropped; the consumer must reload
+     */
+    public record Batch<V>(List<V> values, boolean overflowed) {
+
+        public boolean isEmpty() {
+            return values.isEmpty() && !overflowed;
+        }
+    }
+}
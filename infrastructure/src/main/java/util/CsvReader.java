@@ -0,0 +1,119 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader.
+ * <p>
+ * Records are read one at a time, so memory use does not depend on the size of the input.
+ * Fields may be quoted; quoted fields can contain separators, line breaks and doubled quotes.
+ * Both {@code \n} and {@code \r\n} line endings are accepted.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private int peeked = -2;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The record's fields, or null at end of input
+     * @throws IOException if reading fails or a quoted field is not closed
+     */
+    public List<String> next() throws IOException {
+        long startLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = startLine;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldWasQuoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == QUOTE) {
+                    if (peek() == QUOTE) {
+                        read();
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                fields.add(finish(field, fieldWasQuoted));
+                return fields;
+            } else if (c == '\r' && peek() == '\n') {
+                // part of a CRLF line ending; the '\n' ends the record
+            } else if (c == SEPARATOR) {
+                fields.add(finish(field, fieldWasQuoted));
+                field.setLength(0);
+                fieldWasQuoted = false;
+            } else if (c == QUOTE && field.isEmpty() && !fieldWasQuoted) {
+                quoted = true;
+                fieldWasQuoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line number on which the record last returned by {@link #next()} started (1-based).
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String finish(StringBuilder field, boolean quoted) {
+        return quoted ? field.toString() : field.toString().trim();
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
@@ -0,0 +1,169 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of one-line text records, written to numbered segment files
+ * ({@code intents-<n>.log}) in a directory.
+ * <p>
+ * {@link #append} only writes; {@link #sync} makes everything up to a returned position durable.
+ * Threads syncing at the same time share one {@code fsync}: whoever gets the sync lock forces
+ * every record appended so far, and the others find their position already covered.
+ * {@link #rotate} seals the current segment so it can be deleted once its records are stored
+ * elsewhere. Segments found on disk when the log is opened are left for the caller to replay.
+ */
+public final class IntentLog implements Closeable {
+
+    private static final String PREFIX = "intents-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final Object syncLock = new Object();
+
+    // Guarded by this
+    private FileChannel channel;
+    private long segment;
+    private long appended;
+
+    // Guarded by syncLock
+    private long durable;
+
+    public IntentLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.segment = segmentNumbers().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        this.channel = open(segment);
+    }
+
+    /**
+     * Write one record. {@code onWritten} runs while no other record can be appended and the
+     * segment cannot be rotated, so whatever it enqueues is visible to whoever rotates next.
+     *
+     * @return Position to pass to {@link #sync} to make this record durable
+     */
+    public long append(String record, Runnable onWritten) throws IOException {
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            appended += bytes.length;
+            onWritten.run();
+            return appended;
+        }
+    }
+
+    /**
+     * Block until every record up to {@code position} is on disk.
+     */
+    public void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (durable >= position) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = appended;
+            }
+            current.force(false);
+            durable = target;
+        }
+    }
+
+    /**
+     * Seal the current segment and continue in a new one.
+     *
+     * @return Number of the sealed segment
+     */
+    public long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                durable = appended;
+                long sealed = segment++;
+                channel = open(segment);
+                return sealed;
+            }
+        }
+    }
+
+    /**
+     * Sealed segments on disk, oldest first.
+     */
+    public synchronized List<Path> sealedSegments() throws IOException {
+        return segmentNumbers().stream()
+                .filter(number -> number < segment)
+                .sorted()
+                .map(this::path)
+                .toList();
+    }
+
+    /**
+     * Delete every sealed segment up to and including {@code sealed}.
+     */
+    public synchronized void deleteThrough(long sealed) throws IOException {
+        for (long number : segmentNumbers()) {
+            if (number <= sealed && number < segment) {
+                Files.deleteIfExists(path(number));
+            }
+        }
+    }
+
+    /**
+     * Records of a segment in write order. A last line without its newline was cut off by a
+     * crash before it was synced, so it is skipped.
+     */
+    public static List<String> readRecords(Path segment) throws IOException {
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n');
+        if (end < 0) {
+            return List.of();
+        }
+        return new ArrayList<>(Arrays.asList(content.substring(0, end).split("\n")));
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking and prefix matching.
+ * <p>
+ * Documents are identified by a numeric id and consist of one or more named fields.
+ * Each field keeps its own term frequencies and length statistics, and the per-field
+ * BM25 scores are multiplied by the field boost and summed (a simplified BM25F).
+ * <p>
+ * Every query term also matches indexed terms that start with it, so "pet" finds
+ * "petg"; prefix matches score slightly below exact matches. Searches share a read lock
+ * and index updates take the write lock, so one instance can be used by request threads
+ * while it is being maintained.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_WEIGHT = 0.8;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final String[] fields;
+    private final double[] boosts;
+
+    // term -> (docId -> term frequency per field)
+    private final NavigableMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private final long[] totalFieldLengths;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fieldBoosts Field names mapped to their score multiplier
+     */
+    public InvertedIndex(Map<String, Double> fieldBoosts) {
+        if (fieldBoosts == null || fieldBoosts.isEmpty()) {
+            throw new IllegalArgumentException("At least one indexed field is required");
+        }
+        this.fields = fieldBoosts.keySet().toArray(new String[0]);
+        this.boosts = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            boosts[i] = fieldBoosts.get(fields[i]);
+        }
+        this.totalFieldLengths = new long[fields.length];
+    }
+
+    /**
+     * Add or replace a document. Fields missing from the map are indexed as empty.
+     */
+    public void index(long docId, Map<String, String> fieldValues) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+
+            int[] lengths = new int[fields.length];
+            Map<String, int[]> termFrequencies = new HashMap<>();
+            for (int f = 0; f < fields.length; f++) {
+                List<String> tokens = SearchTokenizer.tokenize(fieldValues.get(fields[f]));
+                lengths[f] = tokens.size();
+                totalFieldLengths[f] += tokens.size();
+                for (String token : tokens) {
+                    termFrequencies.computeIfAbsent(token, t -> new int[fields.length])[f]++;
+                }
+            }
+
+            for (Map.Entry<String, int[]> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(docId, entry.getValue());
+            }
+            documents.put(docId, new IndexedDocument(lengths, termFrequencies.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document. Unknown ids are ignored.
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            Arrays.fill(totalFieldLengths, 0L);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank documents against a free-text query.
+     * A document matches if it contains at least one query term (or a term starting with it).
+     *
+     * @param query  Free-text query
+     * @param offset Number of top hits to skip
+     * @param limit  Maximum number of hits to return
+     * @return The requested slice of hits ordered by descending score, plus the total match count
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new SearchResult(Collections.emptyList(), 0);
+            }
+            double[] averageLengths = new double[fields.length];
+            for (int f = 0; f < fields.length; f++) {
+                averageLengths[f] = Math.max(1.0, (double) totalFieldLengths[f] / documentCount);
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                // Best match per document for this query term, so several expansions don't add up
+                Map<Long, Double> termScores = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, int[]>> entry : postings.tailMap(queryTerm, true).entrySet()) {
+                    String term = entry.getKey();
+                    if (!term.startsWith(queryTerm) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    double weight = term.equals(queryTerm) ? 1.0 : PREFIX_MATCH_WEIGHT;
+                    double idf = inverseDocumentFrequency(entry.getValue().size(), documentCount);
+                    for (Map.Entry<Long, int[]> posting : entry.getValue().entrySet()) {
+                        double score = weight * idf * fieldScore(posting.getValue(), documents.get(posting.getKey()).lengths(), averageLengths);
+                        termScores.merge(posting.getKey(), score, Math::max);
+                    }
+                }
+                termScores.forEach((docId, score) -> scores.merge(docId, score, Double::sum));
+            }
+
+            return new SearchResult(topHits(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double fieldScore(int[] termFrequencies, int[] lengths, double[] averageLengths) {
+        double score = 0.0;
+        for (int f = 0; f < fields.length; f++) {
+            int tf = termFrequencies[f];
+            if (tf == 0) {
+                continue;
+            }
+            double norm = K1 * (1 - B + B * lengths[f] / averageLengths[f]);
+            score += boosts[f] * (tf * (K1 + 1)) / (tf + norm);
+        }
+        return score;
+    }
+
+    private static double inverseDocumentFrequency(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Select one page of hits from a score map without sorting every match.
+     */
+    static List<Hit> topHits(Map<Long, Double> scores, int offset, int limit) {
+        if (offset >= scores.size()) {
+            return Collections.emptyList();
+        }
+        // Never more than every match, so a large offset plus limit cannot overflow the heap size
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        Comparator<Hit> byScore = Comparator.comparingDouble(Hit::score).thenComparing(Hit::docId, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(wanted, 1), byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Hit hit = new Hit(entry.getKey(), entry.getValue());
+            if (top.size() < wanted) {
+                top.add(hit);
+            } else if (byScore.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+
+        List<Hit> ordered = new ArrayList<>(top);
+        ordered.sort(byScore.reversed());
+        return ordered.subList(offset, ordered.size());
+    }
+
+    private void removeInternal(long docId) {
+        IndexedDocument existing = documents.remove(docId);
+        if (existing == null) {
+            return;
+        }
+        for (int f = 0; f < fields.length; f++) {
+            totalFieldLengths[f] -= existing.lengths()[f];
+        }
+        for (String term : existing.terms()) {
+            Map<Long, int[]> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(docId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private record IndexedDocument(int[] lengths, Set<String> terms) {
+        IndexedDocument {
+            terms = new HashSet<>(terms);
+        }
+    }
+
+    /**
+     * A matching document and its relevance score.
+     */
+    public record Hit(long docId, double score) {
+    }
+
+    /**
+     * One page of ranked hits together with the total number of matching documents.
+     */
+    public record SearchResult(List<Hit> hits, int totalHits) {
+    }
+}
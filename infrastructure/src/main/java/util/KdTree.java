@@ -0,0 +1,101 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable k-d tree over points of equal dimension, for nearest-neighbour queries within a
+ * radius.
+ * <p>
+ * Built once by splitting on the median of each axis in turn, so the tree is balanced and a
+ * query only descends into a subtree when the radius reaches across its splitting plane. Build
+ * a new tree when the points change.
+ */
+public final class KdTree<T> {
+
+    private final Node<T> root;
+    private final int size;
+
+    public KdTree(List<Point<T>> points) {
+        this.size = points.size();
+        this.root = build(new ArrayList<>(points), 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Up to {@code limit} points within {@code maxDistance} (Euclidean) of the target, nearest first.
+     */
+    public List<Neighbor<T>> nearest(double[] target, double maxDistance, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Farthest kept neighbour on top, so it is the one a nearer point replaces
+        PriorityQueue<Neighbor<T>> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor<T>::distance).reversed());
+        search(root, target, maxDistance, limit, best);
+
+        List<Neighbor<T>> nearest = new ArrayList<>(best);
+        nearest.sort(Comparator.comparingDouble(Neighbor::distance));
+        return nearest;
+    }
+
+    private void search(Node<T> node, double[] target, double maxDistance, int limit, PriorityQueue<Neighbor<T>> best) {
+        if (node == null) {
+            return;
+        }
+        double distance = distance(node.point().coordinates(), target);
+        if (distance <= radius(maxDistance, limit, best)) {
+            best.add(new Neighbor<>(node.point().value(), distance));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        double offset = target[node.axis()] - node.point().coordinates()[node.axis()];
+        Node<T> near = offset < 0 ? node.left() : node.right();
+        Node<T> far = offset < 0 ? node.right() : node.left();
+        search(near, target, maxDistance, limit, best);
+        // The far side can only hold a match if the splitting plane is within the current radius
+        if (Math.abs(offset) <= radius(maxDistance, limit, best)) {
+            search(far, target, maxDistance, limit, best);
+        }
+    }
+
+    private double radius(double maxDistance, int limit, PriorityQueue<Neighbor<T>> best) {
+        return best.size() < limit ? maxDistance : Math.min(maxDistance, best.peek().distance());
+    }
+
+    private Node<T> build(List<Point<T>> points, int depth) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        int axis = depth % points.get(0).coordinates().length;
+        points.sort(Comparator.comparingDouble(point -> point.coordinates()[axis]));
+        int median = points.size() / 2;
+        return new Node<>(points.get(median), axis,
+                build(new ArrayList<>(points.subList(0, median)), depth + 1),
+                build(new ArrayList<>(points.subList(median + 1, points.size())), depth + 1));
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double d = a[i] - b[i];
+            sum += d * d;
+        }
+        return Math.sqrt(sum);
+    }
+
+    public record Point<T>(double[] coordinates, T value) {
+    }
+
+    public record Neighbor<T>(T value, double distance) {
+    }
+
+    private record Node<T>(Point<T> point, int axis, Node<T> left, Node<T> right) {
+    }
+}
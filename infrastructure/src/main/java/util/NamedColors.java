@@ -0,0 +1,79 @@
+package util;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * sRGB values for the color names filament is commonly sold under, so free-text colors can be
+ * placed in a color space. Also accepts {@code #RRGGBB}. A name that is not listed falls back to
+ * its last word, which covers finishes such as "Silk Gold" or "Matte Black".
+ */
+public final class NamedColors {
+
+    private static final Map<String, Integer> RGB = Map.ofEntries(
+            Map.entry("black", 0x000000),
+            Map.entry("white", 0xFFFFFF),
+            Map.entry("gray", 0x808080),
+            Map.entry("grey", 0x808080),
+            Map.entry("dark gray", 0x404040),
+            Map.entry("dark grey", 0x404040),
+            Map.entry("light gray", 0xC0C0C0),
+            Map.entry("light grey", 0xC0C0C0),
+            Map.entry("silver", 0xC0C0C0),
+            Map.entry("red", 0xFF0000),
+            Map.entry("dark red", 0x8B0000),
+            Map.entry("crimson", 0xDC143C),
+            Map.entry("maroon", 0x800000),
+            Map.entry("pink", 0xFFC0CB),
+            Map.entry("hot pink", 0xFF69B4),
+            Map.entry("magenta", 0xFF00FF),
+            Map.entry("purple", 0x800080),
+            Map.entry("violet", 0xEE82EE),
+            Map.entry("lavender", 0xE6E6FA),
+            Map.entry("blue", 0x0000FF),
+            Map.entry("navy", 0x000080),
+            Map.entry("navy blue", 0x000080),
+            Map.entry("dark blue", 0x00008B),
+            Map.entry("light blue", 0xADD8E6),
+            Map.entry("sky blue", 0x87CEEB),
+            Map.entry("cyan", 0x00FFFF),
+            Map.entry("teal", 0x008080),
+            Map.entry("turquoise", 0x40E0D0),
+            Map.entry("green", 0x008000),
+            Map.entry("dark green", 0x006400),
+            Map.entry("light green", 0x90EE90),
+            Map.entry("lime", 0x00FF00),
+            Map.entry("lime green", 0x32CD32),
+            Map.entry("olive", 0x808000),
+            Map.entry("yellow", 0xFFFF00),
+            Map.entry("gold", 0xFFD700),
+            Map.entry("orange", 0xFFA500),
+            Map.entry("dark orange", 0xFF8C00),
+            Map.entry("brown", 0x8B4513),
+            Map.entry("beige", 0xF5F5DC),
+            Map.entry("ivory", 0xFFFFF0),
+            Map.entry("natural", 0xF3EBD6),
+            Map.entry("bronze", 0xCD7F32),
+            Map.entry("copper", 0xB87333));
+
+    private NamedColors() {
+    }
+
+    /**
+     * @return The color as 0xRRGGBB, or null if the name is not known
+     */
+    public static Integer rgbOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (key.matches("#[0-9a-f]{6}")) {
+            return Integer.parseInt(key.substring(1), 16);
+        }
+        Integer rgb = RGB.get(key);
+        if (rgb == null && key.contains(" ")) {
+            rgb = RGB.get(key.substring(key.lastIndexOf(' ') + 1));
+        }
+        return rgb;
+    }
+}
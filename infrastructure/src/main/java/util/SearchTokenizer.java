@@ -0,0 +1,52 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for turning free text into normalized search terms.
+ * Text is accent-folded, lower-cased and split on anything that is not a letter or digit,
+ * so "Café-Racer 3D" becomes [cafe, racer, 3d].
+ */
+public class SearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /**
+     * Normalize text for matching: strip accents, lower-case and trim.
+     *
+     * @param text The text to normalize, may be null
+     * @return Normalized text, or an empty string for null input
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Split text into normalized terms.
+     *
+     * @param text The text to tokenize, may be null
+     * @return Terms in their original order (duplicates preserved)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,97 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A non-negative budget spread over several atomic stripes, so threads taking from the same
+ * budget mostly compare-and-set different cache lines instead of queueing on one value.
+ * <p>
+ * Each thread starts at its own stripe. When that stripe cannot cover a request the amount is
+ * collected from the others and handed back if the total falls short, so the budget never goes
+ * below zero. While the budget is nearly exhausted, a request can be refused because other threads
+ * briefly hold partial amounts; callers treat that like insufficient stock.
+ */
+public final class StripedCounter {
+
+    // One stripe per 64-byte cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    public StripedCounter(long initial, int stripes) {
+        if (initial < 0 || stripes < 1) {
+            throw new IllegalArgumentException("Initial value must not be negative and stripes must be positive");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+
+        long share = initial / stripes;
+        long remainder = initial % stripes;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            cells.set(stripe * PADDING, share + (stripe < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Take {@code amount} from the budget if that much is left.
+     */
+    public boolean tryAcquire(long amount) {
+        int home = home();
+
+        // Fast path: the home stripe covers the whole amount
+        long value;
+        while ((value = cells.get(home * PADDING)) >= amount) {
+            if (cells.compareAndSet(home * PADDING, value, value - amount)) {
+                return true;
+            }
+        }
+
+        // Slow path: collect from every stripe, giving it all back if the total falls short
+        long[] taken = new long[stripes];
+        long needed = amount;
+        for (int n = 0; n < stripes && needed > 0; n++) {
+            int stripe = (home + n) % stripes;
+            while ((value = cells.get(stripe * PADDING)) > 0) {
+                long take = Math.min(value, needed);
+                if (cells.compareAndSet(stripe * PADDING, value, value - take)) {
+                    taken[stripe] = take;
+                    needed -= take;
+                    break;
+                }
+            }
+        }
+        if (needed == 0) {
+            return true;
+        }
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                cells.getAndAdd(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Give {@code amount} back to the budget.
+     */
+    public void release(long amount) {
+        cells.getAndAdd(home() * PADDING, amount);
+    }
+
+    /**
+     * Current budget. Not a snapshot: concurrent updates may or may not be included.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += cells.get(stripe * PADDING);
+        }
+        return sum;
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
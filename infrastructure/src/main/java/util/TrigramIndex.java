@@ -0,0 +1,187 @@
+package util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for short texts such as names.
+ * <p>
+ * Every word is padded ("acme" becomes "  acme ") and split into overlapping three-character
+ * grams, the same scheme PostgreSQL's pg_trgm uses. A query only visits the posting lists of its
+ * own trigrams, so lookup cost depends on how many names share those trigrams rather than on
+ * the total number of names indexed. A query shorter than a trigram only has padded grams, which
+ * match word starts; to find it inside words as well, such a query also scans every name for it.
+ * <p>
+ * Matches are ranked by how many of the query's trigrams a name contains (which tolerates
+ * typos), with bonuses for exact substring and prefix matches and a small preference for
+ * names close in length to the query.
+ */
+public class TrigramIndex {
+
+    private static final double SUBSTRING_BONUS = 1.0;
+    private static final double PREFIX_BONUS = 0.25;
+    private static final double SIMILARITY_WEIGHT = 0.5;
+    private static final int GRAM_LENGTH = 3;
+
+    private final double minCoverage;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, IndexedText> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param minCoverage Minimum share (0..1) of the query's trigrams a non-substring match must contain
+     */
+    public TrigramIndex(double minCoverage) {
+        this.minCoverage = minCoverage;
+    }
+
+    /**
+     * Add or replace the text indexed for a document.
+     */
+    public void index(long docId, String text) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            String normalized = normalize(text);
+            Set<String> trigrams = trigrams(normalized);
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(docId);
+            }
+            documents.put(docId, new IndexedText(normalized, trigrams));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank indexed texts by similarity to the query.
+     *
+     * @param query  Text to look for; may be a fragment or contain typos
+     * @param offset Number of top hits to skip
+     * @param limit  Maximum number of hits to return
+     * @return The requested slice of hits ordered by descending score, plus the total match count
+     */
+    public InvertedIndex.SearchResult search(String query, int offset, int limit) {
+        String normalizedQuery = normalize(query);
+        Set<String> queryTrigrams = trigrams(normalizedQuery);
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return new InvertedIndex.SearchResult(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> sharedCounts = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<Long> docIds = postings.get(trigram);
+                if (docIds != null) {
+                    docIds.forEach(docId -> sharedCounts.merge(docId, 1, Integer::sum));
+                }
+            }
+            if (normalizedQuery.length() < GRAM_LENGTH) {
+                documents.forEach((docId, document) -> {
+                    if (document.text().contains(normalizedQuery)) {
+                        sharedCounts.putIfAbsent(docId, 0);
+                    }
+                });
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<Long, Integer> entry : sharedCounts.entrySet()) {
+                IndexedText document = documents.get(entry.getKey());
+                int shared = entry.getValue();
+                double coverage = (double) shared / queryTrigrams.size();
+                boolean substring = document.text().contains(normalizedQuery);
+                if (!substring && coverage < minCoverage) {
+                    continue;
+                }
+
+                double similarity = (double) shared / (queryTrigrams.size() + document.trigrams().size() - shared);
+                double score = coverage + SIMILARITY_WEIGHT * similarity;
+                if (substring) {
+                    score += SUBSTRING_BONUS;
+                    if (document.text().startsWith(normalizedQuery)) {
+                        score += PREFIX_BONUS;
+                    }
+                }
+                scores.put(entry.getKey(), score);
+            }
+
+            return new InvertedIndex.SearchResult(InvertedIndex.topHits(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long docId) {
+        IndexedText existing = documents.remove(docId);
+        if (existing == null) {
+            return;
+        }
+        for (String trigram : existing.trigrams()) {
+            Set<Long> docIds = postings.get(trigram);
+            if (docIds != null) {
+                docIds.remove(docId);
+                if (docIds.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", SearchTokenizer.tokenize(text));
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return trigrams;
+        }
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return trigrams;
+    }
+
+    private record IndexedText(String text, Set<String> trigrams) {
+    }
+}
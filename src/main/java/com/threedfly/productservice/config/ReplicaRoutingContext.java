@@ -0,0 +1,29 @@
+package com.threedfly.productservice.config;
+
+/**
+ * Remembers when the current request last committed a write, so reads that follow it can be
+ * kept on the primary until the replica has had time to catch up.
+ * <p>
+ * State is thread-bound and cleared by {@link ReplicaRoutingContextFilter} at the end of every
+ * request, so the guard never leaks between requests served by the same thread.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Long> LAST_WRITE_NANOS = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void recordWrite() {
+        LAST_WRITE_NANOS.set(System.nanoTime());
+    }
+
+    public static boolean wroteWithin(long windowNanos) {
+        Long lastWrite = LAST_WRITE_NANOS.get();
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    public static void clear() {
+        LAST_WRITE_NANOS.remove();
+    }
+}
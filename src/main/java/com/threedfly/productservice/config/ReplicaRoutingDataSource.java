@@ -0,0 +1,51 @@
+package com.threedfly.productservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * <p>
+ * The lookup key is resolved when a physical connection is first needed, so this data source
+ * must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy};
+ * otherwise the transaction manager fetches the connection before the read-only flag is bound.
+ * <p>
+ * Replicas lag behind the primary, so a read-only transaction that runs shortly after the
+ * current request committed a write stays on the primary for {@code readYourWritesWindow}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final long readYourWritesWindowNanos;
+
+    public ReplicaRoutingDataSource(Duration readYourWritesWindow) {
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        ReplicaRoutingContext.recordWrite();
+                    }
+                });
+            }
+            return Route.PRIMARY;
+        }
+
+        if (ReplicaRoutingContext.wroteWithin(readYourWritesWindowNanos)) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
@@ -0,0 +1,33 @@
+package com.threedfly.productservice.controller;
+
+import dto.ChangeFeedResponse;
+import service.ChangeFeedService;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/changes")
+@Validated
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Suppliers, stock items and deletes changed after version {@code since}. Pass the returned
+     * {@code nextSince} on the next call; while {@code hasMore} is true there are more changes
+     * waiting. Returns 410 Gone if deletes after {@code since} have been purged, in which case the
+     * mirror has to reload from {@code since=0}. Stock items leave out {@code reservedKg} and
+     * {@code availableQuantityKg}, which holds change without a new version.
+     */
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(
+            @RequestParam(defaultValue = "0") @PositiveOrZero Long since,
+            @RequestParam(required = false) @Positive Integer limit) {
+        return ResponseEntity.ok(changeFeedService.findChanges(since, limit));
+    }
+}
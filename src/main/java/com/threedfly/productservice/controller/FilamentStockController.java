@@ -1,19 +1,34 @@
 package com.threedfly.productservice.controller;
 
+import dto.BulkImportResponse;
 import dto.FilamentStockRequest;
 import dto.FilamentStockResponse;
+import dto.InventoryRollupResponse;
+import dto.StockAlertResponse;
+import dto.StockReservationRequest;
+import dto.StockReservationResponse;
 import entity.FilamentType;
+import service.BulkImportService;
 import service.FilamentStockService;
+import service.InventoryRollupService;
+import service.StockAlertService;
+import service.StockAvailabilityStreamService;
+import service.StockReservationService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -23,10 +38,17 @@ import java.util.List;
 public class FilamentStockController {
     
     private final FilamentStockService filamentStockService;
+    private final BulkImportService bulkImportService;
+    private final StockReservationService stockReservationService;
+    private final StockAlertService stockAlertService;
+    private final StockAvailabilityStreamService availabilityStream;
+    private final InventoryRollupService inventoryRollupService;
     
     @GetMapping
-    public ResponseEntity<List<FilamentStockResponse>> getAllFilamentStock() {
-        List<FilamentStockResponse> stocks = filamentStockService.findAll();
+    public ResponseEntity<List<FilamentStockResponse>> getAllFilamentStock(
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findAll(afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
@@ -42,6 +64,18 @@ public class FilamentStockController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
     
+    /**
+     * Create or update filament stock in bulk from a CSV (header row required) or NDJSON body.
+     * The body is streamed; rows that cannot be imported are listed in the response.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResponse> importFilamentStock(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        BulkImportResponse response = bulkImportService.importFilamentStock(body, contentType);
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<FilamentStockResponse> updateFilamentStock(@PathVariable @NotNull Long id, 
                                                            @Valid @RequestBody FilamentStockRequest request) {
@@ -62,20 +96,28 @@ public class FilamentStockController {
     }
     
     @GetMapping("/material-type/{materialType}")
-    public ResponseEntity<List<FilamentStockResponse>> getFilamentStockByMaterialType(@PathVariable @NotNull FilamentType materialType) {
-        List<FilamentStockResponse> stocks = filamentStockService.findByMaterialType(materialType);
+    public ResponseEntity<List<FilamentStockResponse>> getFilamentStockByMaterialType(
+            @PathVariable @NotNull FilamentType materialType,
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findByMaterialType(materialType, afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
     @GetMapping("/color/{color}")
-    public ResponseEntity<List<FilamentStockResponse>> getFilamentStockByColor(@PathVariable @NotBlank String color) {
-        List<FilamentStockResponse> stocks = filamentStockService.findByColor(color);
+    public ResponseEntity<List<FilamentStockResponse>> getFilamentStockByColor(
+            @PathVariable @NotBlank String color,
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findByColor(color, afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<FilamentStockResponse>> getAvailableFilamentStock() {
-        List<FilamentStockResponse> stocks = filamentStockService.findAvailable();
+    public ResponseEntity<List<FilamentStockResponse>> getAvailableFilamentStock(
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findAvailable(afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
@@ -94,32 +136,108 @@ public class FilamentStockController {
     }
     
     @GetMapping("/low-stock")
-    public ResponseEntity<List<FilamentStockResponse>> getLowStockItems(@RequestParam @NotNull @Positive Double threshold) {
-        List<FilamentStockResponse> stocks = filamentStockService.findLowStockItems(threshold);
+    public ResponseEntity<List<FilamentStockResponse>> getLowStockItems(
+            @RequestParam @NotNull @Positive Double threshold,
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findLowStockItems(threshold, afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
     @GetMapping("/expired")
-    public ResponseEntity<List<FilamentStockResponse>> getExpiredStock() {
-        List<FilamentStockResponse> stocks = filamentStockService.findExpiredStock();
+    public ResponseEntity<List<FilamentStockResponse>> getExpiredStock(
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer limit) {
+        List<FilamentStockResponse> stocks = filamentStockService.findExpiredStock(afterId, limit);
         return ResponseEntity.ok(stocks);
     }
     
+    /**
+     * Current low-stock and expiry alerts, served from memory.
+     */
+    @GetMapping("/alerts")
+    public ResponseEntity<List<StockAlertResponse>> getStockAlerts() {
+        List<StockAlertResponse> alerts = stockAlertService.currentAlerts();
+        return ResponseEntity.ok(alerts);
+    }
+    
+    /**
+     * Alerts as they are raised and cleared, as server-sent {@code raised} and {@code cleared} events.
+     */
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockAlerts() {
+        return stockAlertService.subscribe();
+    }
+    
+    /**
+     * Availability changes of matching stock as server-sent {@code availability} events, each a
+     * list with the latest state per changed item. A {@code reset} event means changes were
+     * dropped and the listing should be reloaded.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(required = false) FilamentType materialType,
+                                         @RequestParam(required = false) String color) {
+        return availabilityStream.subscribe(materialType, color);
+    }
+    
+    /**
+     * Total, reserved and available kilograms with stock and supplier counts per material, color and
+     * supplier location, served from memory. Every filter is optional.
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<InventoryRollupResponse>> getInventoryRollups(
+            @RequestParam(required = false) FilamentType materialType,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String state) {
+        List<InventoryRollupResponse> rollups = inventoryRollupService.findRollups(materialType, color, country, state);
+        return ResponseEntity.ok(rollups);
+    }
+    
     @GetMapping("/count/material-type/{materialType}")
     public ResponseEntity<Long> countAvailableByMaterialType(@PathVariable FilamentType materialType) {
         Long count = filamentStockService.countAvailableByMaterialType(materialType);
         return ResponseEntity.ok(count);
     }
     
+    /**
+     * Hold stock for a checkout or order. The hold expires after {@code ttlSeconds} unless it is
+     * confirmed or released through the reservation endpoints below.
+     */
     @PostMapping("/{id}/reserve")
-    public ResponseEntity<FilamentStockResponse> reserveStock(@PathVariable @NotNull Long id, @RequestParam @NotNull @Positive Double quantityKg) {
-        FilamentStockResponse stock = filamentStockService.reserveStock(id, quantityKg);
-        return ResponseEntity.ok(stock);
+    public ResponseEntity<StockReservationResponse> reserveStock(@PathVariable @NotNull Long id,
+                                                                 @RequestParam @NotNull @Positive Double quantityKg,
+                                                                 @RequestParam(required = false) String ownerKey,
+                                                                 @RequestParam(required = false) @Positive Long ttlSeconds) {
+        StockReservationResponse reservation = stockReservationService.reserve(id, quantityKg, ownerKey, ttlSeconds);
+        return ResponseEntity.ok(reservation);
     }
     
-    @PostMapping("/{id}/release")
-    public ResponseEntity<FilamentStockResponse> releaseReservedStock(@PathVariable @NotNull Long id, @RequestParam @NotNull @Positive Double quantityKg) {
-        FilamentStockResponse stock = filamentStockService.releaseReservedStock(id, quantityKg);
-        return ResponseEntity.ok(stock);
+    /**
+     * Hold several stock items for one order, all or nothing. Responds 409 listing every line
+     * that does not fit, in which case nothing is held.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<List<StockReservationResponse>> reserveStockLines(@Valid @RequestBody StockReservationRequest request) {
+        List<StockReservationResponse> reservations = stockReservationService.reserveAll(request);
+        return ResponseEntity.ok(reservations);
+    }
+    
+    @GetMapping("/reservations/{ownerKey}")
+    public ResponseEntity<List<StockReservationResponse>> getReservations(@PathVariable @NotBlank String ownerKey) {
+        List<StockReservationResponse> reservations = stockReservationService.findByOwner(ownerKey);
+        return ResponseEntity.ok(reservations);
+    }
+    
+    @PostMapping("/reservations/{ownerKey}/confirm")
+    public ResponseEntity<List<StockReservationResponse>> confirmReservations(@PathVariable @NotBlank String ownerKey) {
+        List<StockReservationResponse> reservations = stockReservationService.confirm(ownerKey);
+        return ResponseEntity.ok(reservations);
+    }
+    
+    @PostMapping("/reservations/{ownerKey}/release")
+    public ResponseEntity<List<StockReservationResponse>> releaseReservations(@PathVariable @NotBlank String ownerKey) {
+        List<StockReservationResponse> reservations = stockReservationService.release(ownerKey);
+        return ResponseEntity.ok(reservations);
     }
 }
\ No newline at end of file
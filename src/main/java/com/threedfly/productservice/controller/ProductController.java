@@ -3,12 +3,17 @@ package com.threedfly.productservice.controller;
 import com.threedfly.shopify.service.ShopifyGraphQLService;
 import dto.ProductRequest;
 import dto.ProductResponse;
+import dto.ProductSearchHit;
 import dto.PublishToStoreRequest;
+import dto.SearchResponse;
 import entity.IntegrationAccount;
 import entity.Product;
 import entity.ShopType;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import repository.IntegrationAccountRepository;
 import repository.ProductRepository;
+import service.ProductSearchService;
 import service.ProductService;
 
 import java.io.IOException;
@@ -30,6 +36,7 @@ import java.util.Map;
 @Validated
 public class ProductController {
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
     private final ProductRepository productRepository;
     private final IntegrationAccountRepository integrationAccountRepository;
     private final ShopifyGraphQLService shopifyGraphQLService;
@@ -40,6 +47,15 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<SearchResponse<ProductSearchHit>> searchProducts(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        SearchResponse<ProductSearchHit> results = productSearchService.search(q, page, size);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable @NotNull Long id) {
         ProductResponse product = productService.findById(id);
@@ -1,12 +1,18 @@
 package com.threedfly.productservice.controller;
 
+import dto.SearchResponse;
 import dto.ShopRequest;
 import dto.ShopResponse;
+import dto.ShopSearchHit;
+import service.ShopSearchService;
 import service.ShopService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -21,6 +27,7 @@ import java.util.List;
 public class ShopController {
     
     private final ShopService shopService;
+    private final ShopSearchService shopSearchService;
     
     @GetMapping
     public ResponseEntity<List<ShopResponse>> getAllShops() {
@@ -64,6 +71,15 @@ public class ShopController {
         return ResponseEntity.ok(shop);
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<SearchResponse<ShopSearchHit>> searchShops(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        SearchResponse<ShopSearchHit> results = shopSearchService.search(q, page, size);
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/search/name")
     public ResponseEntity<List<ShopResponse>> searchShopsByName(@RequestParam @NotBlank String name) {
         List<ShopResponse> shops = shopService.searchByName(name);
@@ -88,6 +104,14 @@ public class ShopController {
         return ResponseEntity.ok(shops);
     }
     
+    @GetMapping("/with-products/page")
+    public ResponseEntity<PagedModel<ShopResponse>> getShopsWithProductsPage(
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        PagedModel<ShopResponse> shops = new PagedModel<>(shopService.findShopsWithProducts(page, size));
+        return ResponseEntity.ok(shops);
+    }
+    
     @GetMapping("/{id}/products/count")
     public ResponseEntity<Long> countProductsByShopId(@PathVariable @NotNull Long id) {
         Long count = shopService.countProductsByShopId(id);
@@ -1,18 +1,29 @@
 package com.threedfly.productservice.controller;
 
+import dto.BulkImportResponse;
+import dto.BulkUpdateResponse;
+import dto.SearchResponse;
+import dto.SupplierBulkStatusRequest;
 import dto.SupplierRequest;
 import dto.SupplierResponse;
+import dto.SupplierSearchHit;
+import service.BulkImportService;
+import service.SupplierSearchService;
 import service.SupplierService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,6 +33,8 @@ import java.util.List;
 public class SupplierController {
     
     private final SupplierService supplierService;
+    private final SupplierSearchService supplierSearchService;
+    private final BulkImportService bulkImportService;
     
     @GetMapping
     public ResponseEntity<List<SupplierResponse>> getAllSuppliers() {
@@ -41,6 +54,18 @@ public class SupplierController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
     
+    /**
+     * Create or update suppliers in bulk from a CSV (header row required) or NDJSON body.
+     * The body is streamed; rows that cannot be imported are listed in the response.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResponse> importSuppliers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        BulkImportResponse response = bulkImportService.importSuppliers(body, contentType);
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<SupplierResponse> updateSupplier(@PathVariable @NotNull Long id, @Valid @RequestBody SupplierRequest request) {
         SupplierResponse updated = supplierService.update(id, request);
@@ -107,6 +132,15 @@ public class SupplierController {
         return ResponseEntity.ok(suppliers);
     }
     
+    @GetMapping("/search/autocomplete")
+    public ResponseEntity<SearchResponse<SupplierSearchHit>> autocompleteSuppliers(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "10") @Positive int size) {
+        SearchResponse<SupplierSearchHit> results = supplierSearchService.search(q, page, size);
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/nearby")
     public ResponseEntity<List<SupplierResponse>> getSuppliersWithinRadius(
             @RequestParam @NotNull Double latitude,
@@ -133,4 +167,22 @@ public class SupplierController {
         SupplierResponse supplier = supplierService.deactivateSupplier(id);
         return ResponseEntity.ok(supplier);
     }
+    
+    @PostMapping("/bulk/verify")
+    public ResponseEntity<BulkUpdateResponse> verifySuppliers(@RequestBody SupplierBulkStatusRequest request) {
+        BulkUpdateResponse response = supplierService.verifySuppliers(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/bulk/activate")
+    public ResponseEntity<BulkUpdateResponse> activateSuppliers(@RequestBody SupplierBulkStatusRequest request) {
+        BulkUpdateResponse response = supplierService.activateSuppliers(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/bulk/deactivate")
+    public ResponseEntity<BulkUpdateResponse> deactivateSuppliers(@RequestBody SupplierBulkStatusRequest request) {
+        BulkUpdateResponse response = supplierService.deactivateSuppliers(request);
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
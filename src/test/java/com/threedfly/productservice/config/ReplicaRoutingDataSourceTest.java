@@ -0,0 +1,200 @@
+package com.threedfly.productservice.config;
+
+import dto.ShopRequest;
+import entity.Shop;
+import mapper.ShopMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.ShopRepository;
+import service.ShopSearchService;
+import service.ShopService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        // Given
+        Routing routing = routing(Duration.ofSeconds(5));
+
+        // When
+        String database = routing.read();
+
+        // Then
+        assertEquals("replica", database);
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        // Given
+        Routing routing = routing(Duration.ofSeconds(5));
+
+        // When
+        String database = routing.write();
+
+        // Then
+        assertEquals("primary", database);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenRequestJustWrote_ShouldStayOnPrimary() {
+        // Given
+        Routing routing = routing(Duration.ofSeconds(5));
+        routing.write();
+
+        // When
+        String database = routing.read();
+
+        // Then
+        assertEquals("primary", database);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenNewRequestStarts_ShouldUseReplicaAgain() {
+        // Given
+        Routing routing = routing(Duration.ofSeconds(5));
+        routing.write();
+        ReplicaRoutingContext.clear();
+
+        // When
+        String database = routing.read();
+
+        // Then
+        assertEquals("replica", database);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenWindowHasPassed_ShouldUseReplica() {
+        // Given
+        Routing routing = routing(Duration.ZERO);
+        routing.write();
+
+        // When
+        String database = routing.read();
+
+        // Then
+        assertEquals("replica", database);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenWriteRolledBack_ShouldUseReplica() {
+        // Given
+        Routing routing = routing(Duration.ofSeconds(5));
+        routing.writeTemplate.executeWithoutResult(status -> {
+            routing.jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class);
+            status.setRollbackOnly();
+        });
+
+        // When
+        String database = routing.read();
+
+        // Then
+        assertEquals("replica", database);
+    }
+
+    @Test
+    void serviceUpdate_ShouldReadAndWriteOnPrimary() {
+        // Given - a lagging replica must never serve the read an update merges into
+        Routing routing = routing(Duration.ofSeconds(5));
+        List<String> databases = new ArrayList<>();
+        ShopRepository shopRepository = mock(ShopRepository.class);
+        // Like Spring Data's findById, the lookup runs in a read-only transaction unless it joins one
+        when(shopRepository.findById(1L)).thenAnswer(invocation -> {
+            databases.add(routing.readTemplate().execute(status -> routing.currentDatabase()));
+            Shop shop = new Shop();
+            shop.setId(1L);
+            shop.setName("Old name");
+            return Optional.of(shop);
+        });
+        when(shopRepository.save(any(Shop.class))).thenAnswer(invocation -> {
+            databases.add(routing.writeTemplate().execute(status -> routing.currentDatabase()));
+            return invocation.getArgument(0);
+        });
+        ShopService shopService = transactional(
+                new ShopService(shopRepository, mock(ShopMapper.class), mock(ShopSearchService.class)),
+                routing.transactionManager());
+
+        // When
+        shopService.update(1L, new ShopRequest());
+        shopService.updateShopInfo(1L, "New name", null, null, null);
+        ReplicaRoutingContext.clear();
+        shopService.findById(1L);
+
+        // Then
+        assertEquals(List.of("primary", "primary", "primary", "primary", "replica"), databases);
+    }
+
+    // The service behind the same transaction advice Spring applies to @Transactional beans
+    private <T> T transactional(T service, DataSourceTransactionManager transactionManager) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        @SuppressWarnings("unchecked")
+        T proxy = (T) proxyFactory.getProxy();
+        return proxy;
+    }
+
+    private Routing routing(Duration readYourWritesWindow) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(readYourWritesWindow);
+        routingDataSource.setTargetDataSources(Map.<Object, Object>of(
+                ReplicaRoutingDataSource.Route.PRIMARY, h2("primary"),
+                ReplicaRoutingDataSource.Route.REPLICA, h2("replica")));
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        return new Routing(new JdbcTemplate(dataSource), transactionManager, readTemplate, new TransactionTemplate(transactionManager));
+    }
+
+    private DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE db_marker (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO db_marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private record Routing(JdbcTemplate jdbcTemplate, DataSourceTransactionManager transactionManager,
+                           TransactionTemplate readTemplate, TransactionTemplate writeTemplate) {
+
+        String currentDatabase() {
+            return jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class);
+        }
+
+        String read() {
+            return readTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class));
+        }
+
+        String write() {
+            return writeTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.threedfly.productservice.mapper;
+
+import dto.FilamentStockResponse;
+import dto.SupplierResponse;
+import entity.FilamentStock;
+import mapper.FilamentStockMapper;
+import mapper.SupplierMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-object mapping cost of the hand-written mappers against the ModelMapper setup they replaced.
+ * Excluded from the default test task; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class MapperBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private final ModelMapper legacy = MapperFixtures.legacyModelMapper();
+    private final SupplierMapper supplierMapper = new SupplierMapper();
+    private final FilamentStockMapper filamentStockMapper = new FilamentStockMapper();
+
+    @Test
+    void supplierToResponse() {
+        entity.Supplier supplier = MapperFixtures.supplier();
+
+        double legacyNs = measure(() -> legacy.map(supplier, SupplierResponse.class));
+        double handWrittenNs = measure(() -> supplierMapper.toResponse(supplier));
+
+        report("Supplier -> SupplierResponse", legacyNs, handWrittenNs);
+    }
+
+    @Test
+    void filamentStockToResponse() {
+        FilamentStock stock = MapperFixtures.stock();
+
+        double legacyNs = measure(() -> legacy.map(stock, FilamentStockResponse.class));
+        double handWrittenNs = measure(() -> filamentStockMapper.toResponse(stock));
+
+        report("FilamentStock -> FilamentStockResponse", legacyNs, handWrittenNs);
+    }
+
+    @Test
+    void supplierFromStockProjection() {
+        var projection = MapperFixtures.closestSupplierProjection();
+
+        double legacyNs = measure(() -> legacy.map(projection, entity.Supplier.class));
+        double handWrittenNs = measure(() -> supplierMapper.fromStockProjection(projection));
+
+        report("ClosetSupplierProjection -> Supplier", legacyNs, handWrittenNs);
+    }
+
+    private double measure(Supplier<Object> mapping) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = mapping.get();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = mapping.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertNotNull(sink);
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+
+    private void report(String mapping, double legacyNs, double handWrittenNs) {
+        System.out.printf("%-40s ModelMapper: %8.1f ns/op   hand-written: %8.1f ns/op   (%.1fx)%n",
+                mapping, legacyNs, handWrittenNs, legacyNs / handWrittenNs);
+    }
+}
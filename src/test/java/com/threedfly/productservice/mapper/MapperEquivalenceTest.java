@@ -0,0 +1,225 @@
+package com.threedfly.productservice.mapper;
+
+import dto.FilamentStockRequest;
+import dto.FilamentStockResponse;
+import dto.ProductRequest;
+import dto.ProductResponse;
+import dto.ShopRequest;
+import dto.ShopResponse;
+import dto.SupplierRequest;
+import dto.SupplierResponse;
+import entity.FilamentStock;
+import entity.Product;
+import entity.Shop;
+import entity.Supplier;
+import mapper.FilamentStockMapper;
+import mapper.ProductMapper;
+import mapper.ShopMapper;
+import mapper.SupplierMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.projection.ClosetSupplierProjection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the hand-written mappers produce the same objects the ModelMapper-based
+ * mappers did.
+ */
+class MapperEquivalenceTest {
+
+    private ModelMapper legacy;
+    private SupplierMapper supplierMapper;
+    private ShopMapper shopMapper;
+    private ProductMapper productMapper;
+    private FilamentStockMapper filamentStockMapper;
+
+    @BeforeEach
+    void setUp() {
+        legacy = MapperFixtures.legacyModelMapper();
+        supplierMapper = new SupplierMapper();
+        shopMapper = new ShopMapper();
+        productMapper = new ProductMapper();
+        ReflectionTestUtils.setField(productMapper, "serverPort", "8081");
+        filamentStockMapper = new FilamentStockMapper();
+    }
+
+    @Test
+    void supplierToResponse_ShouldMatchModelMapper() {
+        // Given
+        Supplier supplier = MapperFixtures.supplier();
+        SupplierResponse expected = legacy.map(supplier, SupplierResponse.class);
+        expected.setStockCount(supplier.getStock().size());
+
+        // When
+        SupplierResponse actual = supplierMapper.toResponse(supplier);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void supplierToEntity_ShouldMatchModelMapper() {
+        // Given
+        SupplierRequest request = MapperFixtures.supplierRequest();
+        Supplier expected = legacy.map(request, Supplier.class);
+
+        // When
+        Supplier actual = supplierMapper.toEntity(request);
+
+        // Then
+        assertEquals(withoutStock(expected), withoutStock(actual));
+    }
+
+    @Test
+    void supplierUpdateEntityFromRequest_ShouldMatchModelMapper() {
+        // Given
+        SupplierRequest request = MapperFixtures.supplierRequest();
+        Supplier expected = MapperFixtures.supplier();
+        Supplier actual = MapperFixtures.supplier();
+        legacy.map(request, expected);
+
+        // When
+        supplierMapper.updateEntityFromRequest(actual, request);
+
+        // Then
+        assertEquals(withoutStock(expected), withoutStock(actual));
+    }
+
+    @Test
+    void supplierFromStockProjection_ShouldMatchModelMapper() {
+        // Given
+        ClosetSupplierProjection projection = MapperFixtures.closestSupplierProjection();
+        Supplier expected = legacy.map(projection, Supplier.class);
+
+        // When
+        Supplier actual = supplierMapper.fromStockProjection(projection);
+
+        // Then
+        assertEquals(withoutStock(expected), withoutStock(actual));
+    }
+
+    @Test
+    void shopMappings_ShouldMatchModelMapper() {
+        // Given
+        Shop shop = MapperFixtures.shop();
+        ShopRequest request = MapperFixtures.shopRequest();
+        Shop expectedUpdate = MapperFixtures.shop();
+        Shop actualUpdate = MapperFixtures.shop();
+        legacy.map(request, expectedUpdate);
+
+        // When
+        shopMapper.updateEntityFromRequest(actualUpdate, request);
+
+        // Then
+        assertEquals(legacy.map(shop, ShopResponse.class), shopMapper.toResponse(shop));
+        assertEquals(legacy.map(request, Shop.class), shopMapper.toEntity(request));
+        assertEquals(expectedUpdate, actualUpdate);
+    }
+
+    @Test
+    void productToResponse_ShouldMatchModelMapperFields() {
+        // Given
+        Product product = MapperFixtures.product();
+        ProductResponse expected = legacy.map(product, ProductResponse.class);
+
+        // When
+        ProductResponse actual = productMapper.toResponse(product);
+
+        // Then
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getImageFilename(), actual.getImageFilename());
+        assertEquals(expected.getImageContentType(), actual.getImageContentType());
+        assertEquals(expected.getStlFilename(), actual.getStlFilename());
+        assertEquals(expected.getStlContentType(), actual.getStlContentType());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getSellerId(), actual.getSellerId());
+        assertEquals(expected.getShopId(), actual.getShopId());
+        assertNull(actual.getSku());
+        assertEquals("Print Corner", actual.getShopName());
+        assertTrue(actual.isHasImage());
+        assertFalse(actual.isHasStlFile());
+        assertTrue(actual.getImageUrl().endsWith("/products/11/image"));
+        assertNull(actual.getStlFileUrl());
+    }
+
+    @Test
+    void productRequestMappings_ShouldMatchModelMapper() {
+        // Given
+        ProductRequest request = MapperFixtures.productRequest();
+        Product expectedUpdate = MapperFixtures.product();
+        Product actualUpdate = MapperFixtures.product();
+        legacy.map(request, expectedUpdate);
+
+        // When
+        productMapper.updateEntityFromRequest(actualUpdate, request);
+
+        // Then
+        assertEquals(legacy.map(request, Product.class), productMapper.toEntity(request));
+        assertEquals(expectedUpdate, actualUpdate);
+    }
+
+    @Test
+    void filamentStockToResponse_ShouldMatchModelMapper() {
+        // Given
+        FilamentStock stock = MapperFixtures.stock();
+        FilamentStockResponse expected = legacy.map(stock, FilamentStockResponse.class);
+        expected.setSupplierId(stock.getSupplier().getId());
+        expected.setSupplierName(stock.getSupplier().getName());
+        // Stored grams are converted to kilograms at the API edge, which ModelMapper cannot match by name
+        expected.setQuantityKg(12.5);
+        expected.setReservedKg(2.0);
+        expected.setAvailableQuantityKg(10.5);
+
+        // When
+        FilamentStockResponse actual = filamentStockMapper.toResponse(stock);
+
+        // Then
+        assertEquals(expected, actual);
+        assertEquals(10.5, actual.getAvailableQuantityKg());
+    }
+
+    @Test
+    void filamentStockUpdateEntityFromRequest_ShouldMatchModelMapperAndKeepHolds() {
+        // Given - the row has held reservations
+        FilamentStockRequest request = MapperFixtures.stockRequest();
+        FilamentStock expected = MapperFixtures.stock();
+        FilamentStock actual = MapperFixtures.stock();
+        long heldGrams = actual.getReservedGrams();
+        legacy.map(request, expected);
+
+        // When
+        filamentStockMapper.updateEntityFromRequest(actual, request);
+
+        // Then
+        assertEquals(expected.getMaterialType(), actual.getMaterialType());
+        assertEquals(expected.getColor(), actual.getColor());
+        assertEquals(3_000, actual.getQuantityGrams());
+        assertEquals(heldGrams, actual.getReservedGrams());
+        assertTrue(heldGrams > 0);
+        assertEquals(expected.isAvailable(), actual.isAvailable());
+        assertEquals(expected.getLastRestocked(), actual.getLastRestocked());
+        assertEquals(expected.getExpiryDate(), actual.getExpiryDate());
+        assertEquals(7L, actual.getSupplier().getId());
+    }
+
+    @Test
+    void nullInputs_ShouldMapToNull() {
+        assertNull(supplierMapper.toResponse(null));
+        assertNull(supplierMapper.fromStockProjection(null));
+        assertNull(shopMapper.toResponse(null));
+        assertNull(productMapper.toResponse(null));
+        assertNull(filamentStockMapper.toResponse(null));
+    }
+
+    private Supplier withoutStock(Supplier supplier) {
+        supplier.setStock(null);
+        return supplier;
+    }
+}
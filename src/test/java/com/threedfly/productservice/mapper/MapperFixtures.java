@@ -0,0 +1,190 @@
+package com.threedfly.productservice.mapper;
+
+import dto.FilamentStockRequest;
+import dto.ProductRequest;
+import dto.ShopRequest;
+import dto.SupplierRequest;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Product;
+import entity.Shop;
+import entity.Supplier;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import repository.projection.ClosetSupplierProjection;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sample objects shared by the mapper equivalence tests and benchmark, plus the ModelMapper
+ * configuration the mappers used before they were hand-written.
+ */
+final class MapperFixtures {
+
+    private MapperFixtures() {
+    }
+
+    static ModelMapper legacyModelMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldMatchingEnabled(true)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+        return mapper;
+    }
+
+    static Supplier supplier() {
+        return Supplier.builder()
+                .id(7L)
+                .userId(70L)
+                .name("Acme Filaments")
+                .email("sales@acme.test")
+                .phone("+1 555 0100")
+                .address("1 Spool Street")
+                .city("Springfield")
+                .state("IL")
+                .country("USA")
+                .postalCode("62701")
+                .latitude(39.78)
+                .longitude(-89.65)
+                .businessLicense("BL-123")
+                .description("PLA and PETG specialist")
+                .verified(true)
+                .active(true)
+                .changeVersion(42)
+                .stock(new ArrayList<>())
+                .build();
+    }
+
+    static Shop shop() {
+        Shop shop = new Shop();
+        shop.setId(3L);
+        shop.setSellerId(30L);
+        shop.setName("Print Corner");
+        shop.setDescription("Custom prints");
+        shop.setAddress("5 Main St");
+        shop.setContactInfo("hello@printcorner.test");
+        return shop;
+    }
+
+    static Product product() {
+        Product product = new Product();
+        product.setId(11L);
+        product.setName("Benchy");
+        product.setDescription("Calibration boat");
+        product.setPrice(4.5);
+        product.setImageData(new byte[]{1, 2, 3});
+        product.setImageFilename("benchy.png");
+        product.setImageContentType("image/png");
+        product.setStlFilename("benchy.stl");
+        product.setStlContentType("model/stl");
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4));
+        product.setUpdatedAt(LocalDateTime.of(2024, 2, 3, 4, 5));
+        product.setSellerId(30L);
+        product.setShopId(3L);
+        product.setShop(shop());
+        return product;
+    }
+
+    static FilamentStock stock() {
+        return FilamentStock.builder()
+                .id(21L)
+                .supplier(supplier())
+                .materialType(FilamentType.PETG)
+                .color("Orange")
+                .quantityGrams(12_500)
+                .reservedGrams(2_000)
+                .available(true)
+                .lastRestocked(new Date(1_700_000_000_000L))
+                .expiryDate(new Date(1_800_000_000_000L))
+                .changeVersion(43)
+                .build();
+    }
+
+    static SupplierRequest supplierRequest() {
+        return SupplierRequest.builder()
+                .userId(71L)
+                .name("Polymer Works")
+                .email("info@polymer.test")
+                .phone("+44 20 0000")
+                .city("London")
+                .country("UK")
+                .latitude(51.5)
+                .longitude(-0.12)
+                .description("ABS and ASA")
+                .verified(false)
+                .active(true)
+                .build();
+    }
+
+    static ShopRequest shopRequest() {
+        return new ShopRequest(31L, "Layer Lines", "Functional parts", "9 High St", "layer@lines.test");
+    }
+
+    static ProductRequest productRequest() {
+        return new ProductRequest("Phone Stand", "Sturdy stand", 9.99, null, null, 30L, 3L);
+    }
+
+    static FilamentStockRequest stockRequest() {
+        return FilamentStockRequest.builder()
+                .supplierId(7L)
+                .materialType(FilamentType.TPU)
+                .color("Black")
+                .quantityKg(3.0)
+                .available(false)
+                .lastRestocked(new Date(1_710_000_000_000L))
+                .build();
+    }
+
+    static ClosetSupplierProjection closestSupplierProjection() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("getId", 7L);
+        values.put("getUserId", 70L);
+        values.put("getName", "Acme Filaments");
+        values.put("getEmail", "sales@acme.test");
+        values.put("getPhone", "+1 555 0100");
+        values.put("getAddress", "1 Spool Street");
+        values.put("getCity", "Springfield");
+        values.put("getState", "IL");
+        values.put("getCountry", "USA");
+        values.put("getPostalCode", "62701");
+        values.put("getLatitude", 39.78);
+        values.put("getLongitude", -89.65);
+        values.put("getBusinessLicense", "BL-123");
+        values.put("getDescription", "PLA and PETG specialist");
+        values.put("getVerified", true);
+        values.put("getActive", true);
+        values.put("getStockId", 21L);
+        values.put("getMaterialType", FilamentType.PETG);
+        values.put("getColor", "Orange");
+        values.put("getQuantityGrams", 12_500L);
+        values.put("getReservedGrams", 2_000L);
+        values.put("getAvailable", true);
+        values.put("getDistanceKm", 4.2);
+        return projection(ClosetSupplierProjection.class, values);
+    }
+
+    /**
+     * Map-backed implementation of a projection interface, similar to what Spring Data returns.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T projection(Class<T> type, Map<String, Object> values) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + values;
+                default:
+                    return values.get(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.threedfly.productservice.repository;
+
+import entity.IdGenerators;
+import entity.Supplier;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Supplier insert throughput with JDBC batching off (one statement per row, as under
+ * {@code IDENTITY} ids) and on. Excluded from the default test task; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+class BatchInsertBenchmarkTest {
+
+    private static final int WARMUP_ROWS = 2_000;
+    private static final int MEASURED_ROWS = 20_000;
+    private static final int FLUSH_INTERVAL = 500;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void supplierInserts() {
+        insert(WARMUP_ROWS, 1);
+        insert(WARMUP_ROWS, IdGenerators.ALLOCATION_SIZE);
+
+        double rowByRow = insert(MEASURED_ROWS, 1);
+        double batched = insert(MEASURED_ROWS, IdGenerators.ALLOCATION_SIZE);
+
+        System.out.printf("%-30s row by row: %10.0f rows/s   batched: %10.0f rows/s   (%.1fx)%n",
+                "Supplier inserts", rowByRow, batched, batched / rowByRow);
+    }
+
+    private double insert(int rows, int batchSize) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (Session session = sessionFactory.openSession()) {
+            session.setJdbcBatchSize(batchSize);
+            Transaction transaction = session.beginTransaction();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                session.persist(supplier(i));
+                if ((i + 1) % FLUSH_INTERVAL == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            transaction.commit();
+            long elapsed = System.nanoTime() - start;
+
+            assertTrue(elapsed > 0);
+            return rows / (elapsed / 1_000_000_000.0);
+        }
+    }
+
+    private Supplier supplier(int i) {
+        return Supplier.builder()
+                .name("Benchmark Supplier " + i)
+                .email("supplier-" + i + "@bench.io")
+                .city("Berlin")
+                .country("Germany")
+                .latitude(52.52)
+                .longitude(13.405)
+                .verified(true)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.threedfly.productservice.repository;
+
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import service.FilamentColorRegistry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the indexes declared on the entities: each hot query is run through {@code EXPLAIN} in
+ * H2's regular and MySQL compatibility modes and must not fall back to a table scan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:query-plans"
+})
+class QueryPlanIntegrationTest {
+
+    private static final int SUPPLIERS = 200;
+    private static final List<String> COLORS =
+            List.of("Black", "White", "Red", "Blue", "Green", "Grey", "Orange", "Yellow", "Purple", "Natural");
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private FilamentStockRepository filamentStockRepository;
+
+    @Autowired
+    private FilamentColorRegistry colorRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        if (supplierRepository.count() > 0) {
+            return;
+        }
+        List<FilamentStock> stock = new ArrayList<>();
+        FilamentType[] materials = FilamentType.values();
+        for (int i = 0; i < SUPPLIERS; i++) {
+            Supplier supplier = supplierRepository.save(Supplier.builder()
+                    .name("Supplier " + i)
+                    .email("supplier" + i + "@plans.test")
+                    .latitude(40.0 + i / 100.0)
+                    .longitude(-74.0 + i / 100.0)
+                    .active(true)
+                    .verified(i % 10 != 0)
+                    .build());
+            for (int j = 0; j < 5; j++) {
+                stock.add(FilamentStock.builder()
+                        .supplier(supplier)
+                        .materialType(materials[(i + j) % materials.length])
+                        .color(COLORS.get((i * 7 + j) % COLORS.size()))
+                        .quantityGrams(1_000L * (1 + (i + j) % 20))
+                        .reservedGrams(100L * (j % 3))
+                        .available(j != 4)
+                        .expiryDate(new Date(System.currentTimeMillis() + (i * 5L + j - 500) * 3_600_000L))
+                        .build());
+            }
+        }
+        stock.forEach(colorRegistry::applyTo);
+        filamentStockRepository.saveAll(stock);
+
+        // Give the planner real selectivity figures, as MySQL has from its index statistics
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REGULAR", "MySQL"})
+    void findClosestSupplierWithStock_ShouldSeekTheMatchIndex(String mode) throws Exception {
+        // Given
+        String sql = SupplierRepository.class.getMethod("findClosestSupplierWithStock",
+                Double.class, Double.class, String.class, Integer.class, long.class).getAnnotation(Query.class).value();
+
+        // When
+        String plan = explain(mode, sql, Map.of("buyerLat", 40.79, "buyerLon", -73.95,
+                "materialType", "PLA", "colorId", colorRegistry.findId("Red"), "requiredGrams", 5_000L));
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toUpperCase().contains("IDX_FILAMENT_STOCK_MATCH"), plan);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REGULAR", "MySQL"})
+    void sufficientQuantityFilter_ShouldSeekTheAvailabilityIndex(String mode) throws Exception {
+        // Given: the SQL Hibernate generates for findStockWithSufficientQuantity
+        String sql = "SELECT f.id FROM filament_stock f WHERE f.available = TRUE AND f.available_grams >= :requiredGrams";
+
+        // When
+        String plan = explain(mode, sql, Map.of("requiredGrams", 15_000L));
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toUpperCase().contains("IDX_FILAMENT_STOCK_AVAILABLE"), plan);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REGULAR", "MySQL"})
+    void colorListing_ShouldSeekTheColorIndex(String mode) throws Exception {
+        // Given: the filter and keyset order of findListItemsByColorId
+        String sql = "SELECT f.id FROM filament_stock f LEFT JOIN supplier s ON s.id = f.supplier_id "
+                + "WHERE f.color_id = :colorId AND f.id > :afterId ORDER BY f.id LIMIT 100";
+
+        // When
+        String plan = explain(mode, sql, Map.of("colorId", colorRegistry.findId("Red"), "afterId", 0L));
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toUpperCase().contains("IDX_FILAMENT_STOCK_COLOR"), plan);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REGULAR", "MySQL"})
+    void lowStockListing_ShouldNotScanTheTable(String mode) throws Exception {
+        // Given: the filter and keyset order of findLowStockListItems
+        String sql = "SELECT f.id FROM filament_stock f LEFT JOIN supplier s ON s.id = f.supplier_id "
+                + "WHERE f.available = TRUE AND f.available_grams < :thresholdGrams AND f.id > :afterId "
+                + "ORDER BY f.id LIMIT 100";
+
+        // When
+        String plan = explain(mode, sql, Map.of("thresholdGrams", 2_000L, "afterId", 0L));
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"REGULAR", "MySQL"})
+    void expiringListing_ShouldSeekTheExpiryIndex(String mode) throws Exception {
+        // Given: the window filter of findExpiringListItems
+        String sql = "SELECT f.id FROM filament_stock f "
+                + "WHERE f.expiry_date >= :from AND f.expiry_date < :to AND f.id > :afterId";
+
+        // When: the next few hours, as the expiry check loads them
+        long now = System.currentTimeMillis();
+        String plan = explain(mode, sql, Map.of("from", new Date(now), "to", new Date(now + 24 * 3_600_000L),
+                "afterId", 0L));
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toUpperCase().contains("IDX_FILAMENT_STOCK_EXPIRY"), plan);
+    }
+
+    private String explain(String mode, String sql, Map<String, ?> parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            setMode(connection, mode);
+            try {
+                return new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true))
+                        .queryForObject("EXPLAIN " + sql, parameters, String.class);
+            } finally {
+                setMode(connection, "REGULAR");
+            }
+        }
+    }
+
+    private void setMode(Connection connection, String mode) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET MODE " + mode);
+        }
+    }
+}
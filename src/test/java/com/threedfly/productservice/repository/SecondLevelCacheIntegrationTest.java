@@ -0,0 +1,81 @@
+package com.threedfly.productservice.repository;
+
+import entity.Supplier;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import repository.SupplierRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        supplierRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findById_WhenLoadedAgain_ShouldBeServedFromSecondLevelCache() {
+        // Given
+        Supplier saved = supplierRepository.save(supplier("cache-hit@test.io"));
+        statistics.clear();
+
+        // When
+        supplierRepository.findById(saved.getId());
+        supplierRepository.findById(saved.getId());
+
+        // Then
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+    }
+
+    @Test
+    void findByVerifiedTrueAndActiveTrue_ShouldUseQueryCacheUntilSuppliersChange() {
+        // Given
+        supplierRepository.save(supplier("first@test.io"));
+        supplierRepository.findByVerifiedTrueAndActiveTrue();
+        statistics.clear();
+
+        // When
+        List<Supplier> cached = supplierRepository.findByVerifiedTrueAndActiveTrue();
+        supplierRepository.save(supplier("second@test.io"));
+        List<Supplier> afterWrite = supplierRepository.findByVerifiedTrueAndActiveTrue();
+
+        // Then
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, cached.size());
+        assertEquals(2, afterWrite.size());
+    }
+
+    private Supplier supplier(String email) {
+        return Supplier.builder()
+                .name("Cached Supplier")
+                .email(email)
+                .verified(true)
+                .active(true)
+                .build();
+    }
+}
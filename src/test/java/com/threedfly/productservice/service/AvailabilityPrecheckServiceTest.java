@@ -0,0 +1,126 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentStock;
+import entity.FilamentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.FilamentStockRepository;
+import repository.projection.StockMaxAvailableProjection;
+import service.AvailabilityPrecheckService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityPrecheckServiceTest {
+
+    private static final Integer RED = 1;
+    private static final Integer CHARTREUSE = 2;
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @InjectMocks
+    private AvailabilityPrecheckService availabilityPrecheck;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityPrecheck, "maxAgeMs", 60_000L);
+    }
+
+    @Test
+    void mightHave_BeforeFirstLoad_ShouldLetEveryRequestThrough() {
+        assertTrue(availabilityPrecheck.mightHave(FilamentType.PLA, CHARTREUSE, 1_000_000L));
+        verifyNoInteractions(filamentStockRepository);
+    }
+
+    @Test
+    void mightHave_AfterRefresh_ShouldRuleOutUnstockedPairsAndQuantities() {
+        // Given
+        List<StockMaxAvailableProjection> maxima = List.of(max(FilamentType.PLA, RED, 6_000L), max(FilamentType.PETG, CHARTREUSE, 500L));
+        when(filamentStockRepository.findMaxAvailableByMaterialAndColor()).thenReturn(maxima);
+
+        // When
+        availabilityPrecheck.refresh();
+
+        // Then
+        assertTrue(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 6_000L));
+        assertFalse(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 6_001L));
+        assertFalse(availabilityPrecheck.mightHave(FilamentType.PETG, RED, 1L));
+        assertFalse(availabilityPrecheck.mightHave(FilamentType.PLA, CHARTREUSE, 1L));
+    }
+
+    @Test
+    void apply_ShouldRaiseAtOnceButOnlyLowerOnRefresh() {
+        // Given
+        List<StockMaxAvailableProjection> maxima = List.of(max(FilamentType.PLA, RED, 4_000L));
+        when(filamentStockRepository.findMaxAvailableByMaterialAndColor()).thenReturn(maxima);
+        availabilityPrecheck.refresh();
+
+        // When: restocked, then mostly reserved
+        availabilityPrecheck.apply(stock(RED, 9_000L, 0L));
+        availabilityPrecheck.apply(stock(RED, 9_000L, 8_000L));
+
+        // Then
+        assertTrue(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 9_000L));
+
+        // When
+        availabilityPrecheck.refresh();
+
+        // Then
+        assertFalse(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 9_000L));
+    }
+
+    @Test
+    void mightHave_WhenFiguresOlderThanMaxAge_ShouldLetRequestsThrough() {
+        // Given: figures that may miss a restock made through another instance since
+        when(filamentStockRepository.findMaxAvailableByMaterialAndColor()).thenReturn(List.of());
+        availabilityPrecheck.refresh();
+        assertFalse(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 1_000L));
+
+        // When
+        ReflectionTestUtils.setField(availabilityPrecheck, "refreshedAt", System.currentTimeMillis() - 60_001L);
+
+        // Then
+        assertTrue(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 1_000L));
+    }
+
+    @Test
+    void refresh_WhenQueryFails_ShouldKeepLettingRequestsThrough() {
+        // Given
+        when(filamentStockRepository.findMaxAvailableByMaterialAndColor()).thenThrow(new IllegalStateException("down"));
+
+        // When
+        availabilityPrecheck.refresh();
+
+        // Then
+        assertTrue(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 1_000L));
+    }
+
+    private StockMaxAvailableProjection max(FilamentType materialType, Integer colorId, long grams) {
+        StockMaxAvailableProjection max = mock(StockMaxAvailableProjection.class);
+        when(max.getMaterialType()).thenReturn(materialType);
+        when(max.getColorId()).thenReturn(colorId);
+        when(max.getAvailableGrams()).thenReturn(grams);
+        return max;
+    }
+
+    private FilamentStock stock(Integer colorId, long quantityGrams, long reservedGrams) {
+        return FilamentStock.builder()
+                .id(1L)
+                .materialType(FilamentType.PLA)
+                .color("Red")
+                .colorId(colorId)
+                .quantityGrams(quantityGrams)
+                .reservedGrams(reservedGrams)
+                .available(true)
+                .build();
+    }
+}
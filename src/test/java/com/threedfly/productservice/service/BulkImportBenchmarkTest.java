@@ -0,0 +1,67 @@
+package com.threedfly.productservice.service;
+
+import dto.BulkImportResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import service.BulkImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end time to import 100k supplier rows and 100k stock rows through the bulk import path.
+ * Excluded from the default test task; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:bulkimportbench",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "logging.level.service=WARN"
+})
+class BulkImportBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Test
+    void importHundredThousandRows() {
+        StringBuilder suppliers = new StringBuilder("name,email,city,country,latitude,longitude,verified,active\n");
+        for (int i = 0; i < ROWS; i++) {
+            suppliers.append("Supplier ").append(i).append(",supplier-").append(i)
+                    .append("@bench.io,Berlin,Germany,52.52,13.405,true,true\n");
+        }
+        BulkImportResponse supplierImport = bulkImportService.importSuppliers(
+                new ByteArrayInputStream(suppliers.toString().getBytes(StandardCharsets.UTF_8)), "text/csv");
+
+        StringBuilder stock = new StringBuilder();
+        String[] materials = {"PLA", "PETG", "ABS", "TPU"};
+        for (int i = 0; i < ROWS; i++) {
+            stock.append("{\"supplierId\":").append(i / materials.length + 1)
+                    .append(",\"materialType\":\"").append(materials[i % materials.length])
+                    .append("\",\"color\":\"Black\",\"quantityKg\":10.0}\n");
+        }
+        BulkImportResponse stockImport = bulkImportService.importFilamentStock(
+                new ByteArrayInputStream(stock.toString().getBytes(StandardCharsets.UTF_8)), "application/x-ndjson");
+
+        assertEquals(ROWS, supplierImport.getCreated());
+        assertEquals(ROWS, stockImport.getCreated());
+        System.out.printf("%-30s %,d rows in %,d ms (%,.0f rows/s)%n", "Supplier CSV import",
+                ROWS, supplierImport.getDurationMs(), ROWS * 1000.0 / supplierImport.getDurationMs());
+        System.out.printf("%-30s %,d rows in %,d ms (%,.0f rows/s)%n", "Filament stock NDJSON import",
+                ROWS, stockImport.getDurationMs(), ROWS * 1000.0 / stockImport.getDurationMs());
+    }
+}
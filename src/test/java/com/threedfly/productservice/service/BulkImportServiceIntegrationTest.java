@@ -0,0 +1,176 @@
+package com.threedfly.productservice.service;
+
+import dto.BulkImportResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import service.BulkImportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:bulkimport",
+    "bulk.import.chunk.size=2"
+})
+class BulkImportServiceIntegrationTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private FilamentStockRepository filamentStockRepository;
+
+    @BeforeEach
+    void setUp() {
+        filamentStockRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    void importSuppliers_WhenCsv_ShouldSaveValidRowsAndReportTheRest() {
+        // Given
+        String csv = """
+                name,email,userId,city,verified,active
+                Acme Filaments,acme@test.io,1,Berlin,true,true
+                "Prusa, Polymers",prusa@test.io,2,Prague,true,true
+                No Email,,3,Paris,false,true
+                Acme Again,acme@test.io,4,Munich,true,true
+                """;
+
+        // When
+        BulkImportResponse response = bulkImportService.importSuppliers(stream(csv), "text/csv");
+
+        // Then
+        assertEquals(4, response.getTotalRows());
+        assertEquals(2, response.getCreated());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(4L, 5L), response.getErrors().stream().map(BulkImportResponse.RowError::getLine).toList());
+        assertEquals("Prusa, Polymers", supplierRepository.findByEmail("prusa@test.io").orElseThrow().getName());
+    }
+
+    @Test
+    void importSuppliers_WhenEmailExists_ShouldUpdateSupplier() {
+        // Given
+        supplierRepository.save(Supplier.builder().name("Old Name").email("acme@test.io").userId(1L).build());
+        String ndjson = """
+                {"name":"New Name","email":"acme@test.io","userId":1,"verified":true,"active":true}
+                
+                {"name":"Taken","email":"other@test.io","userId":1,"verified":true,"active":true}
+                """;
+
+        // When
+        BulkImportResponse response = bulkImportService.importSuppliers(stream(ndjson), "application/x-ndjson");
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertEquals(0, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(3L, response.getErrors().get(0).getLine());
+        assertEquals("New Name", supplierRepository.findByEmail("acme@test.io").orElseThrow().getName());
+        assertEquals(1, supplierRepository.count());
+    }
+
+    @Test
+    void importFilamentStock_ShouldUpsertByMaterialAndColorAndRejectUnknownSuppliers() {
+        // Given
+        Supplier supplier = supplierRepository.save(Supplier.builder().name("Acme").email("acme@test.io").build());
+        filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier).materialType(FilamentType.PLA).color("Red").quantityGrams(1_000).build());
+        String csv = "supplierId,materialType,color,quantityKg\n"
+                + supplier.getId() + ",PLA,red,25.0\n"
+                + supplier.getId() + ",PETG,Black,10.0\n"
+                + "999999,PLA,Blue,5.0\n"
+                + supplier.getId() + ",NYLON-X,Blue,5.0\n";
+
+        // When
+        BulkImportResponse response = bulkImportService.importFilamentStock(stream(csv), "text/csv");
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getFailed());
+        List<FilamentStock> stock = filamentStockRepository.findBySupplierId(supplier.getId());
+        assertEquals(2, stock.size());
+        FilamentStock red = stock.stream().filter(s -> s.getMaterialType() == FilamentType.PLA).findFirst().orElseThrow();
+        assertEquals(25_000, red.getQuantityGrams());
+        assertEquals("Red", red.getColor());
+        assertNotNull(red.getColorId());
+    }
+
+    @Test
+    void importFilamentStock_ShouldKeepHoldsAndRejectQuantitiesBelowThem() {
+        // Given - 1 kg of each row is held through the reservation ledger
+        Supplier supplier = supplierRepository.save(Supplier.builder().name("Acme").email("acme@test.io").build());
+        filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier).materialType(FilamentType.PLA).color("Red").quantityGrams(5_000).reservedGrams(1_000).build());
+        filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier).materialType(FilamentType.PETG).color("Black").quantityGrams(5_000).reservedGrams(1_000).build());
+        String csv = "supplierId,materialType,color,quantityKg\n"
+                + supplier.getId() + ",PLA,Red,8.0\n"
+                + supplier.getId() + ",PETG,Black,0.5\n";
+
+        // When
+        BulkImportResponse response = bulkImportService.importFilamentStock(stream(csv), "text/csv");
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getFailed());
+        List<FilamentStock> stock = filamentStockRepository.findBySupplierId(supplier.getId());
+        FilamentStock red = stock.stream().filter(s -> s.getMaterialType() == FilamentType.PLA).findFirst().orElseThrow();
+        assertEquals(8_000, red.getQuantityGrams());
+        assertEquals(1_000, red.getReservedGrams());
+        assertEquals(7_000, red.getAvailableGrams());
+        FilamentStock black = stock.stream().filter(s -> s.getMaterialType() == FilamentType.PETG).findFirst().orElseThrow();
+        assertEquals(5_000, black.getQuantityGrams());
+    }
+
+    @Test
+    void importSuppliers_WhenChunkFails_ShouldAcceptItsEmailsLaterInTheFile() {
+        // Given - the first chunk fails on a description too long for its column
+        String csv = """
+                name,email,description
+                Acme Filaments,acme@test.io,%s
+                Prusa Polymers,prusa@test.io,Fine
+                Acme Retry,acme@test.io,Fixed
+                """.formatted("x".repeat(300));
+
+        // When
+        BulkImportResponse response = bulkImportService.importSuppliers(stream(csv), "text/csv");
+
+        // Then
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(2L, 3L), response.getErrors().stream().map(BulkImportResponse.RowError::getLine).toList());
+        assertEquals("Acme Retry", supplierRepository.findByEmail("acme@test.io").orElseThrow().getName());
+    }
+
+    @Test
+    void importSuppliers_WhenContentTypeUnsupported_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkImportService.importSuppliers(stream("{}"), "application/json"));
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
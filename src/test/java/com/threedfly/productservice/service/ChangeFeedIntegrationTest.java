@@ -0,0 +1,261 @@
+package com.threedfly.productservice.service;
+
+import dto.ChangeFeedResponse;
+import dto.DeletedEntityResponse;
+import dto.FilamentStockRequest;
+import dto.FilamentStockResponse;
+import dto.SupplierBulkStatusRequest;
+import dto.SupplierRequest;
+import dto.SupplierResponse;
+import entity.ChangeCounter;
+import entity.FilamentType;
+import entity.SyncedEntity;
+import exception.ChangesExpiredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.ChangeCounterRepository;
+import service.ChangeFeedService;
+import service.ChangeLogService;
+import service.FilamentStockService;
+import service.SupplierService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:change-feed"
+})
+class ChangeFeedIntegrationTest {
+
+    private static final AtomicInteger SUPPLIERS = new AtomicInteger();
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private FilamentStockService filamentStockService;
+
+    @Autowired
+    private ChangeCounterRepository changeCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        start = changeCounterRepository.findValue(ChangeCounter.CHANGE_VERSION);
+    }
+
+    @Test
+    void findChanges_ShouldReturnEachWriteWithItsLatestVersion() {
+        // Given
+        SupplierResponse supplier = createSupplier();
+        FilamentStockResponse stock = filamentStockService.save(stockRequest(supplier.getId(), 5.0));
+
+        // When
+        ChangeFeedResponse first = changeFeedService.findChanges(start, null);
+
+        // Then
+        assertEquals(List.of(supplier.getId()), ids(first.getSuppliers(), SupplierResponse::getId));
+        assertEquals(List.of(stock.getId()), ids(first.getFilamentStock(), FilamentStockResponse::getId));
+        long supplierVersion = first.getSuppliers().get(0).getChangeVersion();
+        long stockVersion = first.getFilamentStock().get(0).getChangeVersion();
+        assertTrue(supplierVersion > start);
+        assertTrue(stockVersion > supplierVersion);
+        assertNull(first.getFilamentStock().get(0).getReservedKg());
+        assertNull(first.getFilamentStock().get(0).getAvailableQuantityKg());
+        assertEquals(stockVersion, first.getNextSince());
+        assertFalse(first.isHasMore());
+
+        // When: only the stock item changes again
+        filamentStockService.update(stock.getId(), stockRequest(supplier.getId(), 7.0));
+        ChangeFeedResponse second = changeFeedService.findChanges(first.getNextSince(), null);
+
+        // Then
+        assertTrue(second.getSuppliers().isEmpty());
+        assertEquals(1, second.getFilamentStock().size());
+        assertEquals(7.0, second.getFilamentStock().get(0).getQuantityKg());
+        assertTrue(second.getFilamentStock().get(0).getChangeVersion() > stockVersion);
+    }
+
+    @Test
+    void findChanges_WhenSupplierDeleted_ShouldReturnTombstonesForItAndItsStock() {
+        // Given
+        SupplierResponse supplier = createSupplier();
+        FilamentStockResponse first = filamentStockService.save(stockRequest(supplier.getId(), 1.0));
+        FilamentStockResponse second = filamentStockService.save(stockRequest(supplier.getId(), 2.0));
+        long since = changeFeedService.findChanges(start, null).getNextSince();
+
+        // When
+        supplierService.deleteById(supplier.getId());
+        ChangeFeedResponse changes = changeFeedService.findChanges(since, null);
+
+        // Then
+        assertTrue(changes.getSuppliers().isEmpty());
+        assertTrue(changes.getFilamentStock().isEmpty());
+        List<DeletedEntityResponse> deleted = changes.getDeleted();
+        assertEquals(3, deleted.size());
+        assertEquals(List.of(first.getId(), second.getId()), deleted.stream()
+                .filter(tombstone -> tombstone.getEntityType() == SyncedEntity.FILAMENT_STOCK)
+                .map(DeletedEntityResponse::getId)
+                .collect(Collectors.toList()));
+        assertTrue(deleted.stream().anyMatch(tombstone -> tombstone.getEntityType() == SyncedEntity.SUPPLIER
+                && tombstone.getId().equals(supplier.getId())));
+        assertTrue(deleted.stream().allMatch(tombstone -> tombstone.getChangeVersion() > since));
+    }
+
+    @Test
+    void findChanges_WhenMoreThanLimit_ShouldPageByVersion() {
+        // Given: four changes, one supplier and three stock items
+        SupplierResponse supplier = createSupplier();
+        for (int i = 1; i <= 3; i++) {
+            filamentStockService.save(stockRequest(supplier.getId(), i));
+        }
+
+        // When
+        ChangeFeedResponse first = changeFeedService.findChanges(start, 3);
+        ChangeFeedResponse second = changeFeedService.findChanges(first.getNextSince(), 3);
+
+        // Then
+        assertTrue(first.isHasMore());
+        assertEquals(1, first.getSuppliers().size());
+        assertEquals(2, first.getFilamentStock().size());
+        assertFalse(second.isHasMore());
+        assertTrue(second.getSuppliers().isEmpty());
+        assertEquals(1, second.getFilamentStock().size());
+        assertTrue(second.getFilamentStock().get(0).getChangeVersion() > first.getNextSince());
+    }
+
+    @Test
+    void findChanges_WhenOneTransactionExceedsLimit_ShouldReturnItWhole() {
+        // Given: one delete removing a supplier and its three stock items under a single version
+        SupplierResponse supplier = createSupplier();
+        for (int i = 1; i <= 3; i++) {
+            filamentStockService.save(stockRequest(supplier.getId(), i));
+        }
+        long since = changeFeedService.findChanges(start, null).getNextSince();
+        supplierService.deleteById(supplier.getId());
+
+        // When
+        ChangeFeedResponse first = changeFeedService.findChanges(since, 2);
+        ChangeFeedResponse second = changeFeedService.findChanges(first.getNextSince(), 2);
+
+        // Then
+        assertEquals(4, first.getDeleted().size());
+        assertEquals(1, first.getDeleted().stream().map(DeletedEntityResponse::getChangeVersion).distinct().count());
+        assertTrue(second.getDeleted().isEmpty());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void findChanges_WhenBulkUpdateSkipsRows_ShouldReturnOnlyTheChangedOnes() {
+        // Given
+        SupplierResponse verified = createSupplier();
+        SupplierResponse unverified = createSupplier();
+        supplierService.verifySuppliers(SupplierBulkStatusRequest.builder().ids(List.of(verified.getId())).build());
+        long since = changeFeedService.findChanges(start, null).getNextSince();
+
+        // When
+        supplierService.verifySuppliers(SupplierBulkStatusRequest.builder()
+                .ids(List.of(verified.getId(), unverified.getId()))
+                .build());
+        ChangeFeedResponse changes = changeFeedService.findChanges(since, null);
+
+        // Then
+        assertEquals(List.of(unverified.getId()), ids(changes.getSuppliers(), SupplierResponse::getId));
+        assertTrue(changes.getSuppliers().get(0).isVerified());
+    }
+
+    @Test
+    void findChanges_WhileAnEarlierVersionIsUncommitted_ShouldStopBelowIt() {
+        // Given
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        long[] pending = new long[1];
+        ChangeFeedResponse[] whilePending = new ChangeFeedResponse[1];
+
+        // When: a later writer commits while an earlier one is still open
+        newTransaction.executeWithoutResult(status -> {
+            pending[0] = changeLogService.version();
+            newTransaction.executeWithoutResult(inner -> createSupplier());
+            whilePending[0] = newTransaction.execute(inner -> changeFeedService.findChanges(start, null));
+        });
+        ChangeFeedResponse afterCommit = changeFeedService.findChanges(start, null);
+
+        // Then
+        assertTrue(whilePending[0].getSuppliers().isEmpty());
+        assertEquals(pending[0] - 1, whilePending[0].getNextSince());
+        assertEquals(1, afterCommit.getSuppliers().size());
+        assertTrue(afterCommit.getNextSince() > pending[0]);
+    }
+
+    @Test
+    void findChanges_WhenDeletesSinceWerePurged_ShouldThrowGone() {
+        // Given
+        SupplierResponse supplier = createSupplier();
+        FilamentStockResponse stock = filamentStockService.save(stockRequest(supplier.getId(), 1.0));
+        long beforeDelete = changeFeedService.findChanges(start, null).getNextSince();
+        filamentStockService.deleteById(stock.getId());
+        long latest = changeFeedService.findChanges(start, null).getNextSince();
+
+        // When: every tombstone is past its retention
+        ReflectionTestUtils.setField(changeLogService, "tombstoneRetentionDays", -1L);
+        try {
+            changeLogService.purgeTombstones();
+        } finally {
+            ReflectionTestUtils.setField(changeLogService, "tombstoneRetentionDays", 30L);
+        }
+
+        // Then: a resumed sync from before the purge must reload, a full load or a caught-up one need not
+        assertThrows(ChangesExpiredException.class, () -> changeFeedService.findChanges(beforeDelete, null));
+        assertTrue(changeFeedService.findChanges(latest, null).getDeleted().isEmpty());
+        assertTrue(changeFeedService.findChanges(0, null).getDeleted().isEmpty());
+    }
+
+    private SupplierResponse createSupplier() {
+        int n = SUPPLIERS.incrementAndGet();
+        return supplierService.save(SupplierRequest.builder()
+                .name("Supplier " + n)
+                .email("supplier" + n + "@feed.test")
+                .active(true)
+                .build());
+    }
+
+    private FilamentStockRequest stockRequest(Long supplierId, double quantityKg) {
+        return FilamentStockRequest.builder()
+                .supplierId(supplierId)
+                .materialType(FilamentType.PLA)
+                .color("Black")
+                .quantityKg(quantityKg)
+                .available(true)
+                .build();
+    }
+
+    private static <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentColor;
+import entity.FilamentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import service.AvailabilityPrecheckService;
+import service.ColorSubstitutionService;
+import service.FilamentColorRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColorSubstitutionServiceTest {
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
+    @Mock
+    private AvailabilityPrecheckService availabilityPrecheck;
+
+    @InjectMocks
+    private ColorSubstitutionService colorSubstitution;
+
+    private final List<FilamentColor> colors = new ArrayList<>(List.of(
+            new FilamentColor(1, "Red", "red"),
+            new FilamentColor(2, "Crimson", "crimson"),
+            new FilamentColor(3, "Dark Red", "dark red"),
+            new FilamentColor(4, "Blue", "blue"),
+            new FilamentColor(5, "Galaxy Sparkle", "galaxy sparkle")));
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(colorRegistry.colors()).thenReturn(colors);
+        lenient().when(colorRegistry.findId("Red")).thenReturn(1);
+        lenient().when(availabilityPrecheck.mightHave(any(), any(), anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void findSubstitutes_ShouldReturnOtherShadesNearestFirst() {
+        // When
+        List<ColorSubstitutionService.Substitute> substitutes =
+                colorSubstitution.findSubstitutes(FilamentType.PLA, "Red", 1_000L, 50, 5);
+
+        // Then - red itself, blue (too far) and the unplaceable color are left out
+        assertEquals(List.of("Crimson", "Dark Red"), substitutes.stream().map(ColorSubstitutionService.Substitute::name).toList());
+        assertTrue(substitutes.get(0).difference() < substitutes.get(1).difference());
+    }
+
+    @Test
+    void findSubstitutes_WhenPrecheckRulesOutAShade_ShouldSkipIt() {
+        // Given
+        when(availabilityPrecheck.mightHave(FilamentType.PLA, 2, 1_000L)).thenReturn(false);
+
+        // When
+        List<ColorSubstitutionService.Substitute> substitutes =
+                colorSubstitution.findSubstitutes(FilamentType.PLA, "Red", 1_000L, 50, 5);
+
+        // Then
+        assertEquals(List.of(3), substitutes.stream().map(ColorSubstitutionService.Substitute::colorId).toList());
+    }
+
+    @Test
+    void findSubstitutes_WhenRegistryGainsColors_ShouldRebuildThePalette() {
+        // Given
+        assertEquals(2, colorSubstitution.findSubstitutes(FilamentType.PLA, "Red", 1_000L, 50, 5).size());
+
+        // When
+        colors.add(new FilamentColor(6, "Maroon", "maroon"));
+
+        // Then
+        assertEquals(3, colorSubstitution.findSubstitutes(FilamentType.PLA, "Red", 1_000L, 60, 5).size());
+    }
+
+    @Test
+    void findSubstitutes_WhenColorCannotBePlaced_ShouldReturnEmpty() {
+        assertTrue(colorSubstitution.findSubstitutes(FilamentType.PLA, "Galaxy Sparkle", 1_000L, 50, 5).isEmpty());
+        verifyNoInteractions(availabilityPrecheck);
+    }
+}
@@ -0,0 +1,112 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentColor;
+import entity.FilamentStock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FilamentColorRepository;
+import service.FilamentColorRegistry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FilamentColorRegistryTest {
+
+    @Mock
+    private FilamentColorRepository colorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FilamentColorRegistry colorRegistry;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(colorRegistry, "missTtlMs", 60_000L);
+    }
+
+    @Test
+    void normalize_ShouldIgnoreCaseSpacingAndAccents() {
+        assertEquals("creme brulee", FilamentColorRegistry.normalize("  Crème \t Brûlée "));
+        assertEquals("red", FilamentColorRegistry.normalize("RED "));
+        assertNull(FilamentColorRegistry.normalize(null));
+    }
+
+    @Test
+    void intern_ShouldFoldSpellingsAndAliasesIntoOneColor() {
+        // Given
+        when(colorRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(colorRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            FilamentColor color = invocation.getArgument(0);
+            color.setId(nextId.getAndIncrement());
+            return color;
+        });
+
+        // When
+        FilamentColor red = colorRegistry.intern("Red");
+        FilamentColor gray = colorRegistry.intern("grey");
+
+        // Then
+        assertSame(red, colorRegistry.intern(" RED "));
+        assertEquals(red.getId(), colorRegistry.findId("red"));
+        assertEquals("Gray", gray.getName());
+        assertEquals(gray.getId(), colorRegistry.findId("Gray"));
+        verify(colorRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void findId_WhenUnknown_ShouldRememberTheMissUntilInterned() {
+        // Given
+        when(colorRepository.findByNormalizedName("chartreuse")).thenReturn(Optional.empty());
+        when(colorRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            FilamentColor color = invocation.getArgument(0);
+            color.setId(7);
+            return color;
+        });
+
+        // When
+        assertNull(colorRegistry.findId("Chartreuse"));
+        assertNull(colorRegistry.findId("chartreuse"));
+        FilamentStock stock = FilamentStock.builder().color("chartreuse ").build();
+        colorRegistry.applyTo(stock);
+
+        // Then
+        assertEquals(7, stock.getColorId());
+        assertEquals("chartreuse", stock.getColor());
+        assertEquals(7, colorRegistry.findId("Chartreuse"));
+        // One read for the two lookups, one inside the intern
+        verify(colorRepository, times(2)).findByNormalizedName("chartreuse");
+    }
+
+    @Test
+    void load_ShouldServeStoredColorsFromMemory() {
+        // Given
+        List<FilamentColor> stored = List.of(new FilamentColor(5, "Red", "red"));
+        when(colorRepository.findAll()).thenReturn(stored);
+
+        // When
+        ReflectionTestUtils.invokeMethod(colorRegistry, "load");
+
+        // Then
+        assertEquals(5, colorRegistry.findId("RED"));
+        assertEquals("Red", colorRegistry.nameOf(5));
+        verify(colorRepository, never()).findByNormalizedName(anyString());
+        verify(colorRepository, never()).findById(any());
+    }
+}
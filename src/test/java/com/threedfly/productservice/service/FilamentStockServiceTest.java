@@ -5,16 +5,24 @@ import dto.FilamentStockResponse;
 import entity.FilamentStock;
 import entity.FilamentType;
 import entity.Supplier;
+import entity.SyncedEntity;
+import exception.InsufficientStockException;
 import mapper.FilamentStockMapper;
 import repository.FilamentStockRepository;
 import repository.SupplierRepository;
+import repository.projection.FilamentStockListProjection;
+import service.ChangeLogService;
+import service.FilamentColorRegistry;
 import service.FilamentStockService;
+import service.StockChangePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.Date;
@@ -37,6 +45,15 @@ class FilamentStockServiceTest {
     @Mock
     private FilamentStockMapper filamentStockMapper;
 
+    @Mock
+    private StockChangePublisher stockChanges;
+
+    @Mock
+    private ChangeLogService changeLog;
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
     @InjectMocks
     private FilamentStockService filamentStockService;
 
@@ -44,9 +61,14 @@ class FilamentStockServiceTest {
     private Supplier testSupplier;
     private FilamentStockRequest testStockRequest;
     private FilamentStockResponse testStockResponse;
+    private FilamentStockListProjection testListItem;
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(filamentStockService, "defaultListLimit", 100);
+        ReflectionTestUtils.setField(filamentStockService, "maxListLimit", 500);
+        testListItem = mock(FilamentStockListProjection.class);
+
         testSupplier = Supplier.builder()
                 .id(1L)
                 .name("Test Supplier")
@@ -60,8 +82,8 @@ class FilamentStockServiceTest {
                 .supplier(testSupplier)
                 .materialType(FilamentType.PLA)
                 .color("Red")
-                .quantityKg(10.0)
-                .reservedKg(2.0)
+                .quantityGrams(10_000)
+                .reservedGrams(2_000)
                 .available(true)
                 .lastRestocked(new Date())
                 .expiryDate(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000))
@@ -72,7 +94,6 @@ class FilamentStockServiceTest {
                 .materialType(FilamentType.PLA)
                 .color("Red")
                 .quantityKg(10.0)
-                .reservedKg(2.0)
                 .available(true)
                 .lastRestocked(new Date())
                 .expiryDate(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000))
@@ -96,19 +117,31 @@ class FilamentStockServiceTest {
     @Test
     void findAll_ShouldReturnAllFilamentStock() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findAll()).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(filamentStockRepository.findListItems(0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findAll();
+        List<FilamentStockResponse> result = filamentStockService.findAll(null, null);
 
         // Then
         assertEquals(1, result.size());
         assertEquals(testStockResponse.getColor(), result.get(0).getColor());
-        assertEquals(testStockResponse.getMaterialType(), result.get(0).getMaterialType());
-        verify(filamentStockRepository).findAll();
-        verify(filamentStockMapper).toResponse(testStock);
+        verify(filamentStockRepository).findListItems(0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void findAll_WhenCursorAndLimitGiven_ShouldContinueAfterCursorWithCappedLimit() {
+        // Given
+        when(filamentStockRepository.findListItems(42L, PageRequest.of(0, 500))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
+
+        // When
+        List<FilamentStockResponse> result = filamentStockService.findAll(42L, 10_000);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(filamentStockRepository).findListItems(42L, PageRequest.of(0, 500));
     }
 
     @Test
@@ -155,8 +188,11 @@ class FilamentStockServiceTest {
         assertEquals(testStockResponse.getColor(), result.getColor());
         assertEquals(testStockResponse.getMaterialType(), result.getMaterialType());
         verify(filamentStockMapper).toEntity(testStockRequest);
+        verify(colorRegistry).applyTo(testStock);
         verify(supplierRepository).findById(testStockRequest.getSupplierId());
         verify(filamentStockRepository).save(testStock);
+        verify(changeLog).changed(SyncedEntity.FILAMENT_STOCK, testStock.getId());
+        verify(stockChanges).saved(testStock);
         verify(filamentStockMapper).toResponse(testStock);
     }
 
@@ -184,6 +220,7 @@ class FilamentStockServiceTest {
         // Then
         verify(filamentStockRepository).findById(1L);
         verify(filamentStockRepository).delete(testStock);
+        verify(stockChanges).removed(testStock);
     }
 
     @Test
@@ -217,59 +254,71 @@ class FilamentStockServiceTest {
     @Test
     void findByMaterialType_WhenValidType_ShouldReturnStocks() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findByMaterialType(FilamentType.PLA)).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(filamentStockRepository.findListItemsByMaterialType(FilamentType.PLA, 0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findByMaterialType(FilamentType.PLA);
+        List<FilamentStockResponse> result = filamentStockService.findByMaterialType(FilamentType.PLA, null, null);
 
         // Then
         assertEquals(1, result.size());
         assertEquals(FilamentType.PLA, result.get(0).getMaterialType());
-        verify(filamentStockRepository).findByMaterialType(FilamentType.PLA);
-        verify(filamentStockMapper).toResponse(testStock);
+        verify(filamentStockRepository).findListItemsByMaterialType(FilamentType.PLA, 0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
     }
 
     @Test
     void findByColor_WhenValidColor_ShouldReturnStocks() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findByColor("Red")).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(colorRegistry.findId("Red")).thenReturn(3);
+        when(filamentStockRepository.findListItemsByColorId(3, 0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findByColor("Red");
+        List<FilamentStockResponse> result = filamentStockService.findByColor("Red", null, null);
 
         // Then
         assertEquals(1, result.size());
         assertEquals("Red", result.get(0).getColor());
-        verify(filamentStockRepository).findByColor("Red");
-        verify(filamentStockMapper).toResponse(testStock);
+        verify(filamentStockRepository).findListItemsByColorId(3, 0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void findByColor_WhenColorUnknown_ShouldReturnEmptyWithoutQuerying() {
+        // Given
+        when(colorRegistry.findId("Chartreuse")).thenReturn(null);
+
+        // When
+        List<FilamentStockResponse> result = filamentStockService.findByColor("Chartreuse", null, null);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(filamentStockRepository);
     }
 
     @Test
     void findAvailable_ShouldReturnAvailableStocks() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findByAvailableTrue()).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(filamentStockRepository.findAvailableListItems(0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findAvailable();
+        List<FilamentStockResponse> result = filamentStockService.findAvailable(null, null);
 
         // Then
         assertEquals(1, result.size());
         assertTrue(result.get(0).isAvailable());
-        verify(filamentStockRepository).findByAvailableTrue();
-        verify(filamentStockMapper).toResponse(testStock);
+        verify(filamentStockRepository).findAvailableListItems(0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
     }
 
     @Test
     void findByMaterialTypeAndColor_WhenValidParams_ShouldReturnStocks() {
         // Given
         List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findByMaterialTypeAndColor(FilamentType.PLA, "Red")).thenReturn(stocks);
+        when(colorRegistry.findId("Red")).thenReturn(3);
+        when(filamentStockRepository.findByMaterialTypeAndColorId(FilamentType.PLA, 3)).thenReturn(stocks);
         when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
 
         // When
@@ -279,7 +328,7 @@ class FilamentStockServiceTest {
         assertEquals(1, result.size());
         assertEquals(FilamentType.PLA, result.get(0).getMaterialType());
         assertEquals("Red", result.get(0).getColor());
-        verify(filamentStockRepository).findByMaterialTypeAndColor(FilamentType.PLA, "Red");
+        verify(filamentStockRepository).findByMaterialTypeAndColorId(FilamentType.PLA, 3);
         verify(filamentStockMapper).toResponse(testStock);
     }
 
@@ -287,7 +336,7 @@ class FilamentStockServiceTest {
     void findStockWithSufficientQuantity_WhenValidQuantity_ShouldReturnStocks() {
         // Given
         List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findStockWithSufficientQuantity(5.0)).thenReturn(stocks);
+        when(filamentStockRepository.findStockWithSufficientQuantity(5_000L)).thenReturn(stocks);
         when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
 
         // When
@@ -296,136 +345,44 @@ class FilamentStockServiceTest {
         // Then
         assertEquals(1, result.size());
         assertTrue(result.get(0).getAvailableQuantityKg() >= 5.0);
-        verify(filamentStockRepository).findStockWithSufficientQuantity(5.0);
+        verify(filamentStockRepository).findStockWithSufficientQuantity(5_000L);
         verify(filamentStockMapper).toResponse(testStock);
     }
 
     @Test
     void findLowStockItems_WhenValidThreshold_ShouldReturnStocks() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findLowStockItems(15.0)).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(filamentStockRepository.findLowStockListItems(15_000L, 0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findLowStockItems(15.0);
+        List<FilamentStockResponse> result = filamentStockService.findLowStockItems(15.0, null, null);
 
         // Then
         assertEquals(1, result.size());
-        verify(filamentStockRepository).findLowStockItems(15.0);
-        verify(filamentStockMapper).toResponse(testStock);
+        verify(filamentStockRepository).findLowStockListItems(15_000L, 0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
     }
 
     @Test
     void findExpiredStock_ShouldReturnExpiredStocks() {
         // Given
-        List<FilamentStock> stocks = Arrays.asList(testStock);
-        when(filamentStockRepository.findExpiredStock()).thenReturn(stocks);
-        when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
+        when(filamentStockRepository.findExpiredListItems(0L, PageRequest.of(0, 100))).thenReturn(List.of(testListItem));
+        when(filamentStockMapper.toListResponse(testListItem)).thenReturn(testStockResponse);
 
         // When
-        List<FilamentStockResponse> result = filamentStockService.findExpiredStock();
+        List<FilamentStockResponse> result = filamentStockService.findExpiredStock(null, null);
 
         // Then
         assertEquals(1, result.size());
-        verify(filamentStockRepository).findExpiredStock();
-        verify(filamentStockMapper).toResponse(testStock);
-    }
-
-    @Test
-    void reserveStock_WhenValidParams_ShouldReserveAndReturn() {
-        // Given
-        FilamentStock mockStock = mock(FilamentStock.class);
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(mockStock));
-        when(mockStock.hasEnoughStock(5.0)).thenReturn(true);
-        when(mockStock.getReservedKg()).thenReturn(2.0);
-        when(filamentStockRepository.save(mockStock)).thenReturn(mockStock);
-        when(filamentStockMapper.toResponse(mockStock)).thenReturn(testStockResponse);
-
-        // When
-        FilamentStockResponse result = filamentStockService.reserveStock(1L, 5.0);
-
-        // Then
-        assertNotNull(result);
-        verify(filamentStockRepository).findById(1L);
-        verify(mockStock).setReservedKg(7.0); // 2.0 + 5.0
-        verify(filamentStockRepository).save(mockStock);
-        verify(filamentStockMapper).toResponse(mockStock);
-    }
-
-    @Test
-    void reserveStock_WhenInsufficientStock_ShouldThrowException() {
-        // Given
-        FilamentStock mockStock = mock(FilamentStock.class);
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(mockStock));
-        when(mockStock.hasEnoughStock(15.0)).thenReturn(false);
-        when(mockStock.getAvailableQuantityKg()).thenReturn(8.0);
-
-        // When & Then
-        assertThrows(RuntimeException.class, () -> filamentStockService.reserveStock(1L, 15.0));
-        verify(filamentStockRepository).findById(1L);
-        verify(filamentStockRepository, never()).save(any());
-    }
-
-    @Test
-    void reserveStock_WhenStockNotFound_ShouldThrowException() {
-        // Given
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.empty());
-
-        // When & Then
-        assertThrows(RuntimeException.class, () -> filamentStockService.reserveStock(1L, 5.0));
-        verify(filamentStockRepository).findById(1L);
-        verify(filamentStockRepository, never()).save(any());
-    }
-
-    @Test
-    void releaseReservedStock_WhenValidParams_ShouldReleaseAndReturn() {
-        // Given
-        FilamentStock mockStock = mock(FilamentStock.class);
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(mockStock));
-        when(mockStock.getReservedKg()).thenReturn(5.0);
-        when(filamentStockRepository.save(mockStock)).thenReturn(mockStock);
-        when(filamentStockMapper.toResponse(mockStock)).thenReturn(testStockResponse);
-
-        // When
-        FilamentStockResponse result = filamentStockService.releaseReservedStock(1L, 1.0);
-
-        // Then
-        assertNotNull(result);
-        verify(filamentStockRepository).findById(1L);
-        verify(mockStock).setReservedKg(4.0); // 5.0 - 1.0
-        verify(filamentStockRepository).save(mockStock);
-        verify(filamentStockMapper).toResponse(mockStock);
-    }
-
-    @Test
-    void releaseReservedStock_WhenInsufficientReserved_ShouldThrowException() {
-        // Given
-        FilamentStock mockStock = mock(FilamentStock.class);
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(mockStock));
-        when(mockStock.getReservedKg()).thenReturn(1.0);
-
-        // When & Then
-        assertThrows(RuntimeException.class, () -> filamentStockService.releaseReservedStock(1L, 5.0));
-        verify(filamentStockRepository).findById(1L);
-        verify(filamentStockRepository, never()).save(any());
-    }
-
-    @Test
-    void releaseReservedStock_WhenStockNotFound_ShouldThrowException() {
-        // Given
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.empty());
-
-        // When & Then
-        assertThrows(RuntimeException.class, () -> filamentStockService.releaseReservedStock(1L, 1.0));
-        verify(filamentStockRepository).findById(1L);
-        verify(filamentStockRepository, never()).save(any());
+        verify(filamentStockRepository).findExpiredListItems(0L, PageRequest.of(0, 100));
+        verify(filamentStockMapper, never()).toResponse(any());
     }
 
     @Test
     void update_WhenValidParams_ShouldUpdateAndReturn() {
         // Given
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(testStock));
+        when(filamentStockRepository.lockById(1L)).thenReturn(Optional.of(testStock));
         when(supplierRepository.findById(testStockRequest.getSupplierId())).thenReturn(Optional.of(testSupplier));
         when(filamentStockRepository.save(testStock)).thenReturn(testStock);
         when(filamentStockMapper.toResponse(testStock)).thenReturn(testStockResponse);
@@ -435,21 +392,23 @@ class FilamentStockServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(filamentStockRepository).findById(1L);
+        verify(filamentStockRepository).lockById(1L);
         verify(filamentStockMapper).updateEntityFromRequest(testStock, testStockRequest);
+        verify(colorRegistry).applyTo(testStock);
         verify(supplierRepository).findById(testStockRequest.getSupplierId());
         verify(filamentStockRepository).save(testStock);
+        verify(stockChanges).saved(testStock);
         verify(filamentStockMapper).toResponse(testStock);
     }
 
     @Test
     void update_WhenStockNotFound_ShouldThrowException() {
         // Given
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.empty());
+        when(filamentStockRepository.lockById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(RuntimeException.class, () -> filamentStockService.update(1L, testStockRequest));
-        verify(filamentStockRepository).findById(1L);
+        verify(filamentStockRepository).lockById(1L);
         verify(filamentStockMapper, never()).updateEntityFromRequest(any(), any());
         verify(filamentStockRepository, never()).save(any());
     }
@@ -457,14 +416,27 @@ class FilamentStockServiceTest {
     @Test
     void update_WhenSupplierNotFound_ShouldThrowException() {
         // Given
-        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(testStock));
+        when(filamentStockRepository.lockById(1L)).thenReturn(Optional.of(testStock));
         when(supplierRepository.findById(testStockRequest.getSupplierId())).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(RuntimeException.class, () -> filamentStockService.update(1L, testStockRequest));
-        verify(filamentStockRepository).findById(1L);
+        verify(filamentStockRepository).lockById(1L);
         verify(filamentStockMapper).updateEntityFromRequest(testStock, testStockRequest);
         verify(supplierRepository).findById(testStockRequest.getSupplierId());
         verify(filamentStockRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void update_WhenQuantityBelowReserved_ShouldThrowWithoutSaving() {
+        // Given - 2 kg of the stock is held
+        testStock.setReservedGrams(2_000);
+        testStockRequest.setQuantityKg(1.5);
+        when(filamentStockRepository.lockById(1L)).thenReturn(Optional.of(testStock));
+
+        // When & Then
+        assertThrows(InsufficientStockException.class, () -> filamentStockService.update(1L, testStockRequest));
+        verify(filamentStockMapper, never()).updateEntityFromRequest(any(), any());
+        verify(filamentStockRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Grams;
+import entity.Supplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import service.HotStockReservationService;
+import service.StockReservationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reservations per second when every thread reserves from the same stock row, through the
+ * database (conditional UPDATE per hold) and through the hot in-memory path. Excluded from the
+ * default test task; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:hot-reservation-bench",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "logging.level.service=WARN",
+    "filament.stock.reservation.hot.enabled=true",
+    "filament.stock.reservation.hot.journal.dir=build/tmp/hot-reservation-bench-journal"
+})
+class HotReservationBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int WARMUP_PER_THREAD = 200;
+    private static final int MEASURED_PER_THREAD = 2_000;
+    private static final double QUANTITY_KG = 0.001;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private HotStockReservationService hotStockReservations;
+
+    @Autowired
+    private FilamentStockRepository filamentStockRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Test
+    void contendedReservations() throws Exception {
+        Supplier supplier = supplierRepository.save(Supplier.builder().name("Bench").email("bench@bench.io").build());
+        Long databaseStock = stock(supplier);
+        Long hotStock = stock(supplier);
+        ReflectionTestUtils.setField(hotStockReservations, "hotStockIds", Set.of(hotStock));
+
+        reserve(databaseStock, WARMUP_PER_THREAD);
+        reserve(hotStock, WARMUP_PER_THREAD);
+
+        double database = reserve(databaseStock, MEASURED_PER_THREAD);
+        double hot = reserve(hotStock, MEASURED_PER_THREAD);
+        hotStockReservations.flush();
+
+        long expectedGrams = THREADS * (WARMUP_PER_THREAD + MEASURED_PER_THREAD) * Grams.fromKg(QUANTITY_KG);
+        assertEquals(expectedGrams, reservedGrams(databaseStock));
+        assertEquals(expectedGrams, reservedGrams(hotStock));
+
+        System.out.printf("%-30s database: %10.0f holds/s   hot: %10.0f holds/s   (%.1fx)%n",
+                THREADS + " threads, one stock row", database, hot, hot / database);
+    }
+
+    private double reserve(Long stockId, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int owner = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        stockReservationService.reserve(stockId, QUANTITY_KG, "bench-" + owner, null);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return THREADS * perThread / (elapsed / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Long stock(Supplier supplier) {
+        return filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier)
+                .materialType(FilamentType.PLA)
+                .color("Black")
+                .quantityGrams(1_000_000)
+                .available(true)
+                .build()).getId();
+    }
+
+    private long reservedGrams(Long stockId) {
+        return filamentStockRepository.findById(stockId).orElseThrow().getReservedGrams();
+    }
+}
@@ -0,0 +1,188 @@
+package com.threedfly.productservice.service;
+
+import dto.StockReservationResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.ReservationStatus;
+import entity.StockReservation;
+import entity.Supplier;
+import exception.InsufficientStockException;
+import mapper.StockReservationMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FilamentStockRepository;
+import repository.StockReservationRepository;
+import repository.SupplierRepository;
+import service.HotStockReservationService;
+import service.StockChangePublisher;
+import service.StockReservationService;
+import util.IntentLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:hot-reservations",
+    "filament.stock.reservation.hot.enabled=true",
+    "filament.stock.reservation.hot.journal.dir=build/tmp/hot-reservation-journal",
+    "filament.stock.reservation.hot.flush.interval.ms=3600000",
+    "filament.stock.reservation.hot.resync.interval.ms=3600000"
+})
+class HotStockReservationIntegrationTest {
+
+    @Autowired
+    private HotStockReservationService hotStockReservations;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private StockChangePublisher stockChanges;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private FilamentStockRepository filamentStockRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private StockReservationMapper reservationMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long stockId;
+
+    @BeforeEach
+    void setUp() {
+        // The context and its database are shared, and several tests reuse owner keys
+        reservationRepository.deleteAll();
+        Supplier supplier = supplierRepository.save(Supplier.builder()
+                .name("Acme")
+                .email(UUID.randomUUID() + "@test.io")
+                .build());
+        stockId = filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier)
+                .materialType(FilamentType.PLA)
+                .color("Black")
+                .quantityGrams(1_000)
+                .available(true)
+                .build()).getId();
+        ReflectionTestUtils.setField(hotStockReservations, "hotStockIds", Set.of(stockId));
+    }
+
+    @Test
+    void reserve_ShouldAdmitInMemoryAndWriteBehindOnFlush() {
+        // When
+        StockReservationResponse held = stockReservationService.reserve(stockId, 0.4, "order-1", null);
+        stockReservationService.reserve(stockId, 0.6, "order-2", null);
+
+        // Then
+        assertNull(held.getId());
+        assertEquals(ReservationStatus.HELD, held.getStatus());
+        assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserve(stockId, 0.001, "order-3", null));
+        assertEquals(0, reservedGrams());
+
+        hotStockReservations.flush();
+        assertEquals(1_000, reservedGrams());
+        assertEquals(1, stockReservationService.findByOwner("order-1").size());
+    }
+
+    @Test
+    void resync_ShouldReturnReleasedStockToTheBudget() {
+        // Given
+        stockReservationService.reserve(stockId, 1.0, "order-1", null);
+        hotStockReservations.flush();
+        stockReservationService.release("order-1");
+
+        // When
+        hotStockReservations.resync();
+
+        // Then
+        assertNotNull(stockReservationService.reserve(stockId, 1.0, "order-2", null));
+    }
+
+    @Test
+    void confirm_WhenHoldNotFlushedYet_ShouldStoreAndConfirmIt() {
+        // Given: the flush interval is an hour, so the hold is only queued
+        stockReservationService.reserve(stockId, 0.4, "order-confirm", null);
+
+        // When
+        List<StockReservationResponse> confirmed = stockReservationService.confirm("order-confirm");
+
+        // Then
+        assertEquals(1, confirmed.size());
+        assertEquals(ReservationStatus.CONFIRMED, confirmed.get(0).getStatus());
+        FilamentStock stock = filamentStockRepository.findById(stockId).orElseThrow();
+        assertEquals(600, stock.getQuantityGrams());
+        assertEquals(0, stock.getReservedGrams());
+    }
+
+    @Test
+    void open_ShouldReplayJournalLeftByCrashOnlyOnce() throws IOException {
+        // Given: one intent already stored before the crash, one only in the journal
+        Path journalDir = Files.createTempDirectory("hot-reservation-replay");
+        String storedIntent = UUID.randomUUID().toString();
+        String journalOnlyIntent = UUID.randomUUID().toString();
+        reservationRepository.save(StockReservation.builder()
+                .stockId(stockId)
+                .ownerKey("order-1")
+                .quantityGrams(200)
+                .status(ReservationStatus.HELD)
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(900))
+                .intentId(storedIntent)
+                .build());
+        long expiresAt = Instant.now().plusSeconds(900).toEpochMilli();
+        try (IntentLog journal = new IntentLog(journalDir)) {
+            journal.append(storedIntent + "|" + stockId + "|200|0|" + expiresAt + "|order-1", () -> { });
+            journal.sync(journal.append(journalOnlyIntent + "|" + stockId + "|300|0|" + expiresAt + "|order%202",
+                    () -> { }));
+        }
+
+        // When
+        HotStockReservationService restarted = new HotStockReservationService(
+                filamentStockRepository, reservationRepository, reservationMapper, transactionManager, stockChanges);
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "hotStockIds", Set.of(stockId));
+        ReflectionTestUtils.setField(restarted, "stripes", 4);
+        ReflectionTestUtils.setField(restarted, "journalDir", journalDir.toString());
+        ReflectionTestUtils.invokeMethod(restarted, "open");
+
+        // Then
+        List<StockReservationResponse> replayed = stockReservationService.findByOwner("order 2");
+        assertEquals(1, replayed.size());
+        assertEquals(0.3, replayed.get(0).getQuantityKg());
+        assertEquals(1, stockReservationService.findByOwner("order-1").size());
+        assertEquals(300, reservedGrams());
+        try (var files = Files.list(journalDir)) {
+            assertEquals(1, files.count()); // only the fresh segment
+        }
+        ReflectionTestUtils.invokeMethod(restarted, "close");
+    }
+
+    private long reservedGrams() {
+        return filamentStockRepository.findById(stockId).orElseThrow().getReservedGrams();
+    }
+}
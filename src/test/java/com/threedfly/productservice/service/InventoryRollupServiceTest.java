@@ -0,0 +1,238 @@
+package com.threedfly.productservice.service;
+
+import dto.InventoryRollupResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FilamentStockRepository;
+import repository.SupplierRepository;
+import repository.projection.InventoryRollupRowProjection;
+import repository.projection.InventoryRollupTotalsProjection;
+import repository.projection.SupplierLocationProjection;
+import service.FilamentColorRegistry;
+import service.InventoryRollupService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryRollupServiceTest {
+
+    private static final Map<String, Integer> COLOR_IDS = Map.of("Red", 1, "Blue", 2);
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
+    @Mock
+    private SupplierRepository supplierRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private InventoryRollupService inventoryRollupService;
+
+    @BeforeEach
+    void setUp() {
+        COLOR_IDS.forEach((name, id) -> {
+            lenient().when(colorRegistry.findId(name)).thenReturn(id);
+            lenient().when(colorRegistry.nameOf(id)).thenReturn(name);
+        });
+    }
+
+    @Test
+    void apply_WhenStockChanges_ShouldReplaceItsContribution() {
+        // Given
+        Supplier acme = supplier(1L, "Germany", "Berlin");
+        inventoryRollupService.supplierSaved(acme);
+        inventoryRollupService.apply(stock(10L, acme, "Red", 5_000, 1_000));
+        inventoryRollupService.apply(stock(11L, acme, "Red", 2_000, 0));
+
+        // When: restocked, then recolored
+        inventoryRollupService.apply(stock(10L, acme, "Red", 8_000, 1_000));
+
+        // Then
+        InventoryRollupResponse red = single(FilamentType.PLA, "Red", "Germany", "Berlin");
+        assertEquals(2, red.getStockCount());
+        assertEquals(1, red.getSupplierCount());
+        assertEquals(10.0, red.getTotalQuantityKg());
+        assertEquals(1.0, red.getReservedQuantityKg());
+        assertEquals(9.0, red.getAvailableQuantityKg());
+
+        // When
+        inventoryRollupService.apply(stock(10L, acme, "Blue", 8_000, 1_000));
+
+        // Then
+        assertEquals(2.0, single(FilamentType.PLA, "Red", "Germany", "Berlin").getTotalQuantityKg());
+        assertEquals(8.0, single(FilamentType.PLA, "Blue", "Germany", "Berlin").getTotalQuantityKg());
+        verifyNoInteractions(filamentStockRepository);
+    }
+
+    @Test
+    void remove_WhenLastStockOfSupplierGoes_ShouldDropSupplierThenCell() {
+        // Given
+        Supplier acme = supplier(1L, "Germany", "Berlin");
+        Supplier polymer = supplier(2L, "Germany", "Berlin");
+        inventoryRollupService.supplierSaved(acme);
+        inventoryRollupService.supplierSaved(polymer);
+        inventoryRollupService.apply(stock(10L, acme, "Red", 1_000, 0));
+        inventoryRollupService.apply(stock(20L, polymer, "Red", 1_000, 0));
+        assertEquals(2, single(FilamentType.PLA, "Red", "Germany", "Berlin").getSupplierCount());
+
+        // When
+        inventoryRollupService.remove(20L);
+
+        // Then
+        assertEquals(1, single(FilamentType.PLA, "Red", "Germany", "Berlin").getSupplierCount());
+
+        // When
+        inventoryRollupService.remove(10L);
+
+        // Then
+        assertTrue(inventoryRollupService.findRollups(FilamentType.PLA, "Red", "Germany", "Berlin").isEmpty());
+    }
+
+    @Test
+    void supplierSaved_WhenLocationChanges_ShouldMoveItsStock() {
+        // Given
+        Supplier acme = supplier(1L, "Germany", "Berlin");
+        inventoryRollupService.supplierSaved(acme);
+        inventoryRollupService.apply(stock(10L, acme, "Red", 1_000, 0));
+
+        // When
+        inventoryRollupService.supplierSaved(supplier(1L, "Germany", "Bavaria"));
+
+        // Then
+        assertTrue(inventoryRollupService.findRollups(FilamentType.PLA, "Red", "Germany", "Berlin").isEmpty());
+        assertEquals(1, single(FilamentType.PLA, "Red", "Germany", "Bavaria").getStockCount());
+        assertEquals(1, inventoryRollupService.findRollups(null, null, "Germany", null).size());
+    }
+
+    @Test
+    void apply_WhenSupplierNotSeenYet_ShouldLoadItsLocationOnce() {
+        // Given - a supplier created by another instance
+        SupplierLocationProjection location = location(2L, "France", "Normandy");
+        when(supplierRepository.findLocationById(2L)).thenReturn(Optional.of(location));
+        Supplier unseen = Supplier.builder().id(2L).build();
+
+        // When
+        inventoryRollupService.apply(stock(20L, unseen, "Red", 1_000, 0));
+        inventoryRollupService.apply(stock(21L, unseen, "Red", 2_000, 0));
+
+        // Then
+        assertEquals(2, single(FilamentType.PLA, "Red", "France", "Normandy").getStockCount());
+        verify(supplierRepository, times(1)).findLocationById(2L);
+    }
+
+    @Test
+    void rebuild_ShouldLoadLocationsOfSuppliersWithoutStock() {
+        // Given
+        SupplierLocationProjection location = location(1L, "Germany", "Berlin");
+        when(supplierRepository.findLocations(eq(0L), any())).thenReturn(List.of(location));
+        when(filamentStockRepository.findRollupRows(eq(0L), any())).thenReturn(List.of());
+        inventoryRollupService.rebuild();
+
+        // When: the supplier's first stock item arrives
+        inventoryRollupService.apply(stock(10L, Supplier.builder().id(1L).build(), "Red", 1_000, 0));
+
+        // Then
+        assertEquals(1, single(FilamentType.PLA, "Red", "Germany", "Berlin").getStockCount());
+        verify(supplierRepository, never()).findLocationById(any());
+    }
+
+    @Test
+    void reconcile_WhenCellDrifted_ShouldReloadOnlyThatMaterialAndColor() {
+        // Given: a write made elsewhere left memory behind the table
+        Supplier acme = supplier(1L, "Germany", "Berlin");
+        inventoryRollupService.supplierSaved(acme);
+        inventoryRollupService.apply(stock(10L, acme, "Red", 1_000, 0));
+
+        InventoryRollupTotalsProjection totals = mock(InventoryRollupTotalsProjection.class);
+        when(totals.getMaterialType()).thenReturn(FilamentType.PLA);
+        when(totals.getColorId()).thenReturn(1);
+        when(totals.getCountry()).thenReturn("Germany");
+        when(totals.getState()).thenReturn("Berlin");
+        when(totals.getSupplierId()).thenReturn(1L);
+        when(totals.getStockCount()).thenReturn(1L);
+        when(totals.getQuantityGrams()).thenReturn(3_000L);
+        when(totals.getReservedGrams()).thenReturn(500L);
+        when(totals.getAvailableGrams()).thenReturn(2_500L);
+        when(filamentStockRepository.sumRollups()).thenReturn(List.of(totals));
+
+        InventoryRollupRowProjection row = mock(InventoryRollupRowProjection.class);
+        when(row.getId()).thenReturn(10L);
+        when(row.getSupplierId()).thenReturn(1L);
+        when(row.getMaterialType()).thenReturn(FilamentType.PLA);
+        when(row.getColorId()).thenReturn(1);
+        when(row.getCountry()).thenReturn("Germany");
+        when(row.getState()).thenReturn("Berlin");
+        when(row.getQuantityGrams()).thenReturn(3_000L);
+        when(row.getReservedGrams()).thenReturn(500L);
+        when(row.getAvailable()).thenReturn(true);
+        when(filamentStockRepository.findRollupRows(eq(FilamentType.PLA), eq(1), anyLong(), any()))
+                .thenReturn(List.of(row));
+
+        // When
+        inventoryRollupService.reconcile();
+
+        // Then
+        InventoryRollupResponse red = single(FilamentType.PLA, "Red", "Germany", "Berlin");
+        assertEquals(3.0, red.getTotalQuantityKg());
+        assertEquals(2.5, red.getAvailableQuantityKg());
+        verify(filamentStockRepository, never()).findRollupRows(anyLong(), any());
+
+        // When: nothing drifted since
+        inventoryRollupService.reconcile();
+
+        // Then
+        verify(filamentStockRepository, times(1)).findRollupRows(eq(FilamentType.PLA), eq(1), anyLong(), any());
+    }
+
+    private InventoryRollupResponse single(FilamentType materialType, String color, String country, String state) {
+        List<InventoryRollupResponse> rollups = inventoryRollupService.findRollups(materialType, color, country, state);
+        assertEquals(1, rollups.size());
+        return rollups.get(0);
+    }
+
+    private SupplierLocationProjection location(Long supplierId, String country, String state) {
+        SupplierLocationProjection location = mock(SupplierLocationProjection.class);
+        lenient().when(location.getId()).thenReturn(supplierId);
+        when(location.getCountry()).thenReturn(country);
+        when(location.getState()).thenReturn(state);
+        return location;
+    }
+
+    private Supplier supplier(Long id, String country, String state) {
+        return Supplier.builder().id(id).name("Supplier " + id).country(country).state(state).build();
+    }
+
+    private FilamentStock stock(Long id, Supplier supplier, String color, long quantityGrams, long reservedGrams) {
+        return FilamentStock.builder()
+                .id(id)
+                .supplier(supplier)
+                .materialType(FilamentType.PLA)
+                .color(color)
+                .colorId(COLOR_IDS.get(color))
+                .quantityGrams(quantityGrams)
+                .reservedGrams(reservedGrams)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import service.MaterialCompatibilityService;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialCompatibilityServiceTest {
+
+    private MaterialCompatibilityService materialCompatibility;
+
+    @BeforeEach
+    void setUp() {
+        materialCompatibility = new MaterialCompatibilityService();
+        ReflectionTestUtils.setField(materialCompatibility, "minOverlapC", 10);
+        ReflectionTestUtils.setField(materialCompatibility, "allowedPairs", Set.of());
+        ReflectionTestUtils.setField(materialCompatibility, "deniedPairs", Set.of());
+    }
+
+    @Test
+    void build_ShouldPairMaterialsWithOverlappingTemperatureWindows() {
+        // When
+        ReflectionTestUtils.invokeMethod(materialCompatibility, "build");
+
+        // Then
+        assertEquals(EnumSet.of(FilamentType.TPU, FilamentType.WOOD, FilamentType.METAL, FilamentType.PVA),
+                materialCompatibility.substitutesFor(FilamentType.PLA));
+        assertTrue(materialCompatibility.substitutesFor(FilamentType.PC).isEmpty());
+        for (FilamentType a : FilamentType.values()) {
+            assertFalse(materialCompatibility.isSubstitute(a, a));
+            for (FilamentType b : materialCompatibility.substitutesFor(a)) {
+                assertTrue(materialCompatibility.isSubstitute(b, a), a + " and " + b + " should pair both ways");
+            }
+        }
+    }
+
+    @Test
+    void build_ShouldApplyOverridesBothWays() {
+        // Given
+        ReflectionTestUtils.setField(materialCompatibility, "allowedPairs", Set.of("PLA:PETG"));
+        ReflectionTestUtils.setField(materialCompatibility, "deniedPairs", Set.of(" PLA : TPU"));
+
+        // When
+        ReflectionTestUtils.invokeMethod(materialCompatibility, "build");
+
+        // Then
+        assertTrue(materialCompatibility.isSubstitute(FilamentType.PLA, FilamentType.PETG));
+        assertTrue(materialCompatibility.isSubstitute(FilamentType.PETG, FilamentType.PLA));
+        assertFalse(materialCompatibility.isSubstitute(FilamentType.PLA, FilamentType.TPU));
+        assertFalse(materialCompatibility.isSubstitute(FilamentType.TPU, FilamentType.PLA));
+        assertTrue(materialCompatibility.isSubstitute(FilamentType.TPU, FilamentType.WOOD));
+    }
+
+    @Test
+    void build_WhenOverrideMalformed_ShouldFail() {
+        // Given
+        ReflectionTestUtils.setField(materialCompatibility, "deniedPairs", Set.of("PLA"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> ReflectionTestUtils.invokeMethod(materialCompatibility, "build"));
+        assertTrue(materialCompatibility.substitutesFor(null).isEmpty());
+    }
+}
@@ -10,6 +10,10 @@ import repository.SupplierRepository;
 import repository.projection.ClosetSupplierProjection;
 import mapper.FilamentStockMapper;
 import mapper.SupplierMapper;
+import service.AvailabilityPrecheckService;
+import service.ColorSubstitutionService;
+import service.FilamentColorRegistry;
+import service.MaterialCompatibilityService;
 import service.OrderService;
 import service.GeocodingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,12 +36,27 @@ import exception.SupplierNotFoundException;
 @ExtendWith(MockitoExtension.class)
 class OrderServiceOptimizationTest {
 
+    private static final Integer RED = 1;
+    private static final Integer BLUE = 2;
+
     @Mock
     private SupplierRepository supplierRepository;
 
     @Mock
     private GeocodingService geocodingService;
 
+    @Mock
+    private AvailabilityPrecheckService availabilityPrecheck;
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
+    @Mock
+    private ColorSubstitutionService colorSubstitution;
+
+    @Mock
+    private MaterialCompatibilityService materialCompatibility;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -53,6 +72,10 @@ class OrderServiceOptimizationTest {
         testOrderRequest.setBuyerLatitude(34.0522);
         testOrderRequest.setBuyerLongitude(-118.2437);
         
+        lenient().when(colorRegistry.findId("Red")).thenReturn(RED);
+        lenient().when(colorRegistry.findId("Blue")).thenReturn(BLUE);
+        lenient().when(availabilityPrecheck.mightHave(any(), any(), anyLong())).thenReturn(true);
+
         // Mock geocoding service
         when(geocodingService.areCoordinatesMissing(any(), any())).thenAnswer(invocation -> {
             Double lat = invocation.getArgument(0);
@@ -79,7 +102,7 @@ class OrderServiceOptimizationTest {
         // Given - mock the optimized query to return results
         
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(34.0522), eq(-118.2437), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(34.0522), eq(-118.2437), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -88,7 +111,7 @@ class OrderServiceOptimizationTest {
 
         // Then
         verify(supplierRepository).findClosestSupplierWithStock(
-                eq(34.0522), eq(-118.2437), eq("PLA"), eq("Red"), eq(5.0));
+                eq(34.0522), eq(-118.2437), eq("PLA"), eq(RED), eq(5_000L));
         
         // Should NOT call the legacy method
         verify(supplierRepository, never()).findByActiveAndVerifiedWithValidCoordinates();
@@ -100,7 +123,7 @@ class OrderServiceOptimizationTest {
     void optimizedQuery_WhenNoSuppliersFound_ShouldThrowException() {
         // Given - mock the optimized query to return empty results
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -112,14 +135,14 @@ class OrderServiceOptimizationTest {
         assertTrue(exception.getMessage().contains("No supplier found with sufficient stock"));
         
         verify(supplierRepository).findClosestSupplierWithStock(
-                eq(34.0522), eq(-118.2437), eq("PLA"), eq("Red"), eq(5.0));
+                eq(34.0522), eq(-118.2437), eq("PLA"), eq(RED), eq(5_000L));
     }
 
     @Test
     void optimizedQuery_ShouldSearchWithoutDistanceConstraints() {
         // Given
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -128,14 +151,14 @@ class OrderServiceOptimizationTest {
 
         // Then - verify that search is performed without distance constraints
         verify(supplierRepository).findClosestSupplierWithStock(
-                any(), any(), any(), any(), any());
+                any(), any(), any(), any(), anyLong());
     }
 
     @Test
     void optimizedQuery_ShouldReturnSingleResult() {
         // Given
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -144,7 +167,7 @@ class OrderServiceOptimizationTest {
 
         // Then - verify that query returns single result (LIMIT 1 in SQL)
         verify(supplierRepository).findClosestSupplierWithStock(
-                any(), any(), any(), any(), any());
+                any(), any(), any(), any(), anyLong());
         // No need to verify LIMIT 1 since it's in the SQL query itself
     }
 
@@ -153,7 +176,7 @@ class OrderServiceOptimizationTest {
         // Given
         testOrderRequest.setMaterialType(FilamentType.ABS);
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -162,7 +185,7 @@ class OrderServiceOptimizationTest {
 
         // Then - verify that the material type is correctly passed as string
         verify(supplierRepository).findClosestSupplierWithStock(
-                any(), any(), eq("ABS"), any(), any());
+                any(), any(), eq("ABS"), any(), anyLong());
     }
 
     @Test
@@ -172,7 +195,7 @@ class OrderServiceOptimizationTest {
         testOrderRequest.setBuyerLongitude(-74.0060);
         
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -181,7 +204,7 @@ class OrderServiceOptimizationTest {
 
         // Then
         verify(supplierRepository).findClosestSupplierWithStock(
-                eq(40.7128), eq(-74.0060), any(), any(), any());
+                eq(40.7128), eq(-74.0060), any(), any(), anyLong());
     }
 
     @Test
@@ -191,7 +214,7 @@ class OrderServiceOptimizationTest {
         testOrderRequest.setColor("Blue");
         
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -200,7 +223,7 @@ class OrderServiceOptimizationTest {
 
         // Then
         verify(supplierRepository).findClosestSupplierWithStock(
-                any(), any(), any(), eq("Blue"), eq(15.5));
+                any(), any(), any(), eq(BLUE), eq(15_500L));
     }
 
     /**
@@ -216,7 +239,7 @@ class OrderServiceOptimizationTest {
         
         // Given
         when(supplierRepository.findClosestSupplierWithStock(
-                any(), any(), any(), any(), any()))
+                any(), any(), any(), any(), anyLong()))
                 .thenReturn(Optional.of(mock(ClosetSupplierProjection.class)));
 
 
@@ -224,7 +247,7 @@ class OrderServiceOptimizationTest {
         orderService.findClosestSupplier(testOrderRequest);
 
         // Then - verify minimal database interaction
-        verify(supplierRepository, times(1)).findClosestSupplierWithStock(any(), any(), any(), any(), any());
+        verify(supplierRepository, times(1)).findClosestSupplierWithStock(any(), any(), any(), any(), anyLong());
         
         // Should NOT call the expensive operations from legacy approach
         verify(supplierRepository, never()).findByActiveAndVerifiedWithValidCoordinates();
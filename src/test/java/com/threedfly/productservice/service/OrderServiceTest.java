@@ -12,6 +12,10 @@ import mapper.SupplierMapper;
 
 import repository.SupplierRepository;
 import repository.projection.ClosetSupplierProjection;
+import service.AvailabilityPrecheckService;
+import service.ColorSubstitutionService;
+import service.FilamentColorRegistry;
+import service.MaterialCompatibilityService;
 import service.OrderService;
 import service.GeocodingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,9 +24,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,12 +42,27 @@ import exception.SupplierNotFoundException;
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
 
+    private static final Integer RED = 1;
+    private static final Integer BLUE = 2;
+
     @Mock
     private SupplierRepository supplierRepository;
 
     @Mock
     private GeocodingService geocodingService;
 
+    @Mock
+    private AvailabilityPrecheckService availabilityPrecheck;
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
+    @Mock
+    private ColorSubstitutionService colorSubstitution;
+
+    @Mock
+    private MaterialCompatibilityService materialCompatibility;
+
     @Mock
     private SupplierMapper supplierMapper;
 
@@ -67,8 +90,14 @@ class OrderServiceTest {
         testOrderRequest.setBuyerLatitude(40.7903);
         testOrderRequest.setBuyerLongitude(-73.9477);
 
+        // Both colors are known, and stock could satisfy every request unless a test says otherwise
+        lenient().when(colorRegistry.findId("Red")).thenReturn(RED);
+        lenient().when(colorRegistry.findId("Blue")).thenReturn(BLUE);
+        lenient().when(availabilityPrecheck.mightHave(any(), any(), anyLong())).thenReturn(true);
+
         // Mock geocoding service to always indicate coordinates are not missing when they are provided
-        when(geocodingService.areCoordinatesMissing(any(), any())).thenAnswer(invocation -> {
+        // (lenient: requests refused by the pre-check never reach it)
+        lenient().when(geocodingService.areCoordinatesMissing(any(), any())).thenAnswer(invocation -> {
             Double lat = invocation.getArgument(0);
             Double lng = invocation.getArgument(1);
             return lat == null && lng == null;
@@ -110,8 +139,8 @@ class OrderServiceTest {
                 .supplier(nearSupplier)
                 .materialType(FilamentType.PLA)
                 .color("Red")
-                .quantityKg(20.0)
-                .reservedKg(2.0)
+                .quantityGrams(20_000)
+                .reservedGrams(2_000)
                 .available(true)
                 .lastRestocked(new Date())
                 .build();
@@ -157,7 +186,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -177,7 +206,7 @@ class OrderServiceTest {
         assertEquals(11.23, result.getDistanceKm());
         assertEquals("Closest supplier found successfully", result.getMessage());
 
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Red", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", RED, 5_000L);
         verify(supplierMapper).toResponse(any(Supplier.class));
         verify(filamentStockMapper).toResponse(availableStock);
     }
@@ -189,7 +218,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -208,11 +237,151 @@ class OrderServiceTest {
         assertEquals("Closest supplier found successfully", result.getMessage());
     }
 
+    @Test
+    void findClosestSupplier_WhenPrecheckRulesOutStock_ShouldThrowWithoutQuerying() {
+        // Given - no stocked item of this material and color holds 5 kg
+        when(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 5_000L)).thenReturn(false);
+
+        // When & Then
+        SupplierNotFoundException exception = assertThrows(SupplierNotFoundException.class, () -> {
+            orderService.findClosestSupplier(testOrderRequest);
+        });
+
+        assertTrue(exception.getMessage().contains("PLA Red"));
+        verifyNoInteractions(supplierRepository, geocodingService);
+    }
+
+    @Test
+    void findClosestSupplier_WhenColorUnknown_ShouldThrowWithoutQuerying() {
+        // Given - no stock has ever had this color
+        testOrderRequest.setColor("Chartreuse");
+        // Stubbed explicitly: an unstubbed Integer answers 0, not null
+        when(colorRegistry.findId("Chartreuse")).thenReturn(null);
+
+        // When & Then
+        SupplierNotFoundException exception = assertThrows(SupplierNotFoundException.class, () -> {
+            orderService.findClosestSupplier(testOrderRequest);
+        });
+
+        assertTrue(exception.getMessage().contains("PLA Chartreuse"));
+        verifyNoInteractions(supplierRepository, geocodingService, availabilityPrecheck);
+    }
+
+    @Test
+    void findClosestSupplier_WhenMaterialSubstitutesAllowed_ShouldSearchAllCompatibleMaterialsInOneQuery() {
+        // Given - wood filled PLA is the closest red stock
+        testOrderRequest.setAllowMaterialSubstitutes(true);
+        when(materialCompatibility.substitutesFor(FilamentType.PLA))
+                .thenReturn(EnumSet.of(FilamentType.WOOD, FilamentType.METAL));
+        FilamentStock woodStock = FilamentStock.builder()
+                .id(3L)
+                .supplier(nearSupplier)
+                .materialType(FilamentType.WOOD)
+                .color("Red")
+                .quantityGrams(20_000)
+                .available(true)
+                .build();
+
+        ClosetSupplierProjection mockProjection = createMockProjection(nearSupplier, 11.23);
+        when(supplierRepository.findClosestSupplierWithStockInMaterials(
+                eq(40.7903), eq(-73.9477), eq(List.of("PLA", "WOOD", "METAL")), eq("PLA"), eq(RED), eq(5_000L)))
+                .thenReturn(Optional.of(mockProjection));
+        when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
+        when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(woodStock);
+        when(supplierMapper.toResponse(any(Supplier.class))).thenReturn(nearSupplierResponse);
+        when(filamentStockMapper.toResponse(woodStock)).thenReturn(stockResponse);
+        stockResponse.setMaterialType(FilamentType.WOOD);
+
+        // When
+        ClosestSupplierResponse result = orderService.findClosestSupplier(testOrderRequest);
+
+        // Then
+        assertEquals("Near Supplier", result.getSupplier().getName());
+        assertTrue(result.getMessage().contains("compatible WOOD"));
+        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void findClosestSupplier_WhenOnlyOneSubstitutePassesPrecheck_ShouldQueryJustThatMaterial() {
+        // Given - nobody has 5 kg of red PLA or metal filled, but wood filled might
+        testOrderRequest.setAllowMaterialSubstitutes(true);
+        when(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 5_000L)).thenReturn(false);
+        when(availabilityPrecheck.mightHave(FilamentType.METAL, RED, 5_000L)).thenReturn(false);
+        when(materialCompatibility.substitutesFor(FilamentType.PLA))
+                .thenReturn(EnumSet.of(FilamentType.WOOD, FilamentType.METAL));
+        when(supplierRepository.findClosestSupplierWithStock(
+                eq(40.7903), eq(-73.9477), eq("WOOD"), eq(RED), eq(5_000L)))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        SupplierNotFoundException exception = assertThrows(SupplierNotFoundException.class, () -> {
+            orderService.findClosestSupplier(testOrderRequest);
+        });
+
+        assertTrue(exception.getMessage().contains("PLA Red"));
+        verify(supplierRepository, never()).findClosestSupplierWithStockInMaterials(
+                any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void findClosestSupplier_WhenColorMissingAndSubstitutesAllowed_ShouldRankClosestShades() {
+        // Given - nobody has red, but crimson and dark red are stocked
+        testOrderRequest.setAllowColorSubstitutes(true);
+        when(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 5_000L)).thenReturn(false);
+        ReflectionTestUtils.setField(orderService, "defaultMaxColorDifference", 40.0);
+        ReflectionTestUtils.setField(orderService, "maxColorSubstitutes", 5);
+        when(colorSubstitution.findSubstitutes(FilamentType.PLA, "Red", 5_000L, 40.0, 5)).thenReturn(List.of(
+                new ColorSubstitutionService.Substitute(7, "Crimson", 35.04),
+                new ColorSubstitutionService.Substitute(8, "Dark Red", 45.96)));
+
+        ClosetSupplierProjection darkRed = createMockProjection(nearSupplier, 11.23);
+        when(darkRed.getColorId()).thenReturn(8);
+        ClosetSupplierProjection crimson = createMockProjection(farSupplier, 112.4);
+        when(crimson.getColorId()).thenReturn(7);
+        when(supplierRepository.findClosestSupplierWithStockPerColor(
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(Set.of(7, 8)), eq(5_000L)))
+                .thenReturn(List.of(darkRed, crimson));
+        when(supplierMapper.fromStockProjection(any())).thenReturn(nearSupplier);
+        when(filamentStockMapper.fromStockProjection(any(), any())).thenReturn(availableStock);
+        when(supplierMapper.toResponse(any(Supplier.class))).thenReturn(nearSupplierResponse);
+        when(filamentStockMapper.toResponse(availableStock)).thenReturn(stockResponse);
+
+        // When
+        ClosestSupplierResponse result = orderService.findClosestSupplier(testOrderRequest);
+
+        // Then - the closer shade comes first even though its supplier is farther
+        assertNull(result.getSupplier());
+        assertEquals(2, result.getColorSubstitutes().size());
+        assertEquals("Crimson", result.getColorSubstitutes().get(0).getColor());
+        assertEquals(35.0, result.getColorSubstitutes().get(0).getColorDifference());
+        assertEquals(112.4, result.getColorSubstitutes().get(0).getDistanceKm());
+        assertEquals("Dark Red", result.getColorSubstitutes().get(1).getColor());
+        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void findClosestSupplier_WhenSubstitutesAllowedButNoneClose_ShouldThrowWithoutQuerying() {
+        // Given
+        testOrderRequest.setAllowColorSubstitutes(true);
+        testOrderRequest.setMaxColorDifference(10.0);
+        when(availabilityPrecheck.mightHave(FilamentType.PLA, RED, 5_000L)).thenReturn(false);
+        when(colorSubstitution.findSubstitutes(eq(FilamentType.PLA), eq("Red"), eq(5_000L), eq(10.0), anyInt()))
+                .thenReturn(List.of());
+
+        // When & Then
+        SupplierNotFoundException exception = assertThrows(SupplierNotFoundException.class, () -> {
+            orderService.findClosestSupplier(testOrderRequest);
+        });
+
+        assertTrue(exception.getMessage().contains("PLA Red"));
+        verifyNoInteractions(supplierRepository, geocodingService);
+    }
+
     @Test
     void findClosestSupplier_WhenNoSuppliersAvailable_ShouldThrowException() {
         // Given - optimized query returns empty results
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -225,7 +394,7 @@ class OrderServiceTest {
         assertTrue(exception.getMessage().contains("PLA Red"));
         assertTrue(exception.getMessage().contains("5.0 kg"));
 
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Red", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", RED, 5_000L);
 
     }
 
@@ -233,7 +402,7 @@ class OrderServiceTest {
     void findClosestSupplier_WhenNoSufficientStock_ShouldThrowException() {
         // Given - optimized query handles stock filtering, so empty results mean no sufficient stock
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -246,7 +415,7 @@ class OrderServiceTest {
         assertTrue(exception.getMessage().contains("PLA Red"));
         assertTrue(exception.getMessage().contains("5.0 kg"));
 
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Red", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", RED, 5_000L);
     }
 
     @Test
@@ -257,7 +426,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection)); // Returns only suppliers with sufficient stock
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -273,7 +442,7 @@ class OrderServiceTest {
         assertEquals("Near Supplier", result.getSupplier().getName()); // Returns supplier with sufficient stock
         assertEquals(1L, result.getSupplier().getId());
 
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Red", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", RED, 5_000L);
     }
 
     @Test
@@ -292,7 +461,7 @@ class OrderServiceTest {
                 createMockProjection(sameLocationSupplier, 0.0); // Zero distance
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(sameLocationSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, sameLocationSupplier)).thenReturn(availableStock);
@@ -317,7 +486,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(15.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(15_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -332,7 +501,7 @@ class OrderServiceTest {
         assertNotNull(result.getSupplier());
         assertEquals("Near Supplier", result.getSupplier().getName());
 
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Red", 15.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", RED, 15_000L);
     }
 
     @Test
@@ -344,7 +513,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("ABS"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("ABS"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -355,9 +524,9 @@ class OrderServiceTest {
         ClosestSupplierResponse result = orderService.findClosestSupplier(testOrderRequest);
 
         // Then
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "ABS", "Red", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "ABS", RED, 5_000L);
         // Should NOT search for PLA
-        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), eq("PLA"), any(), any());
+        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), eq("PLA"), any(), anyLong());
     }
 
     @Test
@@ -369,7 +538,7 @@ class OrderServiceTest {
                 createMockProjection(nearSupplier, 11.23);
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Blue"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(BLUE), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -380,9 +549,9 @@ class OrderServiceTest {
         ClosestSupplierResponse result = orderService.findClosestSupplier(testOrderRequest);
 
         // Then
-        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", "Blue", 5.0);
+        verify(supplierRepository).findClosestSupplierWithStock(40.7903, -73.9477, "PLA", BLUE, 5_000L);
         // Should NOT search for Red
-        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), any(), eq("Red"), any());
+        verify(supplierRepository, never()).findClosestSupplierWithStock(any(), any(), any(), eq(RED), anyLong());
     }
 
     @Test
@@ -391,7 +560,7 @@ class OrderServiceTest {
         ClosetSupplierProjection mockProjection = createMockProjection(nearSupplier, 6.0); // ~6 miles from NYC
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(nearSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, nearSupplier)).thenReturn(availableStock);
@@ -425,7 +594,7 @@ class OrderServiceTest {
         ClosetSupplierProjection mockProjection = createMockProjection(farSupplier, 80.0); // ~80 miles from NYC
 
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.of(mockProjection));
         when(supplierMapper.fromStockProjection(mockProjection)).thenReturn(farSupplier);
         when(filamentStockMapper.fromStockProjection(mockProjection, farSupplier)).thenReturn(availableStock);
@@ -457,7 +626,7 @@ class OrderServiceTest {
     void findClosestSupplier_NYC_NoSupplierHasStock_ShouldThrowException() {
         // Given - No supplier has stock
         when(supplierRepository.findClosestSupplierWithStock(
-                eq(40.7903), eq(-73.9477), eq("PLA"), eq("Red"), eq(5.0)))
+                eq(40.7903), eq(-73.9477), eq("PLA"), eq(RED), eq(5_000L)))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -0,0 +1,90 @@
+package com.threedfly.productservice.service;
+
+import dto.ProductSearchHit;
+import dto.SearchResponse;
+import entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.ProductRepository;
+import repository.projection.ProductSearchProjection;
+import service.ProductSearchService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productSearchService, "maxResults", 100);
+        ReflectionTestUtils.setField(productSearchService, "minKeywordLength", 2);
+
+        ProductSearchProjection benchy = projection(1L, "Benchy Tugboat", "Calibration print in PLA");
+        ProductSearchProjection stand = projection(2L, "Phone Stand", "Sturdy stand in PLA");
+        when(productRepository.findAllSearchDocuments()).thenReturn(List.of(benchy, stand));
+        productSearchService.rebuildIndex();
+    }
+
+    @Test
+    void search_ShouldPageRankedHitsWithScores() {
+        // When
+        SearchResponse<ProductSearchHit> firstPage = productSearchService.search("pla", 0, 1);
+        SearchResponse<ProductSearchHit> secondPage = productSearchService.search("pla", 1, 1);
+
+        // Then
+        assertEquals(2, firstPage.getTotalHits());
+        assertEquals(1, firstPage.getResults().size());
+        assertTrue(firstPage.getResults().get(0).getScore() > 0);
+        assertEquals(1, secondPage.getResults().size());
+        assertNotEquals(firstPage.getResults().get(0).getId(), secondPage.getResults().get(0).getId());
+    }
+
+    @Test
+    void search_WhenPageFarPastLastHit_ShouldReturnEmptyPage() {
+        // When
+        SearchResponse<ProductSearchHit> result = productSearchService.search("pla", Integer.MAX_VALUE, 100);
+
+        // Then
+        assertTrue(result.getResults().isEmpty());
+        assertEquals(2, result.getTotalHits());
+    }
+
+    @Test
+    void remove_ShouldDropProductFromResults() {
+        // When
+        productSearchService.remove(1L);
+        Product dragon = new Product();
+        dragon.setId(3L);
+        dragon.setName("Dragon");
+        dragon.setDescription("Printed in PLA");
+        productSearchService.index(dragon);
+
+        // Then
+        List<Long> ids = productSearchService.search("pla", 0, 10).getResults().stream().map(ProductSearchHit::getId).toList();
+        assertEquals(2, ids.size());
+        assertFalse(ids.contains(1L));
+        assertTrue(ids.contains(3L));
+    }
+
+    private ProductSearchProjection projection(Long id, String name, String description) {
+        ProductSearchProjection projection = mock(ProductSearchProjection.class);
+        when(projection.getId()).thenReturn(id);
+        when(projection.getName()).thenReturn(name);
+        when(projection.getDescription()).thenReturn(description);
+        return projection;
+    }
+}
@@ -5,6 +5,9 @@ import dto.ShopResponse;
 import entity.Shop;
 import mapper.ShopMapper;
 import repository.ShopRepository;
+import repository.projection.ShopProductCountProjection;
+import repository.projection.ShopSummaryProjection;
+import service.ShopSearchService;
 import service.ShopService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +37,9 @@ class ShopServiceTest {
     @Mock
     private ShopMapper shopMapper;
 
+    @Mock
+    private ShopSearchService shopSearchService;
+
     @InjectMocks
     private ShopService shopService;
 
@@ -67,10 +77,9 @@ class ShopServiceTest {
     @Test
     void findAll_ShouldReturnAllShops() {
         // Given
-        List<Shop> shops = Arrays.asList(testShop);
-        List<ShopResponse> expectedResponses = Arrays.asList(testShopResponse);
-        when(shopRepository.findAll()).thenReturn(shops);
-        when(shopMapper.toResponse(testShop)).thenReturn(testShopResponse);
+        ShopSummaryProjection summary = mock(ShopSummaryProjection.class);
+        when(shopRepository.findAllWithProductCounts()).thenReturn(List.of(summary));
+        when(shopMapper.toSummaryResponse(summary)).thenReturn(testShopResponse);
 
         // When
         List<ShopResponse> result = shopService.findAll();
@@ -79,8 +88,9 @@ class ShopServiceTest {
         assertEquals(1, result.size());
         assertEquals(testShopResponse.getName(), result.get(0).getName());
         assertEquals(testShopResponse.getSellerId(), result.get(0).getSellerId());
-        verify(shopRepository).findAll();
-        verify(shopMapper).toResponse(testShop);
+        verify(shopRepository).findAllWithProductCounts();
+        verify(shopRepository, never()).findAll();
+        verify(shopMapper, never()).toResponse(any(Shop.class));
     }
 
     @Test
@@ -127,6 +137,7 @@ class ShopServiceTest {
         assertEquals(testShopResponse.getSellerId(), result.getSellerId());
         verify(shopMapper).toEntity(testShopRequest);
         verify(shopRepository).save(testShop);
+        verify(shopSearchService).index(testShop);
         verify(shopMapper).toResponse(testShop);
     }
 
@@ -141,6 +152,7 @@ class ShopServiceTest {
         // Then
         verify(shopRepository).findById(1L);
         verify(shopRepository).delete(testShop);
+        verify(shopSearchService).remove(1L);
     }
 
     @Test
@@ -253,7 +265,11 @@ class ShopServiceTest {
     void findShopsWithProducts_ShouldReturnShopsWithProducts() {
         // Given
         List<Shop> shops = Arrays.asList(testShop);
+        ShopProductCountProjection count = mock(ShopProductCountProjection.class);
+        when(count.getShopId()).thenReturn(1L);
+        when(count.getProductCount()).thenReturn(3L);
         when(shopRepository.findShopsWithProducts()).thenReturn(shops);
+        when(shopRepository.countProductsByShopIds(List.of(1L))).thenReturn(List.of(count));
         when(shopMapper.toResponse(testShop)).thenReturn(testShopResponse);
 
         // When
@@ -262,10 +278,47 @@ class ShopServiceTest {
         // Then
         assertEquals(1, result.size());
         assertEquals(testShopResponse.getName(), result.get(0).getName());
+        assertEquals(3L, result.get(0).getProductCount());
         verify(shopRepository).findShopsWithProducts();
+        verify(shopRepository).countProductsByShopIds(List.of(1L));
         verify(shopMapper).toResponse(testShop);
     }
 
+    @Test
+    void findShopsWithProducts_WhenPaginated_ShouldReturnPageWithCounts() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+        ShopProductCountProjection count = mock(ShopProductCountProjection.class);
+        when(count.getShopId()).thenReturn(1L);
+        when(count.getProductCount()).thenReturn(2L);
+        when(shopRepository.findShopsWithProducts(pageRequest)).thenReturn(new PageImpl<>(List.of(testShop), pageRequest, 11));
+        when(shopRepository.countProductsByShopIds(List.of(1L))).thenReturn(List.of(count));
+        when(shopMapper.toResponse(testShop)).thenReturn(testShopResponse);
+
+        // When
+        Page<ShopResponse> result = shopService.findShopsWithProducts(0, 10);
+
+        // Then
+        assertEquals(11, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        assertEquals(2L, result.getContent().get(0).getProductCount());
+    }
+
+    @Test
+    void searchByName_WhenShopHasNoProducts_ShouldReportZeroCount() {
+        // Given
+        testShopResponse.setProductCount(null);
+        when(shopRepository.findByNameContainingIgnoreCase("Test")).thenReturn(List.of(testShop));
+        when(shopRepository.countProductsByShopIds(List.of(1L))).thenReturn(List.of());
+        when(shopMapper.toResponse(testShop)).thenReturn(testShopResponse);
+
+        // When
+        List<ShopResponse> result = shopService.searchByName("Test");
+
+        // Then
+        assertEquals(0L, result.get(0).getProductCount());
+    }
+
     @Test
     void update_WhenValidParams_ShouldUpdateAndReturn() {
         // Given
@@ -295,6 +348,7 @@ class ShopServiceTest {
         verify(shopRepository).findById(1L);
         verify(shopMapper, never()).updateEntityFromRequest(any(), any());
         verify(shopRepository, never()).save(any());
+        verify(shopSearchService, never()).index(any());
     }
 
     @Test
@@ -311,6 +365,7 @@ class ShopServiceTest {
         assertNotNull(result);
         verify(shopRepository).findById(1L);
         verify(shopRepository).save(testShop);
+        verify(shopSearchService).index(testShop);
         verify(shopMapper).toResponse(testShop);
         assertEquals("New Name", testShop.getName());
         assertEquals("New Description", testShop.getDescription());
@@ -368,27 +423,26 @@ class ShopServiceTest {
     @Test
     void countProductsByShopId_WhenValidId_ShouldReturnCount() {
         // Given
-        when(shopRepository.existsById(1L)).thenReturn(true);
-        when(shopRepository.countProductsByShopId(1L)).thenReturn(5L);
+        ShopSummaryProjection summary = mock(ShopSummaryProjection.class);
+        when(summary.getProductCount()).thenReturn(5L);
+        when(shopRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
 
         // When
         Long result = shopService.countProductsByShopId(1L);
 
         // Then
         assertEquals(5L, result);
-        verify(shopRepository).existsById(1L);
-        verify(shopRepository).countProductsByShopId(1L);
+        verify(shopRepository).findSummaryById(1L);
     }
 
     @Test
     void countProductsByShopId_WhenShopNotExists_ShouldThrowException() {
         // Given
-        when(shopRepository.existsById(1L)).thenReturn(false);
+        when(shopRepository.findSummaryById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(RuntimeException.class, () -> shopService.countProductsByShopId(1L));
-        verify(shopRepository).existsById(1L);
-        verify(shopRepository, never()).countProductsByShopId(any());
+        verify(shopRepository).findSummaryById(1L);
     }
 
     @Test
@@ -0,0 +1,201 @@
+package com.threedfly.productservice.service;
+
+import dto.StockAlertResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FilamentStockRepository;
+import repository.projection.FilamentStockListProjection;
+import service.StockAlertService;
+import service.StockChangedEvent;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAlertServiceTest {
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private StockAlertService stockAlertService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockAlertService, "thresholdKg", 10.0);
+        ReflectionTestUtils.setField(stockAlertService, "horizonHours", 24L);
+        ReflectionTestUtils.setField(stockAlertService, "sseTimeoutMs", 1_000L);
+    }
+
+    @Test
+    void track_WhenAvailableStockCrossesThreshold_ShouldRaiseThenClearLowStockAlert() {
+        // Given
+        FilamentStock stock = stock(8_000, 2_000);
+
+        // When
+        stockAlertService.track(stock);
+
+        // Then
+        List<StockAlertResponse> alerts = stockAlertService.currentAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals(StockAlertResponse.Type.LOW_STOCK, alerts.get(0).getType());
+        assertEquals(6.0, alerts.get(0).getAvailableQuantityKg());
+
+        // When: restocked above the threshold
+        stock.setQuantityGrams(25_000);
+        stockAlertService.track(stock);
+
+        // Then
+        assertTrue(stockAlertService.currentAlerts().isEmpty());
+        verifyNoInteractions(filamentStockRepository);
+    }
+
+    @Test
+    void track_WhenStillLow_ShouldKeepWhenTheAlertWasRaised() {
+        // Given
+        FilamentStock stock = stock(8_000, 0);
+        stockAlertService.track(stock);
+        StockAlertResponse raised = stockAlertService.currentAlerts().get(0);
+
+        // When
+        stock.setReservedGrams(3_000);
+        stockAlertService.track(stock);
+
+        // Then
+        StockAlertResponse current = stockAlertService.currentAlerts().get(0);
+        assertEquals(5.0, current.getAvailableQuantityKg());
+        assertEquals(raised.getRaisedAt(), current.getRaisedAt());
+    }
+
+    @Test
+    void track_WhenStockHasExpired_ShouldRaiseExpiredAlert() {
+        // Given
+        FilamentStock stock = stock(50_000, 0);
+        stock.setExpiryDate(new Date(System.currentTimeMillis() - 60_000));
+
+        // When
+        stockAlertService.track(stock);
+
+        // Then
+        List<StockAlertResponse> alerts = stockAlertService.currentAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals(StockAlertResponse.Type.EXPIRED, alerts.get(0).getType());
+    }
+
+    @Test
+    void onStockChanged_WhenRowWasDeleted_ShouldClearItsAlerts() {
+        // Given
+        stockAlertService.track(stock(1_000, 0));
+
+        // When: a row found missing on a re-read carries only its id
+        stockAlertService.onStockChanged(new StockChangedEvent(List.of(), List.of(FilamentStock.builder().id(1L).build())));
+
+        // Then
+        assertTrue(stockAlertService.currentAlerts().isEmpty());
+    }
+
+    @Test
+    void checkExpiries_WhenQueuedExpiryComesDue_ShouldRaiseFromTheReloadedRow() {
+        // Given: one item expires at the very start of the window loaded on startup
+        AtomicReference<Date> windowStart = new AtomicReference<>();
+        FilamentStockListProjection expiring = mock(FilamentStockListProjection.class);
+        when(expiring.getId()).thenReturn(1L);
+        when(expiring.getExpiryDate()).thenAnswer(invocation -> windowStart.get());
+        when(filamentStockRepository.findLowStockListItems(anyLong(), anyLong(), any())).thenReturn(List.of());
+        when(filamentStockRepository.findExpiringListItems(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            Date from = invocation.getArgument(0);
+            if (from.getTime() == 0 || !windowStart.compareAndSet(null, from)) {
+                return List.of();
+            }
+            return List.of(expiring);
+        });
+        stockAlertService.rebuild();
+        assertTrue(stockAlertService.currentAlerts().isEmpty());
+
+        FilamentStock stock = stock(50_000, 0);
+        stock.setExpiryDate(windowStart.get());
+        when(filamentStockRepository.findAllById(List.of(1L))).thenReturn(List.of(stock));
+
+        // When
+        stockAlertService.checkExpiries();
+
+        // Then
+        List<StockAlertResponse> alerts = stockAlertService.currentAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals(StockAlertResponse.Type.EXPIRED, alerts.get(0).getType());
+        verify(filamentStockRepository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void rebuild_WhenStockWrittenDuringTheLoad_ShouldKeepItsAlert() {
+        // Given: the item runs low after the load has read past it
+        when(filamentStockRepository.findLowStockListItems(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            stockAlertService.track(stock(1_000, 0));
+            return List.of();
+        });
+        when(filamentStockRepository.findExpiringListItems(any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        // When
+        stockAlertService.rebuild();
+
+        // Then
+        List<StockAlertResponse> alerts = stockAlertService.currentAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals(StockAlertResponse.Type.LOW_STOCK, alerts.get(0).getType());
+    }
+
+    @Test
+    void checkExpiries_WhenExpiryWrittenWhileWindowExtends_ShouldQueueIt() {
+        // Given: the third expiry read is the window extension, during which the item is given
+        // an expiry date inside the new stretch
+        AtomicInteger reads = new AtomicInteger();
+        when(filamentStockRepository.findLowStockListItems(anyLong(), anyLong(), any())).thenReturn(List.of());
+        when(filamentStockRepository.findExpiringListItems(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 3) {
+                Date until = invocation.getArgument(1);
+                FilamentStock stock = stock(50_000, 0);
+                stock.setExpiryDate(new Date(until.getTime() - 1));
+                stockAlertService.track(stock);
+            }
+            return List.of();
+        });
+        stockAlertService.rebuild();
+
+        // When
+        stockAlertService.checkExpiries();
+
+        // Then
+        assertEquals(3, reads.get());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(stockAlertService, "scheduled")).containsKey(1L));
+    }
+
+    private FilamentStock stock(long quantityGrams, long reservedGrams) {
+        return FilamentStock.builder()
+                .id(1L)
+                .materialType(FilamentType.PLA)
+                .color("Red")
+                .quantityGrams(quantityGrams)
+                .reservedGrams(reservedGrams)
+                .available(true)
+                .build();
+    }
+}
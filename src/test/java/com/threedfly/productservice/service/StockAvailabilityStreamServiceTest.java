@@ -0,0 +1,167 @@
+package com.threedfly.productservice.service;
+
+import dto.StockAvailabilityResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.FilamentStockRepository;
+import repository.projection.StockPlacementProjection;
+import service.FilamentColorRegistry;
+import service.StockAvailabilityStreamService;
+import util.CoalescingBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAvailabilityStreamServiceTest {
+
+    @Mock
+    private FilamentColorRegistry colorRegistry;
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @InjectMocks
+    private StockAvailabilityStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(streamService, "bufferSize", 16);
+        ReflectionTestUtils.setField(streamService, "sseTimeoutMs", 60_000L);
+    }
+
+    @Test
+    void subscribe_WhenColorUnknown_ShouldNotCreateIt() {
+        // Given - no stock has ever had this color
+        when(colorRegistry.findId("chartreuse")).thenReturn(null);
+
+        // When
+        streamService.subscribe(FilamentType.PLA, "Chartreuse");
+
+        // Then
+        verify(colorRegistry, never()).intern(any());
+    }
+
+    @Test
+    void publish_WhenAwaitedColorFirstStocked_ShouldReachItsSubscriber() {
+        // Given - a subscriber waits for a color spelled with an alias
+        when(colorRegistry.findId("gray")).thenReturn(null);
+        streamService.subscribe(FilamentType.PLA, "Grey");
+        FilamentStock stock = FilamentStock.builder()
+                .id(1L)
+                .materialType(FilamentType.PLA)
+                .color("Gray")
+                .colorId(9)
+                .quantityGrams(1_000)
+                .available(true)
+                .build();
+
+        // When
+        streamService.publish(stock);
+
+        // Then
+        assertEquals(1, pendingSubscribers().size());
+    }
+
+    @Test
+    void publish_WhenOtherColorStocked_ShouldNotReachWaitingSubscriber() {
+        // Given
+        when(colorRegistry.findId("chartreuse")).thenReturn(null);
+        streamService.subscribe(FilamentType.PLA, "Chartreuse");
+        FilamentStock stock = FilamentStock.builder()
+                .id(1L)
+                .materialType(FilamentType.PLA)
+                .color("Red")
+                .colorId(1)
+                .quantityGrams(1_000)
+                .available(true)
+                .build();
+
+        // When
+        streamService.publish(stock);
+
+        // Then
+        assertTrue(pendingSubscribers().isEmpty());
+    }
+
+    @Test
+    void publish_WhenMaterialChanges_ShouldSendUnavailableToTheTopicItLeft() {
+        // Given - a PLA subscriber that has already seen the item
+        when(colorRegistry.findId("red")).thenReturn(1);
+        streamService.subscribe(FilamentType.PLA, "Red");
+        streamService.publish(stock(1L, FilamentType.PLA));
+        drainPending();
+
+        // When
+        streamService.publish(stock(1L, FilamentType.PETG));
+
+        // Then
+        List<StockAvailabilityResponse> changes = drainPending();
+        assertEquals(1, changes.size());
+        assertEquals(FilamentType.PLA, changes.get(0).getMaterialType());
+        assertFalse(changes.get(0).getAvailable());
+    }
+
+    @Test
+    void publishRemoved_WhenOnlyIdKnown_ShouldReachTheTopicsLoadedAtStartup() {
+        // Given
+        StockPlacementProjection placement = mock(StockPlacementProjection.class);
+        when(placement.getId()).thenReturn(1L);
+        when(placement.getMaterialType()).thenReturn(FilamentType.PLA);
+        when(placement.getColorId()).thenReturn(1);
+        when(placement.getColor()).thenReturn("Red");
+        when(filamentStockRepository.findPlacements(eq(0L), any(Pageable.class))).thenReturn(List.of(placement));
+        streamService.loadPlacements();
+        when(colorRegistry.findId("red")).thenReturn(1);
+        streamService.subscribe(FilamentType.PLA, "Red");
+
+        // When: the row was found missing on a re-read
+        streamService.publishRemoved(FilamentStock.builder().id(1L).build());
+
+        // Then
+        List<StockAvailabilityResponse> changes = drainPending();
+        assertEquals(1, changes.size());
+        assertEquals(1L, changes.get(0).getStockId());
+        assertFalse(changes.get(0).getAvailable());
+    }
+
+    private FilamentStock stock(Long id, FilamentType materialType) {
+        return FilamentStock.builder()
+                .id(id)
+                .materialType(materialType)
+                .color("Red")
+                .colorId(1)
+                .quantityGrams(1_000)
+                .available(true)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockAvailabilityResponse> drainPending() {
+        List<StockAvailabilityResponse> changes = new ArrayList<>();
+        for (Object subscriber; (subscriber = pendingSubscribers().poll()) != null; ) {
+            CoalescingBuffer<Long, StockAvailabilityResponse> buffer =
+                    (CoalescingBuffer<Long, StockAvailabilityResponse>) ReflectionTestUtils.getField(subscriber, "buffer");
+            changes.addAll(buffer.drain().values());
+        }
+        return changes;
+    }
+
+    private Queue<?> pendingSubscribers() {
+        return (Queue<?>) ReflectionTestUtils.getField(streamService, "pending");
+    }
+}
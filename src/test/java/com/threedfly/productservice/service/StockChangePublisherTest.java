@@ -0,0 +1,152 @@
+package com.threedfly.productservice.service;
+
+import entity.FilamentStock;
+import entity.FilamentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import repository.FilamentStockRepository;
+import service.StockChangePublisher;
+import service.StockChangedEvent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockChangePublisherTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private StockChangePublisher stockChanges;
+
+    @Test
+    void saved_ShouldPublishOneEventForTheWholeBatch() {
+        // Given
+        FilamentStock first = stock(1L);
+        FilamentStock second = stock(2L);
+
+        // When
+        stockChanges.saved(List.of(first, second));
+
+        // Then
+        StockChangedEvent event = publishedEvent();
+        assertEquals(List.of(first, second), event.saved());
+        assertTrue(event.removed().isEmpty());
+    }
+
+    @Test
+    void saved_WhenInsideTransaction_ShouldPublishOnlyOnceItCommits() {
+        // Given
+        FilamentStock stock = stock(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            stockChanges.saved(stock);
+
+            // Then
+            verifyNoInteractions(eventPublisher);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(List.of(stock), publishedEvent().saved());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removed_WhenTransactionRollsBack_ShouldPublishNothing() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            stockChanges.removed(stock(1L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            verifyNoInteractions(eventPublisher);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void saved_WhenListenerFails_ShouldNotFailTheWrite() {
+        // Given
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(StockChangedEvent.class));
+
+        // When & Then
+        assertDoesNotThrow(() -> stockChanges.saved(stock(1L)));
+    }
+
+    @Test
+    void saved_WhenNothingSaved_ShouldPublishNothing() {
+        // When
+        stockChanges.saved(List.of());
+
+        // Then
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void changed_ShouldPublishRereadRowsAndReportMissingOnesAsRemoved() {
+        // Given - row 2 was deleted before the re-read
+        FilamentStock first = stock(1L);
+        when(filamentStockRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first));
+
+        // When: no transaction is active, so the rows are re-read straight away
+        stockChanges.changed(List.of(1L, 2L));
+
+        // Then
+        StockChangedEvent event = publishedEvent();
+        assertEquals(List.of(first), event.saved());
+        assertEquals(1, event.removed().size());
+        assertEquals(2L, event.removed().get(0).getId());
+    }
+
+    @Test
+    void changed_WhenRereadFails_ShouldPublishNothing() {
+        // Given
+        when(filamentStockRepository.findAllById(any())).thenThrow(new IllegalStateException("database down"));
+
+        // When
+        assertDoesNotThrow(() -> stockChanges.changed(List.of(1L)));
+
+        // Then
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private StockChangedEvent publishedEvent() {
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private FilamentStock stock(Long id) {
+        return FilamentStock.builder()
+                .id(id)
+                .materialType(FilamentType.PLA)
+                .color("Red")
+                .colorId(1)
+                .quantityGrams(5_000)
+                .available(true)
+                .build();
+    }
+}
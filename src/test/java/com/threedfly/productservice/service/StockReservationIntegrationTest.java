@@ -0,0 +1,186 @@
+package com.threedfly.productservice.service;
+
+import dto.StockReservationRequest;
+import dto.StockReservationResponse;
+import entity.FilamentStock;
+import entity.FilamentType;
+import entity.ReservationStatus;
+import entity.StockReservation;
+import entity.Supplier;
+import exception.InsufficientStockException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import repository.FilamentStockRepository;
+import repository.StockReservationRepository;
+import repository.SupplierRepository;
+import service.StockReservationService;
+import service.StockReservationSweeper;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "ngrok.auto-start.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:reservations",
+    "filament.stock.reservation.sweep.batch.size=2"
+})
+class StockReservationIntegrationTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private StockReservationSweeper stockReservationSweeper;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private FilamentStockRepository filamentStockRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long stockId;
+    private Long supportStockId;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        filamentStockRepository.deleteAll();
+        supplierRepository.deleteAll();
+
+        Supplier supplier = supplierRepository.save(Supplier.builder().name("Acme").email("acme@test.io").build());
+        stockId = filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier)
+                .materialType(FilamentType.PLA)
+                .color("Black")
+                .quantityGrams(10_000)
+                .available(true)
+                .build()).getId();
+        supportStockId = filamentStockRepository.save(FilamentStock.builder()
+                .supplier(supplier)
+                .materialType(FilamentType.PVA)
+                .color("Natural")
+                .quantityGrams(1_000)
+                .available(true)
+                .build()).getId();
+    }
+
+    @Test
+    void reserveAll_ShouldHoldEveryLineOrNone() {
+        // Given
+        StockReservationRequest tooMuchSupport = request("order-1", 2.0, 1.5);
+        StockReservationRequest fits = request("order-2", 2.0, 1.0);
+
+        // When
+        assertThrows(InsufficientStockException.class, () -> stockReservationService.reserveAll(tooMuchSupport));
+        List<StockReservationResponse> held = stockReservationService.reserveAll(fits);
+
+        // Then
+        assertEquals(2, held.size());
+        assertEquals(2_000, reservedGrams());
+        assertEquals(1_000, filamentStockRepository.findById(supportStockId).orElseThrow().getReservedGrams());
+        assertTrue(stockReservationService.findByOwner("order-1").isEmpty());
+
+        stockReservationService.release("order-2");
+        assertEquals(0, reservedGrams());
+        assertEquals(0, filamentStockRepository.findById(supportStockId).orElseThrow().getReservedGrams());
+    }
+
+    @Test
+    void reserve_ShouldKeepReservedGramsEqualToHeldReservations() {
+        // When
+        stockReservationService.reserve(stockId, 4.0, "order-1", null);
+        stockReservationService.reserve(stockId, 5.0, "order-2", null);
+
+        // Then
+        assertEquals(9_000, reservedGrams());
+        assertThrows(RuntimeException.class, () -> stockReservationService.reserve(stockId, 2.0, "order-3", null));
+        assertEquals(9_000, reservedGrams());
+    }
+
+    @Test
+    void releaseAndConfirm_ShouldAdjustStockOnce() {
+        // Given
+        stockReservationService.reserve(stockId, 4.0, "order-1", null);
+        stockReservationService.reserve(stockId, 3.0, "order-2", null);
+
+        // When
+        stockReservationService.release("order-1");
+        stockReservationService.confirm("order-2");
+
+        // Then
+        FilamentStock stock = filamentStockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getReservedGrams());
+        assertEquals(7_000, stock.getQuantityGrams());
+        assertThrows(RuntimeException.class, () -> stockReservationService.release("order-1"));
+    }
+
+    @Test
+    void everyStockWrite_ShouldKeepStoredAvailableGramsInStep() {
+        // When & Then: conditional UPDATE, dirty checking, release and confirm
+        stockReservationService.reserve(stockId, 4.0, "order-1", null);
+        assertEquals(6_000, storedAvailableGrams());
+        stockReservationService.reserveAll(request("order-2", 1.0, 0.5));
+        assertEquals(5_000, storedAvailableGrams());
+        stockReservationService.release("order-1");
+        assertEquals(9_000, storedAvailableGrams());
+        stockReservationService.confirm("order-2");
+        assertEquals(9_000, storedAvailableGrams());
+        assertEquals(9_000, filamentStockRepository.findById(stockId).orElseThrow().getQuantityGrams());
+    }
+
+    @Test
+    void sweep_ShouldExpireOverdueHoldsInBatches() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            StockReservationResponse reservation = stockReservationService.reserve(stockId, 1.0, "order-" + i, null);
+            if (i < 4) {
+                StockReservation overdue = reservationRepository.findById(reservation.getId()).orElseThrow();
+                overdue.setExpiresAt(Instant.now().minusSeconds(1));
+                reservationRepository.save(overdue);
+            }
+        }
+
+        // When
+        stockReservationSweeper.sweep();
+
+        // Then
+        assertEquals(1_000, reservedGrams());
+        assertEquals(4, reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getStatus() == ReservationStatus.EXPIRED).count());
+    }
+
+    private StockReservationRequest request(String ownerKey, double mainKg, double supportKg) {
+        return StockReservationRequest.builder()
+                .ownerKey(ownerKey)
+                .lines(List.of(
+                        new StockReservationRequest.Line(supportStockId, supportKg),
+                        new StockReservationRequest.Line(stockId, mainKg)))
+                .build();
+    }
+
+    private long storedAvailableGrams() {
+        return ((Number) entityManager.createNativeQuery("SELECT available_grams FROM filament_stock WHERE id = ?1")
+                .setParameter(1, stockId)
+                .getSingleResult()).longValue();
+    }
+
+    private long reservedGrams() {
+        return filamentStockRepository.findById(stockId).orElseThrow().getReservedGrams();
+    }
+}
@@ -0,0 +1,314 @@
+package com.threedfly.productservice.service;
+
+import dto.StockReservationRequest;
+import dto.StockReservationResponse;
+import entity.FilamentStock;
+import entity.ReservationStatus;
+import entity.StockReservation;
+import entity.SyncedEntity;
+import exception.InsufficientStockException;
+import mapper.StockReservationMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FilamentStockRepository;
+import repository.StockReservationRepository;
+import service.ChangeLogService;
+import service.HotStockReservationService;
+import service.StockChangePublisher;
+import service.StockReservationService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private FilamentStockRepository filamentStockRepository;
+
+    @Mock
+    private StockReservationMapper reservationMapper;
+
+    @Mock
+    private HotStockReservationService hotStockReservations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StockChangePublisher stockChanges;
+
+    @Mock
+    private ChangeLogService changeLog;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockReservationService, "defaultTtlSeconds", 900L);
+        ReflectionTestUtils.setField(stockReservationService, "maxTtlSeconds", 3600L);
+    }
+
+    @Test
+    void reserve_WhenStockAvailable_ShouldRecordHeldReservation() {
+        // Given
+        when(filamentStockRepository.tryReserve(1L, 5_000L)).thenReturn(1);
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reservationMapper.toResponse(any())).thenReturn(new StockReservationResponse());
+
+        // When
+        StockReservationResponse result = stockReservationService.reserve(1L, 5.0, "order-1", null);
+
+        // Then
+        assertNotNull(result);
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(reservationRepository).save(saved.capture());
+        assertEquals(ReservationStatus.HELD, saved.getValue().getStatus());
+        assertEquals("order-1", saved.getValue().getOwnerKey());
+        assertEquals(Duration.ofSeconds(900),
+                Duration.between(saved.getValue().getCreatedAt(), saved.getValue().getExpiresAt()));
+        verify(filamentStockRepository, never()).findById(any());
+    }
+
+    @Test
+    void reserve_WhenTtlAboveMaximum_ShouldCapExpiry() {
+        // Given
+        when(filamentStockRepository.tryReserve(1L, 5_000L)).thenReturn(1);
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        stockReservationService.reserve(1L, 5.0, null, 999_999L);
+
+        // Then
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(reservationRepository).save(saved.capture());
+        assertEquals(Duration.ofSeconds(3600),
+                Duration.between(saved.getValue().getCreatedAt(), saved.getValue().getExpiresAt()));
+        assertNotNull(saved.getValue().getOwnerKey());
+    }
+
+    @Test
+    void reserve_WhenStockIsHot_ShouldAdmitInMemoryWithoutTransaction() {
+        // Given
+        StockReservationResponse admitted = new StockReservationResponse();
+        when(hotStockReservations.isHot(1L)).thenReturn(true);
+        when(hotStockReservations.reserve(eq(1L), eq(5_000L), eq("order-1"), any(), any())).thenReturn(admitted);
+
+        // When
+        StockReservationResponse result = stockReservationService.reserve(1L, 5.0, "order-1", null);
+
+        // Then
+        assertSame(admitted, result);
+        verifyNoInteractions(transactionManager, filamentStockRepository, reservationRepository);
+    }
+
+    @Test
+    void reserve_WhenInsufficientStock_ShouldThrowWithoutRecording() {
+        // Given
+        FilamentStock stock = FilamentStock.builder().id(1L).quantityGrams(10_000).reservedGrams(8_000).build();
+        when(filamentStockRepository.tryReserve(1L, 5_000L)).thenReturn(0);
+        when(filamentStockRepository.findById(1L)).thenReturn(Optional.of(stock));
+
+        // When & Then
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserve(1L, 5.0, "order-1", null));
+        assertTrue(exception.getMessage().contains("Available: 2.0"));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void reserve_WhenStockNotFound_ShouldThrowException() {
+        // Given
+        when(filamentStockRepository.tryReserve(1L, 5_000L)).thenReturn(0);
+        when(filamentStockRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> stockReservationService.reserve(1L, 5.0, "order-1", null));
+        assertTrue(exception.getMessage().contains("not found"));
+    }
+
+    @Test
+    void reserve_WhenQuantityRoundsToZeroGrams_ShouldThrowWithoutHolding() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> stockReservationService.reserve(1L, 0.0004, "order-1", null));
+        verify(filamentStockRepository, never()).tryReserve(anyLong(), anyLong());
+        verify(reservationRepository, never()).save(any());
+        verifyNoInteractions(hotStockReservations);
+    }
+
+    @Test
+    void reserveAll_WhenAnyLineRoundsToZeroGrams_ShouldHoldNothing() {
+        // Given
+        StockReservationRequest request = StockReservationRequest.builder()
+                .lines(List.of(new StockReservationRequest.Line(3L, 2.0), new StockReservationRequest.Line(7L, 0.0004)))
+                .build();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> stockReservationService.reserveAll(request));
+        verify(filamentStockRepository, never()).lockByIdIn(any());
+        verify(reservationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void reserveAll_WhenEveryLineFits_ShouldLockInIdOrderAndHoldEachStock() {
+        // Given
+        FilamentStock pla = FilamentStock.builder().id(3L).quantityGrams(10_000).reservedGrams(1_000).build();
+        FilamentStock pva = FilamentStock.builder().id(7L).quantityGrams(5_000).build();
+        StockReservationRequest request = StockReservationRequest.builder()
+                .ownerKey("order-1")
+                .lines(List.of(
+                        new StockReservationRequest.Line(7L, 1.0),
+                        new StockReservationRequest.Line(3L, 2.0),
+                        new StockReservationRequest.Line(3L, 0.5)))
+                .build();
+        when(filamentStockRepository.lockByIdIn(any())).thenReturn(List.of(pla, pva));
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<StockReservationResponse> result = stockReservationService.reserveAll(request);
+
+        // Then
+        assertEquals(2, result.size());
+        ArgumentCaptor<Collection<Long>> lockedIds = ArgumentCaptor.forClass(Collection.class);
+        verify(filamentStockRepository).lockByIdIn(lockedIds.capture());
+        assertEquals(List.of(3L, 7L), List.copyOf(lockedIds.getValue()));
+        assertEquals(3_500, pla.getReservedGrams());
+        assertEquals(1_000, pva.getReservedGrams());
+        verify(filamentStockRepository, never()).tryReserve(anyLong(), anyLong());
+    }
+
+    @Test
+    void reserveAll_WhenAnyLineIsShort_ShouldHoldNothing() {
+        // Given
+        FilamentStock pla = FilamentStock.builder().id(3L).quantityGrams(10_000).build();
+        FilamentStock pva = FilamentStock.builder().id(7L).quantityGrams(5_000).reservedGrams(4_500).build();
+        StockReservationRequest request = StockReservationRequest.builder()
+                .lines(List.of(new StockReservationRequest.Line(3L, 2.0), new StockReservationRequest.Line(7L, 1.0)))
+                .build();
+        when(filamentStockRepository.lockByIdIn(any())).thenReturn(List.of(pla, pva));
+
+        // When & Then
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserveAll(request));
+        assertTrue(exception.getMessage().contains("stock 7"));
+        assertFalse(exception.getMessage().contains("stock 3"));
+        assertEquals(0, pla.getReservedGrams());
+        verify(reservationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void reserveAll_WhenStockMissing_ShouldThrowException() {
+        // Given
+        FilamentStock pla = FilamentStock.builder().id(3L).quantityGrams(10_000).build();
+        StockReservationRequest request = StockReservationRequest.builder()
+                .lines(List.of(new StockReservationRequest.Line(3L, 2.0), new StockReservationRequest.Line(9L, 1.0)))
+                .build();
+        when(filamentStockRepository.lockByIdIn(any())).thenReturn(List.of(pla));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> stockReservationService.reserveAll(request));
+        assertTrue(exception.getMessage().contains("[9]"));
+        verify(reservationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void release_ShouldGiveBackEveryHeldReservation() {
+        // Given
+        StockReservation first = held(1L, 10L, 2_000);
+        StockReservation second = held(2L, 11L, 3_000);
+        when(reservationRepository.lockByOwnerKeyAndStatus("order-1", ReservationStatus.HELD))
+                .thenReturn(List.of(first, second));
+
+        // When
+        stockReservationService.release("order-1");
+
+        // Then
+        verify(filamentStockRepository).releaseReserved(10L, 2_000L);
+        verify(filamentStockRepository).releaseReserved(11L, 3_000L);
+        verify(filamentStockRepository, never()).consumeReserved(anyLong(), anyLong());
+        assertEquals(ReservationStatus.RELEASED, first.getStatus());
+        assertNotNull(second.getClosedAt());
+    }
+
+    @Test
+    void confirm_ShouldTakeHeldQuantityOutOfStock() {
+        // Given
+        StockReservation reservation = held(1L, 10L, 2_000);
+        when(reservationRepository.lockByOwnerKeyAndStatus("order-1", ReservationStatus.HELD))
+                .thenReturn(List.of(reservation));
+
+        // When
+        stockReservationService.confirm("order-1");
+
+        // Then
+        verify(filamentStockRepository).consumeReserved(10L, 2_000L);
+        verify(filamentStockRepository, never()).releaseReserved(anyLong(), anyLong());
+        verify(changeLog).changed(SyncedEntity.FILAMENT_STOCK, Set.of(10L));
+        assertEquals(ReservationStatus.CONFIRMED, reservation.getStatus());
+    }
+
+    @Test
+    void release_WhenNothingHeld_ShouldThrowException() {
+        // Given
+        when(reservationRepository.lockByOwnerKeyAndStatus("order-1", ReservationStatus.HELD)).thenReturn(List.of());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> stockReservationService.release("order-1"));
+        verify(filamentStockRepository, never()).releaseReserved(anyLong(), anyLong());
+    }
+
+    @Test
+    void expireBatch_ShouldReleaseOneAggregatePerStock() {
+        // Given
+        Instant now = Instant.now();
+        List<StockReservation> expired = List.of(held(1L, 10L, 1_000), held(2L, 10L, 2_000), held(3L, 11L, 4_000));
+        when(reservationRepository.lockExpired(ReservationStatus.HELD, now, PageRequest.of(0, 100))).thenReturn(expired);
+
+        // When
+        int count = stockReservationService.expireBatch(now, 100);
+
+        // Then
+        assertEquals(3, count);
+        verify(filamentStockRepository).releaseReserved(10L, 3_000L);
+        verify(filamentStockRepository).releaseReserved(11L, 4_000L);
+        assertTrue(expired.stream().allMatch(reservation -> reservation.getStatus() == ReservationStatus.EXPIRED));
+    }
+
+    private StockReservation held(Long id, Long stockId, long quantityGrams) {
+        return StockReservation.builder()
+                .id(id)
+                .stockId(stockId)
+                .ownerKey("order-1")
+                .quantityGrams(quantityGrams)
+                .status(ReservationStatus.HELD)
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
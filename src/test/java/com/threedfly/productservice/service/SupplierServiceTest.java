@@ -1,10 +1,17 @@
 package com.threedfly.productservice.service;
 
+import dto.BulkUpdateResponse;
+import dto.SupplierBulkStatusRequest;
 import dto.SupplierRequest;
 import dto.SupplierResponse;
 import entity.Supplier;
+import entity.SyncedEntity;
 import mapper.SupplierMapper;
 import repository.SupplierRepository;
+import repository.projection.SupplierStockCountProjection;
+import service.ChangeLogService;
+import service.InventoryRollupService;
+import service.SupplierSearchService;
 import service.SupplierService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +19,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +28,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +40,18 @@ class SupplierServiceTest {
     @Mock
     private SupplierMapper supplierMapper;
 
+    @Mock
+    private SupplierSearchService supplierSearchService;
+
+    @Mock
+    private ChangeLogService changeLog;
+
+    @Mock
+    private InventoryRollupService inventoryRollups;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private SupplierService supplierService;
 
@@ -95,6 +117,8 @@ class SupplierServiceTest {
                 .active(true)
                 .stockCount(0)
                 .build();
+
+        ReflectionTestUtils.setField(supplierService, "bulkUpdateChunkSize", 2);
     }
 
     @Test
@@ -115,6 +139,28 @@ class SupplierServiceTest {
         verify(supplierMapper).toResponse(testSupplier);
     }
 
+    @Test
+    void findAll_ShouldFillStockCountsFromOneGroupedQuery() {
+        // Given
+        Supplier otherSupplier = Supplier.builder().id(2L).name("Other Supplier").build();
+        SupplierResponse otherResponse = SupplierResponse.builder().id(2L).name("Other Supplier").build();
+        SupplierStockCountProjection count = mock(SupplierStockCountProjection.class);
+        when(count.getSupplierId()).thenReturn(1L);
+        when(count.getStockCount()).thenReturn(4L);
+        when(supplierRepository.findAll()).thenReturn(List.of(testSupplier, otherSupplier));
+        when(supplierRepository.countStockBySupplierIds(List.of(1L, 2L))).thenReturn(List.of(count));
+        when(supplierMapper.toResponse(testSupplier)).thenReturn(testSupplierResponse);
+        when(supplierMapper.toResponse(otherSupplier)).thenReturn(otherResponse);
+
+        // When
+        List<SupplierResponse> result = supplierService.findAll();
+
+        // Then
+        assertEquals(4, result.get(0).getStockCount());
+        assertEquals(0, result.get(1).getStockCount());
+        verify(supplierRepository, times(1)).countStockBySupplierIds(any());
+    }
+
     @Test
     void findById_WhenIdExists_ShouldReturnSupplier() {
         // Given
@@ -162,6 +208,7 @@ class SupplierServiceTest {
         verify(supplierRepository).existsByEmail(testSupplierRequest.getEmail());
         verify(supplierMapper).toEntity(testSupplierRequest);
         verify(supplierRepository).save(testSupplier);
+        verify(inventoryRollups).supplierSaved(testSupplier);
         verify(supplierMapper).toResponse(testSupplier);
     }
 
@@ -200,6 +247,7 @@ class SupplierServiceTest {
         // Then
         verify(supplierRepository).findById(1L);
         verify(supplierRepository).delete(testSupplier);
+        verify(changeLog).deleted(SyncedEntity.SUPPLIER, List.of(1L));
     }
 
     @Test
@@ -374,7 +422,8 @@ class SupplierServiceTest {
     void searchByName_WhenValidName_ShouldReturnSuppliers() {
         // Given
         List<Supplier> suppliers = Arrays.asList(testSupplier);
-        when(supplierRepository.findByNameContainingIgnoreCase("Test")).thenReturn(suppliers);
+        when(supplierSearchService.findMatchingIds("Test")).thenReturn(List.of(1L));
+        when(supplierRepository.findAllById(List.of(1L))).thenReturn(suppliers);
         when(supplierMapper.toResponse(testSupplier)).thenReturn(testSupplierResponse);
 
         // When
@@ -383,10 +432,24 @@ class SupplierServiceTest {
         // Then
         assertEquals(1, result.size());
         assertTrue(result.get(0).getName().contains("Test"));
-        verify(supplierRepository).findByNameContainingIgnoreCase("Test");
+        verify(supplierSearchService).findMatchingIds("Test");
+        verify(supplierRepository).findAllById(List.of(1L));
         verify(supplierMapper).toResponse(testSupplier);
     }
 
+    @Test
+    void searchByName_WhenNoIndexMatches_ShouldNotQueryRepository() {
+        // Given
+        when(supplierSearchService.findMatchingIds("Unknown")).thenReturn(List.of());
+
+        // When
+        List<SupplierResponse> result = supplierService.searchByName("Unknown");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(supplierRepository, never()).findAllById(any());
+    }
+
     @Test
     void findSuppliersWithinRadius_WhenValidParams_ShouldReturnSuppliers() {
         // Given
@@ -542,4 +605,71 @@ class SupplierServiceTest {
         verify(supplierRepository).existsByEmail(testSupplierRequest.getEmail());
         verify(supplierRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void verifySuppliers_WhenIdsGiven_ShouldUpdateSortedIdsInChunks() {
+        // Given
+        SupplierBulkStatusRequest request = SupplierBulkStatusRequest.builder()
+                .ids(Arrays.asList(3L, 1L, 2L, 1L, 5L))
+                .build();
+        when(changeLog.version()).thenReturn(41L, 42L);
+        when(supplierRepository.verifyByIdIn(List.of(1L, 2L), 41L)).thenReturn(1);
+        when(supplierRepository.verifyByIdIn(List.of(3L, 5L), 42L)).thenReturn(2);
+
+        // When
+        BulkUpdateResponse response = supplierService.verifySuppliers(request);
+
+        // Then
+        assertEquals(4, response.getMatched());
+        assertEquals(3, response.getUpdated());
+        verify(supplierRepository, times(2)).verifyByIdIn(any(), anyLong());
+        verify(supplierRepository, never()).findById(any());
+        verify(supplierSearchService).updateStatus(List.of(1L, 2L, 3L, 5L), true, null);
+        verify(changeLog, never()).changed(any(), anyCollection());
+    }
+
+    @Test
+    void deactivateSuppliers_WhenFilteredByLocation_ShouldResolveIdsWithOneQuery() {
+        // Given
+        SupplierBulkStatusRequest request = SupplierBulkStatusRequest.builder()
+                .country("Germany")
+                .city(" ")
+                .build();
+        when(supplierRepository.findIdsByLocation("Germany", null, null)).thenReturn(List.of(7L, 8L, 9L));
+        when(changeLog.version()).thenReturn(41L, 42L);
+        when(supplierRepository.updateActiveByIdIn(List.of(7L, 8L), false, 41L)).thenReturn(2);
+        when(supplierRepository.updateActiveByIdIn(List.of(9L), false, 42L)).thenReturn(0);
+
+        // When
+        BulkUpdateResponse response = supplierService.deactivateSuppliers(request);
+
+        // Then
+        assertEquals(3, response.getMatched());
+        assertEquals(2, response.getUpdated());
+        verify(supplierRepository).findIdsByLocation("Germany", null, null);
+        verify(supplierSearchService).updateStatus(List.of(7L, 8L, 9L), null, false);
+    }
+
+    @Test
+    void activateSuppliers_WhenNothingSelected_ShouldThrowException() {
+        // Given
+        SupplierBulkStatusRequest request = new SupplierBulkStatusRequest();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> supplierService.activateSuppliers(request));
+        verify(supplierRepository, never()).updateActiveByIdIn(any(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    void activateSuppliers_WhenIdsAndFiltersGiven_ShouldThrowException() {
+        // Given
+        SupplierBulkStatusRequest request = SupplierBulkStatusRequest.builder()
+                .ids(List.of(1L))
+                .country("Germany")
+                .build();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> supplierService.activateSuppliers(request));
+        verify(supplierRepository, never()).updateActiveByIdIn(any(), anyBoolean(), anyLong());
+    }
+}
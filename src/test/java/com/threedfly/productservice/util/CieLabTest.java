@@ -0,0 +1,45 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import util.CieLab;
+import util.NamedColors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CieLabTest {
+
+    @Test
+    void fromRgb_ShouldMatchReferenceValues() {
+        // When
+        CieLab red = CieLab.fromRgb(0xFF0000);
+        CieLab white = CieLab.fromRgb(0xFFFFFF);
+
+        // Then
+        assertEquals(53.24, red.l(), 0.05);
+        assertEquals(80.09, red.a(), 0.05);
+        assertEquals(67.20, red.b(), 0.05);
+        assertEquals(100.0, white.l(), 0.05);
+        assertEquals(0.0, white.a(), 0.05);
+        assertEquals(0.0, white.b(), 0.05);
+    }
+
+    @Test
+    void distance_ShouldRankPerceptuallyCloserShadesFirst() {
+        // Given
+        CieLab red = CieLab.fromRgb(NamedColors.rgbOf("Red"));
+
+        // When & Then
+        assertTrue(red.distance(CieLab.fromRgb(NamedColors.rgbOf("Crimson")))
+                < red.distance(CieLab.fromRgb(NamedColors.rgbOf("Orange"))));
+        assertEquals(0.0, red.distance(red));
+    }
+
+    @Test
+    void rgbOf_ShouldReadHexNamesAndFinishes() {
+        assertEquals(0xFF0000, NamedColors.rgbOf("  RED "));
+        assertEquals(0x1A2B3C, NamedColors.rgbOf("#1a2b3c"));
+        assertEquals(0xFFD700, NamedColors.rgbOf("Silk Gold"));
+        assertNull(NamedColors.rgbOf("Galaxy Sparkle"));
+        assertNull(NamedColors.rgbOf(null));
+    }
+}
@@ -0,0 +1,72 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import util.CoalescingBuffer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingBufferTest {
+
+    @Test
+    void offer_WhenKeyChangesRepeatedly_ShouldKeepOnlyTheLatestValue() {
+        // Given
+        CoalescingBuffer<Long, String> buffer = new CoalescingBuffer<>(4);
+
+        // When
+        boolean first = buffer.offer(1L, "a1");
+        boolean second = buffer.offer(2L, "b1");
+        boolean third = buffer.offer(1L, "a2");
+
+        // Then: only the first offer asks for a drain, and keys keep the order they first changed in
+        assertTrue(first);
+        assertFalse(second);
+        assertFalse(third);
+        CoalescingBuffer.Batch<String> batch = buffer.drain();
+        assertEquals(List.of("a2", "b1"), batch.values());
+        assertFalse(batch.overflowed());
+    }
+
+    @Test
+    void drain_ShouldEmptyTheBuffer() {
+        // Given
+        CoalescingBuffer<Long, String> buffer = new CoalescingBuffer<>(4);
+        buffer.offer(1L, "a");
+        buffer.drain();
+
+        // When
+        CoalescingBuffer.Batch<String> batch = buffer.drain();
+        boolean next = buffer.offer(2L, "b");
+
+        // Then
+        assertTrue(batch.isEmpty());
+        assertTrue(next);
+    }
+
+    @Test
+    void offer_WhenMoreKeysThanCapacity_ShouldOverflowUntilDrained() {
+        // Given
+        CoalescingBuffer<Long, String> buffer = new CoalescingBuffer<>(2);
+        buffer.offer(1L, "a");
+        buffer.offer(2L, "b");
+
+        // When
+        buffer.offer(1L, "a2");
+        buffer.offer(3L, "c");
+        buffer.offer(4L, "d");
+
+        // Then
+        CoalescingBuffer.Batch<String> batch = buffer.drain();
+        assertTrue(batch.overflowed());
+        assertTrue(batch.values().isEmpty());
+        assertFalse(batch.isEmpty());
+        assertTrue(buffer.offer(5L, "e"));
+        assertEquals(List.of("e"), buffer.drain().values());
+    }
+
+    @Test
+    void constructor_WhenCapacityNotPositive_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingBuffer<Long, String>(0));
+    }
+}
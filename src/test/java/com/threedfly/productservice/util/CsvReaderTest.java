@@ -0,0 +1,79 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import util.CsvReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_WhenFieldsAreQuoted_ShouldKeepSeparatorsQuotesAndLineBreaks() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("\"Acme, Inc\",\"say \"\"hi\"\"\",\"two\nlines\"\n"));
+
+        // When
+        List<String> record = reader.next();
+
+        // Then
+        assertEquals(List.of("Acme, Inc", "say \"hi\"", "two\nlines"), record);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_WhenLinesEndWithCrLf_ShouldNotKeepCarriageReturn() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("name,email\r\nAcme,acme@test.io\r\n"));
+
+        // When
+        List<String> header = reader.next();
+        List<String> row = reader.next();
+
+        // Then
+        assertEquals(List.of("name", "email"), header);
+        assertEquals(List.of("Acme", "acme@test.io"), row);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_WhenLastFieldIsEmpty_ShouldReturnEmptyField() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("Acme,"));
+
+        // When
+        List<String> record = reader.next();
+
+        // Then
+        assertEquals(List.of("Acme", ""), record);
+    }
+
+    @Test
+    void getRecordLine_WhenRecordSpansLines_ShouldReportStartingLine() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a\n\"b\nc\"\nd\n"));
+
+        // When
+        reader.next();
+        reader.next();
+        long multiLineRecord = reader.getRecordLine();
+        reader.next();
+        long nextRecord = reader.getRecordLine();
+
+        // Then
+        assertEquals(2, multiLineRecord);
+        assertEquals(4, nextRecord);
+    }
+
+    @Test
+    void next_WhenQuoteIsNotClosed_ShouldThrow() {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("\"Acme,Inc\n"));
+
+        // When / Then
+        assertThrows(IOException.class, reader::next);
+    }
+}
@@ -0,0 +1,91 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.IntentLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_ShouldRunCallbackAndReturnGrowingPositions() throws IOException {
+        // Given
+        List<String> written = new ArrayList<>();
+
+        try (IntentLog log = new IntentLog(directory)) {
+            // When
+            long first = log.append("a|1", () -> written.add("a"));
+            long second = log.append("b|2", () -> written.add("b"));
+            log.sync(second);
+
+            // Then
+            assertTrue(second > first);
+            assertEquals(List.of("a", "b"), written);
+        }
+    }
+
+    @Test
+    void open_WhenSegmentsAreLeftBehind_ShouldOfferThemForReplay() throws IOException {
+        // Given
+        try (IntentLog log = new IntentLog(directory)) {
+            log.append("a|1", () -> { });
+            log.rotate();
+            log.sync(log.append("b|2", () -> { }));
+        }
+
+        // When
+        try (IntentLog reopened = new IntentLog(directory)) {
+            List<Path> segments = reopened.sealedSegments();
+
+            // Then
+            assertEquals(2, segments.size());
+            assertEquals(List.of("a|1"), IntentLog.readRecords(segments.get(0)));
+            assertEquals(List.of("b|2"), IntentLog.readRecords(segments.get(1)));
+        }
+    }
+
+    @Test
+    void readRecords_WhenLastLineWasCutOff_ShouldSkipIt() throws IOException {
+        // Given
+        Path segment = directory.resolve("intents-1.log");
+        Files.writeString(segment, "a|1\nb|2\nc|", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+
+        // When
+        List<String> records = IntentLog.readRecords(segment);
+
+        // Then
+        assertEquals(List.of("a|1", "b|2"), records);
+    }
+
+    @Test
+    void deleteThrough_ShouldRemoveOnlySealedSegments() throws IOException {
+        try (IntentLog log = new IntentLog(directory)) {
+            // Given
+            log.append("a|1", () -> { });
+            long sealed = log.rotate();
+            log.append("b|2", () -> { });
+
+            // When
+            log.deleteThrough(sealed);
+
+            // Then
+            assertTrue(log.sealedSegments().isEmpty());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.InvertedIndex;
+import util.SearchTokenizer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex(Map.of("name", 2.0, "description", 1.0));
+        index.index(1L, Map.of("name", "Benchy Tugboat", "description", "Classic calibration print in PLA"));
+        index.index(2L, Map.of("name", "Articulated Dragon", "description", "Flexible dragon printed in PETG"));
+        index.index(3L, Map.of("name", "Phone Stand", "description", "Sturdy stand, prints in PETG or PLA"));
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseStripAccentsAndSplitOnPunctuation() {
+        // When
+        List<String> tokens = SearchTokenizer.tokenize("Café-Racer 3D, PLA!");
+
+        // Then
+        assertEquals(List.of("cafe", "racer", "3d", "pla"), tokens);
+    }
+
+    @Test
+    void search_WhenTermMatches_ShouldReturnMatchingDocuments() {
+        // When
+        InvertedIndex.SearchResult result = index.search("dragon", 0, 10);
+
+        // Then
+        assertEquals(1, result.totalHits());
+        assertEquals(2L, result.hits().get(0).docId());
+    }
+
+    @Test
+    void search_WhenTermIsPrefix_ShouldMatchLongerTerms() {
+        // When
+        InvertedIndex.SearchResult result = index.search("drag", 0, 10);
+
+        // Then
+        assertEquals(1, result.totalHits());
+        assertEquals(2L, result.hits().get(0).docId());
+    }
+
+    @Test
+    void search_WhenTermInNameAndDescription_ShouldRankNameMatchHigher() {
+        // Given
+        index.index(4L, Map.of("name", "Stand Mixer Knob", "description", "Replacement knob"));
+        index.index(5L, Map.of("name", "Knob", "description", "Fits the stand of most lamps"));
+
+        // When
+        InvertedIndex.SearchResult result = index.search("stand", 0, 10);
+
+        // Then
+        assertEquals(3, result.totalHits());
+        assertNotEquals(5L, result.hits().get(0).docId());
+        assertEquals(5L, result.hits().get(2).docId());
+    }
+
+    @Test
+    void search_WhenPaginated_ShouldReturnRequestedSlice() {
+        // When
+        InvertedIndex.SearchResult firstPage = index.search("pla petg", 0, 2);
+        InvertedIndex.SearchResult secondPage = index.search("pla petg", 2, 2);
+
+        // Then
+        assertEquals(3, firstPage.totalHits());
+        assertEquals(2, firstPage.hits().size());
+        assertEquals(1, secondPage.hits().size());
+        assertTrue(firstPage.hits().get(1).score() >= secondPage.hits().get(0).score());
+    }
+
+    @Test
+    void search_WhenOffsetPastLastHit_ShouldReturnEmptyPageWithTotal() {
+        // When
+        InvertedIndex.SearchResult result = index.search("pla petg", Integer.MAX_VALUE, 50);
+
+        // Then
+        assertTrue(result.hits().isEmpty());
+        assertEquals(3, result.totalHits());
+    }
+
+    @Test
+    void index_WhenDocumentReplaced_ShouldDropOldTerms() {
+        // When
+        index.index(2L, Map.of("name", "Articulated Snake", "description", "Flexible snake"));
+
+        // Then
+        assertEquals(0, index.search("dragon", 0, 10).totalHits());
+        assertEquals(1, index.search("snake", 0, 10).totalHits());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_ShouldExcludeDocumentFromResults() {
+        // When
+        index.remove(1L);
+
+        // Then
+        assertEquals(0, index.search("benchy", 0, 10).totalHits());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void search_WhenQueryHasNoTerms_ShouldReturnEmptyResult() {
+        // When
+        InvertedIndex.SearchResult result = index.search("  !! ", 0, 10);
+
+        // Then
+        assertEquals(0, result.totalHits());
+        assertTrue(result.hits().isEmpty());
+    }
+}
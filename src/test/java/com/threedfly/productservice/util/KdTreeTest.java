@@ -0,0 +1,65 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import util.KdTree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+
+    @Test
+    void nearest_ShouldMatchBruteForce() {
+        // Given
+        Random random = new Random(42);
+        List<KdTree.Point<Integer>> points = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            points.add(new KdTree.Point<>(randomPoint(random), i));
+        }
+        KdTree<Integer> tree = new KdTree<>(points);
+
+        for (int query = 0; query < 200; query++) {
+            double[] target = randomPoint(random);
+
+            // When
+            List<KdTree.Neighbor<Integer>> nearest = tree.nearest(target, 25, 5);
+
+            // Then
+            List<Integer> expected = points.stream()
+                    .filter(point -> distance(point.coordinates(), target) <= 25)
+                    .sorted(Comparator.comparingDouble(point -> distance(point.coordinates(), target)))
+                    .limit(5)
+                    .map(KdTree.Point::value)
+                    .toList();
+            assertEquals(expected, nearest.stream().map(KdTree.Neighbor::value).toList());
+        }
+    }
+
+    @Test
+    void nearest_WhenNothingWithinRadius_ShouldReturnEmpty() {
+        // Given
+        KdTree<String> tree = new KdTree<>(List.of(new KdTree.Point<>(new double[]{0, 0, 0}, "origin")));
+
+        // When & Then
+        assertTrue(tree.nearest(new double[]{10, 0, 0}, 5, 3).isEmpty());
+        assertEquals(List.of("origin"),
+                tree.nearest(new double[]{3, 0, 0}, 5, 3).stream().map(KdTree.Neighbor::value).toList());
+        assertTrue(new KdTree<String>(List.of()).nearest(new double[]{0, 0, 0}, 5, 3).isEmpty());
+    }
+
+    private static double[] randomPoint(Random random) {
+        return new double[]{random.nextDouble() * 100, random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100};
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,100 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.Test;
+import util.StripedCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedCounterTest {
+
+    @Test
+    void tryAcquire_WhenBudgetCoversAmount_ShouldTakeIt() {
+        // Given
+        StripedCounter counter = new StripedCounter(1_000, 4);
+
+        // When
+        boolean acquired = counter.tryAcquire(300);
+
+        // Then
+        assertTrue(acquired);
+        assertEquals(700, counter.sum());
+    }
+
+    @Test
+    void tryAcquire_WhenAmountSpansStripes_ShouldCollectFromOthers() {
+        // Given
+        StripedCounter counter = new StripedCounter(1_000, 4);
+
+        // When
+        boolean acquired = counter.tryAcquire(1_000);
+
+        // Then
+        assertTrue(acquired);
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void tryAcquire_WhenBudgetTooSmall_ShouldLeaveItUntouched() {
+        // Given
+        StripedCounter counter = new StripedCounter(1_000, 4);
+
+        // When
+        boolean acquired = counter.tryAcquire(1_001);
+
+        // Then
+        assertFalse(acquired);
+        assertEquals(1_000, counter.sum());
+    }
+
+    @Test
+    void release_ShouldMakeAmountAvailableAgain() {
+        // Given
+        StripedCounter counter = new StripedCounter(100, 4);
+        assertTrue(counter.tryAcquire(100));
+
+        // When
+        counter.release(40);
+
+        // Then
+        assertTrue(counter.tryAcquire(40));
+        assertFalse(counter.tryAcquire(1));
+    }
+
+    @Test
+    void tryAcquire_WhenContended_ShouldNeverHandOutMoreThanBudget() throws Exception {
+        // Given
+        StripedCounter counter = new StripedCounter(10_000, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executor.submit(() -> {
+                int acquired = 0;
+                for (int i = 0; i < 5_000; i++) {
+                    if (counter.tryAcquire(3)) {
+                        acquired++;
+                    }
+                }
+                return acquired;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(total * 3L <= 10_000);
+        assertEquals(10_000 - total * 3L, counter.sum());
+    }
+}
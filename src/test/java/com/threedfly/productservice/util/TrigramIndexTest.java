@@ -0,0 +1,109 @@
+package com.threedfly.productservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.InvertedIndex;
+import util.TrigramIndex;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(0.35);
+        index.index(1L, "Acme Filaments Ltd");
+        index.index(2L, "Prusa Polymers");
+        index.index(3L, "Filamentum");
+        index.index(4L, "Polymaker Europe");
+    }
+
+    @Test
+    void search_WhenQueryIsSubstring_ShouldMatchInsideWords() {
+        // When
+        List<Long> ids = ids(index.search("ilam", 0, 10));
+
+        // Then
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    void search_WhenQueryShorterThanTrigram_ShouldStillMatchInsideWords() {
+        // When
+        List<Long> ids = ids(index.search("il", 0, 10));
+
+        // Then
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    void search_WhenQueryHasTypo_ShouldStillMatch() {
+        // When
+        List<Long> ids = ids(index.search("prussa", 0, 10));
+
+        // Then
+        assertEquals(List.of(2L), ids);
+    }
+
+    @Test
+    void search_WhenExactPrefix_ShouldRankAboveFuzzyMatch() {
+        // Given
+        index.index(5L, "Acne Plastics");
+
+        // When
+        List<Long> ids = ids(index.search("acme", 0, 10));
+
+        // Then
+        assertEquals(1L, ids.get(0));
+    }
+
+    @Test
+    void search_WhenNothingSimilar_ShouldReturnEmptyResult() {
+        // When
+        InvertedIndex.SearchResult result = index.search("zzz", 0, 10);
+
+        // Then
+        assertEquals(0, result.totalHits());
+    }
+
+    @Test
+    void search_WhenPaginated_ShouldReportTotalHits() {
+        // When
+        InvertedIndex.SearchResult result = index.search("poly", 1, 1);
+
+        // Then
+        assertEquals(2, result.totalHits());
+        assertEquals(1, result.hits().size());
+    }
+
+    @Test
+    void index_WhenNameChanges_ShouldReplaceOldTrigrams() {
+        // When
+        index.index(2L, "Spool Depot");
+
+        // Then
+        assertTrue(ids(index.search("prusa", 0, 10)).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("depot", 0, 10)));
+    }
+
+    @Test
+    void remove_ShouldExcludeDocument() {
+        // When
+        index.remove(3L);
+
+        // Then
+        assertEquals(List.of(1L), ids(index.search("filament", 0, 10)));
+        assertEquals(3, index.size());
+    }
+
+    private List<Long> ids(InvertedIndex.SearchResult result) {
+        return result.hits().stream().map(InvertedIndex.Hit::docId).collect(Collectors.toList());
+    }
+}